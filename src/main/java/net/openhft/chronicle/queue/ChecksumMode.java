@@ -0,0 +1,13 @@
+package net.openhft.chronicle.queue;
+
+/**
+ * When tailers verify the checksums written with each excerpt, see
+ * {@link net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder#checksums(boolean)}
+ */
+public enum ChecksumMode {
+    OFF,    // The default
+
+    SAMPLE, // one in every chronicle.queue.checksumSampleInterval excerpts read, 64 by default
+
+    ALWAYS  // every excerpt read
+}
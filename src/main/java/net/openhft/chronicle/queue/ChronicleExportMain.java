@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014 Higher Frequency Trading
+ *
+ * http://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.queue.reader.ChronicleExporter;
+import net.openhft.chronicle.queue.reader.ExportFormat;
+import org.apache.commons.cli.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Locale;
+
+import static net.openhft.chronicle.queue.ChronicleReaderMain.addOption;
+
+/**
+ * Export the records in a Chronicle, written with a MethodWriter, to CSV or columnar files with a file per method
+ * and cycle.
+ */
+public class ChronicleExportMain {
+
+    public static void main(@NotNull String[] args) {
+        new ChronicleExportMain().run(args);
+    }
+
+    /**
+     * @return epoch milliseconds or an ISO-8601 instant e.g. 2020-10-19T08:00:00Z
+     */
+    static long parseTime(final String time) {
+        try {
+            return Long.parseLong(time);
+        } catch (NumberFormatException e) {
+            return Instant.parse(time).toEpochMilli();
+        }
+    }
+
+    protected void run(@NotNull String[] args) {
+        final Options options = options();
+        final CommandLine commandLine = parseCommandLine(args, options);
+
+        final ChronicleExporter exporter = new ChronicleExporter();
+
+        configureExporter(exporter, commandLine);
+
+        final long start = System.nanoTime();
+        final long rows = exporter.execute();
+        final long micros = Math.max(1, (System.nanoTime() - start) / 1_000);
+        System.out.println("Exported " + rows + " rows in " + micros / 1_000 + " ms, " + rows * 1_000_000 / micros + " rows/s");
+    }
+
+    protected CommandLine parseCommandLine(final @NotNull String[] args, final Options options) {
+        final CommandLineParser parser = new DefaultParser();
+        CommandLine commandLine = null;
+        try {
+            commandLine = parser.parse(options, args);
+
+            if (commandLine.hasOption('h')) {
+                printHelpAndExit(options, 0);
+            }
+
+            if (!commandLine.hasOption('d') || !commandLine.hasOption('o') || !commandLine.hasOption('r')) {
+                System.out.println("Please specify the directory with -d, the output directory with -o and the interface with -r\n");
+                printHelpAndExit(options, 1);
+            }
+        } catch (ParseException e) {
+            printHelpAndExit(options, 1);
+        }
+
+        return commandLine;
+    }
+
+    protected void printHelpAndExit(final Options options, int status) {
+        final PrintWriter writer = new PrintWriter(System.out);
+        new HelpFormatter().printHelp(
+                writer,
+                180,
+                this.getClass().getSimpleName(),
+                null,
+                options,
+                HelpFormatter.DEFAULT_LEFT_PAD,
+                HelpFormatter.DEFAULT_DESC_PAD,
+                null,
+                true
+        );
+        writer.flush();
+        System.exit(status);
+    }
+
+    protected void configureExporter(final ChronicleExporter exporter, final CommandLine commandLine) {
+        exporter.
+                withBasePath(Paths.get(commandLine.getOptionValue('d'))).
+                withOutputPath(Paths.get(commandLine.getOptionValue('o'))).
+                asMethodReader(commandLine.getOptionValue('r'));
+
+        if (commandLine.hasOption('f')) {
+            exporter.withFormat(ExportFormat.valueOf(commandLine.getOptionValue('f').toUpperCase(Locale.ROOT)));
+        }
+        if (commandLine.hasOption('t')) {
+            exporter.withThreads(Integer.parseInt(commandLine.getOptionValue('t')));
+        }
+        if (commandLine.hasOption('c')) {
+            exporter.withChunkRows(Integer.parseInt(commandLine.getOptionValue('c')));
+        }
+        if (commandLine.hasOption('n')) {
+            exporter.withFromIndex(Long.decode(commandLine.getOptionValue('n')));
+        }
+        if (commandLine.hasOption('x')) {
+            exporter.withToIndex(Long.decode(commandLine.getOptionValue('x')));
+        }
+        if (commandLine.hasOption('a')) {
+            exporter.withFromTime(parseTime(commandLine.getOptionValue('a')));
+        }
+        if (commandLine.hasOption('b')) {
+            exporter.withToTime(parseTime(commandLine.getOptionValue('b')));
+        }
+    }
+
+    @NotNull
+    protected Options options() {
+        final Options options = new Options();
+
+        addOption(options, "d", "directory", true, "Directory containing chronicle queue files", false);
+        addOption(options, "o", "output-directory", true, "Directory to write a file per method and cycle to", false);
+        addOption(options, "r", "interface", true, "The interface the queue was written with by a MethodWriter", false);
+        addOption(options, "f", "format", true, "csv (the default) or columnar", false);
+        addOption(options, "t", "threads", true, "Export this many cycles at once, by default the number of processors", false);
+        addOption(options, "c", "chunk-rows", true, "Buffer this many rows of each method before writing them", false);
+        addOption(options, "n", "from-index", true, "Export from this index (e.g. 0x123ABE)", false);
+        addOption(options, "x", "to-index", true, "Export up to and including this index", false);
+        addOption(options, "a", "from-time", true, "Export from the cycle containing this time, epoch millis or ISO-8601", false);
+        addOption(options, "b", "to-time", true, "Export up to the end of the cycle containing this time", false);
+        addOption(options, "h", "help-message", false, "Print this help and exit", false);
+        return options;
+    }
+}
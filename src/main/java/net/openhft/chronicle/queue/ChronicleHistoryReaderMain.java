@@ -64,6 +64,12 @@ public class ChronicleHistoryReaderMain {
             chronicleHistoryReader.withMeasurementWindow(Long.parseLong(commandLine.getOptionValue('w')));
         if (commandLine.hasOption('u'))
             chronicleHistoryReader.withSummaryOutput(Integer.parseInt(commandLine.getOptionValue('u')));
+        if (commandLine.hasOption('n'))
+            chronicleHistoryReader.withStartIndex(Long.decode(commandLine.getOptionValue('n')));
+        if (commandLine.hasOption('a'))
+            chronicleHistoryReader.withStartTime(ChronicleExportMain.parseTime(commandLine.getOptionValue('a')));
+        if (commandLine.hasOption('j'))
+            chronicleHistoryReader.withThreads(Integer.parseInt(commandLine.getOptionValue('j')));
     }
 
     @NotNull
@@ -113,6 +119,9 @@ public class ChronicleHistoryReaderMain {
         ChronicleReaderMain.addOption(options, "i", "ignore", true, "How many items to ignore from start", false);
         ChronicleReaderMain.addOption(options, "w", "window", true, "Window duration in time unit. Instead of one output at the end, will output every window period", false);
         ChronicleReaderMain.addOption(options, "u", "histo offset", true, "Summary output. Instead of histograms, will show one value only, in CSV format. Set this to 0 for 50th, 1 for 90th etc., -1 for worst", false);
+        ChronicleReaderMain.addOption(options, "n", "from-index", true, "Start reading from this index (e.g. 0x123ABE), before ignoring any items", false);
+        ChronicleReaderMain.addOption(options, "a", "from-time", true, "Start reading from the cycle containing this time, epoch millis or ISO-8601", false);
+        ChronicleReaderMain.addOption(options, "j", "threads", true, "Read the cycles in parallel with this many threads, merging the histograms", false);
         options.addOption(new Option("p", false, "Show progress"));
         options.addOption(new Option("m", false, "By method"));
         return options;
@@ -171,6 +171,19 @@ public interface ChronicleQueue extends Closeable {
         throw new UnsupportedOperationException("not currently supported in this implementation.");
     }
 
+    /**
+     * Creates and returns a new ExcerptLookup for this ChronicleQueue to fetch excerpts by index.
+     * <p>
+     * Unlike tailers, an ExcerptLookup can be shared between threads, which each use one of its tailers at a time.
+     *
+     * @param tailers the number of tailers to keep, the number of lookups which can run at once
+     * @return a new ExcerptLookup for this ChronicleQueue
+     */
+    @NotNull
+    default ExcerptLookup excerptLookup(int tailers) {
+        return new ExcerptLookup(this, tailers);
+    }
+
     /**
      * Returns a ExcerptAppender for this ChronicleQueue that is local to the current Thread.
      * <p>
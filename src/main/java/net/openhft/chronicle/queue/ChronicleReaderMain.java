@@ -18,12 +18,13 @@
 
 package net.openhft.chronicle.queue;
 
+import net.openhft.chronicle.core.io.IORuntimeException;
 import net.openhft.chronicle.queue.reader.ChronicleReader;
 import net.openhft.chronicle.wire.WireType;
 import org.apache.commons.cli.*;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.PrintWriter;
+import java.io.*;
 import java.nio.file.Paths;
 import java.util.function.Consumer;
 
@@ -58,6 +59,19 @@ public class ChronicleReaderMain {
 
         configureReader(chronicleReader, commandLine);
 
+        if (commandLine.hasOption('f')) {
+            // flush what has been read, and save the position of a named tailer, on Ctrl-C
+            final Thread reader = Thread.currentThread();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                chronicleReader.stop();
+                try {
+                    reader.join(5_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "chronicle~reader~stop"));
+        }
+
         chronicleReader.execute();
     }
 
@@ -104,9 +118,7 @@ public class ChronicleReaderMain {
     }
 
     protected void configureReader(final ChronicleReader chronicleReader, final CommandLine commandLine) {
-        final Consumer<String> messageSink = commandLine.hasOption('l') ?
-                s -> System.out.println(s.replaceAll("\n", "")) :
-                System.out::println;
+        final Consumer<String> messageSink = new StandardOutSink(commandLine.hasOption('l'));
         chronicleReader.
                 withMessageSink(messageSink).
                 withBasePath(Paths.get(commandLine.getOptionValue('d')));
@@ -135,6 +147,15 @@ public class ChronicleReaderMain {
         if (commandLine.hasOption('s')) {
             chronicleReader.suppressDisplayIndex();
         }
+        if (commandLine.hasOption('b')) {
+            stream(commandLine.getOptionValues('b')).forEach(chronicleReader::withBinaryMatch);
+        }
+        if (commandLine.hasOption('t')) {
+            chronicleReader.withThreads(Integer.parseInt(commandLine.getOptionValue('t')));
+        }
+        if (commandLine.hasOption('k')) {
+            chronicleReader.withTailerId(commandLine.getOptionValue('k'));
+        }
     }
 
     @NotNull
@@ -151,7 +172,37 @@ public class ChronicleReaderMain {
         addOption(options, "w", "wire-type", true, "Control output i.e. JSON", false);
         addOption(options, "s", "suppress-index", false, "Display index", false);
         addOption(options, "l", "single-line", false, "Squash each output message into a single line", false);
+        addOption(options, "b", "binary-match", true, "Display records containing these bytes, checked before converting to text i.e. text:hello, hex:cafe, field:name or method:12", false);
+        addOption(options, "t", "threads", true, "Search the cycles of the queue with this many threads, displaying records in order", false);
+        addOption(options, "k", "tailer-id", true, "Save the position read up to with a named tailer, and carry on from it when restarted with the same id. Records are delivered at least once, a batch flushed before a crash may be written again", false);
         addOption(options, "h", "help-message", false, "Print this help and exit", false);
         return options;
     }
+
+    /**
+     * Writes each message on a line of standard out, buffered until the reader flushes it after a batch of records.
+     */
+    static final class StandardOutSink implements Consumer<String>, Flushable {
+        private final Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        private final boolean singleLine;
+
+        StandardOutSink(final boolean singleLine) {
+            this.singleLine = singleLine;
+        }
+
+        @Override
+        public void accept(final String message) {
+            try {
+                out.write(singleLine ? message.replace("\n", "") : message);
+                out.write(System.lineSeparator());
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
 }
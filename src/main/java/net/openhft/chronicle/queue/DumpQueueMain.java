@@ -16,26 +16,34 @@
 
 package net.openhft.chronicle.queue;
 
-import net.openhft.chronicle.bytes.Bytes;
-import net.openhft.chronicle.bytes.MappedBytes;
 import net.openhft.chronicle.core.Jvm;
-import net.openhft.chronicle.core.OS;
-import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
-import net.openhft.chronicle.queue.impl.table.SingleTableStore;
-import net.openhft.chronicle.wire.WireDumper;
+import net.openhft.chronicle.queue.impl.single.QueueDumper;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.*;
-import java.nio.ByteBuffer;
-import java.util.Arrays;
 
 import static java.lang.System.err;
 
+/**
+ * Dumps a queue or table store file, or a directory of them, as it walks them with a fixed amount of heap, see
+ * {@link QueueDumper}. It is configured with system properties
+ * <ul>
+ *     <li>file - the file to write the dump to, by default standard output</li>
+ *     <li>skipTableStoreDump - to not dump the table store files in a directory</li>
+ *     <li>dumpUnaligned - if the headers are not padded to 4 byte alignment</li>
+ *     <li>dumpHeadersOnly - to only dump the position, header, length and index of each excerpt</li>
+ *     <li>dumpFromPosition, dumpToPosition - the range of positions to dump in each file</li>
+ *     <li>dumpFromIndex, dumpToIndex - the range of indices to dump e.g. 0x4a0b00000000</li>
+ *     <li>dumpThreads - the number of files to dump at a time</li>
+ *     <li>dumpBlockSize - the size of each part of a file mapped at a time</li>
+ * </ul>
+ */
 public class DumpQueueMain {
     private static final String FILE = System.getProperty("file");
     private static final boolean SKIP_TABLE_STORE = Jvm.getBoolean("skipTableStoreDump");
     private static final boolean UNALIGNED = Jvm.getBoolean("dumpUnaligned");
-    private static final int LENGTH = ", 0".length();
+    private static final boolean HEADERS_ONLY = Jvm.getBoolean("dumpHeadersOnly");
+    private static final int THREADS = Integer.getInteger("dumpThreads", 1);
 
     public static void main(String[] args) throws FileNotFoundException {
         dump(args[0]);
@@ -44,74 +52,37 @@ public class DumpQueueMain {
     public static void dump(@NotNull String path) throws FileNotFoundException {
         File path2 = new File(path);
         PrintStream out = FILE == null ? System.out : new PrintStream(new File(FILE));
-        long upperLimit = Long.MAX_VALUE;
+        long upperLimit = getLong("dumpToPosition", Long.MAX_VALUE);
         dump(path2, out, upperLimit);
     }
 
     public static void dump(@NotNull File path, @NotNull PrintStream out, long upperLimit) {
-        if (path.isDirectory()) {
-            final FilenameFilter filter =
-                    SKIP_TABLE_STORE
-                            ? (d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX)
-                            : (d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX) || n.endsWith(SingleTableStore.SUFFIX);
-            File[] files = path.listFiles(filter);
-            if (files == null) {
-                err.println("Directory not found " + path);
-                System.exit(1);
-            }
-
-            Arrays.sort(files);
-            for (File file : files)
-                dumpFile(file, out, upperLimit);
-
-        } else if (path.getName().endsWith(SingleChronicleQueue.SUFFIX) || path.getName().endsWith(SingleTableStore.SUFFIX)) {
-            dumpFile(path, out, upperLimit);
+        if (path.isDirectory() && path.list() == null) {
+            err.println("Directory not found " + path);
+            System.exit(1);
         }
-    }
-
-    private static void dumpFile(@NotNull File file, @NotNull PrintStream out, long upperLimit) {
-        Bytes<ByteBuffer> buffer = Bytes.elasticByteBuffer();
-        try (MappedBytes bytes = MappedBytes.mappedBytes(file, 4 << 20, OS.pageSize(), !OS.isWindows())) {
-            bytes.readLimit(bytes.realCapacity());
-            StringBuilder sb = new StringBuilder();
-            WireDumper dumper = WireDumper.of(bytes, !UNALIGNED);
-            while (bytes.readRemaining() >= 4) {
-                sb.setLength(0);
-                boolean last = dumper.dumpOne(sb, buffer);
-                if (sb.indexOf("\nindex2index:") != -1 || sb.indexOf("\nindex:") != -1) {
-                    // truncate trailing zeros
-                    if (sb.indexOf(", 0\n]\n") == sb.length() - 6) {
-                        int i = indexOfLastZero(sb);
-                        if (i < sb.length())
-                            sb.setLength(i - 5);
-                        sb.append(" # truncated trailing zeros\n]");
-                    }
-                }
-
-                out.println(sb);
 
-                if (last)
-                    break;
-                if (bytes.readPosition() > upperLimit) {
-                    out.println("# limit reached.");
-                    return;
-                }
-            }
+        final QueueDumper dumper = new QueueDumper(path)
+                .skipTableStore(SKIP_TABLE_STORE)
+                .aligned(!UNALIGNED)
+                .headersOnly(HEADERS_ONLY)
+                .threads(THREADS)
+                .blockSize(getLong("dumpBlockSize", 4 << 20))
+                .fromPosition(getLong("dumpFromPosition", 0))
+                .toPosition(upperLimit)
+                .fromIndex(getLong("dumpFromIndex", Long.MIN_VALUE))
+                .toIndex(getLong("dumpToIndex", Long.MAX_VALUE));
+        // not closed as that would close the stream
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out), 64 << 10);
+        try {
+            dumper.dump(writer);
         } catch (IOException ioe) {
-            err.println("Failed to read " + file + " " + ioe);
-        } finally {
-            buffer.releaseLast();
+            err.println("Failed to dump " + path + " " + ioe);
         }
     }
 
-    private static int indexOfLastZero(@NotNull CharSequence str) {
-        int i = str.length() - 3;
-        do {
-            i -= LENGTH;
-            CharSequence charSequence = str.subSequence(i, i + 3);
-            if (!", 0".contentEquals(charSequence))
-                return i + LENGTH;
-        } while (i > 3);
-        return 0;
+    private static long getLong(String property, long defaultValue) {
+        final String value = System.getProperty(property);
+        return value == null ? defaultValue : Long.decode(value);
     }
 }
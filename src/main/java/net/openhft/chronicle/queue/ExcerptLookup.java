@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesOut;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Fetches excerpts of a queue by index, from any number of threads, with a pool of tailers created up front. Each
+ * tailer keeps the store of the cycle it last read, and its index, mapped, so a lookup only moves a tailer to an index
+ * rather than opening a queue or creating a tailer.
+ * <p>
+ * The tailer used most recently is used next, as it is most likely to have the cycle looked up mapped. A lookup waits
+ * for a tailer if they are all in use. It should be closed once no more lookups are running.
+ */
+public class ExcerptLookup implements Closeable {
+    @NotNull
+    private final ChronicleQueue queue;
+    @NotNull
+    private final ExcerptTailer[] tailers;
+    @NotNull
+    private final BlockingDeque<ExcerptTailer> pool;
+    private volatile boolean closed = false;
+
+    public ExcerptLookup(@NotNull ChronicleQueue queue, int tailers) {
+        if (tailers < 1)
+            throw new IllegalArgumentException("tailers must be at least 1 but was " + tailers);
+        this.queue = queue;
+        this.tailers = new ExcerptTailer[tailers];
+        this.pool = new LinkedBlockingDeque<>(tailers);
+        for (int i = 0; i < tailers; i++) {
+            // used by one thread at a time
+            ExcerptTailer tailer = queue.createTailer().disableThreadSafetyCheck(true);
+            // map the latest cycle, the one most likely to be looked up
+            tailer.toEnd();
+            this.tailers[i] = tailer;
+            pool.add(tailer);
+        }
+    }
+
+    @NotNull
+    public ChronicleQueue queue() {
+        return queue;
+    }
+
+    /**
+     * Appends an excerpt to {@code out}.
+     *
+     * @return false if there is no excerpt at this index
+     */
+    public boolean get(long index, @NotNull BytesOut<?> out) {
+        ExcerptTailer tailer = acquire();
+        try {
+            return read(tailer, index, out);
+        } finally {
+            release(tailer);
+        }
+    }
+
+    /**
+     * Appends the excerpt at each of the {@code indices} to the {@code out} at the same position. The indices are looked
+     * up in order with one tailer, so excerpts near to each other are read together.
+     *
+     * @return the number of excerpts found
+     */
+    public int getBatch(@NotNull long[] indices, @NotNull BytesOut<?>[] out) {
+        if (indices.length != out.length)
+            throw new IllegalArgumentException("There are " + indices.length + " indices but " + out.length + " outputs");
+        Integer[] order = new Integer[indices.length];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(indices[a], indices[b]));
+
+        int found = 0;
+        ExcerptTailer tailer = acquire();
+        try {
+            for (int i : order) {
+                if (read(tailer, indices[i], out[i]))
+                    found++;
+            }
+        } finally {
+            release(tailer);
+        }
+        return found;
+    }
+
+    private static boolean read(@NotNull ExcerptTailer tailer, long index, @NotNull BytesOut<?> out) {
+        // the next excerpt needs no index lookup
+        if (tailer.index() != index && !tailer.moveToIndex(index))
+            return false;
+        try (DocumentContext dc = tailer.readingDocument()) {
+            if (!dc.isPresent() || dc.index() != index)
+                return false;
+            Bytes<?> bytes = dc.wire().bytes();
+            out.write(bytes, bytes.readPosition(), bytes.readRemaining());
+            return true;
+        }
+    }
+
+    @NotNull
+    private ExcerptTailer acquire() {
+        throwExceptionIfClosed();
+        try {
+            return pool.takeFirst();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a tailer of " + queue.fileAbsolutePath(), e);
+        }
+    }
+
+    private void release(@NotNull ExcerptTailer tailer) {
+        pool.offerFirst(tailer);
+    }
+
+    private void throwExceptionIfClosed() {
+        if (closed)
+            throw new IllegalStateException("Closed");
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Closeable.closeQuietly(tailers);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014 Higher Frequency Trading
+ *
+ * http://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.queue.impl.single.QueueCopier;
+import net.openhft.chronicle.wire.WireType;
+import org.apache.commons.cli.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+
+import static net.openhft.chronicle.queue.ChronicleReaderMain.addOption;
+
+/**
+ * Copy a Chronicle to another with a different roll cycle, wire type, block size or index spacing. Running it again
+ * resumes a copy which was interrupted.
+ */
+public class QueueCopyMain {
+
+    public static void main(@NotNull String[] args) throws IOException {
+        new QueueCopyMain().run(args);
+    }
+
+    protected void run(@NotNull String[] args) throws IOException {
+        final Options options = options();
+        final CommandLine commandLine = parseCommandLine(args, options);
+
+        final QueueCopier copier = new QueueCopier(Paths.get(commandLine.getOptionValue('d')), Paths.get(commandLine.getOptionValue('o')));
+
+        configureCopier(copier, commandLine);
+
+        System.out.println("Copied " + copier.copy() + " excerpts");
+    }
+
+    protected CommandLine parseCommandLine(final @NotNull String[] args, final Options options) {
+        final CommandLineParser parser = new DefaultParser();
+        CommandLine commandLine = null;
+        try {
+            commandLine = parser.parse(options, args);
+
+            if (commandLine.hasOption('h')) {
+                printHelpAndExit(options, 0);
+            }
+
+            if (!commandLine.hasOption('d') || !commandLine.hasOption('o')) {
+                System.out.println("Please specify the directory to copy with -d and the directory to copy to with -o\n");
+                printHelpAndExit(options, 1);
+            }
+        } catch (ParseException e) {
+            printHelpAndExit(options, 1);
+        }
+
+        return commandLine;
+    }
+
+    protected void printHelpAndExit(final Options options, int status) {
+        final PrintWriter writer = new PrintWriter(System.out);
+        new HelpFormatter().printHelp(
+                writer,
+                180,
+                this.getClass().getSimpleName(),
+                null,
+                options,
+                HelpFormatter.DEFAULT_LEFT_PAD,
+                HelpFormatter.DEFAULT_DESC_PAD,
+                null,
+                true
+        );
+        writer.flush();
+        System.exit(status);
+    }
+
+    protected void configureCopier(final QueueCopier copier, final CommandLine commandLine) {
+        if (commandLine.hasOption('r')) {
+            copier.rollCycle(RollCycles.valueOf(commandLine.getOptionValue('r')));
+        }
+        if (commandLine.hasOption('w')) {
+            copier.wireType(WireType.valueOf(commandLine.getOptionValue('w')));
+        }
+        if (commandLine.hasOption('b')) {
+            copier.blockSize(Long.decode(commandLine.getOptionValue('b')));
+        }
+        if (commandLine.hasOption('i')) {
+            copier.indexSpacing(Integer.parseInt(commandLine.getOptionValue('i')));
+        }
+        if (commandLine.hasOption('x')) {
+            copier.messageHistory(false);
+        }
+        if (commandLine.hasOption('m')) {
+            copier.indexMap(Paths.get(commandLine.getOptionValue('m')));
+        }
+    }
+
+    @NotNull
+    protected Options options() {
+        final Options options = new Options();
+
+        addOption(options, "d", "directory", true, "Directory containing chronicle queue files to copy", false);
+        addOption(options, "o", "output-directory", true, "Directory to copy to, a copy to it is resumed", false);
+        addOption(options, "r", "roll-cycle", true, "Roll cycle of the copy e.g. DAILY, no shorter than and by default that of the queue copied", false);
+        addOption(options, "w", "wire-type", true, "Wire type of the copy e.g. BINARY_LIGHT, by default that of the queue copied", false);
+        addOption(options, "b", "block-size", true, "Block size of the copy, by default that of the queue copied", false);
+        addOption(options, "i", "index-spacing", true, "Index spacing of the copy, by default the default of its roll cycle", false);
+        addOption(options, "x", "drop-history", false, "Drop the message history recorded by method writers", false);
+        addOption(options, "m", "index-map", true, "File to write the index of each excerpt copied and of its copy to, as pairs of little endian longs", false);
+        addOption(options, "h", "help-message", false, "Print this help and exit", false);
+        return options;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 Higher Frequency Trading
+ *
+ * http://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.queue.impl.single.ExcerptKeys;
+import net.openhft.chronicle.queue.impl.single.QueueMerger;
+import org.apache.commons.cli.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.openhft.chronicle.queue.ChronicleReaderMain.addOption;
+
+/**
+ * Merge Chronicles into one, ordered by a timestamp of each excerpt.
+ */
+public class QueueMergeMain {
+
+    public static void main(@NotNull String[] args) {
+        new QueueMergeMain().run(args);
+    }
+
+    protected void run(@NotNull String[] args) {
+        final Options options = options();
+        final CommandLine commandLine = parseCommandLine(args, options);
+
+        final List<Path> sources = new ArrayList<>();
+        for (String source : commandLine.getOptionValue('d').split(","))
+            sources.add(Paths.get(source.trim()));
+        final QueueMerger merger = new QueueMerger(sources, Paths.get(commandLine.getOptionValue('o')));
+        if (commandLine.hasOption('t'))
+            merger.timestamp(ExcerptKeys.timestamp(commandLine.getOptionValue('t')));
+        if (commandLine.hasOption('r'))
+            merger.rollCycle(RollCycles.valueOf(commandLine.getOptionValue('r')));
+
+        System.out.println("Merged " + merger.merge() + " excerpts");
+    }
+
+    protected CommandLine parseCommandLine(final @NotNull String[] args, final Options options) {
+        final CommandLineParser parser = new DefaultParser();
+        CommandLine commandLine = null;
+        try {
+            commandLine = parser.parse(options, args);
+
+            if (commandLine.hasOption('h')) {
+                printHelpAndExit(options, 0);
+            }
+
+            if (!commandLine.hasOption('d') || !commandLine.hasOption('o')) {
+                System.out.println("Please specify the directories to merge with -d and the directory to merge to with -o\n");
+                printHelpAndExit(options, 1);
+            }
+        } catch (ParseException e) {
+            printHelpAndExit(options, 1);
+        }
+
+        return commandLine;
+    }
+
+    protected void printHelpAndExit(final Options options, int status) {
+        final PrintWriter writer = new PrintWriter(System.out);
+        new HelpFormatter().printHelp(
+                writer,
+                180,
+                this.getClass().getSimpleName(),
+                null,
+                options,
+                HelpFormatter.DEFAULT_LEFT_PAD,
+                HelpFormatter.DEFAULT_DESC_PAD,
+                null,
+                true
+        );
+        writer.flush();
+        System.exit(status);
+    }
+
+    @NotNull
+    protected Options options() {
+        final Options options = new Options();
+
+        addOption(options, "d", "directories", true, "Directories containing chronicle queue files to merge, separated by commas", false);
+        addOption(options, "o", "output-directory", true, "Directory to merge to", false);
+        addOption(options, "t", "timestamp", true, "Timestamp to merge by, history (the default) for the first timing of the message history, " +
+                "field:name for a number in a field of the argument of the method called, or the name of a class implementing ToLongFunction<DocumentContext>", false);
+        addOption(options, "r", "roll-cycle", true, "Roll cycle of the merged queue e.g. LARGE_HOURLY, by default that of the first queue merged", false);
+        addOption(options, "h", "help-message", false, "Print this help and exit", false);
+        return options;
+    }
+}
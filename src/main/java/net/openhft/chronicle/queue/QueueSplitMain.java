@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 Higher Frequency Trading
+ *
+ * http://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.queue.impl.single.ExcerptKeys;
+import net.openhft.chronicle.queue.impl.single.QueueSplitter;
+import org.apache.commons.cli.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.openhft.chronicle.queue.ChronicleReaderMain.addOption;
+
+/**
+ * Split a Chronicle into several by a key of each excerpt, to the sub directories 0, 1, 2 etc. of the output directory.
+ */
+public class QueueSplitMain {
+
+    public static void main(@NotNull String[] args) {
+        new QueueSplitMain().run(args);
+    }
+
+    protected void run(@NotNull String[] args) {
+        final Options options = options();
+        final CommandLine commandLine = parseCommandLine(args, options);
+
+        final int queues = Integer.parseInt(commandLine.getOptionValue('n', "2"));
+        final List<Path> targets = new ArrayList<>();
+        for (int i = 0; i < queues; i++)
+            targets.add(Paths.get(commandLine.getOptionValue('o'), Integer.toString(i)));
+        final QueueSplitter splitter = new QueueSplitter(Paths.get(commandLine.getOptionValue('d')), targets);
+        if (commandLine.hasOption('k'))
+            splitter.key(ExcerptKeys.key(commandLine.getOptionValue('k')));
+
+        final long[] counts = splitter.split();
+        for (int i = 0; i < counts.length; i++)
+            System.out.println(targets.get(i) + ": " + counts[i] + " excerpts");
+    }
+
+    protected CommandLine parseCommandLine(final @NotNull String[] args, final Options options) {
+        final CommandLineParser parser = new DefaultParser();
+        CommandLine commandLine = null;
+        try {
+            commandLine = parser.parse(options, args);
+
+            if (commandLine.hasOption('h')) {
+                printHelpAndExit(options, 0);
+            }
+
+            if (!commandLine.hasOption('d') || !commandLine.hasOption('o')) {
+                System.out.println("Please specify the directory to split with -d and the directory to split to with -o\n");
+                printHelpAndExit(options, 1);
+            }
+        } catch (ParseException e) {
+            printHelpAndExit(options, 1);
+        }
+
+        return commandLine;
+    }
+
+    protected void printHelpAndExit(final Options options, int status) {
+        final PrintWriter writer = new PrintWriter(System.out);
+        new HelpFormatter().printHelp(
+                writer,
+                180,
+                this.getClass().getSimpleName(),
+                null,
+                options,
+                HelpFormatter.DEFAULT_LEFT_PAD,
+                HelpFormatter.DEFAULT_DESC_PAD,
+                null,
+                true
+        );
+        writer.flush();
+        System.exit(status);
+    }
+
+    @NotNull
+    protected Options options() {
+        final Options options = new Options();
+
+        addOption(options, "d", "directory", true, "Directory containing chronicle queue files to split", false);
+        addOption(options, "o", "output-directory", true, "Directory to split to, with a sub directory for each queue", false);
+        addOption(options, "n", "queues", true, "Number of queues to split to, by default 2", false);
+        addOption(options, "k", "key", true, "Key to split by, method (the default) for the method called, field:name for a field of its argument, " +
+                "or the name of a class implementing ToLongFunction<DocumentContext>", false);
+        addOption(options, "h", "help-message", false, "Print this help and exit", false);
+        return options;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 Higher Frequency Trading
+ *
+ * http://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.queue.impl.single.CycleStats;
+import net.openhft.chronicle.queue.impl.single.QueueStats;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.List;
+
+import static net.openhft.chronicle.queue.impl.StoreFileListener.NO_OP;
+
+/**
+ * Display statistics for each cycle of a Chronicle, and their totals, as YAML documents, see {@link CycleStats}.
+ * <p>
+ * Usage: QueueStatsMain directory [-total]
+ */
+public class QueueStatsMain {
+
+    public static void main(@NotNull String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: QueueStatsMain directory [-total]");
+            System.exit(1);
+        }
+        stats(new File(args[0]), System.out, args.length > 1 && "-total".equals(args[1]));
+    }
+
+    /**
+     * @param totalOnly to only display the totals of the cycles
+     */
+    public static void stats(@NotNull File path, @NotNull PrintStream out, boolean totalOnly) {
+        if (!path.isDirectory())
+            throw new IllegalArgumentException("Directory not found " + path);
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(path)
+                .readOnly(true)
+                .storeFileListener(NO_OP)
+                .build()) {
+            final List<CycleStats> cycles = QueueStats.stats(queue);
+            if (!totalOnly) {
+                for (CycleStats stats : cycles) {
+                    out.println("---");
+                    out.println(stats);
+                }
+            }
+            out.println("---");
+            out.println(QueueStats.total(queue, cycles));
+        }
+    }
+}
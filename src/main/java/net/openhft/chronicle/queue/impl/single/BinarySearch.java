@@ -1,15 +1,15 @@
 package net.openhft.chronicle.queue.impl.single;
 
-import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.queue.ExcerptTailer;
 import net.openhft.chronicle.queue.RollCycle;
 import net.openhft.chronicle.wire.DocumentContext;
 import net.openhft.chronicle.wire.Wire;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.text.ParseException;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.NavigableSet;
 
 public enum BinarySearch {
@@ -30,7 +30,54 @@ public enum BinarySearch {
                               @NotNull Comparator<Wire> c) throws ParseException {
         final long readPosition = key.bytes().readPosition();
         try {
-            final ExcerptTailer tailer = q.createTailer();
+            return search(q, wire -> {
+                key.bytes().readPosition(readPosition);
+                return c.compare(wire, key);
+            }, null);
+        } finally {
+            key.bytes().readPosition(readPosition);
+        }
+    }
+
+    /**
+     * Searches a queue sorted by a primitive long key, without deserialising the excerpts.
+     *
+     * @param q         the queue to search
+     * @param key       the key to find
+     * @param extractor reads the key of an excerpt, e.g. {@link KeyExtractor#atOffset(int)}
+     * @return the index if an exact match is found, an approximation in the form of -approximateIndex
+     * or -1 if there was no searching to be done.
+     * @see #search(SingleChronicleQueue, Wire, Comparator)
+     */
+    public static long search(@NotNull SingleChronicleQueue q,
+                              long key,
+                              @NotNull KeyExtractor extractor) throws ParseException {
+        return search(q, key, extractor, null);
+    }
+
+    /**
+     * Searches a queue sorted by a primitive long key, using the minimum and maximum key of each cycle, when known,
+     * to avoid reading cycles which can't hold the key.
+     *
+     * @param q         the queue to search
+     * @param key       the key to find
+     * @param extractor reads the key of an excerpt, e.g. {@link KeyExtractor#atOffset(int)}
+     * @param summary   the known key range of each cycle, or null
+     * @return the index if an exact match is found, an approximation in the form of -approximateIndex
+     * or -1 if there was no searching to be done.
+     */
+    public static long search(@NotNull SingleChronicleQueue q,
+                              long key,
+                              @NotNull KeyExtractor extractor,
+                              @Nullable CycleKeySummary summary) throws ParseException {
+        return search(q, wire -> Long.compare(extractor.key(wire.bytes()), key),
+                summary == null ? null : new KeyRangeProbe(summary, key));
+    }
+
+    private static long search(@NotNull SingleChronicleQueue q,
+                               @NotNull Probe probe,
+                               @Nullable KeyRangeProbe rangeProbe) throws ParseException {
+        try (final ExcerptTailer tailer = q.createTailer()) {
             final long start = tailer.toStart().index();
             final long end = tailer.toEnd().index();
 
@@ -39,49 +86,75 @@ public enum BinarySearch {
             final int endCycle = rollCycle.toCycle(end);
 
             if (startCycle == endCycle)
-                return findWithinCycle(key, c, startCycle, tailer, q, rollCycle);
+                return findWithinCycle(probe, rangeProbe, startCycle, tailer, q, rollCycle);
 
             final NavigableSet<Long> cycles = q.listCyclesBetween(startCycle, endCycle);
-            final int cycle = (int) findCycleLinearSearch(cycles, key, c, tailer, q);
+            final int cycle = (int) findCycleBinarySearch(cycles, probe, rangeProbe, tailer, rollCycle);
 
             if (cycle == -1)
                 return -1;
-            return findWithinCycle(key, c, cycle, tailer, q, rollCycle);
-        } finally {
-            key.bytes().readPosition(readPosition);
+            return findWithinCycle(probe, rangeProbe, cycle, tailer, q, rollCycle);
         }
     }
 
-    private static long findCycleLinearSearch(@NotNull NavigableSet<Long> cycles, Wire key,
-                                              @NotNull Comparator<Wire> c,
+    /**
+     * @return the last cycle whose first excerpt is not after the key, or the first cycle if there is no such cycle.
+     */
+    private static long findCycleBinarySearch(@NotNull NavigableSet<Long> cycleSet,
+                                              @NotNull Probe probe,
+                                              @Nullable KeyRangeProbe rangeProbe,
                                               @NotNull ExcerptTailer tailer,
-                                              @NotNull final ChronicleQueue queue) {
-
-        final Iterator<Long> iterator = cycles.iterator();
-        if (!iterator.hasNext())
+                                              @NotNull RollCycle rollCycle) {
+        if (cycleSet.isEmpty())
             return -1;
-        final RollCycle rollCycle = queue.rollCycle();
-        long prevIndex = iterator.next();
-
-        while (iterator.hasNext()) {
-
-            final Long current = iterator.next();
+        final long[] cycles = cycleSet.stream().mapToLong(i -> i).toArray();
 
-            final boolean b = tailer.moveToIndex(rollCycle.toIndex((int) (long) current, 0));
-            if (!b)
-                return prevIndex;
-
-            try (final DocumentContext dc = tailer.readingDocument()) {
-                final int compare = c.compare(dc.wire(), key);
-                if (compare == 0)
-                    return current;
-                else if (compare > 0)
-                    return prevIndex;
-                prevIndex = current;
+        // the first cycle is the answer unless a later one starts at or before the key.
+        int low = 1;
+        int high = cycles.length - 1;
+        int found = 0;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            // empty cycles have no first excerpt, so probe the next non-empty cycle instead.
+            int probed = mid;
+            int compare = 1;
+            for (; probed <= high; probed++) {
+                compare = compareFirstExcerpt((int) cycles[probed], probe, rangeProbe, tailer, rollCycle);
+                if (compare != Integer.MIN_VALUE)
+                    break;
+            }
+            if (probed > high || compare > 0) {
+                high = mid - 1;
+            } else if (compare == 0) {
+                return cycles[probed];
+            } else {
+                found = probed;
+                low = probed + 1;
             }
         }
+        return cycles[found];
+    }
 
-        return prevIndex;
+    /**
+     * @return the comparison of the first excerpt of the cycle to the key, or {@link Integer#MIN_VALUE} if the cycle is empty.
+     */
+    private static int compareFirstExcerpt(int cycle,
+                                           @NotNull Probe probe,
+                                           @Nullable KeyRangeProbe rangeProbe,
+                                           @NotNull ExcerptTailer tailer,
+                                           @NotNull RollCycle rollCycle) {
+        if (rangeProbe != null) {
+            final int compare = rangeProbe.compareMin(cycle);
+            if (compare != Integer.MIN_VALUE)
+                return compare;
+        }
+        if (!tailer.moveToIndex(rollCycle.toIndex(cycle, 0)))
+            return Integer.MIN_VALUE;
+        try (final DocumentContext dc = tailer.readingDocument()) {
+            if (!dc.isPresent())
+                return Integer.MIN_VALUE;
+            return Integer.signum(probe.compare(dc.wire()));
+        }
     }
 
     /**
@@ -102,44 +175,119 @@ public enum BinarySearch {
                                        @NotNull final RollCycle rollCycle) {
         final long readPosition = key.bytes().readPosition();
         try {
-            long lowSeqNum = 0;
+            return findWithinCycle(wire -> {
+                key.bytes().readPosition(readPosition);
+                return c.compare(wire, key);
+            }, null, cycle, tailer, q, rollCycle);
+        } finally {
+            key.bytes().readPosition(readPosition);
+        }
+    }
 
-            long highSeqNum = q.exceptsPerCycle(cycle) - 1;
-            if (highSeqNum == 0)
-                return rollCycle.toIndex(cycle, 0);
+    private static long findWithinCycle(@NotNull Probe probe,
+                                        @Nullable KeyRangeProbe rangeProbe,
+                                        int cycle,
+                                        @NotNull ExcerptTailer tailer,
+                                        @NotNull SingleChronicleQueue q,
+                                        @NotNull final RollCycle rollCycle) {
+        long lowSeqNum = 0;
 
-            // nothing to search
-            if (highSeqNum < lowSeqNum)
-                return -1;
+        long highSeqNum = q.excerptsInCycle(cycle) - 1;
+        if (highSeqNum == 0)
+            return rollCycle.toIndex(cycle, 0);
+
+        // nothing to search
+        if (highSeqNum < lowSeqNum)
+            return -1;
+
+        // the key is after the last excerpt of the cycle
+        if (rangeProbe != null && rangeProbe.isAfterMax(cycle))
+            return -rollCycle.toIndex(cycle, highSeqNum);
 
-            long midIndex = 0;
+        long midIndex = 0;
 
-            while (lowSeqNum <= highSeqNum) {
-                long midSeqNumber = (lowSeqNum + highSeqNum) >>> 1L;
+        while (lowSeqNum <= highSeqNum) {
+            long midSeqNumber = (lowSeqNum + highSeqNum) >>> 1L;
 
-                midIndex = rollCycle.toIndex(cycle, midSeqNumber);
+            midIndex = rollCycle.toIndex(cycle, midSeqNumber);
 
-                final boolean b = tailer.moveToIndex(midIndex);
-                assert b;
-                try (DocumentContext dc = tailer.readingDocument()) {
-                    if (!dc.isPresent())
-                        return -1;
-                    key.bytes().readPosition(readPosition);
-                    int cmp = c.compare(dc.wire(), key);
+            final boolean b = tailer.moveToIndex(midIndex);
+            assert b;
+            try (DocumentContext dc = tailer.readingDocument()) {
+                if (!dc.isPresent())
+                    return -1;
+                int cmp = probe.compare(dc.wire());
 
-                    if (cmp < 0)
-                        lowSeqNum = midSeqNumber + 1;
-                    else if (cmp > 0)
-                        highSeqNum = midSeqNumber - 1;
-                    else
-                        return midIndex; // key found
-                }
+                if (cmp < 0)
+                    lowSeqNum = midSeqNumber + 1;
+                else if (cmp > 0)
+                    highSeqNum = midSeqNumber - 1;
+                else
+                    return midIndex; // key found
             }
+        }
 
-            return -midIndex;  // -approximateIndex
-        } finally {
-            key.bytes().readPosition(readPosition);
+        return -midIndex;  // -approximateIndex
+    }
+
+    /**
+     * Reads a primitive key from the payload of an excerpt.
+     */
+    @FunctionalInterface
+    public interface KeyExtractor {
+        /**
+         * @param bytes the excerpt, with the readPosition at the start of its payload
+         * @return the key of the excerpt
+         */
+        long key(@NotNull Bytes<?> bytes);
+
+        /**
+         * @param offset of the key from the start of the payload
+         * @return an extractor which reads a long at a fixed offset
+         */
+        @NotNull
+        static KeyExtractor atOffset(int offset) {
+            return bytes -> bytes.readLong(bytes.readPosition() + offset);
         }
     }
 
+    /**
+     * The range of keys in each cycle, e.g. recorded while appending, used to prune the cycles searched.
+     */
+    public interface CycleKeySummary {
+        /**
+         * @return true if the range of keys is known for this cycle
+         */
+        boolean hasRange(int cycle);
+
+        long minKey(int cycle);
+
+        long maxKey(int cycle);
+    }
+
+    @FunctionalInterface
+    private interface Probe {
+        /**
+         * @return the comparison of an excerpt to the key searched for
+         */
+        int compare(@NotNull Wire wire);
+    }
+
+    private static final class KeyRangeProbe {
+        private final CycleKeySummary summary;
+        private final long key;
+
+        KeyRangeProbe(@NotNull CycleKeySummary summary, long key) {
+            this.summary = summary;
+            this.key = key;
+        }
+
+        int compareMin(int cycle) {
+            return summary.hasRange(cycle) ? Long.compare(summary.minKey(cycle), key) : Integer.MIN_VALUE;
+        }
+
+        boolean isAfterMax(int cycle) {
+            return summary.hasRange(cycle) && key > summary.maxKey(cycle);
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.jetbrains.annotations.NotNull;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.stream.Collectors;
+
+/**
+ * Checks every excerpt of a range of cycles against the checksums written by the appender, see
+ * {@link SingleChronicleQueueBuilder#checksums(boolean)}. The cycles are checked in parallel, each by its own tailer.
+ */
+public enum ChecksumVerifier {
+    ;
+
+    /**
+     * @return the indices of the excerpts which don't match their checksum, in order
+     */
+    @NotNull
+    public static List<Long> verify(@NotNull final SingleChronicleQueue queue) {
+        return verify(queue, queue.firstCycle(), queue.lastCycle());
+    }
+
+    /**
+     * @param fromCycle the first cycle to check
+     * @param toCycle   the last cycle to check, inclusive
+     * @return the indices of the excerpts which don't match their checksum, in order
+     */
+    @NotNull
+    public static List<Long> verify(@NotNull final SingleChronicleQueue queue, final int fromCycle, final int toCycle) {
+        final NavigableSet<Long> cycles;
+        try {
+            cycles = queue.listCyclesBetween(fromCycle, toCycle);
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+        return cycles.parallelStream()
+                .flatMap(cycle -> verifyCycle(queue, cycle.intValue()).stream())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @NotNull
+    private static List<Long> verifyCycle(@NotNull final SingleChronicleQueue queue, final int cycle) {
+        final List<Long> mismatches = new ArrayList<>();
+        final RollCycle rollCycle = queue.rollCycle();
+        try (StoreTailer tailer = (StoreTailer) queue.createTailer();
+             CycleChecksums.Reader checksums = queue.checksumReader()) {
+            tailer.checksumMode(ChecksumMode.OFF);
+            if (!tailer.moveToIndex(rollCycle.toIndex(cycle, 0)))
+                return mismatches;
+            while (true) {
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    if (!dc.isPresent())
+                        break;
+                    final long index = dc.index();
+                    if (rollCycle.toCycle(index) != cycle) {
+                        dc.rollbackOnClose();
+                        break;
+                    }
+                    final long expected = checksums.checksum(cycle, rollCycle.toSequenceNumber(index));
+                    if (expected == CycleChecksums.NO_CHECKSUM)
+                        continue;
+                    final Bytes<?> bytes = dc.wire().bytes();
+                    final long start = bytes.readPosition();
+                    final int actual = Crc32c.checksum(bytes, start, bytes.readLimit() - start);
+                    if ((actual & 0xFFFFFFFFL) != expected)
+                        mismatches.add(index);
+                }
+            }
+        }
+        if (!mismatches.isEmpty())
+            Jvm.warn().on(ChecksumVerifier.class, mismatches.size() + " excerpts of cycle " + cycle + " of " +
+                    queue.fileAbsolutePath() + " don't match their checksum");
+        return mismatches;
+    }
+}
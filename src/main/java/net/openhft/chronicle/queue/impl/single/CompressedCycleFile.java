@@ -0,0 +1,270 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses completed cycle files, which are never written again, into independently compressed blocks so a cold
+ * cycle uses a fraction of the disk.
+ * <p>
+ * A compressed cycle {@code yyyyMMdd.cq4z} replaces {@code yyyyMMdd.cq4} and is restored to it, in full, when the queue
+ * acquires the cycle, so tailers, {@code moveToIndex} and {@link BinarySearch} work unchanged. The compressed copy is
+ * kept, so the queue deletes the restored file once it no longer maps it, which leaves the cycle compressed again.
+ * <p>
+ * The format is a header, the file offset of each block and then the blocks, each holding {@link #BLOCK_SIZE} bytes of
+ * the cycle file before compression, so {@link #read(File, long, byte[], int, int)} can read any part of the cycle by
+ * inflating only the blocks which hold it.
+ */
+public enum CompressedCycleFile {
+    ;
+    public static final String SUFFIX = SingleChronicleQueue.SUFFIX + "z";
+    // a power of two, so a block holds a whole number of pages.
+    public static final int BLOCK_SIZE = 256 << 10;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CompressedCycleFile.class);
+    private static final int MAGIC = 0x43513443; // "CQ4C"
+    private static final int VERSION = 1;
+    // magic, version, length, block size, block count
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+
+    /**
+     * @return true if this is the name of a cycle file, compressed or not
+     */
+    static boolean isCycleFileName(@NotNull final String name) {
+        return name.endsWith(SingleChronicleQueue.SUFFIX) || name.endsWith(SUFFIX);
+    }
+
+    /**
+     * @return the cycle file of a compressed cycle file, or the file itself if it is not compressed
+     */
+    @NotNull
+    static File cycleFile(@NotNull final File file) {
+        final String path = file.getPath();
+        return path.endsWith(SUFFIX)
+                ? new File(path.substring(0, path.length() - SUFFIX.length()) + SingleChronicleQueue.SUFFIX)
+                : file;
+    }
+
+    /**
+     * @return the compressed file of a cycle file
+     */
+    @NotNull
+    public static File compressedFile(@NotNull final File cycleFile) {
+        final String path = cycleFile.getPath();
+        return new File(path.substring(0, path.length() - SingleChronicleQueue.SUFFIX.length()) + SUFFIX);
+    }
+
+    /**
+     * Compresses a completed cycle file and then deletes it.
+     *
+     * @param cycleFile to compress
+     * @return the number of bytes saved
+     * @throws IOException if the file can't be compressed, in which case it is left as it is
+     */
+    public static long compress(@NotNull final File cycleFile) throws IOException {
+        final File compressed = compressedFile(cycleFile);
+        final long length = cycleFile.length();
+        if (!compressed.exists() || originalLength(compressed) != length) {
+            final File tmp = new File(compressed.getPath() + ".tmp");
+            try {
+                compress(cycleFile, tmp);
+                Files.move(tmp.toPath(), compressed.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp.toPath());
+            }
+        }
+        final long saved = length - compressed.length();
+        Files.delete(cycleFile.toPath());
+        if (LOG.isDebugEnabled())
+            LOG.debug("Compressed {} saving {} bytes", cycleFile, saved);
+        return saved;
+    }
+
+    private static void compress(@NotNull final File from, @NotNull final File to) throws IOException {
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (RandomAccessFile in = new RandomAccessFile(from, "r");
+             RandomAccessFile out = new RandomAccessFile(to, "rw")) {
+            out.setLength(0);
+            final long length = in.length();
+            final int blocks = Math.toIntExact((length + BLOCK_SIZE - 1) / BLOCK_SIZE);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(length);
+            out.writeInt(BLOCK_SIZE);
+            out.writeInt(blocks);
+            // the offsets are written once the blocks have been
+            final long[] offsets = new long[blocks + 1];
+            long offset = HEADER_SIZE + (long) offsets.length * 8;
+            out.seek(offset);
+
+            final byte[] block = new byte[BLOCK_SIZE];
+            final byte[] buffer = new byte[BLOCK_SIZE + (BLOCK_SIZE >> 4)];
+            for (int i = 0; i < blocks; i++) {
+                final int len = (int) Math.min(BLOCK_SIZE, length - (long) i * BLOCK_SIZE);
+                in.readFully(block, 0, len);
+                deflater.reset();
+                deflater.setInput(block, 0, len);
+                deflater.finish();
+                offsets[i] = offset;
+                while (!deflater.finished()) {
+                    final int n = deflater.deflate(buffer);
+                    out.write(buffer, 0, n);
+                    offset += n;
+                }
+            }
+            offsets[blocks] = offset;
+            out.seek(HEADER_SIZE);
+            for (long o : offsets)
+                out.writeLong(o);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Restores a cycle file from its compressed file, if it has one and the cycle file doesn't exist.
+     *
+     * @param cycleFile to restore
+     * @return true if the cycle file was restored
+     * @throws IOException if the compressed file can't be read
+     */
+    static boolean restoreIfCompressed(@NotNull final File cycleFile) throws IOException {
+        final File compressed = compressedFile(cycleFile);
+        if (cycleFile.exists() || !compressed.exists())
+            return false;
+
+        // restore to a file of our own so concurrent restores don't see a partial file
+        final File tmp = File.createTempFile(cycleFile.getName(), ".tmp", cycleFile.getAbsoluteFile().getParentFile());
+        try {
+            try (RandomAccessFile in = new RandomAccessFile(compressed, "r");
+                 RandomAccessFile out = new RandomAccessFile(tmp, "rw")) {
+                final Header header = readHeader(in, compressed);
+                final byte[] block = new byte[header.blockSize];
+                for (int i = 0; i < header.offsets.length - 1; i++) {
+                    final int len = inflate(in, header, i, block);
+                    out.write(block, 0, len);
+                }
+            }
+            Files.move(tmp.toPath(), cycleFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (cycleFile.exists())
+                // restored by another thread or process
+                return false;
+            throw e;
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+        if (LOG.isDebugEnabled())
+            LOG.debug("Restored {} from {}", cycleFile, compressed);
+        return true;
+    }
+
+    /**
+     * Reads part of a compressed cycle without restoring it, inflating only the blocks holding the bytes requested.
+     *
+     * @param compressed the compressed cycle file
+     * @param position   in the cycle file of the first byte to read
+     * @param to         the buffer to read into
+     * @param offset     in the buffer
+     * @param length     the number of bytes to read
+     * @return the number of bytes read, which is less than length at the end of the cycle
+     * @throws IOException if the compressed file can't be read
+     */
+    public static int read(@NotNull final File compressed,
+                           final long position,
+                           @NotNull final byte[] to,
+                           final int offset,
+                           final int length) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(compressed, "r")) {
+            final Header header = readHeader(in, compressed);
+            final byte[] block = new byte[header.blockSize];
+            int read = 0;
+            while (read < length && position + read < header.length) {
+                final long pos = position + read;
+                final int blockIndex = Math.toIntExact(pos / header.blockSize);
+                final int len = inflate(in, header, blockIndex, block);
+                final int from = (int) (pos - (long) blockIndex * header.blockSize);
+                final int n = Math.min(len - from, length - read);
+                System.arraycopy(block, from, to, offset + read, n);
+                read += n;
+            }
+            return read;
+        }
+    }
+
+    private static long originalLength(@NotNull final File compressed) {
+        try (RandomAccessFile in = new RandomAccessFile(compressed, "r")) {
+            return readHeader(in, compressed).length;
+        } catch (IOException e) {
+            Jvm.debug().on(CompressedCycleFile.class, "Unable to read " + compressed, e);
+            return -1;
+        }
+    }
+
+    @NotNull
+    private static Header readHeader(@NotNull final RandomAccessFile in, @NotNull final File file) throws IOException {
+        if (in.readInt() != MAGIC)
+            throw new StreamCorruptedException("Not a compressed cycle file " + file);
+        final int version = in.readInt();
+        if (version != VERSION)
+            throw new StreamCorruptedException("Unsupported version " + version + " of compressed cycle file " + file);
+        final long length = in.readLong();
+        final int blockSize = in.readInt();
+        final long[] offsets = new long[in.readInt() + 1];
+        for (int i = 0; i < offsets.length; i++)
+            offsets[i] = in.readLong();
+        return new Header(length, blockSize, offsets);
+    }
+
+    private static int inflate(@NotNull final RandomAccessFile in,
+                               @NotNull final Header header,
+                               final int blockIndex,
+                               @NotNull final byte[] block) throws IOException {
+        final byte[] compressed = new byte[Math.toIntExact(header.offsets[blockIndex + 1] - header.offsets[blockIndex])];
+        in.seek(header.offsets[blockIndex]);
+        in.readFully(compressed);
+        final int expected = (int) Math.min(header.blockSize, header.length - (long) blockIndex * header.blockSize);
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int len = 0;
+            while (len < expected && !inflater.finished()) {
+                final int n = inflater.inflate(block, len, expected - len);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                len += n;
+            }
+            if (len != expected)
+                throw new StreamCorruptedException("Block " + blockIndex + " inflated to " + len + " bytes, expected " + expected);
+            return len;
+        } catch (DataFormatException e) {
+            throw new StreamCorruptedException("Block " + blockIndex + " is corrupt, " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class Header {
+        final long length;
+        final int blockSize;
+        final long[] offsets;
+
+        Header(final long length, final int blockSize, final long[] offsets) {
+            this.length = length;
+            this.blockSize = blockSize;
+            this.offsets = offsets;
+        }
+    }
+}
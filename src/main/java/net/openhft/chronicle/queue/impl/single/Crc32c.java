@@ -0,0 +1,187 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+import java.util.zip.Checksum;
+
+import static net.openhft.chronicle.core.UnsafeMemory.UNSAFE;
+
+/**
+ * Computes the CRC32C of part of a {@link Bytes}, with {@code java.util.zip.CRC32C} where it is available, Java 9+,
+ * which is an intrinsic using the CRC32 instructions of the CPU, otherwise with a table driven implementation.
+ * <p>
+ * Direct memory, e.g. a mapped cycle file, is read in place a page at a time, by CRC32C through a direct
+ * {@link ByteBuffer} pointed at it, or by the table driven implementation with Unsafe. Only on heap bytes are copied.
+ */
+enum Crc32c {
+    ;
+    private static final int BUFFER_SIZE = 4 << 10;
+    // direct memory is read a page at a time, which addressForRead can always map contiguously
+    private static final int PAGE_SIZE = OS.pageSize();
+    private static final Supplier<Checksum> FACTORY = factory();
+    // Checksum.update(ByteBuffer), Java 9+
+    @Nullable
+    private static final MethodHandle UPDATE_BUFFER = updateBuffer();
+    private static final long ADDRESS_OFFSET = bufferFieldOffset("address");
+    private static final long CAPACITY_OFFSET = bufferFieldOffset("capacity");
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    @NotNull
+    private static Supplier<Checksum> factory() {
+        try {
+            @SuppressWarnings("unchecked") final Constructor<? extends Checksum> constructor =
+                    (Constructor<? extends Checksum>) Class.forName("java.util.zip.CRC32C").getConstructor();
+            return () -> {
+                try {
+                    return constructor.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new AssertionError(e);
+                }
+            };
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            Jvm.debug().on(Crc32c.class, "java.util.zip.CRC32C is not available, using a table driven CRC32C");
+            return TableCrc32c::new;
+        }
+    }
+
+    @Nullable
+    private static MethodHandle updateBuffer() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Checksum.class, "update",
+                    MethodType.methodType(void.class, ByteBuffer.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static long bufferFieldOffset(@NotNull final String name) {
+        try {
+            return UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField(name));
+        } catch (Exception e) {
+            Jvm.debug().on(Crc32c.class, "Unable to find Buffer." + name + ", direct memory will be copied");
+            return -1;
+        }
+    }
+
+    /**
+     * @return the CRC32C of length bytes from offset
+     */
+    static int checksum(@NotNull final Bytes<?> bytes, final long offset, final long length) {
+        final State state = STATE.get();
+        final Checksum checksum = state.checksum;
+        checksum.reset();
+        if (bytes.isDirectMemory() && state.canReadInPlace()) {
+            for (long done = 0; done < length; ) {
+                final int len = (int) Math.min(PAGE_SIZE, length - done);
+                state.update(bytes.addressForRead(offset + done, len), len);
+                done += len;
+            }
+        } else {
+            final byte[] buffer = state.buffer();
+            for (long done = 0; done < length; ) {
+                final int len = (int) Math.min(buffer.length, length - done);
+                bytes.read(offset + done, buffer, 0, len);
+                checksum.update(buffer, 0, len);
+                done += len;
+            }
+        }
+        return (int) checksum.getValue();
+    }
+
+    private static final class State {
+        final Checksum checksum = FACTORY.get();
+        @Nullable
+        private final ByteBuffer view = checksum instanceof TableCrc32c
+                || UPDATE_BUFFER == null || ADDRESS_OFFSET < 0 || CAPACITY_OFFSET < 0
+                ? null
+                : ByteBuffer.allocateDirect(0);
+        @Nullable
+        private byte[] buffer;
+
+        boolean canReadInPlace() {
+            return view != null || checksum instanceof TableCrc32c;
+        }
+
+        void update(final long address, final int length) {
+            if (view == null) {
+                ((TableCrc32c) checksum).update(address, length);
+                return;
+            }
+            // point the view at the memory, it is only used by this thread and never reads its own allocation
+            UNSAFE.putLong(view, ADDRESS_OFFSET, address);
+            UNSAFE.putInt(view, CAPACITY_OFFSET, length);
+            view.clear();
+            try {
+                UPDATE_BUFFER.invokeExact(checksum, view);
+            } catch (Throwable t) {
+                throw Jvm.rethrow(t);
+            }
+        }
+
+        @NotNull
+        byte[] buffer() {
+            if (buffer == null)
+                buffer = new byte[BUFFER_SIZE];
+            return buffer;
+        }
+    }
+
+    /**
+     * CRC32C, the Castagnoli polynomial, for Java 8.
+     */
+    static final class TableCrc32c implements Checksum {
+        private static final int[] TABLE = new int[256];
+
+        static {
+            for (int i = 0; i < TABLE.length; i++) {
+                int crc = i;
+                for (int j = 0; j < 8; j++)
+                    crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0x82F63B78 : crc >>> 1;
+                TABLE[i] = crc;
+            }
+        }
+
+        private int crc = 0xFFFFFFFF;
+
+        @Override
+        public void update(final int b) {
+            crc = (crc >>> 8) ^ TABLE[(crc ^ b) & 0xFF];
+        }
+
+        @Override
+        public void update(final byte[] b, final int off, final int len) {
+            int crc = this.crc;
+            for (int i = off, end = off + len; i < end; i++)
+                crc = (crc >>> 8) ^ TABLE[(crc ^ b[i]) & 0xFF];
+            this.crc = crc;
+        }
+
+        void update(final long address, final int len) {
+            int crc = this.crc;
+            for (long i = address, end = address + len; i < end; i++)
+                crc = (crc >>> 8) ^ TABLE[(crc ^ UNSAFE.getByte(i)) & 0xFF];
+            this.crc = crc;
+        }
+
+        @Override
+        public long getValue() {
+            return ~crc & 0xFFFFFFFFL;
+        }
+
+        @Override
+        public void reset() {
+            crc = 0xFFFFFFFF;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.io.Closeable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Maintains a bloom filter of the keys of the excerpts in each cycle, so a lookup for a key can skip the cycles which
+ * don't hold it without reading them.
+ * <p>
+ * The filter of a cycle is a memory mapped file next to the cycle file, sized when it is created from the expected
+ * number of excerpts per cycle. Bits are only ever set, with a CAS, so concurrent appenders, including in other
+ * processes, can share a filter. A cycle without a filter, e.g. one written before filters were enabled, might contain
+ * any key.
+ */
+final class CycleBloomFilters extends AbstractCloseable {
+    static final String SUFFIX = ".bloom";
+
+    // the number of bits as a long, then the number of hashes as an int, which is written last so is 0 until the header is complete.
+    private static final int BITS_OFFSET = 0;
+    private static final int HASHES_OFFSET = 8;
+    private static final int HEADER_SIZE = 16;
+    private static final int MAX_OPEN_FILTERS = 8;
+
+    @NotNull
+    private final IntFunction<File> fileForCycle;
+    @Nullable
+    private final BinarySearch.KeyExtractor keyExtractor;
+    private final long bits;
+    private final int hashes;
+    private final boolean readOnly;
+    private final Map<Integer, Filter> filters = new LinkedHashMap<Integer, Filter>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Filter> eldest) {
+            if (size() <= MAX_OPEN_FILTERS)
+                return false;
+            Closeable.closeQuietly(eldest.getValue());
+            return true;
+        }
+    };
+
+    /**
+     * @param fileForCycle             the filter file of a cycle
+     * @param keyExtractor             reads the key of an excerpt appended, or null if this queue doesn't add to the filters
+     * @param expectedExcerptsPerCycle used to size new filters
+     * @param falsePositiveProbability of a new filter, once it holds the expected number of keys
+     * @param readOnly                 if true, filters are only read
+     */
+    CycleBloomFilters(@NotNull final IntFunction<File> fileForCycle,
+                      @Nullable final BinarySearch.KeyExtractor keyExtractor,
+                      final long expectedExcerptsPerCycle,
+                      final double falsePositiveProbability,
+                      final boolean readOnly) {
+        this.fileForCycle = fileForCycle;
+        this.keyExtractor = keyExtractor;
+        this.bits = bitsFor(expectedExcerptsPerCycle, falsePositiveProbability);
+        this.hashes = hashesFor(bits, expectedExcerptsPerCycle);
+        this.readOnly = readOnly;
+    }
+
+    static long bitsFor(final long expectedKeys, final double falsePositiveProbability) {
+        if (expectedKeys <= 0)
+            throw new IllegalArgumentException("expectedExcerptsPerCycle must be positive, was " + expectedKeys);
+        if (!(falsePositiveProbability > 0 && falsePositiveProbability < 1))
+            throw new IllegalArgumentException("falsePositiveProbability must be between 0 and 1, was " + falsePositiveProbability);
+        final double bits = -expectedKeys * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2));
+        // whole longs
+        return Math.max(64, ((long) Math.ceil(bits) + 63) & ~63L);
+    }
+
+    static int hashesFor(final long bits, final long expectedKeys) {
+        return (int) Math.max(1, Math.min(32, Math.round((double) bits / expectedKeys * Math.log(2))));
+    }
+
+    /**
+     * @return true if appended excerpts are added to the filters
+     */
+    boolean isAppending() {
+        return keyExtractor != null && !readOnly;
+    }
+
+    /**
+     * Opens the filter of a cycle to add the keys of appended excerpts to. A writer is used by one appender holding the
+     * write lock, so it isn't synchronized, and is closed by the appender when it moves to another cycle.
+     *
+     * @param cycle of the excerpts to add
+     * @return the writer, or null if appended excerpts aren't added to the filters or the filter can't be opened
+     */
+    @Nullable
+    Writer writer(final int cycle) {
+        throwExceptionIfClosed();
+
+        if (!isAppending())
+            return null;
+        final File file = fileForCycle.apply(cycle);
+        try {
+            return new Writer(Filter.create(file, bits, hashes));
+
+        } catch (IOException e) {
+            // filters are an optimisation, this cycle might contain any key.
+            Jvm.warn().on(getClass(), "Unable to open the bloom filter file=" + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * @param cycle to check
+     * @param key   to look for
+     * @return false if the cycle definitely has no excerpt with this key, true if it might have.
+     */
+    synchronized boolean mightContain(final int cycle, final long key) {
+        throwExceptionIfClosed();
+
+        final Filter filter = filter(cycle);
+        return filter == null || filter.mightContain(key);
+    }
+
+    @Nullable
+    private Filter filter(final int cycle) {
+        final Filter filter = filters.get(cycle);
+        if (filter != null)
+            return filter;
+
+        final File file = fileForCycle.apply(cycle);
+        if (!file.exists())
+            return null;
+        try {
+            final Filter newFilter = readOnly
+                    ? Filter.open(file)
+                    : Filter.create(file, bits, hashes);
+            if (newFilter != null)
+                filters.put(cycle, newFilter);
+            return newFilter;
+
+        } catch (IOException e) {
+            // filters are an optimisation, this cycle might contain any key.
+            Jvm.warn().on(getClass(), "Unable to open the bloom filter file=" + file, e);
+            return null;
+        }
+    }
+
+    @Override
+    protected void performClose() {
+        filters.values().forEach(Closeable::closeQuietly);
+        filters.clear();
+    }
+
+    @Override
+    protected boolean threadSafetyCheck(final boolean isUsed) {
+        // access is synchronized
+        return true;
+    }
+
+    /**
+     * Adds the keys of the excerpts appended to one cycle to its filter.
+     */
+    final class Writer implements java.io.Closeable {
+        @NotNull
+        private final Filter filter;
+
+        private Writer(@NotNull final Filter filter) {
+            this.filter = filter;
+        }
+
+        /**
+         * @param bytes the excerpt, with the readPosition at the start of its payload
+         */
+        void add(@NotNull final Bytes<?> bytes) {
+            filter.add(keyExtractor.key(bytes));
+        }
+
+        @Override
+        public void close() {
+            filter.close();
+        }
+    }
+
+    private static final class Filter extends AbstractCloseable {
+        @NotNull
+        private final MappedBytes bytes;
+        private final long bits;
+        private final int hashes;
+
+        private Filter(@NotNull final MappedBytes bytes, final long bits, final int hashes) {
+            this.bytes = bytes;
+            this.bits = bits;
+            this.hashes = hashes;
+        }
+
+        /**
+         * @return the filter, or null if it has not been initialised yet
+         */
+        @Nullable
+        static Filter open(@NotNull final File file) throws IOException {
+            final MappedBytes bytes = MappedBytes.mappedBytes(file, OS.pageAlign(file.length()), 0, true);
+            final int hashes = bytes.readVolatileInt(HASHES_OFFSET);
+            if (hashes == 0) {
+                bytes.close();
+                return null;
+            }
+            return new Filter(bytes, bytes.readLong(BITS_OFFSET), hashes);
+        }
+
+        @NotNull
+        static Filter create(@NotNull final File file, final long bits, final int hashes) throws IOException {
+            final File dir = file.getParentFile();
+            if (dir != null && !dir.exists())
+                dir.mkdirs();
+            final MappedBytes bytes = MappedBytes.mappedBytes(file, OS.pageAlign(HEADER_SIZE + bits / 8), 0, false);
+            // the size of an existing filter wins
+            if (bytes.readVolatileInt(HASHES_OFFSET) == 0) {
+                bytes.writeLong(BITS_OFFSET, bits);
+                bytes.writeOrderedInt(HASHES_OFFSET, hashes);
+            }
+            return new Filter(bytes, bytes.readLong(BITS_OFFSET), bytes.readVolatileInt(HASHES_OFFSET));
+        }
+
+        void add(final long key) {
+            final long h1 = mix(key);
+            final long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                final long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bits;
+                final long offset = HEADER_SIZE + (bit >>> 6) * 8;
+                final long mask = 1L << bit;
+                for (; ; ) {
+                    final long word = bytes.readVolatileLong(offset);
+                    if ((word & mask) != 0 || bytes.compareAndSwapLong(offset, word, word | mask))
+                        break;
+                }
+            }
+        }
+
+        boolean mightContain(final long key) {
+            final long h1 = mix(key);
+            final long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                final long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bits;
+                if ((bytes.readVolatileLong(HEADER_SIZE + (bit >>> 6) * 8) & (1L << bit)) == 0)
+                    return false;
+            }
+            return true;
+        }
+
+        // the finalizer of SplitMix64
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+
+        @Override
+        protected void performClose() {
+            bytes.close();
+        }
+
+        @Override
+        protected boolean threadSafetyCheck(final boolean isUsed) {
+            // only used holding the lock of CycleBloomFilters, or by the appender of a Writer
+            return true;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.io.Closeable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.IntFunction;
+
+/**
+ * Writes the CRC32C of the payload of each excerpt to a file next to its cycle, so tailers and
+ * {@link ChecksumVerifier} can tell which excerpts have been corrupted, e.g. by faulty storage.
+ * <p>
+ * The excerpt header has no room for a checksum, so the file holds a long for each excerpt of a cycle, at the offset
+ * {@code sequence * 8}, aligned to the excerpt index as the column files of {@link CycleProjections} are. The top half
+ * is {@link #PRESENT} once the checksum is written, as 0 is a valid CRC32C.
+ */
+final class CycleChecksums extends AbstractCloseable {
+    static final String SUFFIX = ".crc";
+    static final long NO_CHECKSUM = -1;
+
+    private static final long PRESENT = 1L << 32;
+    private static final long CHUNK_SIZE = 1 << 20;
+    // how often a reader checks whether a missing checksum has since been added to the file
+    private static final long RECHECK_NANOS = 1_000_000;
+
+    @NotNull
+    private final IntFunction<File> fileForCycle;
+    private final boolean appending;
+
+    /**
+     * @param fileForCycle the checksum file of a cycle
+     * @param appending    if true, the checksums of appended excerpts are written
+     */
+    CycleChecksums(@NotNull final IntFunction<File> fileForCycle, final boolean appending) {
+        this.fileForCycle = fileForCycle;
+        this.appending = appending;
+    }
+
+    boolean isAppending() {
+        return appending;
+    }
+
+    /**
+     * Opens the checksums of a cycle to write the checksums of appended excerpts to. A writer is used by one appender
+     * holding the write lock, so it isn't synchronized, and is closed by the appender when it moves to another cycle.
+     *
+     * @param cycle of the excerpts to write
+     * @return the writer, or null if checksums aren't written or the file can't be opened
+     */
+    @Nullable
+    Writer writer(final int cycle) {
+        throwExceptionIfClosed();
+
+        if (!appending)
+            return null;
+        final MappedBytes bytes = open(cycle, false);
+        return bytes == null ? null : new Writer(bytes);
+    }
+
+    @Nullable
+    private MappedBytes open(final int cycle, final boolean readOnly) {
+        final File file = fileForCycle.apply(cycle);
+        if (readOnly && !file.exists())
+            return null;
+        try {
+            return readOnly
+                    ? MappedBytes.readOnly(file)
+                    : MappedBytes.mappedBytes(file, CHUNK_SIZE);
+        } catch (IOException e) {
+            // checksums are optional, the excerpts are not checked
+            Jvm.warn().on(getClass(), "Unable to open the checksums of cycle " + cycle, e);
+            return null;
+        }
+    }
+
+    @NotNull
+    Reader reader() {
+        return new Reader();
+    }
+
+    @Override
+    protected void performClose() {
+        // writers and readers are closed by their users
+    }
+
+    @Override
+    protected boolean threadSafetyCheck(final boolean isUsed) {
+        // holds no state of its own, writers and readers are each used by one thread
+        return true;
+    }
+
+    /**
+     * Writes the checksums of the excerpts appended to one cycle.
+     */
+    static final class Writer implements java.io.Closeable {
+        @NotNull
+        private final MappedBytes bytes;
+
+        private Writer(@NotNull final MappedBytes bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * @param sequence of the excerpt in its cycle
+         * @param checksum the CRC32C of its payload
+         */
+        void add(final long sequence, final int checksum) {
+            bytes.writeOrderedLong(sequence * Long.BYTES, PRESENT | (checksum & 0xFFFFFFFFL));
+        }
+
+        @Override
+        public void close() {
+            Closeable.closeQuietly(bytes);
+        }
+    }
+
+    /**
+     * Reads the checksums of one cycle at a time, for a single thread.
+     */
+    final class Reader implements java.io.Closeable {
+        private int cycle = Integer.MIN_VALUE;
+        @Nullable
+        private MappedBytes bytes;
+        private long length;
+        private long lastRecheck = Long.MIN_VALUE;
+
+        /**
+         * @return the checksum of an excerpt, or {@link #NO_CHECKSUM} if it has none
+         */
+        long checksum(final int cycle, final long sequence) {
+            if (cycle != this.cycle)
+                open(cycle);
+            final long offset = sequence * Long.BYTES;
+            if (offset + Long.BYTES > length) {
+                // not written when the file was opened, reopen it if it has grown since, checking the file at most
+                // once every RECHECK_NANOS as the cycle may have no checksums at all
+                final long now = System.nanoTime();
+                if (now - lastRecheck < RECHECK_NANOS)
+                    return NO_CHECKSUM;
+                lastRecheck = now;
+                if (fileForCycle.apply(cycle).length() <= length)
+                    return NO_CHECKSUM;
+                open(cycle);
+                if (offset + Long.BYTES > length)
+                    return NO_CHECKSUM;
+            }
+            final long value = bytes.readVolatileLong(offset);
+            return (value & PRESENT) == 0 ? NO_CHECKSUM : value & 0xFFFFFFFFL;
+        }
+
+        private void open(final int cycle) {
+            close();
+            bytes = CycleChecksums.this.open(cycle, true);
+            length = bytes == null ? 0 : bytes.realCapacity();
+            this.cycle = cycle;
+        }
+
+        @Override
+        public void close() {
+            Closeable.closeQuietly(bytes);
+            bytes = null;
+            cycle = Integer.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.values.LongValue;
+import net.openhft.chronicle.queue.impl.TableStore;
+import net.openhft.chronicle.queue.impl.table.Metadata;
+import net.openhft.chronicle.queue.impl.table.SingleTableBuilder;
+import net.openhft.chronicle.queue.impl.table.SingleTableStore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records the number of excerpts in each completed cycle, so counting over a range of cycles doesn't need to map
+ * every cycle file.
+ * <p>
+ * A count is written once, when the EOF marker of a cycle is written, to a table store kept next to the queue files.
+ * Completed cycles never change, so the counts are cached in memory as prefix sums and only reloaded when a lookup
+ * misses, for example when another process has completed a cycle since the last load.
+ */
+final class CycleExcerptCounts extends AbstractCloseable {
+    static final String FILE_NAME = "cycle-counts" + SingleTableStore.SUFFIX;
+
+    private static final int[] NO_CYCLES = {};
+    private static final long[] NO_COUNTS = {};
+
+    @NotNull
+    private final File file;
+    private final boolean readOnly;
+    @Nullable
+    private TableStore<Metadata.NoMeta> tableStore;
+    private boolean unavailable;
+    // sorted cycles, and the cumulative count up to and including each cycle
+    private int[] cycles = NO_CYCLES;
+    private long[] cumulative = NO_COUNTS;
+
+    CycleExcerptCounts(@NotNull final File file, final boolean readOnly) {
+        this.file = file;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Records the number of excerpts in a cycle which has just been completed i.e. had its EOF written.
+     *
+     * @param cycle the completed cycle
+     * @param count the number of excerpts in the cycle
+     */
+    synchronized void cycleCompleted(final int cycle, final long count) {
+        throwExceptionIfClosed();
+
+        if (readOnly || count < 0 || count(cycle) == count)
+            return;
+
+        final TableStore<Metadata.NoMeta> ts = tableStore(true);
+        if (ts == null)
+            return;
+
+        final String key = Integer.toString(cycle);
+        ts.doWithExclusiveLock(t -> {
+            final LongValue value = t.acquireValueFor(key, count);
+            try {
+                value.setOrderedValue(count);
+            } finally {
+                Closeable.closeQuietly(value);
+            }
+            return null;
+        });
+        final TreeMap<Integer, Long> counts = toMap();
+        counts.put(cycle, count);
+        fromMap(counts);
+    }
+
+    /**
+     * @param cycle to look up
+     * @return the recorded number of excerpts in the cycle, or -1 if it hasn't been recorded.
+     */
+    synchronized long count(final int cycle) {
+        final int i = Arrays.binarySearch(cycles, cycle);
+        if (i < 0)
+            return -1;
+        return i == 0 ? cumulative[0] : cumulative[i] - cumulative[i - 1];
+    }
+
+    /**
+     * Sums the excerpt counts of {@code cycles[from]} to {@code cycles[to - 1]}, reloading the recorded counts once if
+     * any of them are missing.
+     *
+     * @param sortedCycles the cycles which exist, in ascending order
+     * @param from         the first element to include
+     * @param to           the element after the last to include
+     * @return the total number of excerpts, or -1 if one or more of the cycles has not been recorded.
+     */
+    synchronized long sumOfCounts(final long[] sortedCycles, final int from, final int to) {
+        throwExceptionIfClosed();
+
+        if (from >= to)
+            return 0;
+        long sum = sumOfCounts0(sortedCycles, from, to);
+        if (sum < 0 && reload())
+            sum = sumOfCounts0(sortedCycles, from, to);
+        return sum;
+    }
+
+    private long sumOfCounts0(final long[] sortedCycles, final int from, final int to) {
+        final int first = Arrays.binarySearch(cycles, Math.toIntExact(sortedCycles[from]));
+        if (first < 0)
+            return -1;
+        final int last = first + (to - from) - 1;
+        if (last >= cycles.length)
+            return -1;
+        // the cycles requested must be a contiguous run of the recorded cycles for the prefix sum to apply.
+        for (int i = from, j = first; i < to; i++, j++)
+            if (cycles[j] != sortedCycles[i])
+                return -1;
+        return first == 0 ? cumulative[last] : cumulative[last] - cumulative[first - 1];
+    }
+
+    private boolean reload() {
+        final TableStore<Metadata.NoMeta> ts = tableStore(false);
+        if (ts == null)
+            return false;
+        final TreeMap<Integer, Long> counts = new TreeMap<>();
+        ts.forEachKey(counts, (map, key, value) -> {
+            final long count = value.int64();
+            if (count >= 0)
+                try {
+                    map.put(Integer.parseInt(key.toString()), count);
+                } catch (NumberFormatException ignored) {
+                    // not a cycle count
+                }
+        });
+        if (counts.size() == cycles.length)
+            return false;
+        fromMap(counts);
+        return true;
+    }
+
+    @NotNull
+    private TreeMap<Integer, Long> toMap() {
+        final TreeMap<Integer, Long> map = new TreeMap<>();
+        for (int i = 0; i < cycles.length; i++)
+            map.put(cycles[i], i == 0 ? cumulative[0] : cumulative[i] - cumulative[i - 1]);
+        return map;
+    }
+
+    private void fromMap(@NotNull final TreeMap<Integer, Long> counts) {
+        final int[] newCycles = new int[counts.size()];
+        final long[] newCumulative = new long[counts.size()];
+        int i = 0;
+        long total = 0;
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            total += entry.getValue();
+            newCycles[i] = entry.getKey();
+            newCumulative[i++] = total;
+        }
+        cycles = newCycles;
+        cumulative = newCumulative;
+    }
+
+    @Nullable
+    private TableStore<Metadata.NoMeta> tableStore(final boolean create) {
+        if (tableStore != null || unavailable)
+            return tableStore;
+        if (!file.exists() && (readOnly || !create))
+            return null;
+        try {
+            tableStore = SingleTableBuilder.binary(file, Metadata.NoMeta.INSTANCE).readOnly(readOnly).build();
+        } catch (Exception e) {
+            // counts are an optimisation, fall back to scanning the cycles.
+            Jvm.warn().on(getClass(), "Unable to open the cycle counts file=" + file, e);
+            unavailable = true;
+        }
+        return tableStore;
+    }
+
+    @Override
+    protected void performClose() {
+        Closeable.closeQuietly(tableStore);
+    }
+
+    @Override
+    protected boolean threadSafetyCheck(final boolean isUsed) {
+        // access is synchronized
+        return true;
+    }
+}
@@ -0,0 +1,73 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import com.sun.jna.Function;
+import com.sun.jna.NativeLibrary;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+
+/**
+ * Allocates the blocks of a cycle file ahead of the appender with {@code fallocate(2)}, so the file system doesn't
+ * allocate extents when the appender first writes to them. The space the cycle doesn't use is released when the file is
+ * shrunk at the roll, see {@link QueueFileShrinkManager}.
+ * <p>
+ * This is only supported on Linux with JNA on the class path, elsewhere nothing is allocated.
+ */
+enum CycleFilePreallocator {
+    ;
+    private static final Logger LOG = LoggerFactory.getLogger(CycleFilePreallocator.class);
+
+    private static volatile boolean supported = OS.isLinux();
+
+    static boolean isSupported() {
+        return supported;
+    }
+
+    /**
+     * Allocates a range of a cycle file, extending it if needed. The contents of the file are not changed.
+     *
+     * @return true if the range was allocated
+     */
+    static boolean preallocate(@NotNull final File cycleFile, final long offset, final long length) {
+        if (!supported || length <= 0)
+            return false;
+        if (!cycleFile.exists())
+            // deleted or shrunk and compressed
+            return false;
+        try (RandomAccessFile raf = new RandomAccessFile(cycleFile, "rw")) {
+            final int fd = Libc.FD.getInt(raf.getFD());
+            // mode 0 allocates the range and extends the file if needed
+            final int ret = Libc.FALLOCATE.invokeInt(new Object[]{fd, 0, offset, length});
+            if (ret != 0) {
+                LOG.debug("fallocate of {} bytes of {} at {} failed", length, cycleFile, offset);
+                return false;
+            }
+            if (LOG.isDebugEnabled())
+                LOG.debug("Preallocated {} bytes of {} at {}", length, cycleFile, offset);
+            return true;
+
+        } catch (IOException e) {
+            LOG.debug("Unable to preallocate " + cycleFile, e);
+            return false;
+
+        } catch (Throwable t) {
+            supported = false;
+            Jvm.warn().on(CycleFilePreallocator.class, "fallocate is not available, cycle files will not be preallocated", t);
+            return false;
+        }
+    }
+
+    // only loads JNA if files are preallocated
+    private static final class Libc {
+        static final Function FALLOCATE = NativeLibrary.getInstance("c").getFunction("fallocate");
+        static final Field FD = Jvm.getField(FileDescriptor.class, "fd");
+    }
+}
@@ -0,0 +1,90 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.NavigableMap;
+
+/**
+ * Keeps a queue to a fixed number of cycle files, like a ring buffer. Once a new cycle is created, the file of the oldest
+ * cycle is cleared and renamed as the pre-created file of the next cycle, see {@link PrecreatedFiles}, so rolling
+ * doesn't create files and a queue used for IPC on tmpfs uses a bounded amount of memory.
+ * <p>
+ * A cycle is not recycled while a named tailer has yet to read it, or a tailer in this process is reading it, so slow
+ * readers are not overrun. The queue holds more cycles until they catch up. Tailers in other processes are only
+ * protected if they are named, which the queue warns about when it is built.
+ */
+final class CycleFileRecycler {
+    private static final long WARN_INTERVAL_MS = 60_000;
+
+    @NotNull
+    private final SingleChronicleQueue queue;
+    private final int ringCycles;
+    private long recycled = 0;
+    private long lastWarning = 0;
+
+    CycleFileRecycler(@NotNull final SingleChronicleQueue queue, final int ringCycles) {
+        this.queue = queue;
+        this.ringCycles = ringCycles;
+    }
+
+    /**
+     * Called once a cycle has been created, to prepare a file for the cycle after it in the background.
+     */
+    void onCycleCreated(final int cycle) {
+        QueueFileShrinkManager.scheduleRecycling(() -> recycle(cycle));
+    }
+
+    synchronized void recycle(final int cycle) {
+        if (queue.isClosing())
+            return;
+        try {
+            final File nextFile = queue.cycleFile(cycle + 1);
+            final File preCreatedFile = PrecreatedFiles.preCreatedFile(nextFile);
+            if (nextFile.exists() || preCreatedFile.exists())
+                return;
+
+            // a file recycled for a cycle which was skipped
+            final File[] spareFiles = PrecreatedFiles.listPreCreatedFiles(preCreatedFile.getParentFile(), queue::isCycleName);
+            if (spareFiles.length > 0) {
+                if (!spareFiles[0].renameTo(preCreatedFile))
+                    Jvm.warn().on(CycleFileRecycler.class, "Unable to rename " + spareFiles[0] + " to " + preCreatedFile);
+                return;
+            }
+
+            final NavigableMap<Integer, Long> cycles = queue.cycleFileSizes();
+            if (cycles.size() <= ringCycles)
+                return;
+            final int oldest = cycles.firstKey();
+            if (oldest >= cycle)
+                return;
+            if (oldest >= queue.firstCycleOfNamedTailers() || queue.isCycleInUse(oldest)) {
+                warnReaderBehind(oldest, cycles.size());
+                return;
+            }
+            if (queue.recycleCycle(oldest, preCreatedFile))
+                recycled++;
+
+        } catch (Exception e) {
+            if (!queue.isClosing())
+                Jvm.warn().on(CycleFileRecycler.class, "Unable to recycle a cycle of " + queue.fileAbsolutePath(), e);
+        }
+    }
+
+    private void warnReaderBehind(final int oldest, final int cycles) {
+        final long now = System.currentTimeMillis();
+        if (now < lastWarning + WARN_INTERVAL_MS)
+            return;
+        lastWarning = now;
+        Jvm.warn().on(CycleFileRecycler.class, "Not recycling cycle " + oldest + " of " + queue.fileAbsolutePath() +
+                " as a tailer is still reading it, the queue holds " + cycles + " cycles rather than " + ringCycles);
+    }
+
+    /**
+     * @return the number of cycle files recycled
+     */
+    synchronized long recycled() {
+        return recycled;
+    }
+}
@@ -0,0 +1,170 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.io.Closeable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Writes selected primitive fields of the excerpts in each cycle to column files, so an analytic scan of a few fields
+ * reads 8 bytes per excerpt per field rather than every excerpt.
+ * <p>
+ * A column file holds a long for each excerpt of a cycle, at the offset {@code sequence * 8}, so it is aligned to the
+ * excerpt index. Appenders write the columns as they append, or a completed cycle can be projected afterwards. The queue
+ * remains the system of record, the column files can be deleted and rewritten at any time.
+ */
+final class CycleProjections extends AbstractCloseable {
+    static final String SUFFIX = ".col";
+
+    private static final Pattern COLUMN_NAME = Pattern.compile("[A-Za-z0-9_\\-]+");
+    private static final long CHUNK_SIZE = 1 << 20;
+
+    @NotNull
+    private final BiFunction<Integer, String, File> fileForColumn;
+    @NotNull
+    private final Map<String, BinarySearch.KeyExtractor> columns;
+    private final boolean readOnly;
+
+    /**
+     * @param fileForColumn the column file of a cycle
+     * @param columns       the name and extractor of each column to write, or empty if this queue doesn't write columns
+     * @param readOnly      if true, columns are only read
+     */
+    CycleProjections(@NotNull final BiFunction<Integer, String, File> fileForColumn,
+                     @NotNull final Map<String, BinarySearch.KeyExtractor> columns,
+                     final boolean readOnly) {
+        columns.keySet().forEach(CycleProjections::checkColumnName);
+        this.fileForColumn = fileForColumn;
+        this.columns = new LinkedHashMap<>(columns);
+        this.readOnly = readOnly;
+    }
+
+    static void checkColumnName(@NotNull final String column) {
+        if (!COLUMN_NAME.matcher(column).matches())
+            throw new IllegalArgumentException("A column name can only contain letters, digits, '_' and '-', was " + column);
+    }
+
+    /**
+     * @return true if appended excerpts are written to the columns
+     */
+    boolean isAppending() {
+        return !columns.isEmpty() && !readOnly;
+    }
+
+    @NotNull
+    Set<String> columns() {
+        return Collections.unmodifiableSet(columns.keySet());
+    }
+
+    /**
+     * Opens the columns of a cycle to write the fields of its excerpts to. A writer is used by one appender holding the
+     * write lock, or by {@link SingleChronicleQueue#writeProjections(int)}, so it isn't synchronized.
+     *
+     * @param cycle of the excerpts to write
+     * @return the writer, or null if no columns are written or they can't be opened
+     */
+    @Nullable
+    Writer writer(final int cycle) {
+        throwExceptionIfClosed();
+
+        if (!isAppending())
+            return null;
+        final MappedBytes[] columnBytes = new MappedBytes[columns.size()];
+        int i = 0;
+        try {
+            for (String column : columns.keySet()) {
+                final File file = fileForColumn.apply(cycle, column);
+                final File dir = file.getParentFile();
+                if (dir != null && !dir.exists())
+                    dir.mkdirs();
+                columnBytes[i++] = MappedBytes.mappedBytes(file, CHUNK_SIZE);
+            }
+        } catch (IOException e) {
+            // columns can be projected again from the queue.
+            Jvm.warn().on(getClass(), "Unable to open the columns of cycle " + cycle, e);
+            Closeable.closeQuietly(columnBytes);
+            return null;
+        }
+        return new Writer(columns.values().toArray(new BinarySearch.KeyExtractor[0]), columnBytes);
+    }
+
+    /**
+     * Maps a column of a cycle read only.
+     *
+     * @param cycle  of the column
+     * @param column name
+     * @param length the number of excerpts in the cycle
+     * @return the values of the column in excerpt order, or null if the cycle has no such column
+     */
+    @Nullable
+    LongBuffer column(final int cycle, @NotNull final String column, final long length) throws IOException {
+        checkColumnName(column);
+        final File file = fileForColumn.apply(cycle, column);
+        if (!file.exists())
+            return null;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            final long size = Math.min(channel.size(), length * Long.BYTES);
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalStateException("Column " + column + " of cycle " + cycle + " is too large to map as a LongBuffer");
+            // the mapping remains valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+                    .order(ByteOrder.nativeOrder())
+                    .asLongBuffer();
+        }
+    }
+
+    @Override
+    protected void performClose() {
+        // writers are closed by their users
+    }
+
+    @Override
+    protected boolean threadSafetyCheck(final boolean isUsed) {
+        // holds no state of its own, each writer is used by one thread
+        return true;
+    }
+
+    /**
+     * Writes the fields of the excerpts of one cycle to its columns.
+     */
+    static final class Writer implements java.io.Closeable {
+        @NotNull
+        private final BinarySearch.KeyExtractor[] extractors;
+        @NotNull
+        private final MappedBytes[] columnBytes;
+
+        private Writer(@NotNull final BinarySearch.KeyExtractor[] extractors, @NotNull final MappedBytes[] columnBytes) {
+            this.extractors = extractors;
+            this.columnBytes = columnBytes;
+        }
+
+        /**
+         * @param sequence of the excerpt in its cycle
+         * @param bytes    the excerpt, with the readPosition at the start of its payload
+         */
+        void add(final long sequence, @NotNull final Bytes<?> bytes) {
+            final long offset = sequence * Long.BYTES;
+            for (int i = 0; i < extractors.length; i++)
+                columnBytes[i].writeOrderedLong(offset, extractors[i].key(bytes));
+        }
+
+        @Override
+        public void close() {
+            Closeable.closeQuietly(columnBytes);
+        }
+    }
+}
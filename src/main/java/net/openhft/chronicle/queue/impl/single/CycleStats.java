@@ -0,0 +1,148 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.wire.SelfDescribingMarshallable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * What is in a cycle of a queue and how it was written, see {@link QueueStats}. It is written as YAML by
+ * {@link #toString()}, so it can be read back for capacity planning.
+ */
+public final class CycleStats extends SelfDescribingMarshallable {
+    // the cycle, or -1 for the totals of a queue
+    int cycle;
+    String file;
+    // whether the cycle may still be written to
+    boolean current;
+    long fileSize;
+    // up to and including the end of file marker, the rest is released when a completed cycle is shrunk
+    // zero for the current cycle, which is not shrunk until it rolls
+    long usedBytes;
+    long reclaimableBytes;
+    long dataMessages;
+    long dataBytes;
+    // including the header of the file and the indexes
+    long metadataMessages;
+    long metadataBytes;
+    double metadataRatio;
+    // to align each header to 4 bytes
+    long paddingBytes;
+    long minMessageSize;
+    long maxMessageSize;
+    double averageMessageSize;
+    // the number of messages of up to each size, in powers of 2
+    Map<Long, Long> messageSizes = new TreeMap<>();
+    // over the length of the cycle, or so far for the current cycle
+    double messagesPerSecond;
+    // the rates below use the first timing of the message history, so need messages written with recordHistory(true)
+    double activeMessagesPerSecond;
+    long peakMessagesPerSecond;
+    long peakMessagesPerMilli;
+    Map<String, Long> methods = new TreeMap<>();
+    int indexSpacing;
+    long indexEntries;
+    // the bytes scanned after an index entry to find an excerpt
+    long averageBytesPerIndexEntry;
+    long maxBytesPerIndexEntry;
+
+    public int cycle() {
+        return cycle;
+    }
+
+    public long dataMessages() {
+        return dataMessages;
+    }
+
+    public long dataBytes() {
+        return dataBytes;
+    }
+
+    public long metadataBytes() {
+        return metadataBytes;
+    }
+
+    public long paddingBytes() {
+        return paddingBytes;
+    }
+
+    public long usedBytes() {
+        return usedBytes;
+    }
+
+    public long reclaimableBytes() {
+        return reclaimableBytes;
+    }
+
+    @NotNull
+    public Map<Long, Long> messageSizes() {
+        return messageSizes;
+    }
+
+    @NotNull
+    public Map<String, Long> methods() {
+        return methods;
+    }
+
+    public long indexEntries() {
+        return indexEntries;
+    }
+
+    public long peakMessagesPerSecond() {
+        return peakMessagesPerSecond;
+    }
+
+    /**
+     * @return the totals of the cycles of a queue
+     */
+    @NotNull
+    static CycleStats total(@NotNull final String directory, @NotNull final Iterable<CycleStats> cycles) {
+        final CycleStats total = new CycleStats();
+        total.cycle = -1;
+        total.file = directory;
+        total.minMessageSize = Long.MAX_VALUE;
+        double seconds = 0;
+        long indexBytes = 0;
+        for (CycleStats stats : cycles) {
+            total.current |= stats.current;
+            total.fileSize += stats.fileSize;
+            total.usedBytes += stats.usedBytes;
+            total.reclaimableBytes += stats.reclaimableBytes;
+            total.dataMessages += stats.dataMessages;
+            total.dataBytes += stats.dataBytes;
+            total.metadataMessages += stats.metadataMessages;
+            total.metadataBytes += stats.metadataBytes;
+            total.paddingBytes += stats.paddingBytes;
+            if (stats.dataMessages > 0)
+                total.minMessageSize = Math.min(total.minMessageSize, stats.minMessageSize);
+            total.maxMessageSize = Math.max(total.maxMessageSize, stats.maxMessageSize);
+            stats.messageSizes.forEach((size, count) -> total.messageSizes.merge(size, count, Long::sum));
+            if (stats.messagesPerSecond > 0)
+                seconds += stats.dataMessages / stats.messagesPerSecond;
+            total.peakMessagesPerSecond = Math.max(total.peakMessagesPerSecond, stats.peakMessagesPerSecond);
+            total.peakMessagesPerMilli = Math.max(total.peakMessagesPerMilli, stats.peakMessagesPerMilli);
+            stats.methods.forEach((method, count) -> total.methods.merge(method, count, Long::sum));
+            total.indexSpacing = stats.indexSpacing;
+            total.indexEntries += stats.indexEntries;
+            indexBytes += stats.averageBytesPerIndexEntry * stats.indexEntries;
+            total.maxBytesPerIndexEntry = Math.max(total.maxBytesPerIndexEntry, stats.maxBytesPerIndexEntry);
+        }
+        if (total.dataMessages == 0)
+            total.minMessageSize = 0;
+        total.finish(seconds);
+        total.averageBytesPerIndexEntry = total.indexEntries == 0 ? 0 : indexBytes / total.indexEntries;
+        return total;
+    }
+
+    /**
+     * Sets the ratios once the counts are complete.
+     *
+     * @param seconds the time the messages were written over
+     */
+    void finish(final double seconds) {
+        metadataRatio = usedBytes == 0 ? 0 : (double) metadataBytes / usedBytes;
+        averageMessageSize = dataMessages == 0 ? 0 : (double) dataBytes / dataMessages;
+        messagesPerSecond = seconds <= 0 ? 0 : dataMessages / seconds;
+    }
+}
@@ -12,6 +12,12 @@ public interface DirectoryListing extends Closeable {
 
     void onFileCreated(File file, int cycle);
 
+    /**
+     * Called once a cycle file has been deleted, before the listing is refreshed.
+     */
+    default void onFileDeleted(File file, int cycle) {
+    }
+
     int getMinCreatedCycle();
 
     int getMaxCreatedCycle();
@@ -0,0 +1,155 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.queue.TailerDirection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Keeps the next cycles ahead of each tailer open, acquiring them in parallel on the common {@link ForkJoinPool}, so the
+ * tailer finds their files already mapped and their headers read when it moves to them.
+ * <p>
+ * A store is held while it is ahead of any tailer, and released once every tailer has moved past it or been closed.
+ */
+final class EagerStoreOpener extends AbstractCloseable {
+    @NotNull
+    private final SingleChronicleQueue queue;
+    private final int cycles;
+    // the stores held by cycle, and the cycles ahead of each tailer, guarded by this
+    private final Map<Integer, Held> held = new HashMap<>();
+    private final Map<StoreTailer, List<Integer>> aheadOf = new IdentityHashMap<>();
+
+    EagerStoreOpener(@NotNull final SingleChronicleQueue queue, final int cycles) {
+        this.queue = queue;
+        this.cycles = cycles;
+    }
+
+    /**
+     * Called when a tailer moves to a cycle, to open the cycles after it in the direction it is reading.
+     */
+    void onCycle(@NotNull final StoreTailer tailer, final int cycle, @NotNull final TailerDirection direction) {
+        if (direction == TailerDirection.NONE || isClosing())
+            return;
+        ForkJoinPool.commonPool().execute(() -> openAhead(tailer, cycle, direction));
+    }
+
+    /**
+     * Called when a tailer is closed, to release the cycles held for it.
+     */
+    void onClosed(@NotNull final StoreTailer tailer) {
+        final List<SingleChronicleQueueStore> toClose = new ArrayList<>();
+        synchronized (this) {
+            final List<Integer> ahead = aheadOf.remove(tailer);
+            if (ahead != null)
+                ahead.forEach(cycle -> release(cycle, toClose));
+        }
+        toClose.forEach(queue::closeStore);
+    }
+
+    private void openAhead(@NotNull final StoreTailer tailer, final int cycle, @NotNull final TailerDirection direction) {
+        final List<Integer> ahead = new ArrayList<>(cycles);
+        try {
+            for (int next = cycle; ahead.size() < cycles; ) {
+                next = queue.nextCycle(next, direction);
+                if (next < 0)
+                    break;
+                ahead.add(next);
+            }
+        } catch (Exception e) {
+            // the queue was closed or the cycle deleted
+            Jvm.debug().on(getClass(), e);
+            return;
+        }
+
+        final List<Integer> toOpen = new ArrayList<>();
+        final List<SingleChronicleQueueStore> toClose = new ArrayList<>();
+        synchronized (this) {
+            // a tailer closed since is released by onClosed, so it isn't added back
+            if (isClosing() || tailer.isClosing())
+                return;
+            final List<Integer> previous = aheadOf.put(tailer, ahead);
+            for (Integer next : ahead) {
+                if (previous != null && previous.contains(next))
+                    continue;
+                if (held.computeIfAbsent(next, c -> new Held()).refs++ == 0)
+                    toOpen.add(next);
+            }
+            if (previous != null)
+                for (Integer behind : previous)
+                    if (!ahead.contains(behind))
+                        release(behind, toClose);
+        }
+        toClose.forEach(queue::closeStore);
+        toOpen.parallelStream().forEach(this::open);
+    }
+
+    // holding the lock of this
+    private void release(final int cycle, @NotNull final List<SingleChronicleQueueStore> toClose) {
+        final Held h = held.get(cycle);
+        if (h == null || --h.refs > 0)
+            return;
+        held.remove(cycle);
+        if (h.store != null)
+            toClose.add(h.store);
+    }
+
+    private void open(final int cycle) {
+        try {
+            final SingleChronicleQueueStore store = queue.storeForCycle(cycle, queue.epoch(), false, null);
+            if (store == null)
+                return;
+            synchronized (this) {
+                final Held h = held.get(cycle);
+                // released while it was being opened, or opened again after that
+                if (h != null && h.store == null && !isClosing()) {
+                    h.store = store;
+                    return;
+                }
+            }
+            queue.closeStore(store);
+        } catch (Exception e) {
+            Jvm.debug().on(getClass(), e);
+        }
+    }
+
+    /**
+     * @return the number of cycles held open
+     */
+    synchronized int openCycles() {
+        int open = 0;
+        for (Held h : held.values())
+            if (h.store != null)
+                open++;
+        return open;
+    }
+
+    @Override
+    protected void performClose() {
+        final List<SingleChronicleQueueStore> toClose = new ArrayList<>();
+        synchronized (this) {
+            for (Held h : held.values())
+                if (h.store != null)
+                    toClose.add(h.store);
+            held.clear();
+            aheadOf.clear();
+        }
+        toClose.forEach(queue::closeStore);
+    }
+
+    @Override
+    protected boolean threadSafetyCheck(final boolean isUsed) {
+        // used by all the tailers of a queue
+        return true;
+    }
+
+    private static final class Held {
+        // the number of tailers this cycle is ahead of
+        int refs;
+        @Nullable
+        SingleChronicleQueueStore store;
+    }
+}
@@ -0,0 +1,170 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Maths;
+import net.openhft.chronicle.wire.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Functions of an excerpt used to split a queue with a {@link QueueSplitter}, or to order the queues merged by a
+ * {@link QueueMerger}. Each leaves the excerpt where it was read from, and isn't thread safe.
+ */
+public enum ExcerptKeys {
+    ;
+
+    /**
+     * @param spec {@code method} for the hash of the name of the method called, {@code field:name} for the hash of the
+     *             text of a field of its argument, or the name of a class implementing {@code ToLongFunction<DocumentContext>}
+     */
+    @NotNull
+    public static ToLongFunction<DocumentContext> key(@NotNull final String spec) {
+        if ("method".equals(spec))
+            return methodHash();
+        if (spec.startsWith("field:"))
+            return fieldHash(spec.substring("field:".length()));
+        return newInstance(spec);
+    }
+
+    /**
+     * @param spec {@code history} for the first timing of the message history, {@code field:name} for a number in a
+     *             field of the argument of the method called, or the name of a class implementing
+     *             {@code ToLongFunction<DocumentContext>}
+     */
+    @NotNull
+    public static ToLongFunction<DocumentContext> timestamp(@NotNull final String spec) {
+        if ("history".equals(spec))
+            return historyTiming();
+        if (spec.startsWith("field:"))
+            return fieldNumber(spec.substring("field:".length()));
+        return newInstance(spec);
+    }
+
+    /**
+     * @return the hash of the name of the method called
+     */
+    @NotNull
+    public static ToLongFunction<DocumentContext> methodHash() {
+        final VanillaMessageHistory history = new VanillaMessageHistory();
+        return dc -> {
+            final Bytes<?> bytes = dc.wire().bytes();
+            final long start = bytes.readPosition();
+            try {
+                skipHistory(dc, history);
+                final StringBuilder method = Wires.acquireStringBuilder();
+                dc.wire().readEventName(method);
+                return Maths.hash64(method);
+            } finally {
+                bytes.readPosition(start);
+            }
+        };
+    }
+
+    /**
+     * @return the hash of the text of a field of the argument of the method called, or 0 if it has no such field
+     */
+    @NotNull
+    public static ToLongFunction<DocumentContext> fieldHash(@NotNull final String field) {
+        final FieldReader reader = new FieldReader(field);
+        return dc -> {
+            final Object value = reader.read(dc);
+            return value == null ? 0 : Maths.hash64(value.toString());
+        };
+    }
+
+    /**
+     * @return a number in a field of the argument of the method called, or {@code Long.MIN_VALUE} if it has no such field
+     */
+    @NotNull
+    public static ToLongFunction<DocumentContext> fieldNumber(@NotNull final String field) {
+        final FieldReader reader = new FieldReader(field);
+        return dc -> {
+            final Object value = reader.read(dc);
+            if (value == null)
+                return Long.MIN_VALUE;
+            if (value instanceof Number)
+                return ((Number) value).longValue();
+            throw new IllegalStateException("The field " + field + " of excerpt " + Long.toHexString(dc.index()) +
+                    " is not a number: " + value);
+        };
+    }
+
+    /**
+     * @return the first timing of the message history, or {@code Long.MIN_VALUE} if there isn't one
+     */
+    @NotNull
+    public static ToLongFunction<DocumentContext> historyTiming() {
+        final VanillaMessageHistory history = new VanillaMessageHistory();
+        return dc -> {
+            final Bytes<?> bytes = dc.wire().bytes();
+            final long start = bytes.readPosition();
+            try {
+                final MessageHistory read = SCQTools.readHistory(dc, history);
+                return read == null || read.timings() == 0 ? Long.MIN_VALUE : read.timing(0);
+            } finally {
+                bytes.readPosition(start);
+            }
+        };
+    }
+
+    private static void skipHistory(@NotNull final DocumentContext dc, @NotNull final MessageHistory history) {
+        final Bytes<?> bytes = dc.wire().bytes();
+        final long start = bytes.readPosition();
+        if (SCQTools.readHistory(dc, history) == null)
+            bytes.readPosition(start);
+    }
+
+    @SuppressWarnings("unchecked")
+    @NotNull
+    private static ToLongFunction<DocumentContext> newInstance(@NotNull final String className) {
+        try {
+            return (ToLongFunction<DocumentContext>) Class.forName(className).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Unable to create a ToLongFunction<DocumentContext> of " + className, e);
+        }
+    }
+
+    /**
+     * Reads a field of the argument of the method called by an excerpt.
+     */
+    private static final class FieldReader {
+        @NotNull
+        private final String field;
+        private final VanillaMessageHistory history = new VanillaMessageHistory();
+        private final StringBuilder name = new StringBuilder();
+        private final ReadMarshallable fieldFinder = this::find;
+        @Nullable
+        private Object value;
+
+        FieldReader(@NotNull final String field) {
+            this.field = field;
+        }
+
+        @Nullable
+        Object read(@NotNull final DocumentContext dc) {
+            final Bytes<?> bytes = dc.wire().bytes();
+            final long start = bytes.readPosition();
+            try {
+                skipHistory(dc, history);
+                value = null;
+                dc.wire().readEventName(Wires.acquireStringBuilder()).marshallable(fieldFinder);
+                return value;
+            } finally {
+                bytes.readPosition(start);
+            }
+        }
+
+        private void find(@NotNull final WireIn wire) {
+            while (wire.isNotEmptyAfterPadding()) {
+                final ValueIn in = wire.readEventName(name);
+                if (field.contentEquals(name)) {
+                    value = in.object();
+                    return;
+                }
+                in.skipValue();
+            }
+        }
+    }
+}
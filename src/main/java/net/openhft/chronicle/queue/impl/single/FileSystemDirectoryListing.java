@@ -5,15 +5,23 @@ import net.openhft.chronicle.core.io.SimpleCloseable;
 import java.io.File;
 import java.util.function.ToIntFunction;
 
+/**
+ * The listing of a read-only queue, which scans the cycle files in every tier on each refresh.
+ * <p>
+ * Unlike {@link TableDirectoryListing} it doesn't use the first and last cycles kept in the metadata of the queue, as
+ * those values are bound with an exclusive lock on the metadata file and a read-only queue can't take it, or may have
+ * no metadata file at all. So a read-only queue still scans the directory whenever its first and last cycles are
+ * refreshed, and reports a {@link #modCount()} of -1, which makes every caller treat the listing as stale.
+ */
 final class FileSystemDirectoryListing extends SimpleCloseable implements DirectoryListing {
-    private final File queueDir;
+    private final StorageTiers tiers;
     private final ToIntFunction<File> fileToCycleFunction;
     private int minCreatedCycle = Integer.MAX_VALUE,
             maxCreatedCycle = Integer.MIN_VALUE;
 
-    FileSystemDirectoryListing(final File queueDir,
+    FileSystemDirectoryListing(final StorageTiers tiers,
                                final ToIntFunction<File> fileToCycleFunction) {
-        this.queueDir = queueDir;
+        this.tiers = tiers;
         this.fileToCycleFunction = fileToCycleFunction;
     }
 
@@ -26,13 +34,10 @@ final class FileSystemDirectoryListing extends SimpleCloseable implements Direct
     public void refresh(boolean force) {
         int minCycle = Integer.MAX_VALUE;
         int maxCycle = Integer.MIN_VALUE;
-        final File[] files = queueDir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX));
-        if (files != null) {
-            for (File file : files) {
-                int cycle = fileToCycleFunction.applyAsInt(file);
-                minCycle = Math.min(minCycle, cycle);
-                maxCycle = Math.max(maxCycle, cycle);
-            }
+        for (File file : tiers.listCycleFiles()) {
+            int cycle = fileToCycleFunction.applyAsInt(file);
+            minCycle = Math.min(minCycle, cycle);
+            maxCycle = Math.max(maxCycle, cycle);
         }
         minCreatedCycle = minCycle;
         maxCreatedCycle = maxCycle;
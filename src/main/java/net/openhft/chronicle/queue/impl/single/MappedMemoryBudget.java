@@ -0,0 +1,147 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedFile;
+import net.openhft.chronicle.core.Jvm;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Tracks the chunks of cycle files mapped by all the queues of this JVM, and keeps them within
+ * {@code -Dchronicle.queue.maxMappedBytes}.
+ * <p>
+ * A {@link MappedFile} only unmaps its chunks once every store using it has been released, so when the budget is
+ * exceeded the least recently used files are marked for release. A tailer reading a cycle other than the last releases
+ * a marked store before its next read and acquires it again at the same index, mapping only the chunk it needs. The
+ * current cycle, which appenders are writing, is never released, and an idle tailer keeps its chunks until it next reads.
+ */
+public final class MappedMemoryBudget {
+    public static final long MAX_MAPPED_BYTES = Jvm.getLong("chronicle.queue.maxMappedBytes", Long.MAX_VALUE);
+
+    static final MappedMemoryBudget INSTANCE = new MappedMemoryBudget(MAX_MAPPED_BYTES);
+
+    private final long maxMappedBytes;
+    // the bytes mapped by each file, least recently used first
+    private final Map<MappedFile, Long> mappedBytesByFile = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<MappedFile> toRelease = Collections.newSetFromMap(new IdentityHashMap<>());
+    private volatile int toReleaseCount = 0;
+    private long mappedBytes = 0;
+    private long maps = 0;
+    private long unmaps = 0;
+    private long releases = 0;
+
+    MappedMemoryBudget(final long maxMappedBytes) {
+        this.maxMappedBytes = maxMappedBytes;
+    }
+
+    /**
+     * @return the budget shared by all queues
+     */
+    @NotNull
+    public static MappedMemoryBudget instance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Called when a chunk of a file is mapped.
+     *
+     * @param file  which mapped the chunk
+     * @param bytes mapped, including the overlap
+     */
+    synchronized void onMapped(@NotNull final MappedFile file, final long bytes) {
+        maps++;
+        mappedBytes += bytes;
+        mappedBytesByFile.merge(file, bytes, Long::sum);
+        if (mappedBytes <= maxMappedBytes)
+            return;
+
+        // mark the least recently used files until enough would be released
+        long excess = mappedBytes - maxMappedBytes;
+        for (Map.Entry<MappedFile, Long> entry : mappedBytesByFile.entrySet()) {
+            if (excess <= 0 || entry.getKey() == file)
+                break;
+            toRelease.add(entry.getKey());
+            excess -= entry.getValue();
+        }
+        toReleaseCount = toRelease.size();
+    }
+
+    /**
+     * Called when a file is used, so the least recently used files are released first.
+     */
+    synchronized void onUsed(@NotNull final MappedFile file) {
+        mappedBytesByFile.get(file);
+    }
+
+    /**
+     * Called when a file is closed, unmapping all its chunks.
+     */
+    synchronized void onUnmapped(@NotNull final MappedFile file) {
+        final Long bytes = mappedBytesByFile.remove(file);
+        if (bytes != null) {
+            unmaps++;
+            mappedBytes -= bytes;
+        }
+        if (toRelease.remove(file))
+            toReleaseCount = toRelease.size();
+    }
+
+    /**
+     * @return true, once, if the store using this file should be released to stay within the budget
+     */
+    boolean shouldRelease(@NotNull final MappedFile file) {
+        // cheap when nothing is to be released, which is almost always
+        if (toReleaseCount == 0)
+            return false;
+        synchronized (this) {
+            if (!toRelease.remove(file))
+                return false;
+            toReleaseCount = toRelease.size();
+            releases++;
+            return true;
+        }
+    }
+
+    public long maxMappedBytes() {
+        return maxMappedBytes;
+    }
+
+    /**
+     * @return the bytes currently mapped by the cycle files of all queues
+     */
+    public synchronized long mappedBytes() {
+        return mappedBytes;
+    }
+
+    /**
+     * @return the number of chunks mapped
+     */
+    public synchronized long maps() {
+        return maps;
+    }
+
+    /**
+     * @return the number of cycle files unmapped
+     */
+    public synchronized long unmaps() {
+        return unmaps;
+    }
+
+    /**
+     * @return the number of stores released to stay within the budget
+     */
+    public synchronized long releases() {
+        return releases;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MappedMemoryBudget{" +
+                "maxMappedBytes=" + maxMappedBytes +
+                ", mappedBytes=" + mappedBytes +
+                ", maps=" + maps +
+                ", unmaps=" + unmaps +
+                ", releases=" + releases +
+                '}';
+    }
+}
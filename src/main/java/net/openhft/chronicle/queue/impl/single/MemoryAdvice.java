@@ -0,0 +1,76 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import com.sun.jna.Function;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Pointer;
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Advises the kernel how the chunks of a cycle file will be used, with {@code madvise(2)}, to avoid the minor page
+ * faults and TLB misses of writing through small pages.
+ * <p>
+ * This is only supported on Linux with JNA on the class path, elsewhere the advice is ignored.
+ */
+enum MemoryAdvice {
+    ;
+    // from <sys/mman.h> on Linux
+    static final int MADV_WILLNEED = 3;
+    static final int MADV_HUGEPAGE = 14;
+
+    private static volatile boolean supported = OS.isLinux();
+
+    /**
+     * @return true if the advice was taken
+     */
+    static boolean madvise(final long address, final long length, final int advice) {
+        if (!supported || length <= 0)
+            return false;
+        // the address must be page aligned
+        final long pageSize = OS.pageSize();
+        final long start = address - address % pageSize;
+        try {
+            return Libc.MADVISE.invokeInt(new Object[]{new Pointer(start), length + address - start, advice}) == 0;
+
+        } catch (Throwable t) {
+            supported = false;
+            Jvm.warn().on(MemoryAdvice.class, "madvise is not available, mapping advice will be ignored", t);
+            return false;
+        }
+    }
+
+    /**
+     * Advises the kernel to back a range of a cycle file with huge pages, and/or to populate it now rather than on
+     * first write.
+     *
+     * @param bytes     of the cycle file, mapped for writing
+     * @param position  of the range, in the same chunk as its end
+     * @param length    of the range
+     * @param hugePages use transparent huge pages
+     * @param populate  fault in the pages now
+     */
+    static void advise(@NotNull final MappedBytes bytes,
+                       final long position,
+                       final long length,
+                       final boolean hugePages,
+                       final boolean populate) {
+        final long address = bytes.addressForWrite(position);
+        if (hugePages)
+            madvise(address, length, MADV_HUGEPAGE);
+        if (populate) {
+            madvise(address, length, MADV_WILLNEED);
+            // read ahead doesn't map the pages for writing, so touch them as the Pretoucher does
+            final int pageSize = OS.pageSize();
+            final long end = position + length;
+            for (long pos = position - position % pageSize; pos < end; pos += pageSize)
+                bytes.compareAndSwapLong(pos, 0L, 0L);
+        }
+    }
+
+    // only loads JNA if advice is given
+    private static final class Libc {
+        static final Function MADVISE = NativeLibrary.getInstance("c").getFunction("madvise");
+    }
+}
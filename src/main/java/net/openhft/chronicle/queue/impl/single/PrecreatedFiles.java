@@ -3,6 +3,7 @@ package net.openhft.chronicle.queue.impl.single;
 import net.openhft.chronicle.core.Jvm;
 
 import java.io.File;
+import java.util.function.Predicate;
 
 public enum PrecreatedFiles {
     ;
@@ -23,6 +24,16 @@ public enum PrecreatedFiles {
                 PRE_CREATED_FILE_SUFFIX);
     }
 
+    /**
+     * @param isCycleName tests the name of a pre-created file without its suffix, so only cycle files are listed and
+     *                    not e.g. a pre-created {@code metadata.cq4t}
+     */
+    static File[] listPreCreatedFiles(final File dir, final Predicate<String> isCycleName) {
+        final File[] files = dir.listFiles((d, name) -> name.endsWith(PRE_CREATED_FILE_SUFFIX)
+                && isCycleName.test(name.substring(0, name.length() - PRE_CREATED_FILE_SUFFIX.length())));
+        return files == null ? new File[0] : files;
+    }
+
     public static File preCreatedFile(final File requiredQueueFile) {
         final String fileName = requiredQueueFile.getName();
         final String name = fileName.substring(0, fileName.length() - 4);
@@ -104,7 +104,8 @@ public final class Pretoucher extends AbstractCloseable {
                 currentCycleMappedBytes = currentCycleWireStore.bytes();
                 currentCycle = qCycle;
                 if (chunkListener != null)
-                    currentCycleMappedBytes.setNewChunkListener(chunkListener);
+                    currentCycleMappedBytes.setNewChunkListener(
+                            queue.chunkListener(currentCycleMappedBytes.mappedFile(), chunkListener));
 
                 cycleChangedListener.accept(qCycle);
 
@@ -0,0 +1,320 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.core.util.StringUtils;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import net.openhft.chronicle.wire.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.*;
+
+import static net.openhft.chronicle.queue.impl.StoreFileListener.NO_OP;
+
+/**
+ * Copies the excerpts of a queue to another, which may have a different roll cycle, wire type, block size or index
+ * spacing. The source is read on its own thread, a batch of excerpts at a time, while the previous batch is written.
+ * <p>
+ * Excerpts are copied as raw bytes if the wire type is unchanged, otherwise each is converted with
+ * {@link WireIn#copyTo(WireOut)}. Excerpts are not timestamped, so each is written to the target cycle containing the
+ * start of its source cycle, and the target roll cycle can't be shorter than that of the source, e.g. {@code HOURLY} can
+ * be copied to {@code DAILY} but not the other way around. The timings of a {@code MessageHistory} are from
+ * {@link System#nanoTime()}, so they can't be used to place an excerpt in a cycle either.
+ * <p>
+ * A copy which was interrupted is resumed by running it again, as the excerpts already in the target are skipped. The
+ * target should not be written to by anything else.
+ */
+public final class QueueCopier {
+    private static final Logger LOG = LoggerFactory.getLogger(QueueCopier.class);
+    private static final int BATCH_BYTES = 1 << 20;
+    private static final int BATCHES = 4;
+    private static final long END_OF_COPY = Long.MIN_VALUE;
+    // the field a method writer records the MessageHistory in
+    private static final String HISTORY = "history";
+
+    @NotNull
+    private final Path source;
+    @NotNull
+    private final Path target;
+    private WireType wireType;
+    private RollCycle rollCycle;
+    private Long blockSize;
+    private Integer indexSpacing;
+    private boolean messageHistory = true;
+    private Path indexMap;
+
+    public QueueCopier(@NotNull final Path source, @NotNull final Path target) {
+        this.source = source;
+        this.target = target;
+    }
+
+    /**
+     * @param wireType of the target, by default that of the source
+     */
+    public QueueCopier wireType(final WireType wireType) {
+        this.wireType = wireType;
+        return this;
+    }
+
+    /**
+     * @param rollCycle of the target, by default that of the source. It can't be shorter than that of the source, as
+     *                  excerpts have no timestamp to choose a shorter cycle from.
+     */
+    public QueueCopier rollCycle(final RollCycle rollCycle) {
+        this.rollCycle = rollCycle;
+        return this;
+    }
+
+    /**
+     * @param blockSize of the target, by default that of the source
+     */
+    public QueueCopier blockSize(final long blockSize) {
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    /**
+     * @param indexSpacing of the target, by default the default of its roll cycle
+     */
+    public QueueCopier indexSpacing(final int indexSpacing) {
+        this.indexSpacing = indexSpacing;
+        return this;
+    }
+
+    /**
+     * @param messageHistory false to drop the history written at the start of an excerpt by a method writer, which
+     *                       means each excerpt is parsed
+     */
+    public QueueCopier messageHistory(final boolean messageHistory) {
+        this.messageHistory = messageHistory;
+        return this;
+    }
+
+    /**
+     * @param indexMap a file to write the source and target index of each excerpt copied to, as pairs of little endian
+     *                 longs
+     */
+    public QueueCopier indexMap(final Path indexMap) {
+        this.indexMap = indexMap;
+        return this;
+    }
+
+    /**
+     * Copies the excerpts not yet in the target.
+     *
+     * @return the number of excerpts copied
+     */
+    public long copy() throws IOException {
+        if (!Files.exists(source))
+            throw new IllegalArgumentException(String.format("Path '%s' does not exist (absolute path '%s')", source, source.toAbsolutePath()));
+        final ExecutorService reader = Executors.newSingleThreadExecutor(new NamedThreadFactory("chronicle~copy", true));
+        try (final SingleChronicleQueue from = SingleChronicleQueueBuilder.binary(source.toFile())
+                .readOnly(true)
+                .storeFileListener(NO_OP)
+                .build()) {
+            final RollCycle targetCycle = rollCycle == null ? from.rollCycle() : rollCycle;
+            if (targetCycle.lengthInMillis() < from.rollCycle().lengthInMillis())
+                throw new IllegalArgumentException("The roll cycle of the copy " + targetCycle + " can't be shorter than " +
+                        from.rollCycle() + " of " + source + ", its excerpts would all be copied to the first cycle of each");
+            final SetTimeProvider time = new SetTimeProvider(0);
+            final SingleChronicleQueueBuilder builder = SingleChronicleQueueBuilder.builder(target, wireType == null ? from.wireType() : wireType)
+                    .rollCycle(targetCycle)
+                    .blockSize(blockSize == null ? from.blockSize() : blockSize)
+                    .epoch(from.epoch())
+                    .timeProvider(time);
+            if (indexSpacing != null)
+                builder.indexSpacing(indexSpacing);
+            try (final SingleChronicleQueue to = builder.build();
+                 final ExcerptAppender appender = to.acquireAppender();
+                 final IndexMap map = indexMap == null ? null : new IndexMap(indexMap)) {
+                final long copied = to.entryCount();
+                if (map != null)
+                    map.resume(copied);
+                final long start = System.currentTimeMillis();
+                final BlockingQueue<Batch> empty = new ArrayBlockingQueue<>(BATCHES);
+                final BlockingQueue<Batch> full = new ArrayBlockingQueue<>(BATCHES);
+                for (int i = 0; i < BATCHES; i++)
+                    empty.add(new Batch());
+                try {
+                    final Future<?> reading = reader.submit(() -> read(from, copied, empty, full));
+                    final long count = write(from, to, appender, time, map, empty, full);
+                    reading.get();
+                    LOG.info("Copied {} excerpts from {} to {} in {} ms, skipping {} copied before", count, source, target,
+                            System.currentTimeMillis() - start, copied);
+                    return count;
+                } finally {
+                    reader.shutdownNow();
+                    reader.awaitTermination(1, TimeUnit.SECONDS);
+                    empty.forEach(Batch::release);
+                    full.forEach(Batch::release);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted copying " + source);
+        } catch (ExecutionException e) {
+            throw Jvm.rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * Reads the source from after the excerpts already copied, a batch at a time, until the end of the queue.
+     */
+    private Void read(@NotNull final SingleChronicleQueue from, final long copied, @NotNull final BlockingQueue<Batch> empty,
+                      @NotNull final BlockingQueue<Batch> full) throws InterruptedException {
+        Batch batch = empty.take();
+        try (final ExcerptTailer tailer = from.createTailer()) {
+            final long first = from.firstIndex();
+            if (first != Long.MAX_VALUE && tailer.moveToIndex(from.skipExcerpts(first, copied))) {
+                while (true) {
+                    try (DocumentContext dc = tailer.readingDocument()) {
+                        if (!dc.isPresent())
+                            break;
+                        final Bytes<?> bytes = dc.wire().bytes();
+                        if (!messageHistory)
+                            skipHistory(dc.wire());
+                        if (!batch.fits(bytes.readRemaining()) && !batch.isEmpty()) {
+                            full.put(batch);
+                            batch = empty.take();
+                        }
+                        batch.add(dc.index(), bytes);
+                    }
+                }
+            }
+        } finally {
+            batch.bytes.writeLong(END_OF_COPY);
+            full.put(batch);
+        }
+        return null;
+    }
+
+    private static void skipHistory(@NotNull final Wire wire) {
+        final Bytes<?> bytes = wire.bytes();
+        final long start = bytes.readPosition();
+        final StringBuilder name = Wires.acquireStringBuilder();
+        final ValueIn in = wire.readEventName(name);
+        if (StringUtils.isEqual(name, HISTORY))
+            in.skipValue();
+        else
+            bytes.readPosition(start);
+    }
+
+    private long write(@NotNull final SingleChronicleQueue from, @NotNull final SingleChronicleQueue to,
+                       @NotNull final ExcerptAppender appender, @NotNull final SetTimeProvider time,
+                       @Nullable final IndexMap map, @NotNull final BlockingQueue<Batch> empty,
+                       @NotNull final BlockingQueue<Batch> full) throws InterruptedException, IOException {
+        final RollCycle sourceCycle = from.rollCycle();
+        final long cycleLength = sourceCycle.lengthInMillis();
+        final boolean raw = from.wireType() == to.wireType();
+        final Wire sourceWire = raw ? null : from.wireType().apply(Bytes.allocateElasticOnHeap(0));
+        long count = 0;
+        while (true) {
+            final Batch batch = full.take();
+            final Bytes<?> bytes = batch.bytes;
+            try {
+                while (true) {
+                    final long index = bytes.readLong();
+                    if (index == END_OF_COPY)
+                        return count;
+                    final int length = bytes.readInt();
+                    final long end = bytes.readPosition() + length;
+                    time.currentTimeMillis(from.epoch() + sourceCycle.toCycle(index) * cycleLength);
+                    final long limit = bytes.readLimit();
+                    bytes.readLimit(end);
+                    if (raw) {
+                        appender.writeBytes(bytes);
+                    } else {
+                        sourceWire.bytes().clear().write(bytes);
+                        try (DocumentContext dc = appender.writingDocument()) {
+                            sourceWire.copyTo(dc.wire());
+                        }
+                    }
+                    bytes.readLimit(limit);
+                    bytes.readPosition(end);
+                    if (map != null)
+                        map.add(index, appender.lastIndexAppended());
+                    count++;
+                    if (bytes.readRemaining() == 0)
+                        break;
+                }
+            } finally {
+                bytes.clear();
+                empty.offer(batch);
+            }
+        }
+    }
+
+    /**
+     * Excerpts read from the source, each as its index, length and bytes.
+     */
+    private static final class Batch {
+        final Bytes<?> bytes = Bytes.allocateElasticDirect(BATCH_BYTES);
+
+        boolean fits(final long length) {
+            return bytes.writePosition() + length + 12 <= BATCH_BYTES;
+        }
+
+        boolean isEmpty() {
+            return bytes.writePosition() == 0;
+        }
+
+        void add(final long index, @NotNull final Bytes<?> excerpt) {
+            bytes.writeLong(index);
+            bytes.writeInt((int) excerpt.readRemaining());
+            bytes.write(excerpt);
+        }
+
+        void release() {
+            bytes.releaseLast();
+        }
+    }
+
+    /**
+     * The source and target index of each excerpt copied.
+     */
+    private static final class IndexMap implements Closeable {
+        private static final int ENTRY_SIZE = 16;
+        @NotNull
+        private final Path file;
+        private DataOutputStream out;
+
+        IndexMap(@NotNull final Path file) {
+            this.file = file;
+        }
+
+        /**
+         * Drops any entries for excerpts which weren't copied
+         */
+        void resume(final long copied) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                if (raf.length() > copied * ENTRY_SIZE)
+                    raf.setLength(copied * ENTRY_SIZE);
+                else if (raf.length() < copied * ENTRY_SIZE)
+                    Jvm.warn().on(QueueCopier.class, "The index map " + file + " is missing " +
+                            (copied - raf.length() / ENTRY_SIZE) + " excerpts copied before");
+            }
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile(), true), 64 << 10));
+        }
+
+        void add(final long sourceIndex, final long targetIndex) throws IOException {
+            out.writeLong(Long.reverseBytes(sourceIndex));
+            out.writeLong(Long.reverseBytes(targetIndex));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out != null)
+                out.close();
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.impl.table.SingleTableStore;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.WireDumper;
+import net.openhft.chronicle.wire.Wires;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static net.openhft.chronicle.queue.impl.StoreFileListener.NO_OP;
+import static net.openhft.chronicle.wire.Wires.SPB_HEADER_SIZE;
+
+/**
+ * Dumps queue and table store files to a {@link Writer} as they are walked, so a cycle of any size is dumped with a
+ * fixed amount of heap. Each file is mapped a block at a time, and an excerpt larger than {@link #MAX_DECODE} bytes is
+ * written as hex rather than decoded.
+ * <p>
+ * With {@link #headersOnly(boolean)} only the position, header, length and index of each excerpt are written, without
+ * reading the excerpts at all. Dumping a directory with more than one thread dumps each file to a temporary file, and
+ * these are written out in order.
+ */
+public final class QueueDumper {
+    static final int MAX_DECODE = Integer.getInteger("dump.maxDecode", 1 << 20);
+    private static final int NO_CYCLE = Integer.MIN_VALUE;
+    private static final long UNKNOWN = -1;
+    private static final int HEX_PER_LINE = 32;
+    private static final int LENGTH = ", 0".length();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @NotNull
+    private final File path;
+    private long blockSize = 4 << 20;
+    private long fromPosition = 0;
+    private long toPosition = Long.MAX_VALUE;
+    private long fromIndex = Long.MIN_VALUE;
+    private long toIndex = Long.MAX_VALUE;
+    private boolean headersOnly;
+    private boolean skipTableStore;
+    private boolean aligned = true;
+    private int threads = 1;
+
+    /**
+     * @param path a queue or table store file, or a directory of them
+     */
+    public QueueDumper(@NotNull final File path) {
+        this.path = path;
+    }
+
+    /**
+     * @param blockSize the size of each part of a file mapped at a time
+     */
+    public QueueDumper blockSize(final long blockSize) {
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    /**
+     * @param fromPosition the position in each file of the first header to dump
+     */
+    public QueueDumper fromPosition(final long fromPosition) {
+        this.fromPosition = fromPosition;
+        return this;
+    }
+
+    /**
+     * @param toPosition the position in each file after which no more is dumped
+     */
+    public QueueDumper toPosition(final long toPosition) {
+        this.toPosition = toPosition;
+        return this;
+    }
+
+    /**
+     * @param fromIndex the index of the first excerpt to dump, which needs the queue metadata
+     */
+    public QueueDumper fromIndex(final long fromIndex) {
+        this.fromIndex = fromIndex;
+        return this;
+    }
+
+    /**
+     * @param toIndex the index of the last excerpt to dump, which needs the queue metadata
+     */
+    public QueueDumper toIndex(final long toIndex) {
+        this.toIndex = toIndex;
+        return this;
+    }
+
+    /**
+     * @param headersOnly to only dump the position, header, length and index of each excerpt
+     */
+    public QueueDumper headersOnly(final boolean headersOnly) {
+        this.headersOnly = headersOnly;
+        return this;
+    }
+
+    /**
+     * @param skipTableStore to not dump the table store files in a directory
+     */
+    public QueueDumper skipTableStore(final boolean skipTableStore) {
+        this.skipTableStore = skipTableStore;
+        return this;
+    }
+
+    /**
+     * @param aligned false if the headers of the files are not padded to 4 byte alignment
+     */
+    public QueueDumper aligned(final boolean aligned) {
+        this.aligned = aligned;
+        return this;
+    }
+
+    /**
+     * @param threads the number of files of a directory to dump at a time
+     */
+    public QueueDumper threads(final int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public void dump(@NotNull final Writer out) throws IOException {
+        final File dir = path.isDirectory() ? path : path.getAbsoluteFile().getParentFile();
+        final boolean indexRange = fromIndex != Long.MIN_VALUE || toIndex != Long.MAX_VALUE;
+        try (final SingleChronicleQueue queue = openQueue(dir)) {
+            if (queue == null && indexRange)
+                throw new IllegalArgumentException("Dumping an index range needs the queue metadata in " + dir);
+            final List<FileDump> dumps = new ArrayList<>();
+            for (File file : files(indexRange)) {
+                final FileDump dump = fileDump(queue, file, indexRange);
+                if (dump != null)
+                    dumps.add(dump);
+            }
+            if (threads > 1 && dumps.size() > 1) {
+                dumpInParallel(dumps, out);
+            } else {
+                for (FileDump dump : dumps)
+                    dump.dump(out);
+            }
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * @return the queue in a directory for the indices of its excerpts, or null if there isn't one which can be read
+     */
+    @Nullable
+    private static SingleChronicleQueue openQueue(@NotNull final File dir) {
+        if (!new File(dir, SingleChronicleQueue.QUEUE_METADATA_FILE).exists())
+            return null;
+        try {
+            return SingleChronicleQueueBuilder.binary(dir).readOnly(true).storeFileListener(NO_OP).build();
+        } catch (RuntimeException e) {
+            Jvm.warn().on(QueueDumper.class, "Dumping without indices as the queue in " + dir + " can't be read " + e);
+            return null;
+        }
+    }
+
+    @NotNull
+    private List<File> files(final boolean indexRange) {
+        if (!path.isDirectory()) {
+            final String name = path.getName();
+            return name.endsWith(SingleChronicleQueue.SUFFIX) || (!indexRange && name.endsWith(SingleTableStore.SUFFIX))
+                    ? Arrays.asList(path)
+                    : new ArrayList<>();
+        }
+        final boolean tableStores = !skipTableStore && !indexRange;
+        final File[] files = path.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX) ||
+                (tableStores && n.endsWith(SingleTableStore.SUFFIX)));
+        if (files == null)
+            throw new IllegalArgumentException("Directory not found " + path);
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    /**
+     * @return how to dump a file, or null if none of it is in the index range
+     */
+    @Nullable
+    private FileDump fileDump(@Nullable final SingleChronicleQueue queue, @NotNull final File file, final boolean indexRange) {
+        final int cycle = queue != null && file.getName().endsWith(SingleChronicleQueue.SUFFIX)
+                ? queue.fileToCycle(file)
+                : NO_CYCLE;
+        final RollCycle rollCycle = queue == null ? null : queue.rollCycle();
+        long position = fromPosition;
+        long sequence = fromPosition == 0 ? 0 : UNKNOWN;
+        if (indexRange) {
+            final int lowestCycle = fromIndex == Long.MIN_VALUE ? Integer.MIN_VALUE : rollCycle.toCycle(fromIndex);
+            final int highestCycle = toIndex == Long.MAX_VALUE ? Integer.MAX_VALUE : rollCycle.toCycle(toIndex);
+            if (cycle == NO_CYCLE || cycle < lowestCycle || cycle > highestCycle)
+                return null;
+            if (cycle == lowestCycle && rollCycle.toSequenceNumber(fromIndex) > 0) {
+                final long start = positionOf(queue, fromIndex);
+                if (start < 0)
+                    return null;
+                if (start >= position) {
+                    position = start;
+                    sequence = rollCycle.toSequenceNumber(fromIndex);
+                }
+            }
+        }
+        return new FileDump(file, rollCycle, cycle, position, sequence);
+    }
+
+    /**
+     * @return the position of the header of an excerpt, 0 if it is before the first excerpt or -1 if it is after the
+     * last
+     */
+    private static long positionOf(@NotNull final SingleChronicleQueue queue, final long index) {
+        try (final ExcerptTailer tailer = queue.createTailer()) {
+            if (!tailer.moveToIndex(index))
+                return index < queue.firstIndex() ? 0 : -1;
+            try (DocumentContext dc = tailer.readingDocument()) {
+                return dc.isPresent() ? dc.wire().bytes().readPosition() - SPB_HEADER_SIZE : -1;
+            }
+        }
+    }
+
+    private void dumpInParallel(@NotNull final List<FileDump> dumps, @NotNull final Writer out) throws IOException {
+        final ExecutorService service = Executors.newFixedThreadPool(threads, new NamedThreadFactory("chronicle~dump", true));
+        final List<Future<Path>> spooled = new ArrayList<>();
+        try {
+            for (FileDump dump : dumps)
+                spooled.add(service.submit(dump::spool));
+            final char[] buffer = new char[8 << 10];
+            for (Future<Path> future : spooled) {
+                final Path spool = future.get();
+                try (Reader in = Files.newBufferedReader(spool)) {
+                    for (int read; (read = in.read(buffer)) > 0; )
+                        out.write(buffer, 0, read);
+                } finally {
+                    Files.deleteIfExists(spool);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted dumping " + path);
+        } catch (ExecutionException e) {
+            throw Jvm.rethrow(e.getCause());
+        } finally {
+            service.shutdownNow();
+            try {
+                service.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // the files which weren't written out
+            for (Future<Path> future : spooled) {
+                try {
+                    if (future.isDone() && !future.isCancelled())
+                        Files.deleteIfExists(future.get());
+                } catch (Exception ignored) {
+                    // it failed or was deleted already
+                }
+            }
+        }
+    }
+
+    /**
+     * The dump of a file from a position, with the sequence number of the next excerpt if it is known.
+     */
+    private final class FileDump {
+        @NotNull
+        private final File file;
+        @Nullable
+        private final RollCycle rollCycle;
+        private final int cycle;
+        private final long start;
+        private long sequence;
+
+        FileDump(@NotNull final File file, @Nullable final RollCycle rollCycle, final int cycle, final long start,
+                 final long sequence) {
+            this.file = file;
+            this.rollCycle = rollCycle;
+            this.cycle = cycle;
+            this.start = start;
+            this.sequence = sequence;
+        }
+
+        @NotNull
+        Path spool() throws IOException {
+            final Path spool = Files.createTempFile(file.getName(), ".dump");
+            try (Writer out = Files.newBufferedWriter(spool)) {
+                dump(out);
+                return spool;
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(spool);
+                throw e;
+            }
+        }
+
+        void dump(@NotNull final Writer out) throws IOException {
+            out.append("# file: ").append(file.getPath()).append('\n');
+            final long fileSize = file.length();
+            try (MappedBytes bytes = MappedBytes.mappedBytes(file, blockSize, OS.pageSize(), !OS.isWindows())) {
+                if (headersOnly)
+                    dumpHeaders(bytes, fileSize, out);
+                else
+                    dumpExcerpts(bytes, fileSize, out);
+            } catch (FileNotFoundException e) {
+                Jvm.warn().on(QueueDumper.class, "Failed to read " + file + " " + e);
+            }
+        }
+
+        private void dumpHeaders(@NotNull final MappedBytes bytes, final long fileSize, @NotNull final Writer out) throws IOException {
+            long position = start;
+            while (position + SPB_HEADER_SIZE <= fileSize) {
+                if (position > toPosition) {
+                    out.append("# limit reached.\n");
+                    return;
+                }
+                final int header = bytes.readVolatileInt(position);
+                if (header == 0 || Wires.isEndOfFile(header)) {
+                    out.append("# position: ").append(Long.toString(position))
+                            .append(header == 0 ? ", header: 0 # end of data\n" : " # end of file\n");
+                    return;
+                }
+                final long length = Wires.lengthOf(header);
+                if (!writeHeader(position, header, out))
+                    return;
+                out.append('\n');
+                if (Wires.isNotComplete(header))
+                    return;
+                position = next(position, length);
+            }
+        }
+
+        private void dumpExcerpts(@NotNull final MappedBytes bytes, final long fileSize, @NotNull final Writer out) throws IOException {
+            final Bytes<ByteBuffer> buffer = Bytes.elasticByteBuffer();
+            try {
+                bytes.readLimit(fileSize);
+                bytes.readPosition(start);
+                final WireDumper dumper = WireDumper.of(bytes, aligned);
+                StringBuilder sb = new StringBuilder();
+                while (bytes.readRemaining() >= 4) {
+                    final long position = bytes.readPosition();
+                    if (position > toPosition) {
+                        out.append("# limit reached.\n");
+                        return;
+                    }
+                    final int header = bytes.readVolatileInt(position);
+                    final long length = Wires.lengthOf(header);
+                    if (header != 0 && Wires.isReady(header) && length > MAX_DECODE) {
+                        if (!writeHeader(position, header, out))
+                            return;
+                        out.append(" # not decoded\n");
+                        writeHex(bytes, position + SPB_HEADER_SIZE, Math.min(length, fileSize - position - SPB_HEADER_SIZE), out);
+                        bytes.readPosition(Math.min(next(position, length), fileSize));
+                        continue;
+                    }
+                    if (Wires.isReadyData(header) && indexOf(header) > toIndex)
+                        return;
+
+                    sb.setLength(0);
+                    final boolean last = dumper.dumpOne(sb, buffer);
+                    if (sb.indexOf("\nindex2index:") != -1 || sb.indexOf("\nindex:") != -1) {
+                        // truncate trailing zeros
+                        if (sb.indexOf(", 0\n]\n") == sb.length() - 6) {
+                            int i = indexOfLastZero(sb);
+                            if (i < sb.length())
+                                sb.setLength(i - 5);
+                            sb.append(" # truncated trailing zeros\n]");
+                        }
+                    }
+                    if (Wires.isReadyData(header)) {
+                        final long index = indexOf(header);
+                        if (index != UNKNOWN)
+                            out.append("# index: 0x").append(Long.toHexString(index)).append('\n');
+                        sequence++;
+                    }
+                    out.append(sb).append('\n');
+                    // don't hold on to the text of a large excerpt
+                    if (sb.length() > MAX_DECODE)
+                        sb = new StringBuilder();
+
+                    if (last)
+                        break;
+                }
+            } finally {
+                buffer.releaseLast();
+            }
+        }
+
+        /**
+         * Writes the position, header, length and index of an excerpt, counting it if it is data.
+         *
+         * @return false if the excerpt is after the last index to dump
+         */
+        private boolean writeHeader(final long position, final int header, @NotNull final Writer out) throws IOException {
+            final boolean data = Wires.isData(header);
+            final long index = data ? indexOf(header) : UNKNOWN;
+            if (index > toIndex)
+                return false;
+            out.append(data ? "--- !!data" : "--- !!meta-data")
+                    .append(" # position: ").append(Long.toString(position))
+                    .append(", header: 0x").append(Integer.toHexString(header))
+                    .append(", length: ").append(Long.toString(Wires.lengthOf(header)));
+            if (Wires.isNotComplete(header)) {
+                out.append(", not complete");
+            } else if (data) {
+                if (index != UNKNOWN)
+                    out.append(", index: 0x").append(Long.toHexString(index));
+                else if (sequence != UNKNOWN)
+                    out.append(", sequence: ").append(Long.toString(sequence));
+                if (sequence != UNKNOWN)
+                    sequence++;
+            }
+            return true;
+        }
+
+        /**
+         * @return the index of the next data excerpt, if it is known
+         */
+        private long indexOf(final int header) {
+            if (!Wires.isData(header) || Wires.isNotComplete(header) || sequence == UNKNOWN || cycle == NO_CYCLE)
+                return UNKNOWN;
+            return rollCycle.toIndex(cycle, sequence);
+        }
+
+        private long next(long position, final long length) {
+            position += length + SPB_HEADER_SIZE;
+            // queue wires pad headers to 4 byte alignment
+            if (aligned)
+                position += -position & 0x3;
+            return position;
+        }
+    }
+
+    private static void writeHex(@NotNull final Bytes<?> bytes, final long from, final long length, @NotNull final Writer out) throws IOException {
+        final char[] line = new char[HEX_PER_LINE * 3];
+        for (long offset = 0; offset < length; offset += HEX_PER_LINE) {
+            final int count = (int) Math.min(HEX_PER_LINE, length - offset);
+            for (int i = 0; i < count; i++) {
+                final int b = bytes.readUnsignedByte(from + offset + i);
+                line[i * 3] = HEX[b >> 4];
+                line[i * 3 + 1] = HEX[b & 0xF];
+                line[i * 3 + 2] = ' ';
+            }
+            line[count * 3 - 1] = '\n';
+            out.write(line, 0, count * 3);
+        }
+    }
+
+    private static int indexOfLastZero(@NotNull CharSequence str) {
+        int i = str.length() - 3;
+        do {
+            i -= LENGTH;
+            CharSequence charSequence = str.subSequence(i, i + 3);
+            if (!", 0".contentEquals(charSequence))
+                return i + LENGTH;
+        } while (i > 3);
+        return 0;
+    }
+}
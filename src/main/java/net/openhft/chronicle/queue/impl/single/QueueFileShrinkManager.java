@@ -27,6 +27,10 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -36,16 +40,21 @@ public enum QueueFileShrinkManager {
     // don't use this with a Pretoucher enabled!
     public static final boolean RUN_SYNCHRONOUSLY = Jvm.getBoolean("chronicle.queue.synchronousFileShrinking");
     public static final boolean DISABLE_QUEUE_FILE_SHRINKING = OS.isWindows() || Jvm.getBoolean("chronicle.queue.disableFileShrinking");
+    // compress completed cycles once they have been shrunk, see CompressedCycleFile
+    public static final boolean COMPRESS_COMPLETED_CYCLES = Jvm.getBoolean("chronicle.queue.compressCompletedCycles");
 
     private static final Logger LOG = LoggerFactory.getLogger(QueueFileShrinkManager.class);
     private static final ScheduledExecutorService EXECUTOR = Threads.acquireScheduledExecutorService(THREAD_NAME, true);
     private static final long DELAY_S = 10;
+    // the preallocations queued for each file, and the files shrunk synchronously while some were, guarded by PREALLOCATIONS
+    private static final Map<File, Integer> PREALLOCATIONS = new HashMap<>();
+    private static final Set<File> SHRUNK = new HashSet<>();
 
     public static void scheduleShrinking(@NotNull final File queueFile, final long writePos) {
         if (DISABLE_QUEUE_FILE_SHRINKING)
             return;
         if (RUN_SYNCHRONOUSLY)
-            task(queueFile, writePos);
+            shrinkNow(queueFile, writePos);
         else {
             // The shrink is deferred a bit to allow any potentially lagging tailers/pre-touchers
             // to move on to the next roll before the file can be safely shrunk.
@@ -54,6 +63,48 @@ public enum QueueFileShrinkManager {
         }
  }
 
+    /**
+     * Preallocates part of a cycle file in the background, see {@link CycleFilePreallocator}. It runs on the same thread
+     * as the shrinking, so the unused part is released by the shrink scheduled when the cycle is completed. A synchronous
+     * shrink doesn't wait for the executor, so the preallocations still queued when it runs are skipped rather than
+     * extending the shrunk file again. Nothing is preallocated if shrinking is disabled, as the unused part would be kept.
+     */
+    public static void schedulePreallocation(@NotNull final File queueFile, final long offset, final long length) {
+        if (DISABLE_QUEUE_FILE_SHRINKING || !CycleFilePreallocator.isSupported())
+            return;
+        synchronized (PREALLOCATIONS) {
+            PREALLOCATIONS.merge(queueFile, 1, Integer::sum);
+        }
+        EXECUTOR.execute(() -> preallocate(queueFile, offset, length));
+    }
+
+    private static void preallocate(@NotNull final File queueFile, final long offset, final long length) {
+        synchronized (PREALLOCATIONS) {
+            try {
+                if (!SHRUNK.contains(queueFile))
+                    CycleFilePreallocator.preallocate(queueFile, offset, length);
+            } finally {
+                if (PREALLOCATIONS.compute(queueFile, (f, n) -> n == null || n <= 1 ? null : n - 1) == null)
+                    SHRUNK.remove(queueFile);
+            }
+        }
+    }
+
+    private static void shrinkNow(@NotNull final File queueFile, final long writePos) {
+        synchronized (PREALLOCATIONS) {
+            if (PREALLOCATIONS.containsKey(queueFile))
+                SHRUNK.add(queueFile);
+            task(queueFile, writePos);
+        }
+    }
+
+    /**
+     * Recycles a cycle file in the background, see {@link CycleFileRecycler}.
+     */
+    static void scheduleRecycling(@NotNull final Runnable recycling) {
+        EXECUTOR.execute(recycling);
+    }
+
     private static void task(@NotNull final File queueFile, final long writePos) {
         if (LOG.isDebugEnabled())
             LOG.debug("Shrinking {} to {}", queueFile, writePos);
@@ -75,9 +126,20 @@ public enum QueueFileShrinkManager {
                     continue;
                 }
                 LOG.warn("Failed to shrink file " + queueFile, ex);
+                return;
             }
             break;
         }
+        if (COMPRESS_COMPLETED_CYCLES)
+            compress(queueFile);
+    }
+
+    private static void compress(@NotNull final File queueFile) {
+        try {
+            CompressedCycleFile.compress(queueFile);
+        } catch (IOException ex) {
+            LOG.warn("Failed to compress file " + queueFile, ex);
+        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToLongFunction;
+
+import static net.openhft.chronicle.queue.impl.StoreFileListener.NO_OP;
+
+/**
+ * Merges queues into one, ordered by a timestamp of each excerpt, see {@link ExcerptKeys#timestamp(String)}. Each queue
+ * is read in order, the excerpt written next being the one with the lowest timestamp at the head of any queue, or of
+ * the first of these queues if their timestamps are the same.
+ * <p>
+ * The excerpts are copied as raw bytes from the queue read. Each is written to the cycle containing the start of the
+ * cycle it was read from, or a later one if an excerpt of a later cycle was written before it.
+ */
+public final class QueueMerger {
+    private static final Logger LOG = LoggerFactory.getLogger(QueueMerger.class);
+
+    @NotNull
+    private final List<Path> sources;
+    @NotNull
+    private final Path target;
+    @NotNull
+    private ToLongFunction<DocumentContext> timestamp = ExcerptKeys.historyTiming();
+    @Nullable
+    private RollCycle rollCycle;
+
+    public QueueMerger(@NotNull final List<Path> sources, @NotNull final Path target) {
+        if (sources.isEmpty())
+            throw new IllegalArgumentException("No queues to merge into " + target);
+        this.sources = sources;
+        this.target = target;
+    }
+
+    /**
+     * @param timestamp of each excerpt, by default the first timing of its message history
+     */
+    public QueueMerger timestamp(@NotNull final ToLongFunction<DocumentContext> timestamp) {
+        this.timestamp = timestamp;
+        return this;
+    }
+
+    /**
+     * @param rollCycle of the merged queue, by default that of the first queue merged
+     */
+    public QueueMerger rollCycle(@Nullable final RollCycle rollCycle) {
+        this.rollCycle = rollCycle;
+        return this;
+    }
+
+    /**
+     * @return the number of excerpts merged
+     */
+    public long merge() {
+        for (Path source : sources)
+            if (!Files.exists(source))
+                throw new IllegalArgumentException(String.format("Path '%s' does not exist (absolute path '%s')", source, source.toAbsolutePath()));
+        final long start = System.currentTimeMillis();
+        final List<SingleChronicleQueue> from = new ArrayList<>();
+        final PriorityQueue<Head> heads = new PriorityQueue<>();
+        try {
+            for (Path source : sources)
+                from.add(SingleChronicleQueueBuilder.binary(source.toFile())
+                        .readOnly(true)
+                        .storeFileListener(NO_OP)
+                        .build());
+            final SingleChronicleQueue first = from.get(0);
+            final SetTimeProvider time = new SetTimeProvider(0);
+            try (final SingleChronicleQueue to = SingleChronicleQueueBuilder.builder(target, first.wireType())
+                    .rollCycle(rollCycle == null ? first.rollCycle() : rollCycle)
+                    .blockSize(first.blockSize())
+                    .epoch(first.epoch())
+                    .timeProvider(time)
+                    .build();
+                 final ExcerptAppender appender = to.acquireAppender()) {
+                for (int i = 0; i < from.size(); i++) {
+                    final Head head = new Head(i, from.get(i));
+                    if (head.next())
+                        heads.add(head);
+                }
+                long count = 0;
+                while (!heads.isEmpty()) {
+                    final Head head = heads.poll();
+                    time.currentTimeMillis(Math.max(time.currentTimeMillis(), head.cycleStart()));
+                    appender.writeBytes(head.dc.wire().bytes());
+                    count++;
+                    if (head.next())
+                        heads.add(head);
+                }
+                LOG.info("Merged {} excerpts of {} into {} in {} ms", count, sources, target, System.currentTimeMillis() - start);
+                return count;
+            }
+        } finally {
+            heads.forEach(Head::close);
+            Closeable.closeQuietly(from);
+        }
+    }
+
+    /**
+     * The excerpt at the head of a queue merged, which is held open until it has been written.
+     */
+    private final class Head implements Comparable<Head> {
+        private final int number;
+        @NotNull
+        private final SingleChronicleQueue queue;
+        @NotNull
+        private final ExcerptTailer tailer;
+        @Nullable
+        private DocumentContext dc;
+        private long timestamp;
+
+        Head(final int number, @NotNull final SingleChronicleQueue queue) {
+            this.number = number;
+            this.queue = queue;
+            this.tailer = queue.createTailer();
+        }
+
+        /**
+         * @return false if there are no more excerpts, after which this is closed
+         */
+        boolean next() {
+            if (dc != null)
+                dc.close();
+            dc = tailer.readingDocument();
+            if (!dc.isPresent()) {
+                close();
+                return false;
+            }
+            timestamp = QueueMerger.this.timestamp.applyAsLong(dc);
+            return true;
+        }
+
+        long cycleStart() {
+            final RollCycle rollCycle = queue.rollCycle();
+            return queue.epoch() + (long) rollCycle.toCycle(dc.index()) * rollCycle.lengthInMillis();
+        }
+
+        @Override
+        public int compareTo(@NotNull final Head head) {
+            final int compare = Long.compare(timestamp, head.timestamp);
+            return compare != 0 ? compare : Integer.compare(number, head.number);
+        }
+
+        void close() {
+            if (dc != null) {
+                dc.close();
+                dc = null;
+            }
+            tailer.close();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.wire.Wires;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+
+import static net.openhft.chronicle.wire.Wires.SPB_HEADER_SIZE;
+
+/**
+ * Recovers every cycle of a queue left incomplete by a crash in one pass, checking the cycles in parallel, rather than
+ * each cycle waiting for the {@link SingleChronicleQueueBuilder#timeoutMS(long)} when it is first acquired.
+ * <p>
+ * A cycle whose first header is incomplete has its header rewritten. A cycle before the current one whose last excerpt
+ * was never completed is ended at that excerpt, as no appender will write to it again. An incomplete excerpt in the
+ * current cycle is left to the appenders, as one may still be writing it.
+ * <p>
+ * This is meant to be run on opening a queue after a crash, see {@link SingleChronicleQueueBuilder#recoverOnOpen(boolean)},
+ * as any appender to a cycle being recovered is assumed to have died.
+ */
+public enum QueueRecovery {
+    ;
+    private static final Logger LOG = LoggerFactory.getLogger(QueueRecovery.class);
+
+    /**
+     * Recovers all the cycles of a queue.
+     *
+     * @return which cycles were recovered
+     */
+    @NotNull
+    public static Result recover(@NotNull final SingleChronicleQueue queue) {
+        if (queue.isReadOnly())
+            throw new IllegalStateException("A read only queue can't be recovered");
+        final int firstCycle = queue.firstCycle();
+        final int lastCycle = queue.lastCycle();
+        if (firstCycle > lastCycle)
+            return new Result(0);
+        final NavigableSet<Long> cycles;
+        try {
+            cycles = queue.listCyclesBetween(firstCycle, lastCycle);
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+
+        final long start = System.currentTimeMillis();
+        final int currentCycle = queue.cycle();
+        final Result result = new Result(cycles.size());
+        cycles.parallelStream()
+                .forEach(cycle -> recover(queue, cycle.intValue(), currentCycle, result));
+        result.sort();
+        if (result.isRecovered() || !result.failedCycles.isEmpty())
+            LOG.info("Recovered {} in {} ms, {}", queue.fileAbsolutePath(), System.currentTimeMillis() - start, result);
+        return result;
+    }
+
+    private static void recover(@NotNull final SingleChronicleQueue queue, final int cycle, final int currentCycle, @NotNull final Result result) {
+        try {
+            if (queue.recoverFirstHeader(cycle))
+                result.add(result.recoveredHeaders, cycle);
+
+            final SingleChronicleQueueStore store = queue.storeForCycle(cycle, queue.epoch(), false, null);
+            if (store == null)
+                return;
+            try {
+                final MappedBytes bytes = store.bytes();
+                try {
+                    final long position = unfinishedExcerpt(bytes, store.writePosition());
+                    if (position < 0)
+                        return;
+                    if (cycle >= currentCycle) {
+                        result.add(result.unfinishedCycles, cycle);
+                        return;
+                    }
+                    // end the cycle at the incomplete excerpt, unless it has been completed since
+                    final int header = bytes.readVolatileInt(position);
+                    if (Wires.isNotComplete(header) && bytes.compareAndSwapInt(position, header, Wires.END_OF_DATA))
+                        result.add(result.endedCycles, cycle);
+                } finally {
+                    bytes.releaseLast();
+                }
+            } finally {
+                queue.closeStore(store);
+            }
+        } catch (Exception e) {
+            Jvm.warn().on(QueueRecovery.class, "Unable to recover cycle " + cycle + " of " + queue.fileAbsolutePath(), e);
+            result.add(result.failedCycles, cycle);
+        }
+    }
+
+    /**
+     * @return the position of the incomplete excerpt after the last one written, or -1 if there is none
+     */
+    private static long unfinishedExcerpt(@NotNull final MappedBytes bytes, long position) {
+        while (true) {
+            final int header = bytes.readVolatileInt(position);
+            if (header == 0 || Wires.isEndOfFile(header))
+                return -1;
+            if (Wires.isNotComplete(header))
+                return position;
+            position += Wires.lengthOf(header) + SPB_HEADER_SIZE;
+            // queue wires pad headers to 4 byte alignment
+            position += -position & 0x3;
+        }
+    }
+
+    /**
+     * The cycles recovered by {@link #recover(SingleChronicleQueue)}.
+     */
+    public static final class Result {
+        private final int cyclesChecked;
+        private final List<Integer> recoveredHeaders = new ArrayList<>();
+        private final List<Integer> endedCycles = new ArrayList<>();
+        private final List<Integer> unfinishedCycles = new ArrayList<>();
+        private final List<Integer> failedCycles = new ArrayList<>();
+
+        Result(final int cyclesChecked) {
+            this.cyclesChecked = cyclesChecked;
+        }
+
+        private synchronized void add(@NotNull final List<Integer> cycles, final int cycle) {
+            cycles.add(cycle);
+        }
+
+        private void sort() {
+            Collections.sort(recoveredHeaders);
+            Collections.sort(endedCycles);
+            Collections.sort(unfinishedCycles);
+            Collections.sort(failedCycles);
+        }
+
+        public int cyclesChecked() {
+            return cyclesChecked;
+        }
+
+        /**
+         * @return the cycles whose first header was rewritten
+         */
+        @NotNull
+        public List<Integer> recoveredHeaders() {
+            return Collections.unmodifiableList(recoveredHeaders);
+        }
+
+        /**
+         * @return the cycles ended at an excerpt which was never completed
+         */
+        @NotNull
+        public List<Integer> endedCycles() {
+            return Collections.unmodifiableList(endedCycles);
+        }
+
+        /**
+         * @return the cycles still being written to with an incomplete excerpt, which were not changed
+         */
+        @NotNull
+        public List<Integer> unfinishedCycles() {
+            return Collections.unmodifiableList(unfinishedCycles);
+        }
+
+        /**
+         * @return the cycles which couldn't be recovered
+         */
+        @NotNull
+        public List<Integer> failedCycles() {
+            return Collections.unmodifiableList(failedCycles);
+        }
+
+        public boolean isRecovered() {
+            return !recoveredHeaders.isEmpty() || !endedCycles.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "cyclesChecked=" + cyclesChecked +
+                    ", recoveredHeaders=" + recoveredHeaders +
+                    ", endedCycles=" + endedCycles +
+                    ", unfinishedCycles=" + unfinishedCycles +
+                    ", failedCycles=" + failedCycles;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import static net.openhft.chronicle.queue.impl.StoreFileListener.NO_OP;
+
+/**
+ * Splits a queue into several by a key of each excerpt, the excerpts with the same key going to the same queue in the
+ * order they were written, see {@link ExcerptKeys#key(String)}.
+ * <p>
+ * The excerpts are copied as raw bytes, and each is written to the same cycle as in the queue split, which the queues
+ * split to have the roll cycle, wire type, block size and epoch of.
+ */
+public final class QueueSplitter {
+    private static final Logger LOG = LoggerFactory.getLogger(QueueSplitter.class);
+
+    @NotNull
+    private final Path source;
+    @NotNull
+    private final List<Path> targets;
+    @NotNull
+    private ToLongFunction<DocumentContext> key = ExcerptKeys.methodHash();
+
+    public QueueSplitter(@NotNull final Path source, @NotNull final List<Path> targets) {
+        if (targets.isEmpty())
+            throw new IllegalArgumentException("No queues to split " + source + " into");
+        this.source = source;
+        this.targets = targets;
+    }
+
+    /**
+     * @param key of each excerpt, which is split to the queue of its value modulo the number of queues
+     */
+    public QueueSplitter key(@NotNull final ToLongFunction<DocumentContext> key) {
+        this.key = key;
+        return this;
+    }
+
+    /**
+     * @return the number of excerpts written to each queue
+     */
+    @NotNull
+    public long[] split() {
+        if (!Files.exists(source))
+            throw new IllegalArgumentException(String.format("Path '%s' does not exist (absolute path '%s')", source, source.toAbsolutePath()));
+        final long start = System.currentTimeMillis();
+        final long[] counts = new long[targets.size()];
+        try (final SingleChronicleQueue from = SingleChronicleQueueBuilder.binary(source.toFile())
+                .readOnly(true)
+                .storeFileListener(NO_OP)
+                .build()) {
+            final SetTimeProvider time = new SetTimeProvider(0);
+            final SingleChronicleQueue[] to = new SingleChronicleQueue[targets.size()];
+            final ExcerptAppender[] appenders = new ExcerptAppender[targets.size()];
+            try {
+                for (int i = 0; i < to.length; i++) {
+                    to[i] = SingleChronicleQueueBuilder.builder(targets.get(i), from.wireType())
+                            .rollCycle(from.rollCycle())
+                            .blockSize(from.blockSize())
+                            .epoch(from.epoch())
+                            .timeProvider(time)
+                            .build();
+                    appenders[i] = to[i].acquireAppender();
+                }
+                final RollCycle rollCycle = from.rollCycle();
+                try (final ExcerptTailer tailer = from.createTailer()) {
+                    while (true) {
+                        try (DocumentContext dc = tailer.readingDocument()) {
+                            if (!dc.isPresent())
+                                break;
+                            final int queue = (int) Math.floorMod(key.applyAsLong(dc), (long) appenders.length);
+                            time.currentTimeMillis(from.epoch() + (long) rollCycle.toCycle(dc.index()) * rollCycle.lengthInMillis());
+                            final Bytes<?> bytes = dc.wire().bytes();
+                            appenders[queue].writeBytes(bytes);
+                            counts[queue]++;
+                        }
+                    }
+                }
+            } finally {
+                Closeable.closeQuietly(appenders);
+                Closeable.closeQuietly(to);
+            }
+        }
+        LOG.info("Split {} into {} queues of {} excerpts in {} ms", source, targets.size(), Arrays.toString(counts),
+                System.currentTimeMillis() - start);
+        return counts;
+    }
+}
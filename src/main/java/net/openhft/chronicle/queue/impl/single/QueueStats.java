@@ -0,0 +1,216 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.bytes.MethodReader;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.wire.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static net.openhft.chronicle.wire.Wires.SPB_HEADER_SIZE;
+
+/**
+ * Scans the cycles of a queue, in parallel, for what they hold and how they were written, see {@link CycleStats}.
+ * <p>
+ * The headers of each cycle file are walked directly for the sizes of the data, metadata and padding, then the
+ * messages are read with a {@link MethodReader} for the names of the methods called and the times in their
+ * {@link MessageHistory}.
+ */
+public enum QueueStats {
+    ;
+
+    /**
+     * @return the statistics of each cycle of a queue, in order
+     */
+    @NotNull
+    public static List<CycleStats> stats(@NotNull final SingleChronicleQueue queue) {
+        final int firstCycle = queue.firstCycle();
+        final int lastCycle = queue.lastCycle();
+        if (firstCycle > lastCycle)
+            return new ArrayList<>();
+        final NavigableSet<Long> cycles;
+        try {
+            cycles = queue.listCyclesBetween(firstCycle, lastCycle);
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+        return cycles.parallelStream()
+                .map(cycle -> stats(queue, cycle.intValue()))
+                .sorted((a, b) -> Integer.compare(a.cycle, b.cycle))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the totals of the statistics of the cycles of a queue
+     */
+    @NotNull
+    public static CycleStats total(@NotNull final SingleChronicleQueue queue, @NotNull final List<CycleStats> cycles) {
+        return CycleStats.total(queue.fileAbsolutePath(), cycles);
+    }
+
+    @NotNull
+    static CycleStats stats(@NotNull final SingleChronicleQueue queue, final int cycle) {
+        final CycleStats stats = new CycleStats();
+        stats.cycle = cycle;
+        stats.current = cycle >= queue.rollCycle().current(queue.time(), queue.epoch());
+        stats.indexSpacing = queue.indexSpacing();
+        final SingleChronicleQueueStore store = queue.storeForCycle(cycle, queue.epoch(), false, null);
+        if (store == null)
+            return stats;
+        try {
+            stats.file = store.file().getAbsolutePath();
+            stats.fileSize = store.file().length();
+            final MappedBytes bytes = store.bytes();
+            try {
+                walkHeaders(bytes, stats);
+            } finally {
+                bytes.releaseLast();
+            }
+        } finally {
+            queue.closeStore(store);
+        }
+        readMethods(queue, stats);
+
+        final RollCycle rollCycle = queue.rollCycle();
+        long millis = rollCycle.lengthInMillis();
+        if (stats.current) {
+            final long cycleStart = queue.epoch() + (long) cycle * rollCycle.lengthInMillis();
+            millis = Math.max(1, Math.min(millis, queue.time().currentTimeMillis() - cycleStart));
+        }
+        stats.finish(millis / 1e3);
+        return stats;
+    }
+
+    private static void walkHeaders(@NotNull final MappedBytes bytes, @NotNull final CycleStats stats) {
+        final long fileSize = stats.fileSize;
+        long position = 0;
+        long sequence = 0;
+        long lastIndexedPosition = -1;
+        long indexedBytes = 0;
+        stats.minMessageSize = Long.MAX_VALUE;
+        while (position + SPB_HEADER_SIZE <= fileSize) {
+            final int header = bytes.readVolatileInt(position);
+            if (header == 0 || Wires.isNotComplete(header))
+                break;
+            if (Wires.isEndOfFile(header)) {
+                position += SPB_HEADER_SIZE;
+                break;
+            }
+            final long length = Wires.lengthOf(header);
+            if (Wires.isData(header)) {
+                if (sequence % stats.indexSpacing == 0) {
+                    if (lastIndexedPosition >= 0) {
+                        final long distance = position - lastIndexedPosition;
+                        indexedBytes += distance;
+                        stats.maxBytesPerIndexEntry = Math.max(stats.maxBytesPerIndexEntry, distance);
+                    }
+                    lastIndexedPosition = position;
+                    stats.indexEntries++;
+                }
+                sequence++;
+                stats.dataMessages++;
+                stats.dataBytes += length;
+                stats.minMessageSize = Math.min(stats.minMessageSize, length);
+                stats.maxMessageSize = Math.max(stats.maxMessageSize, length);
+                stats.messageSizes.merge(sizeBucket(length), 1L, Long::sum);
+            } else {
+                stats.metadataMessages++;
+                stats.metadataBytes += length;
+            }
+            position += length + SPB_HEADER_SIZE;
+            // queue wires pad headers to 4 byte alignment
+            final long padding = -position & 0x3;
+            stats.paddingBytes += padding;
+            position += padding;
+        }
+        if (stats.dataMessages == 0)
+            stats.minMessageSize = 0;
+        // the headers themselves are overhead
+        stats.metadataBytes += (stats.dataMessages + stats.metadataMessages) * SPB_HEADER_SIZE;
+        stats.usedBytes = Math.min(position, fileSize);
+        // the current cycle is still being written to, its tail is not released until it rolls
+        stats.reclaimableBytes = stats.current ? 0 : fileSize - stats.usedBytes;
+        stats.averageBytesPerIndexEntry = stats.indexEntries > 1 ? indexedBytes / (stats.indexEntries - 1) : 0;
+    }
+
+    /**
+     * @return the smallest power of 2 the size is no more than
+     */
+    static long sizeBucket(final long size) {
+        return size <= 1 ? 1 : Long.highestOneBit(size - 1) << 1;
+    }
+
+    private static void readMethods(@NotNull final SingleChronicleQueue queue, @NotNull final CycleStats stats) {
+        if (stats.dataMessages == 0)
+            return;
+        final RollCycle rollCycle = queue.rollCycle();
+        final long lastIndex = rollCycle.toIndex(stats.cycle, stats.dataMessages - 1);
+        final Rates rates = new Rates();
+        try (final ExcerptTailer tailer = queue.createTailer()) {
+            if (!tailer.moveToIndex(rollCycle.toIndex(stats.cycle, 0)))
+                return;
+            final WireParselet parselet = (methodName, v) -> {
+                v.skipValue();
+                stats.methods.merge(methodName.toString(), 1L, Long::sum);
+                final MessageHistory history = MessageHistory.get();
+                if (history != null && history.timings() > 0)
+                    rates.onMessage(history.timing(0));
+            };
+            MessageHistory.set(new VanillaMessageHistory());
+            try (final MethodReader mr = new VanillaMethodReader(tailer, true, parselet, null, parselet)) {
+                while (tailer.index() <= lastIndex && mr.readOne()) {
+                    // counted by the parselet
+                }
+            }
+        } catch (Exception e) {
+            Jvm.warn().on(QueueStats.class, "Unable to read the methods of cycle " + stats.cycle + " of " + queue.fileAbsolutePath(), e);
+        }
+        rates.finish(stats);
+    }
+
+    /**
+     * Message rates from the first timing of each message history.
+     */
+    private static final class Rates {
+        private long first = Long.MAX_VALUE;
+        private long last = Long.MIN_VALUE;
+        private long messages = 0;
+        private long second = Long.MIN_VALUE;
+        private long perSecond = 0;
+        private long peakPerSecond = 0;
+        private long milli = Long.MIN_VALUE;
+        private long perMilli = 0;
+        private long peakPerMilli = 0;
+
+        void onMessage(final long nanos) {
+            first = Math.min(first, nanos);
+            last = Math.max(last, nanos);
+            messages++;
+            final long second = nanos / TimeUnit.SECONDS.toNanos(1);
+            perSecond = second == this.second ? perSecond + 1 : 1;
+            this.second = second;
+            peakPerSecond = Math.max(peakPerSecond, perSecond);
+            final long milli = nanos / TimeUnit.MILLISECONDS.toNanos(1);
+            perMilli = milli == this.milli ? perMilli + 1 : 1;
+            this.milli = milli;
+            peakPerMilli = Math.max(peakPerMilli, perMilli);
+        }
+
+        void finish(@NotNull final CycleStats stats) {
+            if (messages == 0)
+                return;
+            final double seconds = Math.max(last - first, 1) / 1e9;
+            stats.activeMessagesPerSecond = messages / seconds;
+            stats.peakMessagesPerSecond = peakPerSecond;
+            stats.peakMessagesPerMilli = peakPerMilli;
+        }
+    }
+}
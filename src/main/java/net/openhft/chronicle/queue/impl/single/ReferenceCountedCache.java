@@ -8,6 +8,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -19,12 +20,24 @@ public class ReferenceCountedCache<K, T extends ReferenceCounted & Closeable, V,
     private final Map<K, T> cache = new LinkedHashMap<>();
     private final Function<T, V> transformer;
     private final ThrowingFunction<K, T, E> creator;
+    private final Consumer<T> onRemoved;
     private final Runnable bgCleanup = this::bgCleanup;
 
     public ReferenceCountedCache(final Function<T, V> transformer,
                                  final ThrowingFunction<K, T, E> creator) {
+        this(transformer, creator, t -> {
+        });
+    }
+
+    /**
+     * @param onRemoved called when a value is removed from the cache, after it has been closed
+     */
+    public ReferenceCountedCache(final Function<T, V> transformer,
+                                 final ThrowingFunction<K, T, E> creator,
+                                 final Consumer<T> onRemoved) {
         this.transformer = transformer;
         this.creator = creator;
+        this.onRemoved = onRemoved;
     }
 
     @NotNull
@@ -51,6 +64,16 @@ public class ReferenceCountedCache<K, T extends ReferenceCounted & Closeable, V,
         return rv;
     }
 
+    /**
+     * @return true if the value for a key is referenced by anything other than this cache
+     */
+    boolean isInUse(@NotNull final K key) {
+        synchronized (cache) {
+            final T value = cache.get(key);
+            return value != null && value.refCount() > 1;
+        }
+    }
+
     @Override
     protected void performClose() {
         bgCleanup();
@@ -64,6 +87,7 @@ public class ReferenceCountedCache<K, T extends ReferenceCounted & Closeable, V,
                     } catch (Exception e) {
                         Jvm.debug().on(getClass(), e);
                     }
+                    onRemoved.accept(value);
                 }
             }
         }
@@ -88,6 +112,7 @@ public class ReferenceCountedCache<K, T extends ReferenceCounted & Closeable, V,
                     } catch (ClosedIllegalStateException e) {
                         // could be closed in the foreground
                     }
+                    onRemoved.accept(value);
                 }
                 return noOtherReferencers;
             });
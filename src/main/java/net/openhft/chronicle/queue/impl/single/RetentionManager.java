@@ -0,0 +1,134 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.threads.Threads;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes the oldest cycles of a queue while they are older than the max age, or the queue holds more than the max
+ * bytes or max cycles, see {@link SingleChronicleQueueBuilder#retentionPolicy(long, long, int)}.
+ * <p>
+ * A cycle is only deleted if every named tailer, see {@link SingleChronicleQueue#createTailer(String)}, has read past
+ * it, and the last cycle is never deleted. The queue runs this every second on a shared daemon thread, rather than on
+ * its event loop which may busy spin or be owned by the caller, and {@link #apply()} can also be called directly.
+ */
+public final class RetentionManager {
+    static final String THREAD_NAME = "queue~retention~daemon";
+    private static final Logger LOG = LoggerFactory.getLogger(RetentionManager.class);
+    private static final long INTERVAL_MS = 1000;
+    private static final ScheduledExecutorService EXECUTOR = Threads.acquireScheduledExecutorService(THREAD_NAME, true);
+
+    @NotNull
+    private final SingleChronicleQueue queue;
+    private final long maxAgeMillis;
+    private final long maxBytes;
+    private final int maxCycles;
+    @Nullable
+    private ScheduledFuture<?> future;
+    private volatile long bytesReclaimed = 0;
+    private volatile int cyclesDeleted = 0;
+
+    RetentionManager(@NotNull final SingleChronicleQueue queue,
+                     final long maxAgeMillis,
+                     final long maxBytes,
+                     final int maxCycles) {
+        this.queue = queue;
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxBytes = maxBytes;
+        this.maxCycles = maxCycles;
+    }
+
+    /**
+     * Runs {@link #apply()} periodically until {@link #stop()} is called or the queue is closed.
+     */
+    synchronized void start() {
+        if (future == null)
+            future = EXECUTOR.scheduleWithFixedDelay(this::applyQuietly, INTERVAL_MS, INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void stop() {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+    }
+
+    private void applyQuietly() {
+        if (queue.isClosed()) {
+            stop();
+            return;
+        }
+        try {
+            apply();
+        } catch (Throwable t) {
+            if (!queue.isClosed())
+                Jvm.warn().on(RetentionManager.class, "Failed to apply the retention policy to " + queue.fileAbsolutePath(), t);
+        }
+    }
+
+    /**
+     * Deletes the cycles which are beyond the retention policy, oldest first.
+     *
+     * @return the number of bytes reclaimed
+     */
+    public synchronized long apply() {
+        queue.throwExceptionIfClosed();
+
+        final int lastCycle = queue.lastCycle();
+        if (lastCycle == Integer.MIN_VALUE)
+            return 0;
+        // the cycles from the first a named tailer has yet to finish are kept.
+        final int keepFrom = Math.min(lastCycle, queue.firstCycleOfNamedTailers());
+        final long now = queue.time().currentTimeMillis();
+
+        final NavigableMap<Integer, Long> sizes = queue.cycleFileSizes();
+        long bytes = 0;
+        for (long size : sizes.values())
+            bytes += size;
+        int cycles = sizes.size();
+
+        long reclaimed = 0;
+        for (Map.Entry<Integer, Long> entry : sizes.entrySet()) {
+            final int cycle = entry.getKey();
+            if (cycle >= keepFrom)
+                break;
+            final boolean tooOld = now - queue.cycleEndMillis(cycle) >= maxAgeMillis;
+            if (!tooOld && bytes <= maxBytes && cycles <= maxCycles)
+                break;
+            final long freed = queue.deleteCycle(cycle);
+            if (freed < 0)
+                // try again next time, the cycles after it are newer anyway.
+                break;
+            bytes -= entry.getValue();
+            cycles--;
+            reclaimed += freed;
+            LOG.info("Deleted cycle {} of {} reclaiming {} bytes", cycle, queue.fileAbsolutePath(), freed);
+        }
+        bytesReclaimed += reclaimed;
+        cyclesDeleted += sizes.size() - cycles;
+        return reclaimed;
+    }
+
+    /**
+     * @return the total bytes reclaimed by this manager
+     */
+    public long bytesReclaimed() {
+        return bytesReclaimed;
+    }
+
+    /**
+     * @return the total number of cycles deleted by this manager
+     */
+    public int cyclesDeleted() {
+        return cyclesDeleted;
+    }
+}
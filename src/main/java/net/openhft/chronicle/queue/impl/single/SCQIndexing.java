@@ -415,8 +415,17 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
                               final long indexOfNext,
                               final long startAddress,
                               boolean inclusive) throws EOFException {
+        return linearScanByPosition(wire, toPosition, indexOfNext, startAddress, inclusive, null);
+    }
+
+    long linearScanByPosition(@NotNull final Wire wire,
+                              final long toPosition,
+                              final long indexOfNext,
+                              final long startAddress,
+                              boolean inclusive,
+                              @Nullable KnownPosition resolved) throws EOFException {
         long start = System.nanoTime();
-        long index = linearScanByPosition0(wire, toPosition, indexOfNext, startAddress, inclusive);
+        long index = linearScanByPosition0(wire, toPosition, indexOfNext, startAddress, inclusive, resolved);
         long end = System.nanoTime();
         int time = Jvm.isArm() ? 1_000_000 : 100_000;
         if (end > start + time) {
@@ -429,7 +438,8 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
                                final long toPosition,
                                long indexOfNext,
                                long startAddress,
-                               boolean inclusive) throws EOFException {
+                               boolean inclusive,
+                               @Nullable KnownPosition resolved) throws EOFException {
         assert toPosition >= 0;
         Bytes<?> bytes = wire.bytes();
         long i;
@@ -474,6 +484,8 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
                     break;
                 case DATA:
                     ++i;
+                    if (resolved != null)
+                        resolved.set(bytes.readPosition(), i);
                     break;
             }
 
@@ -497,6 +509,20 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
     long sequenceForPosition(@NotNull ExcerptContext ec,
                              final long position,
                              boolean inclusive) throws StreamCorruptedException {
+        return sequenceForPosition(ec, position, inclusive, null);
+    }
+
+    /**
+     * Finds the sequence number of the excerpt at {@code position} by binary searching the index for the closest
+     * indexed excerpt before it, so at most one index spacing of excerpts is scanned.
+     *
+     * @param known an excerpt whose sequence number is known, used instead of the index if it is closer to
+     *              {@code position}, and updated to the last excerpt resolved, or null
+     */
+    long sequenceForPosition(@NotNull ExcerptContext ec,
+                             final long position,
+                             boolean inclusive,
+                             @Nullable final KnownPosition known) throws StreamCorruptedException {
         long indexOfNext = 0;
         long lastKnownAddress = 0;
         @NotNull Wire wire = ec.wireForIndex();
@@ -505,14 +531,12 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
 
             int used2 = Maths.toUInt31(index2indexArr.getUsed());
             assert used2 > 0;
-            Outer:
             for (int index2 = used2 - 1; index2 >= 0; index2--) {
                 long secondaryAddress = getSecondaryAddress(wire, index2indexArr, index2);
                 if (secondaryAddress == 0)
                     continue;
 
                 LongArrayValues indexValues = arrayForAddress(wire, secondaryAddress);
-                // TODO use a binary rather than linear search
 
                 // check the first one to see if any in the index is appropriate.
                 int used = Maths.toUInt31(indexValues.getUsed());
@@ -525,32 +549,64 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
                 if (posN > position)
                     continue;
 
-                for (int index1 = used - 1; index1 >= 0; index1--) {
-                    long pos = indexValues.getVolatileValueAt(index1);
-                    // TODO pos shouldn't be 0, but holes in the index appear..
-                    if (pos == 0 || pos > position) {
-                        continue;
-                    }
-                    lastKnownAddress = pos;
-                    indexOfNext = ((long) index2 << (indexCountBits + indexSpacingBits)) + (index1 << indexSpacingBits);
-
-                    if (lastKnownAddress == position)
-                        return indexOfNext;
-
-                    break Outer;
-                }
+                int index1 = floorIndex(indexValues, used, position);
+                if (index1 < 0)
+                    continue;
+                lastKnownAddress = indexValues.getVolatileValueAt(index1);
+                indexOfNext = ((long) index2 << (indexCountBits + indexSpacingBits)) + (index1 << indexSpacingBits);
+                break;
             }
         } catch (IllegalStateException e) {
             if (Jvm.isDebugEnabled(getClass()))
                 Jvm.debug().on(getClass(), "Attempt to find " + Long.toHexString(position), e);
         }
+
+        if (known != null && known.position > lastKnownAddress && known.position <= position) {
+            lastKnownAddress = known.position;
+            indexOfNext = known.sequence;
+        } else if (lastKnownAddress == position && lastKnownAddress > 0) {
+            if (known != null)
+                known.set(position, indexOfNext);
+            return indexOfNext;
+        }
+
         try {
-            return linearScanByPosition(wire, position, indexOfNext, lastKnownAddress, inclusive);
+            return linearScanByPosition(wire, position, indexOfNext, lastKnownAddress, inclusive, known);
         } catch (EOFException e) {
             throw new IllegalStateException(e);
         }
     }
 
+    /**
+     * The positions in an index are in ascending order, apart from holes which are 0.
+     *
+     * @return the offset of the last position in the index which is set and not after {@code position}, or -1 if there isn't one.
+     */
+    static int floorIndex(@NotNull LongArrayValues indexValues, int used, long position) {
+        int low = 0;
+        int high = used - 1;
+        int found = -1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            int probe = mid;
+            long pos = indexValues.getVolatileValueAt(probe);
+            // an entry is set after its excerpt is written, by the appender which wrote it, so an entry can still be
+            // 0 while a later one is set. Probe back to the nearest entry set, the scan from it covering the hole.
+            while (pos == 0 && probe > low)
+                pos = indexValues.getVolatileValueAt(--probe);
+
+            if (pos == 0) {
+                low = mid + 1;
+            } else if (pos > position) {
+                high = probe - 1;
+            } else {
+                found = probe;
+                low = mid + 1;
+            }
+        }
+        return found;
+    }
+
     void initIndex(@NotNull Wire wire) throws StreamCorruptedException {
         long index2Index = this.index2Index.getVolatileValue();
 
@@ -653,6 +709,11 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
 
     public long lastSequenceNumber(@NotNull ExcerptContext ec)
             throws StreamCorruptedException {
+        return lastSequenceNumber(ec, null);
+    }
+
+    long lastSequenceNumber(@NotNull ExcerptContext ec, @Nullable KnownPosition known)
+            throws StreamCorruptedException {
         throwExceptionIfClosed();
 
         Sequence sequence1 = this.sequence;
@@ -667,11 +728,13 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
                     continue;
                 if (sequence == Sequence.NOT_FOUND)
                     break;
+                if (known != null)
+                    known.set(address, sequence);
                 return sequence;
             }
         }
 
-        return sequenceForPosition(ec, Long.MAX_VALUE, false);
+        return sequenceForPosition(ec, Long.MAX_VALUE, false, known);
     }
 
     @Override
@@ -749,4 +812,21 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
             values.close();
         }
     }
+
+    /**
+     * The position and sequence number of an excerpt in one store, which a lookup by position can scan forward from.
+     */
+    static final class KnownPosition {
+        long position = -1;
+        long sequence = -1;
+
+        void set(long position, long sequence) {
+            this.position = position;
+            this.sequence = sequence;
+        }
+
+        void clear() {
+            set(-1, -1);
+        }
+    }
 }
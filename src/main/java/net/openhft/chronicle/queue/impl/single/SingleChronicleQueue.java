@@ -22,6 +22,7 @@ import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.OS;
 import net.openhft.chronicle.core.annotation.PackageLocal;
 import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.io.BackgroundResourceReleaser;
 import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.core.threads.CleaningThreadLocal;
 import net.openhft.chronicle.core.threads.EventLoop;
@@ -43,8 +44,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.lang.ref.WeakReference;
+import java.nio.LongBuffer;
 import java.nio.channels.FileLock;
 import java.nio.channels.NonWritableChannelException;
+import java.nio.file.Files;
 import java.text.ParseException;
 import java.time.ZoneId;
 import java.util.*;
@@ -53,6 +56,7 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.*;
 
 import static net.openhft.chronicle.core.io.Closeable.closeQuietly;
@@ -89,6 +93,10 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
     @NotNull
     private final WireType wireType;
     private final long blockSize, overlapSize;
+    private final long hugePageSize;
+    final boolean transparentHugePages;
+    final boolean populateFirstChunk;
+    final int preallocateChunks;
     @NotNull
     private final Consumer<BytesRingBufferStats> onRingBufferStats;
     private final long bufferCapacity;
@@ -109,6 +117,26 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
     @NotNull
     private final DirectoryListing directoryListing;
     @NotNull
+    private final StorageTiers storageTiers;
+    private final long storageTierMaxAgeMillis;
+    private final long storageTierMaxBytes;
+    @NotNull
+    private final CycleExcerptCounts cycleCounts;
+    @NotNull
+    private final CycleBloomFilters bloomFilters;
+    @NotNull
+    private final CycleProjections projections;
+    @NotNull
+    private final CycleChecksums checksums;
+    @NotNull
+    final ChecksumMode checksumMode;
+    @Nullable
+    private final RetentionManager retentionManager;
+    @Nullable
+    private final EagerStoreOpener eagerStoreOpener;
+    @Nullable
+    private final CycleFileRecycler cycleFileRecycler;
+    @NotNull
     private final QueueLock queueLock;
     @NotNull
     private final WriteLock writeLock;
@@ -118,6 +146,7 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
     private final WriteLock appendLock;
     protected int sourceId;
     long firstAndLastCycleTime = 0;
+    private long directoryScanTime = 0;
     int firstCycle = Integer.MAX_VALUE, lastCycle = Integer.MIN_VALUE;
     protected final boolean doubleBuffer;
     private StoreFileListener storeFileListener;
@@ -145,6 +174,10 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
             wireType = builder.wireType();
             blockSize = builder.blockSize();
             overlapSize = Math.max(64 << 10, builder.blockSize() / 4);
+            hugePageSize = builder.hugePageSize();
+            transparentHugePages = builder.transparentHugePages();
+            populateFirstChunk = builder.populateFirstChunk();
+            preallocateChunks = builder.preallocateChunks();
             eventLoop = builder.eventLoop();
             bufferCapacity = builder.bufferCapacity();
             onRingBufferStats = builder.onRingBufferStats();
@@ -165,14 +198,29 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
             }
             readOnly = builder.readOnly();
 
+            storageTiers = new StorageTiers(path, builder.storageTiers());
+            storageTierMaxAgeMillis = builder.storageTierMaxAgeMillis();
+            storageTierMaxBytes = builder.storageTierMaxBytes();
+
             if (readOnly) {
-                this.directoryListing = new FileSystemDirectoryListing(path, fileToCycleFunction());
+                // scans the directory on each refresh, it can't use the listing in the metadata
+                this.directoryListing = new FileSystemDirectoryListing(storageTiers, fileToCycleFunction());
             } else {
-                this.directoryListing = new TableDirectoryListing(metaStore, path.toPath(), fileToCycleFunction(), false);
+                this.directoryListing = new TableDirectoryListing(metaStore, storageTiers, fileToCycleFunction(), false);
                 directoryListing.init();
             }
 
-            this.directoryListing.refresh(true);
+            refreshDirectoryListingIfStale();
+            directoryScanTime = System.currentTimeMillis();
+            this.cycleCounts = new CycleExcerptCounts(cycleCountsFile(), readOnly);
+            this.bloomFilters = new CycleBloomFilters(this::bloomFilterFile,
+                    builder.bloomFilterKeyExtractor(),
+                    builder.bloomFilterExpectedExcerpts(),
+                    builder.bloomFilterFalsePositiveProbability(),
+                    readOnly);
+            this.projections = new CycleProjections(this::projectionFile, builder.projections(), readOnly);
+            this.checksums = new CycleChecksums(this::checksumFile, builder.checksums() && !readOnly);
+            this.checksumMode = builder.checksumMode();
             this.queueLock = builder.queueLock();
             this.writeLock = builder.writeLock();
 
@@ -194,6 +242,32 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
             this.deltaCheckpointInterval = builder.deltaCheckpointInterval();
 
             sourceId = builder.sourceId();
+
+            if (builder.hasRetentionPolicy() && !readOnly) {
+                retentionManager = new RetentionManager(this,
+                        builder.retentionMaxAgeMillis(),
+                        builder.retentionMaxBytes(),
+                        builder.retentionMaxCycles());
+                retentionManager.start();
+            } else {
+                retentionManager = null;
+            }
+
+            if (builder.ringCycles() > 0 && !readOnly) {
+                // the cycles read by unnamed tailers of other processes can't be seen, so they may be zeroed under them
+                LOG.warn("Recycling all but the last {} cycles of {}, tailers in other processes must be named to keep " +
+                        "the cycles they have yet to read", builder.ringCycles(), fileAbsolutePath());
+                cycleFileRecycler = new CycleFileRecycler(this, builder.ringCycles());
+            } else {
+                cycleFileRecycler = null;
+            }
+
+            eagerStoreOpener = builder.eagerOpenCycles() > 0
+                    ? new EagerStoreOpener(this, builder.eagerOpenCycles())
+                    : null;
+
+            if (builder.recoverOnOpen() && !readOnly)
+                QueueRecovery.recover(this);
         } catch (Throwable t) {
             close();
             throw Jvm.rethrow(t);
@@ -209,6 +283,31 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
         return ThreadLocalHelper.getTL(tlTailer, this, q -> new StoreTailer(q, q.pool));
     }
 
+    @NotNull
+    private File cycleCountsFile() {
+        return "".equals(path.getPath())
+                ? new File(CycleExcerptCounts.FILE_NAME)
+                : new File(path, CycleExcerptCounts.FILE_NAME);
+    }
+
+    @NotNull
+    private File bloomFilterFile(int cycle) {
+        final String path = dateCache.resourceFor(cycle).path.getPath();
+        return new File(path.substring(0, path.length() - SUFFIX.length()) + CycleBloomFilters.SUFFIX);
+    }
+
+    @NotNull
+    private File checksumFile(int cycle) {
+        final String path = dateCache.resourceFor(cycle).path.getPath();
+        return new File(path.substring(0, path.length() - SUFFIX.length()) + CycleChecksums.SUFFIX);
+    }
+
+    @NotNull
+    private File projectionFile(int cycle, String column) {
+        final String path = dateCache.resourceFor(cycle).path.getPath();
+        return new File(path.substring(0, path.length() - SUFFIX.length()) + "." + column + CycleProjections.SUFFIX);
+    }
+
     @NotNull
     private Function<String, File> textToFile(@NotNull SingleChronicleQueueBuilder builder) {
         return name -> new File(builder.path(), name + SUFFIX);
@@ -450,7 +549,7 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
                 ? null
                 : metaStore.doWithExclusiveLock(ts -> ts.acquireValueFor("index." + id, 0));
         final StoreTailer storeTailer = new StoreTailer(this, pool, index);
-        directoryListing.refresh(true);
+        refreshDirectoryListingIfStale();
         storeTailer.clearUsedByThread();
         return storeTailer;
     }
@@ -494,6 +593,353 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
         }
     }
 
+    /**
+     * Counts excerpts forward a cycle at a time, rather than reading them.
+     *
+     * @param fromIndex the index to skip from
+     * @param excerpts  the number of excerpts to skip
+     * @return the index after skipping this many excerpts from an index, or the start of the cycle after the last one
+     * skipped if there are fewer excerpts
+     */
+    public long skipExcerpts(long fromIndex, long excerpts) {
+        throwExceptionIfClosed();
+
+        int cycle = rollCycle.toCycle(fromIndex);
+        long sequence = rollCycle.toSequenceNumber(fromIndex);
+        final int firstCycle = Math.max(firstCycle(), cycle);
+        final int lastCycle = lastCycle();
+        if (firstCycle <= lastCycle) {
+            try {
+                for (long c : listCyclesBetween(firstCycle, lastCycle)) {
+                    if (c != cycle)
+                        sequence = 0;
+                    cycle = (int) c;
+                    final long remaining = excerptsInCycle(cycle) - sequence;
+                    if (excerpts < remaining)
+                        return rollCycle.toIndex(cycle, sequence + excerpts);
+                    excerpts -= Math.max(0, remaining);
+                }
+            } catch (ParseException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return rollCycle.toIndex(cycle + 1, 0);
+    }
+
+    /**
+     * @return the number of excerpts in a cycle, using the count recorded when the cycle was completed if there is one.
+     */
+    long excerptsInCycle(int cycle) {
+        final long count = cycleCounts.count(cycle);
+        return count >= 0 ? count : exceptsPerCycle(cycle);
+    }
+
+    /**
+     * allows the appenders to inform the queue that a cycle has been completed i.e. its EOF has been written
+     *
+     * @param cycle the cycle completed
+     * @param count the number of excerpts in the cycle
+     */
+    void onCycleCompleted(int cycle, long count) {
+        cycleCounts.cycleCompleted(cycle, count);
+        if (storageTiers.hasArchive())
+            StorageTiers.moveInBackground(() -> {
+                try {
+                    if (!isClosed())
+                        moveCyclesToStorageTiers();
+                } catch (Exception e) {
+                    Jvm.warn().on(SingleChronicleQueue.class, "Unable to move cycles to the storage tiers", e);
+                }
+            });
+    }
+
+    /**
+     * Moves the completed cycles which are older than the storage tier max age, or beyond its max bytes, to the next
+     * storage tier, see {@link SingleChronicleQueueBuilder#storageTiers(File...)}. This is run after each roll.
+     *
+     * @return the number of cycles moved
+     */
+    public int moveCyclesToStorageTiers() {
+        throwExceptionIfClosed();
+
+        if (!storageTiers.hasArchive())
+            return 0;
+        // the last cycle may still be written to
+        final int lastCycle = lastCycle();
+        final long now = time.currentTimeMillis();
+        return storageTiers.moveCycles(fileToCycleFunction(),
+                cycle -> cycle < lastCycle,
+                cycle -> now - cycleEndMillis(cycle) >= storageTierMaxAgeMillis,
+                storageTierMaxBytes);
+    }
+
+    /**
+     * @return the time a cycle ended, or will end
+     */
+    long cycleEndMillis(int cycle) {
+        return epoch + (cycle + 1L) * rollCycle.length();
+    }
+
+    /**
+     * @return the retention manager of this queue, or null if it has no retention policy, see
+     * {@link SingleChronicleQueueBuilder#retentionPolicy(long, long, int)}
+     */
+    @Nullable
+    public RetentionManager retentionManager() {
+        return retentionManager;
+    }
+
+    /**
+     * @return the bytes of each cycle in any storage tier, compressed or not, by cycle
+     */
+    @NotNull
+    NavigableMap<Integer, Long> cycleFileSizes() {
+        final ToIntFunction<File> fileToCycle = fileToCycleFunction();
+        final NavigableMap<Integer, Long> sizes = new TreeMap<>();
+        for (File file : storageTiers.listCycleFiles())
+            sizes.merge(fileToCycle.applyAsInt(file), file.length(), Long::sum);
+        return sizes;
+    }
+
+    /**
+     * @return the first cycle a named tailer has yet to read to the end of, or Integer.MAX_VALUE if there are none
+     */
+    int firstCycleOfNamedTailers() {
+        final int[] first = {Integer.MAX_VALUE};
+        metaStore.forEachKey(first, (min, key, value) -> {
+            if (!key.toString().startsWith("index."))
+                return;
+            // an index of 0 is a tailer yet to read anything, which is before every cycle
+            final long index = value.int64();
+            min[0] = Math.min(min[0], index <= 0 ? 0 : rollCycle.toCycle(index));
+        });
+        return first[0];
+    }
+
+    /**
+     * Deletes a cycle from every storage tier with its sidecar files, and updates the directory listing.
+     *
+     * @param cycle to delete
+     * @return the number of bytes freed, or -1 if the cycle file couldn't be deleted
+     */
+    long deleteCycle(int cycle) {
+        final File cycleFile = dateCache.resourceFor(cycle).path;
+        writeLock.lock();
+        try {
+            final long freed = storageTiers.delete(cycleFile);
+            if (freed < 0) {
+                Jvm.warn().on(SingleChronicleQueue.class, "Unable to delete " + cycleFile + ", it may be in use");
+                return -1;
+            }
+            directoryListing.onFileDeleted(cycleFile, cycle);
+            directoryListing.refresh(true);
+            firstAndLastCycleTime = 0;
+            return freed + deleteSidecarFiles(cycleFile);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Clears a cycle which is no longer read and renames its file, so it can be used for another cycle without creating
+     * a file, see {@link CycleFileRecycler}. Only the part of the file written to is cleared.
+     *
+     * @param cycle  to recycle
+     * @param target the new name of its file
+     * @return true if the file was recycled, false if it is in use or no longer in this directory
+     */
+    boolean recycleCycle(int cycle, @NotNull File target) {
+        final File cycleFile = dateCache.resourceFor(cycle).path;
+        writeLock.lock();
+        try {
+            // compressed or moved to another storage tier
+            if (!cycleFile.exists())
+                return false;
+            // checked again holding the lock, a tailer may have moved to the cycle since it was chosen
+            if (cycle >= firstCycleOfNamedTailers() || isCycleInUse(cycle))
+                return false;
+            final SingleChronicleQueueStore store = storeForCycle(cycle, epoch, false, null);
+            if (store == null)
+                return false;
+            try {
+                final MappedBytes bytes = store.bytes();
+                try {
+                    final long lastExcerpt = store.writePosition();
+                    // to the end of the last excerpt and the end of file marker after it
+                    final long end = lastExcerpt + lengthOf(bytes.readVolatileInt(lastExcerpt)) + 2L * SPB_HEADER_SIZE;
+                    bytes.zeroOut(0, Math.min(end, cycleFile.length()));
+                } finally {
+                    bytes.releaseLast();
+                }
+            } finally {
+                closeStore(store);
+            }
+            if (!cycleFile.renameTo(target)) {
+                Jvm.warn().on(SingleChronicleQueue.class, "Unable to rename " + cycleFile + " to " + target);
+                return false;
+            }
+            directoryListing.onFileDeleted(cycleFile, cycle);
+            directoryListing.refresh(true);
+            firstAndLastCycleTime = 0;
+            deleteSidecarFiles(cycleFile);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return true if name is the name of a cycle in the roll cycle format of this queue, without the suffix
+     */
+    boolean isCycleName(@NotNull String name) {
+        try {
+            dateCache.parseCount(name);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @NotNull
+    File cycleFile(int cycle) {
+        return dateCache.resourceFor(cycle).path;
+    }
+
+    /**
+     * @return true if a store of the cycle is held in this process, e.g. by a tailer reading it
+     */
+    boolean isCycleInUse(int cycle) {
+        return storeSupplier.isInUse(storageTiers.locate(cycleFile(cycle)));
+    }
+
+    @Nullable
+    CycleFileRecycler cycleFileRecycler() {
+        return cycleFileRecycler;
+    }
+
+    private long deleteSidecarFiles(@NotNull File cycleFile) {
+        final String name = cycleFile.getName();
+        final String prefix = name.substring(0, name.length() - SUFFIX.length()) + ".";
+        final File dir = cycleFile.getAbsoluteFile().getParentFile();
+        final File[] files = dir.listFiles((d, n) -> n.startsWith(prefix)
+                && (n.endsWith(CycleBloomFilters.SUFFIX)
+                || n.endsWith(CycleProjections.SUFFIX)
+                || n.endsWith(CycleChecksums.SUFFIX)));
+        long freed = 0;
+        if (files != null)
+            for (File file : files) {
+                final long length = file.length();
+                if (file.delete())
+                    freed += length;
+            }
+        return freed;
+    }
+
+    @Nullable
+    CycleBloomFilters bloomFilters() {
+        return bloomFilters.isAppending() ? bloomFilters : null;
+    }
+
+    @Nullable
+    CycleProjections projections() {
+        return projections.isAppending() ? projections : null;
+    }
+
+    @Nullable
+    CycleChecksums checksums() {
+        return checksums.isAppending() ? checksums : null;
+    }
+
+    /**
+     * @return a reader of the checksums of this queue, for a single thread
+     */
+    @NotNull
+    CycleChecksums.Reader checksumReader() {
+        return checksums.reader();
+    }
+
+    /**
+     * Maps a column written by the projections of this queue, see
+     * {@link SingleChronicleQueueBuilder#projection(String, BinarySearch.KeyExtractor)}. The buffer holds a value for
+     * each excerpt of the cycle, in index order, so the value of the excerpt with sequence number n is at position n.
+     * It is mapped read only in native byte order, and the mapping is released when the buffer is garbage collected.
+     *
+     * @param column name of the column
+     * @param cycle  to read
+     * @return the column, or null if the cycle has no such column
+     * @throws IOException if the column file can't be mapped
+     */
+    @Nullable
+    public LongBuffer projection(@NotNull String column, int cycle) throws IOException {
+        throwExceptionIfClosed();
+
+        return projections.column(cycle, column, excerptsInCycle(cycle));
+    }
+
+    /**
+     * Writes the configured projections of a cycle from its excerpts, e.g. for a cycle written before the projections
+     * were configured. Values already written are overwritten.
+     *
+     * @param cycle to project
+     */
+    public void writeProjections(int cycle) {
+        throwExceptionIfClosed();
+
+        if (!projections.isAppending())
+            throw new IllegalStateException("No projections to write, see SingleChronicleQueueBuilder.projection(..)");
+
+        try (ExcerptTailer tailer = createTailer();
+             CycleProjections.Writer writer = projections.writer(cycle)) {
+            if (writer == null || !tailer.moveToIndex(rollCycle.toIndex(cycle, 0)))
+                return;
+            for (; ; ) {
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    if (!dc.isPresent() || rollCycle.toCycle(dc.index()) != cycle)
+                        return;
+                    writer.add(rollCycle.toSequenceNumber(dc.index()), dc.wire().bytes());
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the bloom filters of the cycles between lowerCycle and upperCycle for a key, see
+     * {@link SingleChronicleQueueBuilder#bloomFilter(BinarySearch.KeyExtractor, long, double)}.
+     * A cycle without a bloom filter might contain any key.
+     *
+     * @param key        to look for
+     * @param lowerCycle the first cycle to check
+     * @param upperCycle the last cycle to check
+     * @return false if none of the cycles has an excerpt with this key, true if one might have.
+     */
+    public boolean mightContain(long key, int lowerCycle, int upperCycle) {
+        return cyclesWhichMightContain(key, lowerCycle, upperCycle).length > 0;
+    }
+
+    /**
+     * @param key        to look for
+     * @param lowerCycle the first cycle to check
+     * @param upperCycle the last cycle to check
+     * @return the cycles between lowerCycle and upperCycle which might have an excerpt with this key, in ascending
+     * order, so only these need to be read.
+     * @see #mightContain(long, int, int)
+     */
+    @NotNull
+    public int[] cyclesWhichMightContain(long key, int lowerCycle, int upperCycle) {
+        throwExceptionIfClosed();
+
+        final NavigableSet<Long> cycles;
+        try {
+            cycles = listCyclesBetween(lowerCycle, upperCycle);
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+        return cycles.stream()
+                .mapToInt(Long::intValue)
+                .filter(cycle -> bloomFilters.mightContain(cycle, key))
+                .toArray();
+    }
+
     /**
      * Will give you the number of excerpts between 2 index?s ( as exists on the current file system ). If intermediate chronicle files are removed
      * this will effect the result.
@@ -544,7 +990,7 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
         long lowerSeqNum = rollCycle.toSequenceNumber(fromIndex);
 
         if (lowerCycle + 1 == upperCycle) {
-            long l = exceptsPerCycle(lowerCycle);
+            long l = excerptsInCycle(lowerCycle);
             result += (l - lowerSeqNum) + upperSeqNum;
             return result;
         }
@@ -559,7 +1005,7 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
         if (cycles.first() == lowerCycle) {
             // because we are inclusive, for example  if we were at the end, then this
             // is 1 except rather than zero
-            long l = exceptsPerCycle(lowerCycle);
+            long l = excerptsInCycle(lowerCycle);
             result += (l - lowerSeqNum);
         } else
             throw new IllegalStateException("Cycle not found, lower-cycle=" + Long.toHexString(lowerCycle));
@@ -573,8 +1019,13 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
             return result;
 
         final long[] array = cycles.stream().mapToLong(i -> i).toArray();
+        // the cycles in between are complete, so their counts are usually recorded.
+        final long recorded = cycleCounts.sumOfCounts(array, 1, array.length - 1);
+        if (recorded >= 0)
+            return result + recorded;
+
         for (int i = 1; i < array.length - 1; i++) {
-            long x = exceptsPerCycle(Math.toIntExact(array[i]));
+            long x = excerptsInCycle(Math.toIntExact(array[i]));
             result += x;
         }
 
@@ -598,6 +1049,8 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
     @SuppressWarnings("unchecked")
     @Override
     protected void performClose() {
+        if (retentionManager != null)
+            retentionManager.stop();
         synchronized (closers) {
             metaStoreMap.values().forEach(Closeable::closeQuietly);
             metaStoreMap.clear();
@@ -605,7 +1058,12 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
             closers.clear();
 
             // must be closed after closers.
-            closeQuietly(directoryListing,
+            closeQuietly(eagerStoreOpener,
+                    directoryListing,
+                    cycleCounts,
+                    bloomFilters,
+                    projections,
+                    checksums,
                     queueLock,
                     lastAcknowledgedIndexReplicated,
                     lastIndexReplicated,
@@ -627,6 +1085,27 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
         warnAndCloseIfNotClosed();
     }
 
+    /**
+     * Called by a tailer when it moves to a new cycle.
+     */
+    void onTailerCycle(@NotNull final StoreTailer tailer, final int cycle, @NotNull final TailerDirection direction) {
+        if (eagerStoreOpener != null)
+            eagerStoreOpener.onCycle(tailer, cycle, direction);
+    }
+
+    /**
+     * Called by a tailer when it is closed.
+     */
+    void onTailerClosed(@NotNull final StoreTailer tailer) {
+        if (eagerStoreOpener != null)
+            eagerStoreOpener.onClosed(tailer);
+    }
+
+    @Nullable
+    EagerStoreOpener eagerStoreOpener() {
+        return eagerStoreOpener;
+    }
+
     public final void closeStore(@Nullable SingleChronicleQueueStore store) {
         if (store != null)
             this.pool.closeStore(store);
@@ -668,13 +1147,36 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
         return path.list();
     }
 
+    /**
+     * Scans the directory only if the first and last cycles held by the directory listing are out of date, e.g. the
+     * first cycle was deleted by another process, so opening a queue doesn't depend on the number of cycle files.
+     * Cycles created by other processes are added to the listing as they are created. Read-only queues, and finding
+     * the next cycle with a file when a tailer rolls past a gap, still list the directory.
+     */
+    private void refreshDirectoryListingIfStale() {
+        if (directoryListing.modCount() == -1 || !directoryListingIsCurrent())
+            directoryListing.refresh(true);
+    }
+
+    private boolean directoryListingIsCurrent() {
+        final int min = directoryListing.getMinCreatedCycle();
+        final int max = directoryListing.getMaxCreatedCycle();
+        return min <= max
+                && storageTiers.contains(dateCache.resourceFor(min).path)
+                && storageTiers.contains(dateCache.resourceFor(max).path);
+    }
+
     private void setFirstAndLastCycle() {
         long now = System.currentTimeMillis();
         if (now <= firstAndLastCycleTime) {
             return;
         }
 
-        directoryListing.refresh(now - firstAndLastCycleTime > 60_000);
+        // the listing is kept current as cycles are created, the occasional scan picks up files changed by hand
+        final boolean scan = now - directoryScanTime > 60_000;
+        directoryListing.refresh(scan);
+        if (scan)
+            directoryScanTime = now;
         firstCycle = directoryListing.getMinCreatedCycle();
         lastCycle = directoryListing.getMaxCreatedCycle();
 
@@ -739,15 +1241,52 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
     @NotNull
     @PackageLocal
     MappedFile mappedFile(File file) throws FileNotFoundException {
-        long chunkSize = OS.pageAlign(blockSize);
-        long overlapSize = OS.pageAlign(blockSize / 4);
-        return MappedFile.of(file, chunkSize, overlapSize, readOnly);
+        long chunkSize = pageAlign(blockSize);
+        long overlapSize = pageAlign(blockSize / 4);
+        final MappedFile mappedFile = MappedFile.of(file, chunkSize, overlapSize, readOnly);
+        mappedFile.setNewChunkListener(chunkListener(mappedFile, null));
+        return mappedFile;
+    }
+
+    /**
+     * A mapped file has a single chunk listener, so anything else listening for new chunks, e.g. the {@link Pretoucher},
+     * sets the listener returned here to keep the chunks counted against the {@link MappedMemoryBudget}.
+     *
+     * @param mappedFile of a cycle of this queue
+     * @param next       called after the chunk is counted, or null
+     * @return a listener which counts the chunks mapped by mappedFile and then calls next
+     */
+    @NotNull
+    NewChunkListener chunkListener(@NotNull final MappedFile mappedFile, @Nullable final NewChunkListener next) {
+        final long mappedSize = pageAlign(blockSize) + pageAlign(blockSize / 4);
+        return (filename, chunk, delayMicros) -> {
+            MappedMemoryBudget.INSTANCE.onMapped(mappedFile, mappedSize);
+            if (next != null)
+                next.onNewChunk(filename, chunk, delayMicros);
+        };
+    }
+
+    private long pageAlign(long size) {
+        return hugePageSize == OS.pageSize()
+                ? OS.pageAlign(size)
+                : (size + hugePageSize - 1) & -hugePageSize;
     }
 
     boolean isReadOnly() {
         return readOnly;
     }
 
+    /**
+     * Unmaps the cycle files no store is using now, rather than in the background.
+     */
+    void releaseUnusedMappedFiles() {
+        storeSupplier.releaseUnusedMappedFiles();
+    }
+
+    boolean recoverFirstHeader(final int cycle) throws IOException, TimeoutException {
+        return storeSupplier.recoverFirstHeader(cycle);
+    }
+
     private int toCycle(@Nullable Map.Entry<Long, File> entry) {
         if (entry == null || entry.getValue() == null)
             return -1;
@@ -771,7 +1310,7 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
     @NotNull
     private ToIntFunction<File> fileToCycleFunction() {
         return f -> {
-            final String name = f.getName();
+            final String name = CompressedCycleFile.cycleFile(f).getName();
             return dateCache.parseCount(name.substring(0, name.length() - SUFFIX.length()));
         };
     }
@@ -791,27 +1330,35 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
         writeLock.lock();
 
         try {
+            boolean deleted = false;
             int cycle = cycle();
             for (int lastCycle = lastCycle(); lastCycle < cycle && lastCycle >= 0; lastCycle--) {
                 try (final SingleChronicleQueueStore store = this.pool.acquire(lastCycle, epoch(), false, null)) {
                     // file not found.
                     if (store == null)
                         break;
-                    if (store.writePosition() == 0 && !store.file().delete() && store.file().exists()) {
-                        // couldn't delete? Let's try writing EOF
-                        // if this blows up we should blow up too so don't catch anything
-                        MappedBytes bytes = store.bytes();
-                        try {
-                            store.writeEOFAndShrink(wireType.apply(bytes), timeoutMS);
-                        } finally {
-                            bytes.releaseLast();
+                    if (store.writePosition() == 0) {
+                        if (store.file().delete()) {
+                            directoryListing.onFileDeleted(store.file(), lastCycle);
+                            deleted = true;
+                        } else if (store.file().exists()) {
+                            // couldn't delete? Let's try writing EOF
+                            // if this blows up we should blow up too so don't catch anything
+                            MappedBytes bytes = store.bytes();
+                            try {
+                                store.writeEOFAndShrink(wireType.apply(bytes), timeoutMS);
+                            } finally {
+                                bytes.releaseLast();
+                            }
+                            continue;
                         }
-                        continue;
                     }
                     break;
                 }
             }
-            directoryListing.refresh(true);
+            // the listing is only scanned if a file was deleted, so creating an appender doesn't list every cycle
+            if (deleted)
+                directoryListing.refresh(true);
             firstAndLastCycleTime = 0;
         } finally {
             writeLock.unlock();
@@ -869,22 +1416,101 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
     private static final class CachedCycleTree {
         private final long directoryModCount;
         private final NavigableMap<Long, File> cachedCycleTree;
+        // the key of each file listed, so a rebuilt tree only parses the names of new files
+        private final Map<File, Long> keys;
 
-        CachedCycleTree(final long directoryModCount, final NavigableMap<Long, File> cachedCycleTree) {
+        CachedCycleTree(final long directoryModCount, final NavigableMap<Long, File> cachedCycleTree, final Map<File, Long> keys) {
             this.directoryModCount = directoryModCount;
             this.cachedCycleTree = cachedCycleTree;
+            this.keys = keys;
         }
     }
 
     class StoreSupplier extends AbstractCloseable implements WireStoreSupplier {
         private final AtomicReference<CachedCycleTree> cachedTree = new AtomicReference<>();
         private final ReferenceCountedCache<File, MappedFile, MappedBytes, IOException> mappedFileCache;
+        // the cycle files restored from compressed files, true while mapped
+        private final Map<File, Boolean> restoredFiles = new ConcurrentHashMap<>();
+        // per restored cycle file, held from restoring it until it is mapped, so it isn't deleted in between
+        private final Map<File, ReentrantLock> restoreLocks = new ConcurrentHashMap<>();
+        private final Runnable deleteUnmappedRestores = () -> deleteUnmappedRestores(false);
         private boolean queuePathExists;
 
         private StoreSupplier() {
             mappedFileCache = new ReferenceCountedCache<>(
                     MappedBytes::mappedBytes,
-                    SingleChronicleQueue.this::mappedFile);
+                    SingleChronicleQueue.this::mappedFile,
+                    this::onUnmapped);
+        }
+
+        private void onUnmapped(@NotNull final MappedFile mappedFile) {
+            MappedMemoryBudget.INSTANCE.onUnmapped(mappedFile);
+            // called holding the lock of the cache, so the restored file is deleted later
+            if (restoredFiles.replace(mappedFile.file(), Boolean.TRUE, Boolean.FALSE))
+                BackgroundResourceReleaser.run(deleteUnmappedRestores);
+        }
+
+        /**
+         * Restores a compressed cycle file, to be deleted once it is no longer mapped.
+         *
+         * @return true if the cycle file was restored
+         */
+        private boolean restoreIfCompressed(@NotNull final File path) throws IOException {
+            // recorded before the cycle file appears, so acquiring it without the restore lock can't miss it
+            final boolean added = restoredFiles.putIfAbsent(path, Boolean.FALSE) == null;
+            boolean restored = false;
+            try {
+                restored = CompressedCycleFile.restoreIfCompressed(path);
+                return restored;
+            } finally {
+                if (added && !restored)
+                    restoredFiles.remove(path, Boolean.FALSE);
+            }
+        }
+
+        /**
+         * Locks a cycle file restored, or which may be restored, from a compressed file. Other cycle files are acquired
+         * without locking.
+         *
+         * @return the lock held, or null if none is needed
+         */
+        @Nullable
+        private ReentrantLock lockIfRestored(@NotNull final File path) {
+            if (path.exists() ? !restoredFiles.containsKey(path) : !CompressedCycleFile.compressedFile(path).exists())
+                return null;
+            final ReentrantLock lock = restoreLocks.computeIfAbsent(path, f -> new ReentrantLock());
+            lock.lock();
+            return lock;
+        }
+
+        /**
+         * Deletes the cycle files restored from compressed files which are no longer mapped, the compressed files being
+         * kept. This doesn't wait for a cycle being acquired unless {@code wait}, as it may be called holding the lock of
+         * the cache of mapped files which acquiring a cycle takes.
+         */
+        private void deleteUnmappedRestores(final boolean wait) {
+            for (Map.Entry<File, Boolean> entry : restoredFiles.entrySet()) {
+                final File file = entry.getKey();
+                if (entry.getValue())
+                    continue;
+                final ReentrantLock lock = restoreLocks.computeIfAbsent(file, f -> new ReentrantLock());
+                if (wait)
+                    lock.lock();
+                else if (!lock.tryLock())
+                    continue;
+                try {
+                    if (!restoredFiles.remove(file, Boolean.FALSE))
+                        continue;
+                    Files.deleteIfExists(file.toPath());
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("Deleted {} restored from {}", file, CompressedCycleFile.compressedFile(file));
+                } catch (IOException e) {
+                    // e.g. mapped by another process on Windows
+                    Jvm.debug().on(getClass(), "Unable to delete restored cycle file " + file, e);
+                } finally {
+                    lock.unlock();
+                }
+            }
         }
 
         @SuppressWarnings("resource")
@@ -896,17 +1522,21 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
             @NotNull final RollingResourcesCache.Resource dateValue = that
                     .dateCache.resourceFor(cycle);
             MappedBytes mappedBytes = null;
+            ReentrantLock restoreLock = null;
             try {
-                File path = dateValue.path;
+                File path = storageTiers.locate(dateValue.path);
 
                 directoryListing.refresh(false);
                 if (!createIfAbsent &&
                         (cycle > directoryListing.getMaxCreatedCycle()
-                                || cycle < directoryListing.getMinCreatedCycle()
-                                || !path.exists())) {
+                                || cycle < directoryListing.getMinCreatedCycle())) {
                     return null;
                 }
 
+                restoreLock = lockIfRestored(path);
+                if (!path.exists() && !(restoreLock != null && restoreIfCompressed(path)) && !createIfAbsent && !path.exists())
+                    return null;
+
                 if (createIfAbsent)
                     checkDiskSpace(that.path);
 
@@ -918,9 +1548,17 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
                 try {
                     mappedBytes = mappedFileCache.get(path);
                 } catch (FileNotFoundException e) {
+                    if (restoreLock == null && CompressedCycleFile.compressedFile(path).exists())
+                        // a restored cycle file deleted since it was checked, restore it again
+                        return acquire(cycle, createIfAbsent);
                     createFile(path);
                     mappedBytes = mappedFileCache.get(path);
                 }
+                if (restoreLock != null) {
+                    restoredFiles.replace(path, Boolean.FALSE, Boolean.TRUE);
+                    restoreLock.unlock();
+                }
+                MappedMemoryBudget.INSTANCE.onUsed(mappedBytes.mappedFile());
 
 //                pauseUnderload();
 
@@ -948,6 +1586,8 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
                         directoryListing.onFileCreated(path, cycle);
                         // allow directoryListing to pick up the file immediately
                         firstAndLastCycleTime = 0;
+                        if (cycleFileRecycler != null)
+                            cycleFileRecycler.onCycleCreated(cycle);
                     } else {
                         try {
                             wire.readFirstHeader(timeoutMS, TimeUnit.MILLISECONDS);
@@ -989,6 +1629,9 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
             } catch (@NotNull TimeoutException | IOException e) {
                 Closeable.closeQuietly(mappedBytes);
                 throw Jvm.rethrow(e);
+            } finally {
+                if (restoreLock != null && restoreLock.isHeldByCurrentThread())
+                    restoreLock.unlock();
             }
         }
 
@@ -1033,9 +1676,40 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
 
         }
 
+        /**
+         * Recovers the first header of a cycle if it is incomplete, without waiting for another appender to complete it
+         * first, as {@link #acquire(int, boolean)} does.
+         *
+         * @return true if the header was recovered, false if it was complete or the cycle has no file
+         */
+        boolean recoverFirstHeader(final int cycle) throws IOException, TimeoutException {
+            throwExceptionIfClosed();
+
+            final File path = storageTiers.locate(dateCache.resourceFor(cycle).path);
+            // a compressed cycle was complete when it was compressed
+            if (!path.exists())
+                return false;
+            final MappedBytes mappedBytes = mappedFileCache.get(path);
+            try {
+                if (isReady(mappedBytes.readVolatileInt(0)))
+                    return false;
+                final AbstractWire wire = (AbstractWire) wireType.apply(mappedBytes);
+                assert wire.startUse();
+                wire.pauser(pauserSupplier.get());
+                wire.headerNumber(rollCycle.toIndex(cycle, 0) - 1);
+                headerRecovery(SingleChronicleQueue.this, mappedBytes, wire, mappedBytes, cycle);
+                return true;
+            } finally {
+                // released by the store created on recovery
+                if (mappedBytes.refCount() > 0)
+                    mappedBytes.releaseLast();
+            }
+        }
+
         @Override
         protected void performClose() {
             mappedFileCache.close();
+            deleteUnmappedRestores(true);
         }
 
         private void createFile(final File path) {
@@ -1073,14 +1747,22 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
 
                 final RollingResourcesCache dateCache = SingleChronicleQueue.this.dateCache;
                 final NavigableMap<Long, File> tree = new TreeMap<>();
+                final Map<File, Long> previousKeys = cachedValue == null ? Collections.emptyMap() : cachedValue.keys;
 
-                final File[] files = parentFile.listFiles((File file) -> file.getPath().endsWith(SUFFIX));
+                final File[] files = storageTiers.listCycleFiles();
+                final Map<File, Long> keys = new HashMap<>(files.length * 4 / 3 + 1);
 
                 for (File file : files) {
-                    tree.put(dateCache.toLong(file), file);
+                    // a compressed cycle is restored when it is acquired
+                    final File cycleFile = CompressedCycleFile.cycleFile(file);
+                    Long key = previousKeys.get(cycleFile);
+                    if (key == null)
+                        key = dateCache.toLong(cycleFile);
+                    keys.put(cycleFile, key);
+                    tree.put(key, cycleFile);
                 }
 
-                cachedValue = new CachedCycleTree(directoryModCount, tree);
+                cachedValue = new CachedCycleTree(directoryModCount, tree, keys);
 
                 while (true) {
                     final CachedCycleTree existing = cachedTree.get();
@@ -1099,6 +1781,14 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
             return cachedValue.cachedCycleTree;
         }
 
+        void releaseUnusedMappedFiles() {
+            mappedFileCache.bgCleanup();
+        }
+
+        boolean isInUse(@NotNull final File path) {
+            return mappedFileCache.isInUse(path);
+        }
+
         @Override
         public int nextCycle(int currentCycle, @NotNull TailerDirection direction) {
             throwExceptionIfClosed();
@@ -1177,7 +1867,7 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
 
         private Long toKey(int cyle, String m) {
             final File file = dateCache.resourceFor(cyle).path;
-            if (!file.exists())
+            if (!storageTiers.contains(file))
                 throw new IllegalStateException("'file not found' for the " + m + ", file=" + file);
             return dateCache.toLong(file);
         }
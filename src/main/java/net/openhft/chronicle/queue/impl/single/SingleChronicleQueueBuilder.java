@@ -57,7 +57,11 @@ import java.nio.file.Path;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -148,6 +152,25 @@ public class SingleChronicleQueueBuilder extends SelfDescribingMarshallable impl
     private ZoneId rollTimeZone;
     private QueueOffsetSpec queueOffsetSpec;
     private boolean doubleBuffer;
+    private BinarySearch.KeyExtractor bloomFilterKeyExtractor;
+    private Long bloomFilterExpectedExcerpts;
+    private Double bloomFilterFalsePositiveProbability;
+    private Map<String, BinarySearch.KeyExtractor> projections;
+    private List<File> storageTiers;
+    private Long storageTierMaxAgeMillis;
+    private Long storageTierMaxBytes;
+    private Long retentionMaxAgeMillis;
+    private Long retentionMaxBytes;
+    private Integer retentionMaxCycles;
+    private Boolean transparentHugePages;
+    private Long hugePageSize;
+    private Boolean populateFirstChunk;
+    private Integer preallocateChunks;
+    private Boolean checksums;
+    private ChecksumMode checksumMode;
+    private Boolean recoverOnOpen;
+    private Integer eagerOpenCycles;
+    private Integer ringCycles;
 
     protected SingleChronicleQueueBuilder() {
     }
@@ -385,6 +408,295 @@ public class SingleChronicleQueueBuilder extends SelfDescribingMarshallable impl
         return this;
     }
 
+    /**
+     * Maintains a bloom filter of the keys of the excerpts appended to each cycle, with a 1% false positive probability.
+     *
+     * @see #bloomFilter(BinarySearch.KeyExtractor, long, double)
+     */
+    public SingleChronicleQueueBuilder bloomFilter(@Nullable BinarySearch.KeyExtractor keyExtractor,
+                                                   long expectedExcerptsPerCycle) {
+        return bloomFilter(keyExtractor, expectedExcerptsPerCycle, 0.01);
+    }
+
+    /**
+     * Maintains a bloom filter of the keys of the excerpts appended to each cycle, in a file next to the cycle file, so
+     * {@link SingleChronicleQueue#cyclesWhichMightContain(long, int, int)} can skip the cycles which don't hold a key
+     * without reading them.
+     *
+     * @param keyExtractor             reads the key of each excerpt appended, or null to not maintain the filters
+     * @param expectedExcerptsPerCycle the number of excerpts a cycle is expected to hold, used to size the filters
+     * @param falsePositiveProbability of a filter once its cycle holds the expected number of excerpts
+     * @return this
+     */
+    public SingleChronicleQueueBuilder bloomFilter(@Nullable BinarySearch.KeyExtractor keyExtractor,
+                                                   long expectedExcerptsPerCycle,
+                                                   double falsePositiveProbability) {
+        this.bloomFilterKeyExtractor = keyExtractor;
+        this.bloomFilterExpectedExcerpts = expectedExcerptsPerCycle;
+        this.bloomFilterFalsePositiveProbability = falsePositiveProbability;
+        return this;
+    }
+
+    @Nullable
+    public BinarySearch.KeyExtractor bloomFilterKeyExtractor() {
+        return bloomFilterKeyExtractor;
+    }
+
+    public long bloomFilterExpectedExcerpts() {
+        return bloomFilterExpectedExcerpts == null ? 1 << 20 : bloomFilterExpectedExcerpts;
+    }
+
+    public double bloomFilterFalsePositiveProbability() {
+        return bloomFilterFalsePositiveProbability == null ? 0.01 : bloomFilterFalsePositiveProbability;
+    }
+
+    /**
+     * Writes a field of each excerpt appended to a column file per cycle, aligned to the excerpt index, so analytic
+     * scans can read the column with {@link SingleChronicleQueue#projection(String, int)} rather than every excerpt.
+     *
+     * @param column    name of the column, letters, digits, '_' and '-' only
+     * @param extractor reads the field of an excerpt
+     * @return this
+     */
+    public SingleChronicleQueueBuilder projection(@NotNull String column, @NotNull BinarySearch.KeyExtractor extractor) {
+        CycleProjections.checkColumnName(column);
+        if (projections == null)
+            projections = new LinkedHashMap<>();
+        projections.put(column, extractor);
+        return this;
+    }
+
+    @NotNull
+    public Map<String, BinarySearch.KeyExtractor> projections() {
+        return projections == null ? Collections.emptyMap() : projections;
+    }
+
+    /**
+     * Adds storage tiers after the queue directory, e.g. a large slow disk after a small fast one. Completed cycles
+     * are moved to the next tier by age or size, see {@link #storageTierPolicy(long, long)}, and read from whichever
+     * tier holds them, so the queue sees no gaps.
+     *
+     * @param archivePaths the directories of the tiers, in order
+     * @return this
+     */
+    public SingleChronicleQueueBuilder storageTiers(@NotNull File... archivePaths) {
+        this.storageTiers = Arrays.asList(archivePaths);
+        return this;
+    }
+
+    @NotNull
+    public List<File> storageTiers() {
+        return storageTiers == null ? Collections.emptyList() : storageTiers;
+    }
+
+    /**
+     * When to move a completed cycle to the next storage tier. Cycles are moved oldest first.
+     *
+     * @param maxAgeMillis move cycles which ended more than this long ago
+     * @param maxBytes     move cycles while a tier holds more than this many bytes of cycle files
+     * @return this
+     */
+    public SingleChronicleQueueBuilder storageTierPolicy(long maxAgeMillis, long maxBytes) {
+        this.storageTierMaxAgeMillis = maxAgeMillis;
+        this.storageTierMaxBytes = maxBytes;
+        return this;
+    }
+
+    public long storageTierMaxAgeMillis() {
+        return storageTierMaxAgeMillis == null ? Long.MAX_VALUE : storageTierMaxAgeMillis;
+    }
+
+    public long storageTierMaxBytes() {
+        return storageTierMaxBytes == null ? Long.MAX_VALUE : storageTierMaxBytes;
+    }
+
+    /**
+     * Deletes the oldest cycles, in every storage tier, while they are too old or the queue is too large. A cycle is
+     * only deleted once every named tailer has read past it, and the last cycle is kept, see {@link RetentionManager}.
+     * The policy is applied every second on a shared daemon thread, not on the {@link #eventLoop()} of the queue.
+     *
+     * @param maxAgeMillis delete cycles which ended more than this long ago
+     * @param maxBytes     delete cycles while the cycle files total more than this many bytes
+     * @param maxCycles    delete cycles while there are more than this many
+     * @return this
+     */
+    public SingleChronicleQueueBuilder retentionPolicy(long maxAgeMillis, long maxBytes, int maxCycles) {
+        this.retentionMaxAgeMillis = maxAgeMillis;
+        this.retentionMaxBytes = maxBytes;
+        this.retentionMaxCycles = maxCycles;
+        return this;
+    }
+
+    public boolean hasRetentionPolicy() {
+        return retentionMaxAgeMillis != null || retentionMaxBytes != null || retentionMaxCycles != null;
+    }
+
+    public long retentionMaxAgeMillis() {
+        return retentionMaxAgeMillis == null ? Long.MAX_VALUE : retentionMaxAgeMillis;
+    }
+
+    public long retentionMaxBytes() {
+        return retentionMaxBytes == null ? Long.MAX_VALUE : retentionMaxBytes;
+    }
+
+    public int retentionMaxCycles() {
+        return retentionMaxCycles == null ? Integer.MAX_VALUE : retentionMaxCycles;
+    }
+
+    /**
+     * Advises the kernel to back the chunks of the cycle being written with transparent huge pages, with
+     * {@code madvise(MADV_HUGEPAGE)}, to reduce the page faults and TLB misses of appending. Linux only, and the file
+     * system must support huge pages in the page cache, otherwise it is ignored.
+     *
+     * @param transparentHugePages true to advise huge pages
+     * @return this
+     */
+    public SingleChronicleQueueBuilder transparentHugePages(boolean transparentHugePages) {
+        this.transparentHugePages = transparentHugePages;
+        return this;
+    }
+
+    public boolean transparentHugePages() {
+        return transparentHugePages != null && transparentHugePages;
+    }
+
+    /**
+     * Aligns the chunks the cycle files are mapped in to a huge page size, needed for a queue directory on a
+     * {@code hugetlbfs} mount e.g. {@code 2 << 20}. The default is the page size of the OS.
+     *
+     * @param hugePageSize a power of two
+     * @return this
+     */
+    public SingleChronicleQueueBuilder hugePageSize(long hugePageSize) {
+        if (Long.bitCount(hugePageSize) != 1)
+            throw new IllegalArgumentException("hugePageSize must be a power of two, was " + hugePageSize);
+        this.hugePageSize = hugePageSize;
+        return this;
+    }
+
+    public long hugePageSize() {
+        return hugePageSize == null ? OS.pageSize() : hugePageSize;
+    }
+
+    /**
+     * Populates the first chunk of a cycle when an appender starts writing it, like {@code MAP_POPULATE}, so the
+     * appends which follow don't page fault. This moves the cost of the faults to the roll.
+     *
+     * @param populateFirstChunk true to populate the first {@link #blockSize()} of a cycle
+     * @return this
+     */
+    public SingleChronicleQueueBuilder populateFirstChunk(boolean populateFirstChunk) {
+        this.populateFirstChunk = populateFirstChunk;
+        return this;
+    }
+
+    public boolean populateFirstChunk() {
+        return populateFirstChunk != null && populateFirstChunk;
+    }
+
+    /**
+     * Allocates the disk blocks of the cycle being written, in the background, from the appender's position to the end
+     * of the chunk after the next chunks ahead of it, so the appender doesn't wait for the file system to allocate them.
+     * Enough chunks for the whole cycle can be allocated when it is created. The unused blocks are released when the file
+     * is shrunk at the roll, see {@link QueueFileShrinkManager}. Linux only, otherwise it is ignored, as it is if shrinking
+     * is disabled.
+     *
+     * @param preallocateChunks the number of chunks, of {@link #blockSize()}, to allocate ahead of the appender
+     * @return this
+     */
+    public SingleChronicleQueueBuilder preallocateChunks(int preallocateChunks) {
+        this.preallocateChunks = preallocateChunks;
+        return this;
+    }
+
+    public int preallocateChunks() {
+        return preallocateChunks == null ? 0 : preallocateChunks;
+    }
+
+    /**
+     * Writes the CRC32C of the payload of each excerpt appended, to a checksum file next to its cycle, so corruption can
+     * be detected by tailers, see {@link #checksumMode(ChecksumMode)}, or by a {@link ChecksumVerifier}.
+     *
+     * @param checksums true to write checksums
+     * @return this
+     */
+    public SingleChronicleQueueBuilder checksums(boolean checksums) {
+        this.checksums = checksums;
+        return this;
+    }
+
+    public boolean checksums() {
+        return checksums != null && checksums;
+    }
+
+    /**
+     * Which excerpts tailers verify against their checksums, see {@link #checksums(boolean)}. An excerpt which fails is
+     * reported with a warning and still read. Excerpts without a checksum are not verified.
+     *
+     * @param checksumMode the excerpts to verify
+     * @return this
+     */
+    public SingleChronicleQueueBuilder checksumMode(@NotNull ChecksumMode checksumMode) {
+        this.checksumMode = checksumMode;
+        return this;
+    }
+
+    @NotNull
+    public ChecksumMode checksumMode() {
+        return checksumMode == null ? ChecksumMode.OFF : checksumMode;
+    }
+
+    /**
+     * Recovers all the cycles left incomplete by a crash when the queue is opened, checking the cycles in parallel, see
+     * {@link QueueRecovery}. Only use this when no other process is appending to the queue.
+     *
+     * @param recoverOnOpen true to recover the cycles on open
+     * @return this
+     */
+    public SingleChronicleQueueBuilder recoverOnOpen(boolean recoverOnOpen) {
+        this.recoverOnOpen = recoverOnOpen;
+        return this;
+    }
+
+    public boolean recoverOnOpen() {
+        return recoverOnOpen != null && recoverOnOpen;
+    }
+
+    /**
+     * Opens the cycles ahead of a tailer in the background as it moves to a new cycle, in parallel, so it doesn't wait
+     * for them to be mapped and their headers read, e.g. when replaying a queue with many small cycles.
+     *
+     * @param eagerOpenCycles the number of cycles to keep open ahead of a tailer
+     * @return this
+     */
+    public SingleChronicleQueueBuilder eagerOpenCycles(int eagerOpenCycles) {
+        this.eagerOpenCycles = eagerOpenCycles;
+        return this;
+    }
+
+    public int eagerOpenCycles() {
+        return eagerOpenCycles == null ? 0 : eagerOpenCycles;
+    }
+
+    /**
+     * Keeps a fixed number of cycle files, recycling the file of the oldest cycle for the next one rather than creating
+     * a file on every roll, for a queue used for IPC, e.g. on {@code /dev/shm}, where durability doesn't matter.
+     * The oldest cycle is not recycled until the named tailers, and the tailers of this process, have read it, see
+     * {@link CycleFileRecycler}. An unnamed tailer in another process may have the oldest cycle zeroed while it reads
+     * it, so the queue logs a warning when it is built in this mode.
+     *
+     * @param ringCycles the number of cycles to keep, or 0 to keep them all
+     * @return this
+     */
+    public SingleChronicleQueueBuilder ringCycles(int ringCycles) {
+        this.ringCycles = ringCycles;
+        return this;
+    }
+
+    public int ringCycles() {
+        return ringCycles == null ? 0 : ringCycles;
+    }
+
     public SingleChronicleQueueBuilder rollTime(final LocalTime rollTime) {
         rollTime(rollTime, rollTimeZone);
         return this;
@@ -161,6 +161,11 @@ public class SingleChronicleQueueStore extends AbstractCloseable implements Wire
         return mappedFile.file();
     }
 
+    @NotNull
+    MappedFile mappedFile() {
+        return mappedFile;
+    }
+
     @NotNull
     @Override
     public String dump() {
@@ -281,6 +286,27 @@ public class SingleChronicleQueueStore extends AbstractCloseable implements Wire
         return indexing.lastSequenceNumber(ec);
     }
 
+    /**
+     * As {@link #lastSequenceNumber(ExcerptContext)}, scanning from a known excerpt rather than the last indexed one
+     * when it is closer to the end, and updating it to the last excerpt.
+     */
+    long lastSequenceNumber(@NotNull ExcerptContext ec, @NotNull SCQIndexing.KnownPosition known) throws StreamCorruptedException {
+        throwExceptionIfClosedInSetter();
+
+        return indexing.lastSequenceNumber(ec, known);
+    }
+
+    /**
+     * As {@link #sequenceForPosition(ExcerptContext, long, boolean)}, scanning from a known excerpt rather than the
+     * closest indexed one when it is closer, and updating it to the excerpt resolved.
+     */
+    long sequenceForPosition(@NotNull ExcerptContext ec, long position, boolean inclusive,
+                             @NotNull SCQIndexing.KnownPosition known) throws StreamCorruptedException {
+        throwExceptionIfClosed();
+
+        return indexing.sequenceForPosition(ec, position, inclusive, known);
+    }
+
     @NotNull
     @Override
     public String toString() {
@@ -0,0 +1,188 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.threads.Threads;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.IntPredicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * The directories which hold the cycle files of a queue, the queue directory first and then the archive tiers, e.g. a
+ * small fast disk followed by a large slow one.
+ * <p>
+ * Completed cycles are moved down the tiers by {@link #moveCycles}, and a cycle is read from whichever tier holds it, so
+ * the queue sees no gaps. A cycle being moved is in both tiers until the copy is complete, and the higher tier wins.
+ */
+final class StorageTiers {
+    private static final Logger LOG = LoggerFactory.getLogger(StorageTiers.class);
+    private static final String TMP_SUFFIX = ".tmp";
+    static final String THREAD_NAME = "queue~tier~mover";
+    private static final ScheduledExecutorService MOVER = Threads.acquireScheduledExecutorService(THREAD_NAME, true);
+
+    @NotNull
+    private final File[] dirs;
+
+    StorageTiers(@NotNull final File queueDir, @NotNull final List<File> archiveDirs) {
+        dirs = new File[archiveDirs.size() + 1];
+        dirs[0] = queueDir;
+        for (int i = 0; i < archiveDirs.size(); i++)
+            dirs[i + 1] = archiveDirs.get(i);
+    }
+
+    boolean hasArchive() {
+        return dirs.length > 1;
+    }
+
+    /**
+     * @return the cycle files, compressed or not, in all the tiers
+     */
+    @NotNull
+    File[] listCycleFiles() {
+        if (!hasArchive()) {
+            final File[] files = dirs[0].listFiles((d, n) -> CompressedCycleFile.isCycleFileName(n));
+            return files == null ? new File[0] : files;
+        }
+        final List<File> files = new ArrayList<>();
+        for (File dir : dirs)
+            files.addAll(listCycleFiles(dir));
+        return files.toArray(new File[0]);
+    }
+
+    @NotNull
+    private static List<File> listCycleFiles(@NotNull final File dir) {
+        final List<File> list = new ArrayList<>();
+        final File[] files = dir.listFiles((d, n) -> CompressedCycleFile.isCycleFileName(n));
+        if (files != null)
+            Collections.addAll(list, files);
+        return list;
+    }
+
+    /**
+     * @param cycleFile the cycle file in the queue directory
+     * @return the cycle file in the first tier which holds the cycle, compressed or not, or cycleFile if none do
+     */
+    @NotNull
+    File locate(@NotNull final File cycleFile) {
+        if (!hasArchive() || exists(cycleFile))
+            return cycleFile;
+        for (int i = 1; i < dirs.length; i++) {
+            final File file = new File(dirs[i], cycleFile.getName());
+            if (exists(file))
+                return file;
+        }
+        return cycleFile;
+    }
+
+    /**
+     * @param cycleFile the cycle file in the queue directory
+     * @return true if any tier holds the cycle, compressed or not
+     */
+    boolean contains(@NotNull final File cycleFile) {
+        return exists(locate(cycleFile));
+    }
+
+    private static boolean exists(@NotNull final File cycleFile) {
+        return cycleFile.exists() || CompressedCycleFile.compressedFile(cycleFile).exists();
+    }
+
+    /**
+     * Deletes a cycle from every tier, compressed or not. This waits for a move of the cycle in progress.
+     *
+     * @param cycleFile the cycle file in the queue directory
+     * @return the number of bytes freed, or -1 if a copy of the cycle couldn't be deleted
+     */
+    synchronized long delete(@NotNull final File cycleFile) {
+        long freed = 0;
+        for (File dir : dirs) {
+            final File file = new File(dir, cycleFile.getName());
+            for (File copy : new File[]{file, CompressedCycleFile.compressedFile(file)}) {
+                final long length = copy.length();
+                if (copy.delete())
+                    freed += length;
+                else if (copy.exists())
+                    return -1;
+            }
+        }
+        return freed;
+    }
+
+    /**
+     * Runs a move in the background, as copying a cycle to a slower tier can take a while.
+     */
+    static void moveInBackground(@NotNull final Runnable move) {
+        MOVER.execute(move);
+    }
+
+    /**
+     * Moves completed cycles to the next tier, oldest first, while they are too old for their tier or their tier holds
+     * more than maxBytes of cycles.
+     *
+     * @param fileToCycle the cycle of a file
+     * @param isComplete  true if a cycle will not be written again
+     * @param isTooOld    true if a cycle should be moved out of all but the last tier
+     * @param maxBytes    the most bytes of cycle files each tier but the last should hold
+     * @return the number of cycles moved
+     */
+    synchronized int moveCycles(@NotNull final ToIntFunction<File> fileToCycle,
+                                @NotNull final IntPredicate isComplete,
+                                @NotNull final IntPredicate isTooOld,
+                                final long maxBytes) {
+        int moved = 0;
+        for (int i = 0; i < dirs.length - 1; i++) {
+            final List<File> files = listCycleFiles(dirs[i]);
+            files.sort(Comparator.comparingInt(fileToCycle));
+            long bytes = 0;
+            for (File file : files)
+                bytes += file.length();
+
+            for (File file : files) {
+                final int cycle = fileToCycle.applyAsInt(file);
+                if (!isComplete.test(cycle) || !(isTooOld.test(cycle) || bytes > maxBytes))
+                    break;
+                final long length = file.length();
+                // moved by another process
+                if (!file.exists())
+                    continue;
+                if (move(file, dirs[i + 1])) {
+                    bytes -= length;
+                    moved++;
+                }
+            }
+        }
+        return moved;
+    }
+
+    private static boolean move(@NotNull final File file, @NotNull final File toDir) {
+        final File target = new File(toDir, file.getName());
+        final File tmp = new File(toDir, file.getName() + TMP_SUFFIX);
+        try {
+            if (!toDir.exists())
+                toDir.mkdirs();
+            // copy under another name then rename so the target is only visible once complete, the tiers are usually
+            // on different file systems so the file can't simply be renamed.
+            Files.copy(file.toPath(), tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(file.toPath());
+            if (LOG.isDebugEnabled())
+                LOG.debug("Moved {} to {}", file, toDir);
+            return true;
+
+        } catch (IOException e) {
+            Jvm.warn().on(StorageTiers.class, "Unable to move " + file + " to " + toDir, e);
+            tmp.delete();
+            return false;
+        }
+    }
+}
@@ -5,9 +5,12 @@ import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.StackTrace;
 import net.openhft.chronicle.core.annotation.UsedViaReflection;
 import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.core.io.IORuntimeException;
 import net.openhft.chronicle.queue.ChronicleQueue;
 import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.TailerDirection;
 import net.openhft.chronicle.queue.batch.BatchAppender;
 import net.openhft.chronicle.queue.impl.ExcerptContext;
 import net.openhft.chronicle.queue.impl.WireStore;
@@ -22,6 +25,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.StreamCorruptedException;
 import java.nio.BufferOverflowException;
+import java.text.ParseException;
 
 import static net.openhft.chronicle.wire.Wires.*;
 
@@ -45,9 +49,16 @@ class StoreAppender extends AbstractCloseable
     @Nullable
     private Wire wireForIndex;
     private long positionOfHeader = 0;
+    // the position of the next chunk, when one is to be advised or preallocated as it is entered
+    private long nextChunkPosition = Long.MAX_VALUE;
+    // the end of the range of the cycle preallocated, see CycleFilePreallocator
+    private long preallocatedTo = 0;
     private long lastIndex = Long.MIN_VALUE;
     private long lastPosition;
     private int lastCycle;
+    // the last excerpt this appender wrote or resolved the sequence of, to resolve the sequence near it without the index
+    private final SCQIndexing.KnownPosition resolved = new SCQIndexing.KnownPosition();
+    private int resolvedCycle = Integer.MIN_VALUE;
     @Nullable
     private Pretoucher pretoucher = null;
     private NativeBytesStore<Void> batchTmp;
@@ -56,6 +67,14 @@ class StoreAppender extends AbstractCloseable
     private final Finalizer finalizer;
     private boolean disableThreadSafetyCheck;
     private int count = 0;
+    // the sidecar writers of sidecarCycle, opened by the first excerpt appended to a cycle
+    private int sidecarCycle = Integer.MIN_VALUE;
+    @Nullable
+    private CycleBloomFilters.Writer bloomFilterWriter;
+    @Nullable
+    private CycleProjections.Writer projectionWriter;
+    @Nullable
+    private CycleChecksums.Writer checksumWriter;
 
     StoreAppender(@NotNull final SingleChronicleQueue queue,
                   @NotNull final WireStorePool storePool,
@@ -132,6 +151,8 @@ class StoreAppender extends AbstractCloseable
         if (pretoucher != null)
             pretoucher.close();
 
+        closeSidecars();
+
         if (store != null) {
             storePool.closeStore(store);
             store = null;
@@ -269,9 +290,40 @@ class StoreAppender extends AbstractCloseable
         wire.parent(this);
         wire.pauser(queue.pauserSupplier.get());
         resetPosition();
+        preallocatedTo = 0;
+        nextChunkPosition = (queue.transparentHugePages || queue.populateFirstChunk || queue.preallocateChunks > 0)
+                && !queue.isReadOnly() ? 0 : Long.MAX_VALUE;
+        if (nextChunkPosition == 0)
+            enterChunk(store.writePosition());
         queue.onRoll(cycle);
     }
 
+    /**
+     * Advises the kernel on the chunk being written and preallocates the chunks ahead of it, see
+     * {@link SingleChronicleQueueBuilder#transparentHugePages(boolean)},
+     * {@link SingleChronicleQueueBuilder#populateFirstChunk(boolean)} and
+     * {@link SingleChronicleQueueBuilder#preallocateChunks(int)}
+     */
+    private void enterChunk(final long position) {
+        final long chunkSize = store.mappedFile().chunkSize();
+        final long chunkStart = position - position % chunkSize;
+        final boolean populate = queue.populateFirstChunk && chunkStart == 0;
+        if (queue.transparentHugePages || populate)
+            MemoryAdvice.advise((MappedBytes) wire.bytes(), chunkStart, chunkSize, queue.transparentHugePages, populate);
+
+        if (queue.preallocateChunks > 0) {
+            final long from = Math.max(preallocatedTo, position);
+            final long to = chunkStart + (queue.preallocateChunks + 1) * chunkSize;
+            if (from < to) {
+                QueueFileShrinkManager.schedulePreallocation(store.file(), from, to - from);
+                preallocatedTo = to;
+            }
+        }
+        nextChunkPosition = queue.transparentHugePages || queue.preallocateChunks > 0
+                ? chunkStart + chunkSize
+                : Long.MAX_VALUE;
+    }
+
     private void resetWires(@NotNull final ChronicleQueue queue) {
         WireType wireType = queue.wireType();
         {
@@ -310,7 +362,7 @@ class StoreAppender extends AbstractCloseable
             Bytes<?> bytes = wire.bytes();
             assert !SingleChronicleQueue.CHECK_INDEX || checkPositionOfHeader(bytes);
 
-            final long headerNumber = store.lastSequenceNumber(this);
+            final long headerNumber = lastSequenceNumber();
             wire.headerNumber(queue.rollCycle().toIndex(cycle, headerNumber + 1) - 1);
 
             assert !SingleChronicleQueue.CHECK_INDEX || wire.headerNumber() != -1 || checkIndex(wire.headerNumber(), positionOfHeader);
@@ -403,10 +455,13 @@ class StoreAppender extends AbstractCloseable
             int firstCycle = queue.firstCycle();
             while (cur >= firstCycle) {
                 setCycle2(cur, false);
-                if (wire != null) {
-                    if (!store.writeEOF(wire, timeoutMS()))
-                        break;
+                if (wire == null) {
+                    // skip to the previous cycle with a file rather than probing every cycle in between
+                    cur = Math.min(previousCycle(cur + 1), cur - 1);
+                    continue;
                 }
+                if (!writeEOF(wire))
+                    break;
                 cur--;
             }
         }
@@ -414,16 +469,26 @@ class StoreAppender extends AbstractCloseable
         setCycle2(lastCycle, true);
     }
 
+    private int previousCycle(final int cycle) {
+        try {
+            return storePool.nextCycle(cycle, TailerDirection.BACKWARD);
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private long writeHeader(@NotNull final Wire wire, final int safeLength) {
         Bytes<?> bytes = wire.bytes();
         // writePosition points at the last record in the queue, so we can just skip it and we're ready for write
         long pos = positionOfHeader;
         long lastPos = store.writePosition();
+        if (lastPos >= nextChunkPosition)
+            enterChunk(lastPos);
         if (pos < lastPos) {
             // queue moved since we last touched it - recalculate header number
 
             try {
-                wire.headerNumber(queue.rollCycle().toIndex(cycle, store.lastSequenceNumber(this)));
+                wire.headerNumber(queue.rollCycle().toIndex(cycle, lastSequenceNumber()));
             } catch (StreamCorruptedException ex) {
                 Jvm.warn().on(getClass(), "Couldn't find last sequence", ex);
             }
@@ -500,6 +565,8 @@ class StoreAppender extends AbstractCloseable
             lastIndex(wire.headerNumber());
             lastPosition = positionOfHeader;
             lastCycle = cycle;
+            resolved(positionOfHeader, lastIndex);
+            addToSidecars(positionOfHeader, lastIndex);
             store.writePosition(positionOfHeader);
             writeIndexForPosition(lastIndex, positionOfHeader);
         } catch (StreamCorruptedException e) {
@@ -615,7 +682,9 @@ class StoreAppender extends AbstractCloseable
         }
 
         try {
-            long sequenceNumber = store.sequenceForPosition(this, lastPosition, true);
+            long sequenceNumber = lastCycle == store.cycle()
+                    ? store.sequenceForPosition(this, lastPosition, true, resolvedInStore())
+                    : store.sequenceForPosition(this, lastPosition, true);
             long index = queue.rollCycle().toIndex(lastCycle, sequenceNumber);
             lastIndex(index);
             return index;
@@ -658,7 +727,7 @@ class StoreAppender extends AbstractCloseable
         if (this.cycle == cycle)
             throw new AssertionError();
 
-        store.writeEOF(wire, timeoutMS());
+        writeEOF(wire);
 
         int lastCycle = queue.lastCycle();
 
@@ -676,7 +745,107 @@ class StoreAppender extends AbstractCloseable
      */
     void writeEndOfCycleIfRequired() {
         if (wire != null && queue.cycle() != cycle)
-            store.writeEOF(wire, timeoutMS());
+            writeEOF(wire);
+    }
+
+    /**
+     * Writes the EOF marker on the current store and, if this appender completed the cycle, records how many excerpts
+     * it holds so the queue can count excerpts without mapping the file again.
+     *
+     * @return true if the EOF was written by this call
+     */
+    private boolean writeEOF(@NotNull final Wire wire) {
+        if (!store.writeEOF(wire, timeoutMS()))
+            return false;
+        try {
+            queue.onCycleCompleted(store.cycle(), lastSequenceNumber() + 1);
+        } catch (StreamCorruptedException e) {
+            Jvm.warn().on(getClass(), "Unable to record the number of excerpts in cycle " + store.cycle(), e);
+        }
+        return true;
+    }
+
+    private void resolved(final long position, final long index) {
+        if (index == Long.MIN_VALUE)
+            return;
+        final RollCycle rollCycle = queue.rollCycle();
+        resolvedCycle = rollCycle.toCycle(index);
+        resolved.set(position, rollCycle.toSequenceNumber(index));
+    }
+
+    /**
+     * @return the excerpt last resolved in the current store, cleared if it was resolved in another store
+     */
+    @NotNull
+    private SCQIndexing.KnownPosition resolvedInStore() {
+        if (resolvedCycle != store.cycle()) {
+            resolvedCycle = store.cycle();
+            resolved.clear();
+        }
+        return resolved;
+    }
+
+    /**
+     * Adds the excerpt just written to the bloom filter, projections and checksums of its cycle, if the queue has them.
+     *
+     * @param position of the header of the excerpt
+     * @param index    of the excerpt
+     */
+    private void addToSidecars(final long position, final long index) {
+        if (cycle != sidecarCycle)
+            openSidecars();
+        if (bloomFilterWriter == null && projectionWriter == null && checksumWriter == null)
+            return;
+        final Bytes<?> bytes = wire.bytes();
+        final long readPosition = bytes.readPosition();
+        try {
+            final long start = position + SPB_HEADER_SIZE;
+            if (checksumWriter != null && index != Long.MIN_VALUE) {
+                final int length = Wires.lengthOf(bytes.readVolatileInt(position));
+                checksumWriter.add(queue.rollCycle().toSequenceNumber(index), Crc32c.checksum(bytes, start, length));
+            }
+            if (bloomFilterWriter != null) {
+                bytes.readPosition(start);
+                bloomFilterWriter.add(bytes);
+            }
+            if (projectionWriter != null && index != Long.MIN_VALUE) {
+                bytes.readPosition(start);
+                projectionWriter.add(queue.rollCycle().toSequenceNumber(index), bytes);
+            }
+        } finally {
+            bytes.readPosition(readPosition);
+        }
+    }
+
+    /**
+     * Opens the sidecar writers of the current cycle once, rather than looking them up on every append. They are
+     * written without further locking as the appender holds the write lock.
+     */
+    private void openSidecars() {
+        closeSidecars();
+        final CycleBloomFilters bloomFilters = queue.bloomFilters();
+        final CycleProjections projections = queue.projections();
+        final CycleChecksums checksums = queue.checksums();
+        bloomFilterWriter = bloomFilters == null ? null : bloomFilters.writer(cycle);
+        projectionWriter = projections == null ? null : projections.writer(cycle);
+        checksumWriter = checksums == null ? null : checksums.writer(cycle);
+        sidecarCycle = cycle;
+    }
+
+    private void closeSidecars() {
+        Closeable.closeQuietly(bloomFilterWriter, projectionWriter, checksumWriter);
+        bloomFilterWriter = null;
+        projectionWriter = null;
+        checksumWriter = null;
+        sidecarCycle = Integer.MIN_VALUE;
+    }
+
+    /**
+     * @return the last sequence number of the current store, scanning forward from the excerpt this appender last wrote
+     * or resolved when it is closer than the last indexed excerpt.
+     */
+    private long lastSequenceNumber() throws StreamCorruptedException {
+        return store.lastSequenceNumber(this, resolvedInStore());
     }
 
     void writeIndexForPosition(final long index, final long position)
@@ -842,6 +1011,8 @@ class StoreAppender extends AbstractCloseable
 
                     if (!metaData) {
                         lastIndex(wire.headerNumber());
+                        resolved(positionOfHeader, lastIndex);
+                        addToSidecars(positionOfHeader, lastIndex);
                         store.writePosition(positionOfHeader);
                         if (lastIndex != Long.MIN_VALUE)
                             writeIndexForPosition(lastIndex, positionOfHeader);
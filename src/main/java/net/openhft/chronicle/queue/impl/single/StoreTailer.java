@@ -40,6 +40,7 @@ class StoreTailer extends AbstractCloseable
     static final int INDEXING_LINEAR_SCAN_THRESHOLD = 70;
     static final StringBuilderPool SBP = new StringBuilderPool();
     static final EOFException EOF_EXCEPTION = new EOFException();
+    private static final int CHECKSUM_SAMPLE_INTERVAL = Integer.getInteger("chronicle.queue.checksumSampleInterval", 64);
     @NotNull
     private final SingleChronicleQueue queue;
     private final WireStorePool storePool;
@@ -61,6 +62,14 @@ class StoreTailer extends AbstractCloseable
     private boolean striding = false;
     private final Finalizer finalizer;
     private boolean disableThreadSafetyCheck;
+    @NotNull
+    private ChecksumMode checksumMode;
+    @Nullable
+    private CycleChecksums.Reader checksumReader;
+    private long checksumReads = 0;
+    private long checksumFailures = 0;
+    private long checksumsMissing = 0;
+    private int missingChecksumCycle = Integer.MIN_VALUE;
 
     public StoreTailer(@NotNull final SingleChronicleQueue queue, WireStorePool storePool) {
         this(queue, storePool, null);
@@ -72,6 +81,7 @@ class StoreTailer extends AbstractCloseable
             this.queue = queue;
             this.storePool = storePool;
             this.indexValue = indexValue;
+            this.checksumMode = queue.checksumMode;
             this.setCycle(Integer.MIN_VALUE);
             this.index = 0;
             queue.addCloseListener(this);
@@ -126,9 +136,63 @@ class StoreTailer extends AbstractCloseable
         return readingDocument(false);
     }
 
+    /**
+     * Compares the checksum of the excerpt being read with the one written by the appender, if it has one.
+     */
+    private void verifyChecksum(@NotNull final Bytes<?> bytes) {
+        if (checksumReader == null)
+            checksumReader = queue.checksumReader();
+        final long index = index();
+        final RollCycle rollCycle = queue.rollCycle();
+        final int cycle = rollCycle.toCycle(index);
+        final long expected = checksumReader.checksum(cycle, rollCycle.toSequenceNumber(index));
+        if (expected == CycleChecksums.NO_CHECKSUM) {
+            if (checksumMode == ChecksumMode.ALWAYS)
+                checksumMissing(cycle, index);
+            return;
+        }
+        final long start = bytes.readPosition();
+        final int actual = Crc32c.checksum(bytes, start, bytes.readLimit() - start);
+        if ((actual & 0xFFFFFFFFL) != expected) {
+            checksumFailures++;
+            Jvm.warn().on(StoreTailer.class, "Checksum mismatch for index " + Long.toHexString(index) + " of " + queue.fileAbsolutePath() +
+                    ", expected " + Long.toHexString(expected) + " was " + Integer.toHexString(actual));
+        }
+    }
+
+    private void checksumMissing(final int cycle, final long index) {
+        checksumsMissing++;
+        // once per cycle, as a queue written without checksums has none
+        if (cycle != missingChecksumCycle) {
+            missingChecksumCycle = cycle;
+            Jvm.warn().on(StoreTailer.class, "No checksum for index " + Long.toHexString(index) + " of " + queue.fileAbsolutePath() +
+                    ", excerpts without one are not verified");
+        }
+    }
+
+    void checksumMode(@NotNull final ChecksumMode checksumMode) {
+        this.checksumMode = checksumMode;
+    }
+
+    /**
+     * @return the number of excerpts read which didn't match their checksum
+     */
+    long checksumFailures() {
+        return checksumFailures;
+    }
+
+    /**
+     * @return the number of excerpts read with {@link ChecksumMode#ALWAYS} which had no checksum to verify
+     */
+    long checksumsMissing() {
+        return checksumsMissing;
+    }
+
     @Override
     protected void performClose() {
         Closeable.closeQuietly(indexValue);
+        if (checksumReader != null)
+            checksumReader.close();
         // the wire ref count will be released here by setting it to null
         context.wire(null);
         final Wire w0 = wireForIndex;
@@ -136,6 +200,7 @@ class StoreTailer extends AbstractCloseable
             w0.bytes().releaseLast();
         wireForIndex = null;
         releaseStore();
+        queue.onTailerClosed(this);
     }
 
     @Override
@@ -182,6 +247,9 @@ class StoreTailer extends AbstractCloseable
         throwExceptionIfClosed();
 
         try {
+            if (state == FOUND_IN_CYCLE && store != null && MappedMemoryBudget.INSTANCE.shouldRelease(store.mappedFile()))
+                remapStore();
+
 //            Jvm.optionalSafepoint();
             boolean next = false, tryAgain = true;
             if (state == FOUND_IN_CYCLE) {
@@ -206,6 +274,9 @@ class StoreTailer extends AbstractCloseable
                 context.setStart(bytes.readPosition() - 4);
                 readingDocumentFound = true;
                 address = bytes.addressForRead(bytes.readPosition(), 4);
+                if (checksumMode != ChecksumMode.OFF && !context.isMetaData()
+                        && (checksumMode == ChecksumMode.ALWAYS || ++checksumReads % CHECKSUM_SAMPLE_INTERVAL == 0))
+                    verifyChecksum(bytes);
 //                Jvm.optionalSafepoint();
                 return context;
             }
@@ -1040,9 +1111,28 @@ class StoreTailer extends AbstractCloseable
         final Wire wire = privateWire();
         wire.parent(this);
         wire.pauser(queue.pauserSupplier.get());
+        queue.onTailerCycle(this, cycle, direction);
         return true;
     }
 
+    /**
+     * Releases the store, unmapping its chunks if no one else is using it, and acquires it again at the same index, to
+     * stay within the {@link MappedMemoryBudget}. The last cycle is kept as appenders are writing to it.
+     */
+    private void remapStore() {
+        if (cycle == queue.lastCycle())
+            return;
+        final long index = index();
+        releaseStore();
+        context.wire(null);
+        if (wireForIndex != null) {
+            wireForIndex.bytes().releaseLast();
+            wireForIndex = null;
+        }
+        queue.releaseUnusedMappedFiles();
+        moveToIndexInternal(index);
+    }
+
     void releaseStore() {
         if (store != null) {
             storePool.closeStore(store);
@@ -11,6 +11,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.function.ToIntFunction;
 
 final class TableDirectoryListing extends AbstractCloseable implements DirectoryListing {
@@ -22,7 +23,7 @@ final class TableDirectoryListing extends AbstractCloseable implements Directory
     private static final int UNSET_MAX_CYCLE = Integer.MIN_VALUE;
     private static final int UNSET_MIN_CYCLE = Integer.MAX_VALUE;
     private final TableStore<?> tableStore;
-    private final Path queuePath;
+    private final StorageTiers tiers;
     private final ToIntFunction<File> fileToCycleFunction;
     private final boolean readOnly;
     private volatile LongValue maxCycleValue;
@@ -34,8 +35,16 @@ final class TableDirectoryListing extends AbstractCloseable implements Directory
             final Path queuePath,
             final ToIntFunction<File> fileToCycleFunction,
             final boolean readOnly) {
+        this(tableStore, new StorageTiers(queuePath.toFile(), Collections.emptyList()), fileToCycleFunction, readOnly);
+    }
+
+    TableDirectoryListing(
+            final @NotNull TableStore<?> tableStore,
+            final @NotNull StorageTiers tiers,
+            final ToIntFunction<File> fileToCycleFunction,
+            final boolean readOnly) {
         this.tableStore = tableStore;
-        this.queuePath = queuePath;
+        this.tiers = tiers;
         this.fileToCycleFunction = fileToCycleFunction;
         this.readOnly = readOnly;
     }
@@ -67,16 +76,12 @@ final class TableDirectoryListing extends AbstractCloseable implements Directory
 
         while (true) {
             final long currentMax = maxCycleValue.getVolatileValue();
-            final File[] queueFiles = queuePath.toFile().
-                    listFiles((d, f) -> f.endsWith(SingleChronicleQueue.SUFFIX));
             int min = UNSET_MIN_CYCLE;
             int max = UNSET_MAX_CYCLE;
-            if (queueFiles != null) {
-                for (File queueFile : queueFiles) {
-                    int cycle = fileToCycleFunction.applyAsInt(queueFile);
-                    min = Math.min(cycle, min);
-                    max = Math.max(cycle, max);
-                }
+            for (File queueFile : tiers.listCycleFiles()) {
+                int cycle = fileToCycleFunction.applyAsInt(queueFile);
+                min = Math.min(cycle, min);
+                max = Math.max(cycle, max);
             }
             minCycleValue.setOrderedValue(min);
             if (maxCycleValue.compareAndSwapValue(currentMax, max))
@@ -100,6 +105,16 @@ final class TableDirectoryListing extends AbstractCloseable implements Directory
         }
     }
 
+    @Override
+    public void onFileDeleted(final File file, final int cycle) {
+        if (readOnly) {
+            LOGGER.warn("DirectoryListing is read-only, not updating listing");
+            return;
+        }
+        // so cached cycle trees no longer hold the file.
+        modCount.addAtomicValue(1);
+    }
+
     @Override
     public int getMaxCreatedCycle() {
         return getMaxCycleValue();
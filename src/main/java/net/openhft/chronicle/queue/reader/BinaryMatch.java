@@ -0,0 +1,139 @@
+package net.openhft.chronicle.queue.reader;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.wire.BinaryWireCode;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A byte pattern searched for in the raw bytes of an excerpt, before it is converted to text, so excerpts which can't
+ * match are skipped cheaply. See {@link ChronicleReader#withBinaryMatch(String)}.
+ * <p>
+ * Field and method matches look for the encoding of the name or id in a binary wire, so they only apply to queues
+ * written with a binary wire, which is the default.
+ */
+public final class BinaryMatch {
+    @NotNull
+    private final String description;
+    @NotNull
+    private final byte[] pattern;
+
+    private BinaryMatch(@NotNull final String description, @NotNull final byte[] pattern) {
+        if (pattern.length == 0)
+            throw new IllegalArgumentException("Empty pattern: " + description);
+        this.description = description;
+        this.pattern = pattern;
+    }
+
+    /**
+     * Parses a match, one of
+     * <ul>
+     *     <li>{@code text:<text>} the UTF-8 bytes of a text, which is the default without a prefix</li>
+     *     <li>{@code hex:<hex bytes>} literal bytes, e.g. {@code hex:cafe01}</li>
+     *     <li>{@code field:<name>} a field or method name</li>
+     *     <li>{@code method:<id>} a method written with a {@code @MethodId}</li>
+     * </ul>
+     */
+    @NotNull
+    public static BinaryMatch parse(@NotNull final String match) {
+        final int colon = match.indexOf(':');
+        final String type = colon < 0 ? "text" : match.substring(0, colon);
+        final String value = match.substring(colon + 1);
+        switch (type) {
+            case "text":
+                return text(value);
+            case "hex":
+                return bytes(parseHex(value));
+            case "field":
+                return field(value);
+            case "method":
+                return methodId(Long.decode(value));
+            default:
+                throw new IllegalArgumentException("Unknown binary match " + match + ", expected text:, hex:, field: or method:");
+        }
+    }
+
+    @NotNull
+    public static BinaryMatch text(@NotNull final String text) {
+        return new BinaryMatch("text:" + text, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @NotNull
+    public static BinaryMatch bytes(@NotNull final byte[] bytes) {
+        return new BinaryMatch("hex:" + toHex(bytes), bytes.clone());
+    }
+
+    @NotNull
+    public static BinaryMatch field(@NotNull final String name) {
+        final byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (utf8.length < BinaryWireCode.FIELD_NAME31 - BinaryWireCode.FIELD_NAME0 + 1) {
+            out.write(BinaryWireCode.FIELD_NAME0 + utf8.length);
+        } else {
+            out.write(BinaryWireCode.FIELD_NAME_ANY);
+            writeStopBit(out, utf8.length);
+        }
+        out.write(utf8, 0, utf8.length);
+        return new BinaryMatch("field:" + name, out.toByteArray());
+    }
+
+    @NotNull
+    public static BinaryMatch methodId(final long methodId) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(BinaryWireCode.FIELD_NUMBER);
+        writeStopBit(out, methodId);
+        return new BinaryMatch("method:" + methodId, out.toByteArray());
+    }
+
+    private static void writeStopBit(@NotNull final ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    @NotNull
+    private static byte[] parseHex(@NotNull final String hex) {
+        if (hex.length() % 2 != 0)
+            throw new IllegalArgumentException("Odd number of hex digits: " + hex);
+        final byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        return bytes;
+    }
+
+    @NotNull
+    private static String toHex(@NotNull final byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return sb.toString();
+    }
+
+    /**
+     * @return true if the pattern is found between the read position and the read limit, which are not changed
+     */
+    public boolean matches(@NotNull final Bytes<?> bytes) {
+        final byte[] pattern = this.pattern;
+        final byte first = pattern[0];
+        final long end = bytes.readLimit() - pattern.length;
+        outer:
+        for (long i = bytes.readPosition(); i <= end; i++) {
+            if (bytes.readByte(i) != first)
+                continue;
+            for (int j = 1; j < pattern.length; j++)
+                if (bytes.readByte(i + j) != pattern[j])
+                    continue outer;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
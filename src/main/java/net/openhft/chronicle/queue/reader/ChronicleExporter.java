@@ -0,0 +1,330 @@
+package net.openhft.chronicle.queue.reader;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.MethodReader;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static net.openhft.chronicle.queue.impl.StoreFileListener.NO_OP;
+
+/**
+ * Exports the calls written to a queue by a {@code MethodWriter} to flat, column oriented files, for loading into data
+ * frames. The calls are decoded by a {@link MethodReader}, buffered off heap in chunks of columns, see
+ * {@link ColumnChunk}, and streamed out in an {@link ExportFormat}, so memory is bounded however large the queue is.
+ * <p>
+ * Each cycle is exported by its own tailer, in parallel, to a file per method and cycle named
+ * {@code <method>.<cycle><suffix>}, so the files of a queue can be loaded as one data set. A call is written with the
+ * name of its method alone, so an interface with overloaded methods can't be exported.
+ */
+public final class ChronicleExporter {
+    private static final long UNSET_VALUE = Long.MIN_VALUE;
+
+    private final Map<Method, ColumnChunk.Column[]> columnsByMethod = new ConcurrentHashMap<>();
+    private Path basePath;
+    private Path outputPath;
+    private Class<?> methodReaderInterface;
+    private ExportFormat format = ExportFormat.CSV;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int chunkRows = 64 << 10;
+    private long fromIndex = UNSET_VALUE;
+    private long toIndex = UNSET_VALUE;
+    private long fromTime = UNSET_VALUE;
+    private long toTime = UNSET_VALUE;
+
+    private static boolean isSet(final long configValue) {
+        return configValue != UNSET_VALUE;
+    }
+
+    public ChronicleExporter withBasePath(final Path path) {
+        this.basePath = path;
+        return this;
+    }
+
+    /**
+     * The directory the files are written to, which is created if needed.
+     */
+    public ChronicleExporter withOutputPath(final Path path) {
+        this.outputPath = path;
+        return this;
+    }
+
+    /**
+     * The interface the queue was written with, each method of which is exported to its own files.
+     */
+    public ChronicleExporter asMethodReader(final String methodReaderInterface) {
+        try {
+            this.methodReaderInterface = Class.forName(methodReaderInterface);
+        } catch (ClassNotFoundException e) {
+            throw Jvm.rethrow(e);
+        }
+        return this;
+    }
+
+    public ChronicleExporter asMethodReader(final Class<?> methodReaderInterface) {
+        this.methodReaderInterface = methodReaderInterface;
+        return this;
+    }
+
+    public ChronicleExporter withFormat(final ExportFormat format) {
+        this.format = format;
+        return this;
+    }
+
+    /**
+     * The number of cycles exported at once, by default the number of processors.
+     */
+    public ChronicleExporter withThreads(final int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("threads must be at least 1, was " + threads);
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * The rows of each method buffered before they are written.
+     */
+    public ChronicleExporter withChunkRows(final int chunkRows) {
+        if (chunkRows < 1)
+            throw new IllegalArgumentException("chunkRows must be at least 1, was " + chunkRows);
+        this.chunkRows = chunkRows;
+        return this;
+    }
+
+    /**
+     * Only exports from this index, inclusive.
+     */
+    public ChronicleExporter withFromIndex(final long index) {
+        this.fromIndex = index;
+        return this;
+    }
+
+    /**
+     * Only exports up to this index, inclusive.
+     */
+    public ChronicleExporter withToIndex(final long index) {
+        this.toIndex = index;
+        return this;
+    }
+
+    /**
+     * Only exports from the cycle containing this time in epoch milliseconds. Excerpts are not timestamped, so the
+     * resolution of a time range is the roll cycle of the queue.
+     */
+    public ChronicleExporter withFromTime(final long epochMillis) {
+        this.fromTime = epochMillis;
+        return this;
+    }
+
+    /**
+     * Only exports up to the end of the cycle containing this time in epoch milliseconds.
+     */
+    public ChronicleExporter withToTime(final long epochMillis) {
+        this.toTime = epochMillis;
+        return this;
+    }
+
+    /**
+     * @return the number of rows exported
+     */
+    public long execute() {
+        if (methodReaderInterface == null || !methodReaderInterface.isInterface())
+            throw new IllegalArgumentException("An interface to read the queue with is required, was " + methodReaderInterface);
+        checkNoOverloads(methodReaderInterface);
+        if (outputPath == null)
+            throw new IllegalArgumentException("An output path is required");
+        if (!Files.exists(basePath)) {
+            throw new IllegalArgumentException(String.format("Path '%s' does not exist (absolute path '%s')", basePath, basePath.toAbsolutePath()));
+        }
+        try {
+            Files.createDirectories(outputPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("chronicle~export", true));
+        try (final SingleChronicleQueue queue = SingleChronicleQueueBuilder
+                .binary(basePath.toFile())
+                .readOnly(true)
+                .storeFileListener(NO_OP)
+                .build()) {
+            try {
+                final long[] range = indexRange(queue);
+                final List<Future<Long>> exports = new ArrayList<>();
+                for (long cycle : cyclesBetween(queue, range))
+                    exports.add(executor.submit(() -> exportCycle(queue, (int) cycle, range[0], range[1])));
+
+                long rows = 0;
+                for (Future<Long> export : exports)
+                    rows += export.get();
+                return rows;
+            } finally {
+                // the tailers are closed before the queue
+                executor.shutdownNow();
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted exporting " + basePath, e);
+        } catch (ExecutionException e) {
+            throw Jvm.rethrow(e.getCause());
+        }
+    }
+
+    private static void checkNoOverloads(@NotNull final Class<?> methodReaderInterface) {
+        final Set<String> names = new HashSet<>();
+        for (Method method : methodReaderInterface.getMethods())
+            if (!Modifier.isStatic(method.getModifiers()) && !names.add(method.getName()))
+                throw new IllegalArgumentException("The calls of overloaded methods can't be told apart, " +
+                        methodReaderInterface.getName() + " has more than one " + method.getName());
+    }
+
+    /**
+     * @return the first and last index to export
+     */
+    @NotNull
+    private long[] indexRange(@NotNull final SingleChronicleQueue queue) {
+        final RollCycle rollCycle = queue.rollCycle();
+        long from = isSet(fromIndex) ? fromIndex : Long.MIN_VALUE;
+        long to = isSet(toIndex) ? toIndex : Long.MAX_VALUE;
+        if (isSet(fromTime))
+            from = Math.max(from, rollCycle.toIndex(cycleOf(queue, fromTime), 0));
+        if (isSet(toTime))
+            to = Math.min(to, rollCycle.toIndex(cycleOf(queue, toTime) + 1, 0) - 1);
+        return new long[]{from, to};
+    }
+
+    private static int cycleOf(@NotNull final SingleChronicleQueue queue, final long epochMillis) {
+        return (int) Math.floorDiv(epochMillis - queue.epoch(), queue.rollCycle().lengthInMillis());
+    }
+
+    @NotNull
+    private static NavigableSet<Long> cyclesBetween(@NotNull final SingleChronicleQueue queue, @NotNull final long[] range) {
+        final RollCycle rollCycle = queue.rollCycle();
+        final int firstCycle = Math.max(queue.firstCycle(), range[0] == Long.MIN_VALUE ? Integer.MIN_VALUE : rollCycle.toCycle(range[0]));
+        final int lastCycle = Math.min(queue.lastCycle(), range[1] == Long.MAX_VALUE ? Integer.MAX_VALUE : rollCycle.toCycle(range[1]));
+        if (firstCycle > lastCycle)
+            return Collections.emptyNavigableSet();
+        try {
+            return queue.listCyclesBetween(firstCycle, lastCycle);
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long exportCycle(@NotNull final SingleChronicleQueue queue, final int cycle, final long from, final long to) throws IOException {
+        final RollCycle rollCycle = queue.rollCycle();
+        try (final ExcerptTailer tailer = queue.createTailer();
+             final CycleExport export = new CycleExport(cycle)) {
+            if (!tailer.moveToIndex(Math.max(from, rollCycle.toIndex(cycle, 0))))
+                return 0;
+            // the method reader needs an implementation of the interface. The arguments of each call are only copied to
+            // the off heap columns, reading the fields of a DTO with method handles, see ColumnChunk
+            final Object calls = Proxy.newProxyInstance(methodReaderInterface.getClassLoader(), new Class[]{methodReaderInterface},
+                    (proxy, method, args) -> {
+                        if (method.getDeclaringClass() == Object.class)
+                            return objectMethod(proxy, method, args);
+                        // inside the method reader's document
+                        final long index = tailer.index();
+                        if (rollCycle.toCycle(index) == cycle && index <= to)
+                            export.add(method, index, args);
+                        return null;
+                    });
+            final MethodReader reader = tailer.methodReader(calls);
+            while (reader.readOne()) {
+                final long next = tailer.index();
+                if (rollCycle.toCycle(next) != cycle || next > to)
+                    break;
+            }
+            export.flush();
+            return export.rows;
+        }
+    }
+
+    private Object objectMethod(final Object proxy, final Method method, final Object[] args) {
+        switch (method.getName()) {
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                return "export of " + methodReaderInterface.getName();
+        }
+    }
+
+    /**
+     * The chunks and files of the methods called in one cycle.
+     */
+    private final class CycleExport implements Closeable {
+        private final int cycle;
+        private final Map<Method, ColumnChunk> chunks = new HashMap<>();
+        private final Map<Method, OutputStream> files = new HashMap<>();
+        private final Bytes<?> buffer = Bytes.allocateElasticOnHeap(64 << 10);
+        private long rows = 0;
+
+        CycleExport(final int cycle) {
+            this.cycle = cycle;
+        }
+
+        void add(@NotNull final Method method, final long index, final Object[] args) throws IOException {
+            ColumnChunk chunk = chunks.get(method);
+            if (chunk == null) {
+                final ColumnChunk.Column[] columns = columnsByMethod.computeIfAbsent(method, ColumnChunk::columnsOf);
+                chunk = new ColumnChunk(method.getName(), columns, chunkRows);
+                chunks.put(method, chunk);
+            }
+            chunk.add(index, args);
+            rows++;
+            if (chunk.rows() >= chunkRows)
+                write(method, chunk);
+        }
+
+        private void write(@NotNull final Method method, @NotNull final ColumnChunk chunk) throws IOException {
+            OutputStream out = files.get(method);
+            if (out == null) {
+                final File file = outputPath.resolve(chunk.name() + "." + cycle + format.suffix()).toFile();
+                out = new BufferedOutputStream(new FileOutputStream(file), 256 << 10);
+                files.put(method, out);
+                format.writeHeader(chunk, out);
+            }
+            format.writeChunk(chunk, out, buffer);
+            chunk.clear();
+        }
+
+        void flush() throws IOException {
+            for (Map.Entry<Method, ColumnChunk> entry : chunks.entrySet())
+                if (entry.getValue().rows() > 0)
+                    write(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public void close() throws IOException {
+            chunks.values().forEach(ColumnChunk::close);
+            buffer.releaseLast();
+            IOException error = null;
+            for (OutputStream out : files.values()) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            if (error != null)
+                throw error;
+        }
+    }
+}
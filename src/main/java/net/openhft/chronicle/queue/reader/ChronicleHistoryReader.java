@@ -1,10 +1,14 @@
 package net.openhft.chronicle.queue.reader;
 
 import net.openhft.chronicle.bytes.MethodReader;
+import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.util.Histogram;
 import net.openhft.chronicle.queue.ChronicleQueue;
 import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.threads.NamedThreadFactory;
 import net.openhft.chronicle.wire.MessageHistory;
 import net.openhft.chronicle.wire.VanillaMessageHistory;
 import net.openhft.chronicle.wire.VanillaMethodReader;
@@ -13,15 +17,16 @@ import org.jetbrains.annotations.NotNull;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class ChronicleHistoryReader {
 
     private static final int SUMMARY_OUTPUT_UNSET = -999;
+    private static final long UNSET_VALUE = Long.MIN_VALUE;
     protected Path basePath;
     protected Consumer<String> messageSink;
     protected boolean progress = false;
@@ -35,6 +40,15 @@ public class ChronicleHistoryReader {
     protected long lastWindowCount = 0;
     protected int summaryOutputOffset = SUMMARY_OUTPUT_UNSET;
     protected int lastHistosSize = 0;
+    protected long startIndex = UNSET_VALUE;
+    protected long startTime = UNSET_VALUE;
+    protected int threads = 1;
+    // the messages of a partition up to each window it moves on to, keyed by that window, kept to be merged
+    private NavigableMap<Long, Map<String, Histogram>> windows;
+
+    private static boolean isSet(final long configValue) {
+        return configValue != UNSET_VALUE;
+    }
 
     public ChronicleHistoryReader withMessageSink(final Consumer<String> messageSink) {
         this.messageSink = messageSink;
@@ -76,6 +90,34 @@ public class ChronicleHistoryReader {
         return this;
     }
 
+    /**
+     * Starts reading from this index rather than the start of the queue, before ignoring any messages.
+     */
+    public ChronicleHistoryReader withStartIndex(long startIndex) {
+        this.startIndex = startIndex;
+        return this;
+    }
+
+    /**
+     * Starts reading from the first cycle containing or after this time in epoch milliseconds. Excerpts are not
+     * timestamped with the wall clock, so the resolution is the roll cycle of the queue.
+     */
+    public ChronicleHistoryReader withStartTime(long epochMillis) {
+        this.startTime = epochMillis;
+        return this;
+    }
+
+    /**
+     * Reads the cycles of the queue in parallel with this many threads, merging their histograms. The queue must be a
+     * {@link SingleChronicleQueue}.
+     */
+    public ChronicleHistoryReader withThreads(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("threads must be at least 1, was " + threads);
+        this.threads = threads;
+        return this;
+    }
+
     @NotNull
     protected ChronicleQueue createQueue() {
         if (!Files.exists(basePath)) {
@@ -95,23 +137,195 @@ public class ChronicleHistoryReader {
 
     public Map<String, Histogram> readChronicle() {
         try (final ChronicleQueue q = createQueue()) {
+            if (threads > 1) {
+                readInParallel((SingleChronicleQueue) q);
+                return histos;
+            }
             final ExcerptTailer tailer = q.createTailer();
-            final WireParselet parselet = parselet();
-            MessageHistory.set(new VanillaMessageHistory());
-            try (final MethodReader mr = new VanillaMethodReader(tailer, true, parselet, null, parselet)) {
-
-                while (!Thread.currentThread().isInterrupted() && mr.readOne()) {
-                    ++counter;
-                    if (this.progress && counter % 1_000_000L == 0) {
-                        System.out.println("Progress: " + counter);
-                    }
+            if (isSet(startIndex) || isSet(startTime)) {
+                final long start = startIndex((SingleChronicleQueue) q);
+                if (!tailer.moveToIndex(start)) {
+                    if (isSet(startIndex) && !isSet(startTime))
+                        throw new IllegalArgumentException("startIndex 0x" + Long.toHexString(start) + " is not in the queue");
+                    return histos;
                 }
             }
+            read(tailer, Long.MAX_VALUE);
         }
 
         return histos;
     }
 
+    /**
+     * Reads messages until the tailer passes the last index.
+     */
+    private void read(final ExcerptTailer tailer, final long lastIndex) {
+        final WireParselet parselet = parselet();
+        MessageHistory.set(new VanillaMessageHistory());
+        try (final MethodReader mr = new VanillaMethodReader(tailer, true, parselet, null, parselet)) {
+
+            while (!Thread.currentThread().isInterrupted() && tailer.index() <= lastIndex && mr.readOne()) {
+                ++counter;
+                if (this.progress && counter % 1_000_000L == 0) {
+                    System.out.println("Progress: " + counter);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the index to start from, given the start index or time
+     */
+    private long startIndex(final SingleChronicleQueue q) {
+        long start = isSet(startIndex) ? startIndex : q.firstIndex();
+        if (isSet(startTime)) {
+            final RollCycle rollCycle = q.rollCycle();
+            final int cycle = (int) Math.floorDiv(startTime - q.epoch(), (long) rollCycle.lengthInMillis());
+            final NavigableSet<Long> cycles = cyclesFrom(q, cycle);
+            start = Math.max(start, rollCycle.toIndex(cycles.isEmpty() ? cycle : cycles.first().intValue(), 0));
+        }
+        return start;
+    }
+
+    private static NavigableSet<Long> cyclesFrom(final SingleChronicleQueue q, final int cycle) {
+        final int firstCycle = Math.max(q.firstCycle(), cycle);
+        final int lastCycle = q.lastCycle();
+        if (firstCycle > lastCycle)
+            return Collections.emptyNavigableSet();
+        try {
+            return q.listCyclesBetween(firstCycle, lastCycle);
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads each cycle with its own tailer and histograms, on a pool of threads, merging the histograms and windows of
+     * the cycles in order. A window which spans cycles is merged from each of them.
+     */
+    private void readInParallel(final SingleChronicleQueue q) {
+        long start = isSet(startIndex) || isSet(startTime) ? startIndex(q) : q.firstIndex();
+        if (ignore > 0)
+            start = q.skipExcerpts(start, ignore);
+        final long from = start;
+        final RollCycle rollCycle = q.rollCycle();
+        final NavigableSet<Long> cycles = cyclesFrom(q, rollCycle.toCycle(from));
+        final int lastCycle = q.lastCycle();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("chronicle~history", true));
+        try {
+            final List<Future<ChronicleHistoryReader>> partitions = new ArrayList<>();
+            for (long c : cycles) {
+                final int cycle = (int) c;
+                partitions.add(executor.submit(() -> {
+                    final ChronicleHistoryReader partition = partition();
+                    try (final ExcerptTailer tailer = q.createTailer()) {
+                        if (tailer.moveToIndex(Math.max(from, rollCycle.toIndex(cycle, 0)))) {
+                            // the last cycle may still be written to
+                            final long lastIndex = cycle == lastCycle ? Long.MAX_VALUE : rollCycle.toIndex(cycle, q.exceptsPerCycle(cycle)) - 1;
+                            partition.read(tailer, lastIndex);
+                        }
+                    }
+                    return partition;
+                }));
+            }
+            final List<ChronicleHistoryReader> results = new ArrayList<>();
+            for (Future<ChronicleHistoryReader> partition : partitions) {
+                results.add(partition.get());
+                if (progress)
+                    System.out.println("Progress: " + results.size() + " of " + partitions.size() + " cycles");
+            }
+            merge(results);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw Jvm.rethrow(e.getCause());
+        } finally {
+            // the tailers are closed before the queue
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return a reader for one cycle, configured like this one
+     */
+    @NotNull
+    protected ChronicleHistoryReader partition() {
+        final ChronicleHistoryReader partition = new ChronicleHistoryReader();
+        partition.timeUnit = timeUnit;
+        partition.histosByMethod = histosByMethod;
+        partition.measurementWindowNanos = measurementWindowNanos;
+        partition.summaryOutputOffset = summaryOutputOffset;
+        partition.windows = new TreeMap<>();
+        return partition;
+    }
+
+    private void merge(final List<ChronicleHistoryReader> partitions) {
+        long first = 0;
+        for (ChronicleHistoryReader partition : partitions) {
+            counter += partition.counter;
+            if (first == 0)
+                first = partition.firstTimeStampNanos;
+        }
+        if (measurementWindowNanos == 0) {
+            for (ChronicleHistoryReader partition : partitions)
+                mergeInto(histos, partition.histos);
+            return;
+        }
+
+        // replays the windows as reading sequentially would, where the messages up to one in a later window than any
+        // before it are output, including that message, labelled with the window before it
+        final Set<String> keys = new LinkedHashSet<>();
+        Map<String, Histogram> pending = new LinkedHashMap<>();
+        long window = 0;
+        for (ChronicleHistoryReader partition : partitions) {
+            for (Map.Entry<Long, Map<String, Histogram>> entry : partition.windows.entrySet()) {
+                mergeInto(pending, entry.getValue());
+                if (entry.getKey() > window) {
+                    histos = withKeys(keys, pending);
+                    lastWindowCount = window;
+                    outputData();
+                    // set after the first window is output, as when reading sequentially
+                    firstTimeStampNanos = first;
+                    pending = new LinkedHashMap<>();
+                    window = entry.getKey();
+                }
+            }
+            mergeInto(pending, partition.histos);
+        }
+        // as when reading sequentially, the messages after the last window output are left in the histograms
+        histos = withKeys(keys, pending);
+        lastWindowCount = window;
+        firstTimeStampNanos = first;
+    }
+
+    /**
+     * @return the histograms, with an empty one for each key seen before, as reading sequentially resets them
+     */
+    @NotNull
+    private Map<String, Histogram> withKeys(final Set<String> keys, final Map<String, Histogram> histograms) {
+        keys.addAll(histograms.keySet());
+        final Map<String, Histogram> withKeys = new LinkedHashMap<>();
+        for (String key : keys)
+            withKeys.put(key, histograms.getOrDefault(key, histogram()));
+        return withKeys;
+    }
+
+    private static void mergeInto(final Map<String, Histogram> to, final Map<String, Histogram> from) {
+        from.forEach((key, histogram) -> {
+            final Histogram existing = to.get(key);
+            if (existing == null)
+                to.put(key, histogram);
+            else
+                existing.add(histogram);
+        });
+    }
+
     public void outputData() {
         if (summaryOutputOffset != SUMMARY_OUTPUT_UNSET)
             printSummary();
@@ -197,7 +411,13 @@ public class ChronicleHistoryReader {
                 if (measurementWindowNanos > 0) {
                     long windowCount = firstTiming / measurementWindowNanos;
                     if (windowCount > lastWindowCount) {
-                        windowPassed();
+                        if (windows == null) {
+                            windowPassed();
+                        } else {
+                            // whether a partition's window is output depends on the partitions before it, see merge
+                            windows.put(windowCount, histos);
+                            histos = new LinkedHashMap<>();
+                        }
                         lastWindowCount = windowCount;
                     }
                     if (firstTimeStampNanos == 0)
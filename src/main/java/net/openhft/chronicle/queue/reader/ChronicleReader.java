@@ -21,20 +21,31 @@ package net.openhft.chronicle.queue.reader;
 import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.bytes.MethodReader;
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.IORuntimeException;
 import net.openhft.chronicle.queue.ChronicleQueue;
 import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.threads.NamedThreadFactory;
 import net.openhft.chronicle.threads.Pauser;
 import net.openhft.chronicle.wire.DocumentContext;
 import net.openhft.chronicle.wire.WireType;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.Flushable;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.text.ParseException;
 import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -45,10 +56,16 @@ import static net.openhft.chronicle.queue.impl.StoreFileListener.NO_OP;
 
 public final class ChronicleReader {
     private static final long UNSET_VALUE = Long.MIN_VALUE;
+    // the matches buffered for each cycle being searched in parallel
+    private static final int MATCH_BUFFER_SIZE = Integer.getInteger("chronicle.reader.matchBufferSize", 1024);
+    // records read between flushes of the message sink
+    private static final int BATCH_SIZE = Integer.getInteger("chronicle.reader.batchSize", 1024);
 
     private final List<Pattern> inclusionRegex = new ArrayList<>();
     private final List<Pattern> exclusionRegex = new ArrayList<>();
-    private final Pauser pauser = Pauser.balanced();
+    private final List<BinaryMatch> binaryMatches = new ArrayList<>();
+    // sleeps rather than spins while waiting for records to be appended, there being no notification of an append
+    private final Pauser pauser = Pauser.millis(1, 20);
     private Path basePath;
     private long startIndex = UNSET_VALUE;
     private boolean tailInputSource = false;
@@ -62,6 +79,8 @@ public final class ChronicleReader {
     private boolean displayIndex = true;
     private Class<?> methodReaderInterface;
     private volatile boolean running = true;
+    private int threads = 1;
+    private String tailerId;
 
     private static boolean checkForMatches(final List<Pattern> patterns, final String text,
                                            final boolean shouldBePresent) {
@@ -73,83 +92,105 @@ public final class ChronicleReader {
         return true;
     }
 
+    private static boolean checkForBinaryMatches(final List<BinaryMatch> matches, final Bytes<?> bytes) {
+        for (BinaryMatch match : matches) {
+            if (!match.matches(bytes)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static boolean isSet(final long configValue) {
         return configValue != UNSET_VALUE;
     }
 
-    private ThreadLocal<ExcerptTailer> tlTailer;
-
     public void execute() {
-        long lastObservedTailIndex;
-        long highestReachedIndex = 0L;
-        boolean isFirstIteration = true;
-        boolean retryLastOperation;
-        boolean queueHasBeenModified;
-        do {
-            try (final ChronicleQueue queue = createQueue();
-                 final QueueEntryHandler messageConverter = entryHandlerFactory.get()) {
-                final ExcerptTailer tailer = queue.createTailer();
-
-                tlTailer = ThreadLocal.withInitial(queue::createTailer);
-
-                do {
-                    if (highestReachedIndex != 0L) {
-                        tailer.moveToIndex(highestReachedIndex);
-                    }
-                    final Bytes textConversionTarget = Bytes.elasticByteBuffer();
-                    try {
-                        moveToSpecifiedPosition(queue, tailer, isFirstIteration);
-                        lastObservedTailIndex = tailer.index();
-                        Consumer<String> messageConsumer = text -> applyFiltersAndLog(text, tailer.index());
-                        BooleanSupplier readOne;
-                        if (methodReaderInterface == null) {
-                            readOne = () -> readOne(messageConverter, tailer, messageConsumer);
-                        } else {
-                            Bytes<ByteBuffer> bytes = Bytes.elasticHeapByteBuffer(256);
-                            Object writer = WireType.TEXT.apply(bytes).methodWriter(methodReaderInterface);
-                            MethodReader methodReader = tailer.methodReader(writer);
-                            readOne = () -> {
-                                boolean found = methodReader.readOne();
-                                if (found)
-                                    messageConsumer.accept(bytes.toString());
-                                bytes.clear();
-                                return found;
-                            };
-                        }
-
-                        while (!Thread.currentThread().isInterrupted()) {
-                            boolean found = readOne.getAsBoolean();
-
-                            if (!found) {
-                                if (tailInputSource) {
-                                    pauser.pause();
-                                }
-                                break;
-                            }
-                            pauser.reset();
-                        }
-                    } finally {
-                        textConversionTarget.releaseLast();
-                        highestReachedIndex = tailer.index();
-                        isFirstIteration = false;
-                    }
-                    queueHasBeenModified = queueHasBeenModifiedSinceLastCheck(lastObservedTailIndex, queue);
-                    retryLastOperation = false;
-                    if (!running)
-                        return;
-                } while (tailInputSource || queueHasBeenModified);
+        if (canReadInParallel()) {
+            executeInParallel();
+            return;
+        }
+        while (true) {
+            try {
+                read();
+                return;
             } catch (final RuntimeException e) {
                 if (e.getCause() != null && e.getCause() instanceof DateTimeParseException) {
                     // ignore this error - due to a race condition between
                     // the reader creating a Queue (with default roll-cycle due to no files on disk)
                     // and the writer appending to the Queue with a non-default roll-cycle
-                    retryLastOperation = true;
-                } else {
-                    throw e;
+                    continue;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Reads with one tailer until it has caught up, or until stopped when following the queue. The message sink is
+     * flushed, and the position saved, every {@link #BATCH_SIZE} records and whenever the tailer has caught up, so a
+     * reader restarted with the same tailer id carries on from the first record not flushed. The position is saved after
+     * the flush, so delivery is at least once: a batch flushed just before a crash is delivered again on restart.
+     */
+    private void read() {
+        try (final SingleChronicleQueue queue = createQueue();
+             final QueueEntryHandler messageConverter = entryHandlerFactory.get();
+             final ExcerptTailer tailer = queue.createTailer();
+             final ExcerptTailer position = tailerId == null ? null : queue.createTailer(tailerId)) {
+            moveToSpecifiedPosition(queue, tailer, position);
+            final Consumer<String> messageConsumer = text -> applyFiltersAndLog(text, tailer.index());
+            final BooleanSupplier readOne;
+            final Bytes<ByteBuffer> bytes;
+            if (methodReaderInterface == null) {
+                bytes = null;
+                readOne = () -> readOne(messageConverter, tailer, messageConsumer);
+            } else {
+                bytes = Bytes.elasticHeapByteBuffer(256);
+                final Object writer = WireType.TEXT.apply(bytes).methodWriter(methodReaderInterface);
+                final MethodReader methodReader = tailer.methodReader(writer);
+                readOne = () -> {
+                    boolean found = methodReader.readOne();
+                    if (found)
+                        messageConsumer.accept(bytes.toString());
+                    bytes.clear();
+                    return found;
+                };
+            }
+
+            int batched = 0;
+            try {
+                while (running && !Thread.currentThread().isInterrupted()) {
+                    if (readOne.getAsBoolean()) {
+                        pauser.reset();
+                        if (++batched >= BATCH_SIZE) {
+                            endBatch(tailer, position);
+                            batched = 0;
+                        }
+                        continue;
+                    }
+                    // caught up, hand over what has been read before waiting
+                    if (batched > 0) {
+                        endBatch(tailer, position);
+                        batched = 0;
+                    }
+                    if (!tailInputSource)
+                        break;
+                    pauser.pause();
                 }
+            } finally {
+                if (batched > 0)
+                    endBatch(tailer, position);
+                if (bytes != null)
+                    bytes.releaseLast();
             }
-        } while (retryLastOperation);
+        }
+    }
 
+    private void endBatch(final ExcerptTailer tailer, final ExcerptTailer position) {
+        flushMessageSink();
+        // saved once the records before it have been flushed, the index of the next record to read
+        if (position != null)
+            position.moveToIndex(tailer.index());
     }
 
     public boolean readOne(QueueEntryHandler messageConverter, ExcerptTailer tailer, Consumer<String> messageConsumer) {
@@ -157,6 +198,9 @@ public final class ChronicleReader {
             if (!dc.isPresent()) {
                 return false;
             }
+            if (!checkForBinaryMatches(binaryMatches, dc.wire().bytes())) {
+                return true;
+            }
 
             if (customPlugin == null) {
                 messageConverter.accept(dc.wire(), messageConsumer);
@@ -196,6 +240,36 @@ public final class ChronicleReader {
         return this;
     }
 
+    /**
+     * Only displays records containing a byte pattern, checked before they are converted to text, see
+     * {@link BinaryMatch#parse(String)}.
+     */
+    public ChronicleReader withBinaryMatch(final String match) {
+        this.binaryMatches.add(BinaryMatch.parse(match));
+        return this;
+    }
+
+    /**
+     * Searches the cycles of the queue in parallel with this many threads, displaying the records in index order.
+     * Used unless following the queue, showing the last records, using a custom plugin or saving the position with a
+     * tailer id.
+     */
+    public ChronicleReader withThreads(final int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("threads must be at least 1, was " + threads);
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Saves the position read up to with a named tailer, see {@link ChronicleQueue#createTailer(String)}, and starts
+     * from the position saved with this id unless a start index is given. The queue is opened read-write to save it.
+     */
+    public ChronicleReader withTailerId(final String tailerId) {
+        this.tailerId = tailerId;
+        return this;
+    }
+
     public ChronicleReader withCustomPlugin(final ChronicleReaderPlugin customPlugin) {
         this.customPlugin = customPlugin;
         return this;
@@ -237,13 +311,8 @@ public final class ChronicleReader {
         return this;
     }
 
-    private boolean queueHasBeenModifiedSinceLastCheck(final long lastObservedTailIndex, ChronicleQueue queue) {
-        long currentTailIndex = indexOfEnd(queue);
-        return currentTailIndex > lastObservedTailIndex;
-    }
-
-    private void moveToSpecifiedPosition(final ChronicleQueue ic, final ExcerptTailer tailer, final boolean isFirstIteration) {
-        if (isSet(startIndex) && isFirstIteration) {
+    private void moveToSpecifiedPosition(final ChronicleQueue ic, final ExcerptTailer tailer, final ExcerptTailer position) {
+        if (isSet(startIndex)) {
             if (startIndex < ic.firstIndex()) {
                 throw new IllegalArgumentException(String.format("startIndex %d is less than first index %d",
                         startIndex, ic.firstIndex()));
@@ -253,50 +322,179 @@ public final class ChronicleReader {
             while (!tailer.moveToIndex(startIndex)) {
                 Jvm.pause(100);
             }
+        } else if (position != null && position.index() != 0) {
+            // carry on from where a reader with this tailer id stopped
+            tailer.moveToIndex(position.index());
+            return;
         }
 
-        if (isSet(maxHistoryRecords) && isFirstIteration) {
+        if (isSet(maxHistoryRecords)) {
             tailer.toEnd();
             tailer.moveToIndex(Math.max(ic.firstIndex(), tailer.index() - maxHistoryRecords));
-        } else if (tailInputSource && isFirstIteration) {
+        } else if (tailInputSource) {
             tailer.toEnd();
         }
     }
 
-    private long indexOfEnd(ChronicleQueue queue) {
-        final ExcerptTailer excerptTailer = tlTailer.get();
-        long index = excerptTailer.index();
+    private boolean canReadInParallel() {
+        // plugins may not be thread safe
+        return threads > 1 && !tailInputSource && !isSet(maxHistoryRecords) && customPlugin == null && tailerId == null;
+    }
+
+    /**
+     * Searches each cycle with its own tailer on a pool of threads, a few cycles ahead of the one being displayed.
+     * The matches of each cycle are buffered up to {@link #MATCH_BUFFER_SIZE}, so memory is bounded however many match.
+     */
+    private void executeInParallel() {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("chronicle~reader", true));
+        try (final SingleChronicleQueue queue = createQueue()) {
+            try {
+                final Iterator<Long> nextCycle = cyclesToSearch(queue).iterator();
+                final Deque<BlockingQueue<Match>> searches = new ArrayDeque<>();
+                while (running && (nextCycle.hasNext() || !searches.isEmpty())) {
+                    while (nextCycle.hasNext() && searches.size() < threads) {
+                        final int cycle = nextCycle.next().intValue();
+                        final BlockingQueue<Match> matches = new ArrayBlockingQueue<>(MATCH_BUFFER_SIZE);
+                        executor.execute(() -> searchCycle(queue, cycle, matches));
+                        searches.add(matches);
+                    }
+                    final BlockingQueue<Match> matches = searches.peek();
+                    if (matches.isEmpty())
+                        flushMessageSink();
+                    final Match match = matches.take();
+                    if (match == Match.END_OF_CYCLE) {
+                        searches.remove();
+                    } else if (match.error != null) {
+                        throw Jvm.rethrow(match.error);
+                    } else {
+                        log(match.text, match.index);
+                    }
+                }
+            } finally {
+                flushMessageSink();
+                // the tailers are closed before the queue
+                executor.shutdownNow();
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushMessageSink() {
+        if (messageSink instanceof Flushable) {
+            try {
+                ((Flushable) messageSink).flush();
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+        }
+    }
+
+    @NotNull
+    private NavigableSet<Long> cyclesToSearch(final SingleChronicleQueue queue) {
+        int firstCycle = queue.firstCycle();
+        final int lastCycle = queue.lastCycle();
+        if (firstCycle > lastCycle)
+            return Collections.emptyNavigableSet();
+        if (isSet(startIndex)) {
+            if (startIndex < queue.firstIndex()) {
+                throw new IllegalArgumentException(String.format("startIndex %d is less than first index %d",
+                        startIndex, queue.firstIndex()));
+            }
+            firstCycle = queue.rollCycle().toCycle(startIndex);
+        }
         try {
-            return excerptTailer.toEnd().index();
-        } finally {
-            excerptTailer.moveToIndex(index);
+            return queue.listCyclesBetween(firstCycle, lastCycle);
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
         }
+    }
 
+    private void searchCycle(final ChronicleQueue queue, final int cycle, final BlockingQueue<Match> matches) {
+        final RollCycle rollCycle = queue.rollCycle();
+        Match last = Match.END_OF_CYCLE;
+        try (final ExcerptTailer tailer = queue.createTailer();
+             final QueueEntryHandler messageConverter = entryHandlerFactory.get()) {
+            final long fromIndex = isSet(startIndex) && rollCycle.toCycle(startIndex) == cycle
+                    ? startIndex
+                    : rollCycle.toIndex(cycle, 0);
+            if (tailer.moveToIndex(fromIndex)) {
+                while (running) {
+                    try (DocumentContext dc = pollMethod.apply(tailer)) {
+                        if (!dc.isPresent())
+                            break;
+                        final long index = dc.index();
+                        if (rollCycle.toCycle(index) != cycle) {
+                            dc.rollbackOnClose();
+                            break;
+                        }
+                        if (!checkForBinaryMatches(binaryMatches, dc.wire().bytes()))
+                            continue;
+                        final List<String> texts = new ArrayList<>(1);
+                        messageConverter.accept(dc.wire(), texts::add);
+                        for (String text : texts)
+                            if (matchesFilters(text))
+                                matches.put(new Match(index, text, null));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // stopped
+            return;
+        } catch (Throwable t) {
+            last = new Match(UNSET_VALUE, null, t);
+        }
+        try {
+            matches.put(last);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     @NotNull
-    private ChronicleQueue createQueue() {
+    private SingleChronicleQueue createQueue() {
         if (!Files.exists(basePath)) {
             throw new IllegalArgumentException(String.format("Path '%s' does not exist (absolute path '%s')", basePath, basePath.toAbsolutePath()));
         }
         return SingleChronicleQueueBuilder
                 .binary(basePath.toFile())
-                .readOnly(readOnly)
+                .readOnly(readOnly && tailerId == null)
                 .storeFileListener(NO_OP)
                 .build();
     }
 
     protected void applyFiltersAndLog(final String text, final long index) {
-        if (inclusionRegex.isEmpty() || checkForMatches(inclusionRegex, text, true)) {
-            if (exclusionRegex.isEmpty() || checkForMatches(exclusionRegex, text, false)) {
-                if (displayIndex)
-                    messageSink.accept("0x" + Long.toHexString(index) + ": ");
-                messageSink.accept(text);
-            }
-        }
+        if (matchesFilters(text))
+            log(text, index);
+    }
+
+    private boolean matchesFilters(final String text) {
+        return (inclusionRegex.isEmpty() || checkForMatches(inclusionRegex, text, true))
+                && (exclusionRegex.isEmpty() || checkForMatches(exclusionRegex, text, false));
+    }
+
+    private void log(final String text, final long index) {
+        if (displayIndex)
+            messageSink.accept("0x" + Long.toHexString(index) + ": ");
+        messageSink.accept(text);
     }
 
     public void stop() {
         running = false;
     }
+
+    private static final class Match {
+        static final Match END_OF_CYCLE = new Match(UNSET_VALUE, null, null);
+
+        final long index;
+        final String text;
+        final Throwable error;
+
+        Match(final long index, final String text, final Throwable error) {
+            this.index = index;
+            this.text = text;
+            this.error = error;
+        }
+    }
 }
\ No newline at end of file
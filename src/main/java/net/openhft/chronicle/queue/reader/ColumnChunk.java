@@ -0,0 +1,259 @@
+package net.openhft.chronicle.queue.reader;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Jvm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The calls to one method of an exported queue, buffered off heap with one {@link Bytes} per column. Each argument of
+ * the method is a column, or if it is a DTO, each of its fields is.
+ */
+final class ColumnChunk implements Closeable {
+    @NotNull
+    private final String name;
+    @NotNull
+    private final Column[] columns;
+    @NotNull
+    private final Bytes<?> indices;
+    @NotNull
+    private final Bytes<?>[] data;
+    private int rows = 0;
+
+    ColumnChunk(@NotNull final String name, @NotNull final Column[] columns, final int capacityRows) {
+        this.name = name;
+        this.columns = columns;
+        this.indices = Bytes.allocateElasticDirect(capacityRows * 8L);
+        this.data = new Bytes<?>[columns.length];
+        for (int i = 0; i < columns.length; i++)
+            data[i] = Bytes.allocateElasticDirect(capacityRows * (long) columns[i].type.width);
+    }
+
+    /**
+     * @return the columns of the arguments of a method, the queue index is not included
+     */
+    @NotNull
+    static Column[] columnsOf(@NotNull final Method method) {
+        final List<Column> columns = new ArrayList<>();
+        final Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            final int arg = i;
+            final Class<?> type = parameters[i].getType();
+            final String name = parameters[i].isNamePresent() ? parameters[i].getName() : "arg" + i;
+            final ColumnType columnType = ColumnType.of(type);
+            if (columnType != null) {
+                columns.add(new Column(name, columnType, arg, null));
+                continue;
+            }
+            final String prefix = parameters.length == 1 ? "" : name + ".";
+            for (Field field : fieldsOf(type)) {
+                final ColumnType fieldType = ColumnType.of(field.getType());
+                columns.add(new Column(prefix + field.getName(), fieldType == null ? ColumnType.TEXT : fieldType, arg, field));
+            }
+        }
+        return columns.toArray(new Column[0]);
+    }
+
+    @NotNull
+    private static List<Field> fieldsOf(@NotNull final Class<?> type) {
+        final List<Field> fields = new ArrayList<>();
+        if (type == Object.class || type.isInterface())
+            return fields;
+        fields.addAll(fieldsOf(type.getSuperclass()));
+        for (Field field : type.getDeclaredFields()) {
+            if ((field.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) != 0)
+                continue;
+            Jvm.setAccessible(field);
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    void add(final long index, @Nullable final Object[] args) {
+        indices.writeLong(index);
+        for (int i = 0; i < columns.length; i++)
+            columns[i].write(args, data[i]);
+        rows++;
+    }
+
+    @NotNull
+    String name() {
+        return name;
+    }
+
+    @NotNull
+    Column[] columns() {
+        return columns;
+    }
+
+    /**
+     * @return the queue index of each row, read from the read position
+     */
+    @NotNull
+    Bytes<?> indices() {
+        return indices;
+    }
+
+    /**
+     * @return the values of a column, read from the read position
+     */
+    @NotNull
+    Bytes<?> data(final int column) {
+        return data[column];
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    void clear() {
+        indices.clear();
+        for (Bytes<?> bytes : data)
+            bytes.clear();
+        rows = 0;
+    }
+
+    @Override
+    public void close() {
+        indices.releaseLast();
+        for (Bytes<?> bytes : data)
+            bytes.releaseLast();
+    }
+
+    static final class Column {
+        @NotNull
+        final String name;
+        @NotNull
+        final ColumnType type;
+        // the argument the column is, or holds the field of
+        private final int arg;
+        // reads the field from the argument, returning a primitive field without boxing it, or null if the column is the argument
+        @Nullable
+        private final MethodHandle getter;
+        private final boolean primitive;
+
+        Column(@NotNull final String name, @NotNull final ColumnType type, final int arg, @Nullable final Field field) {
+            this.name = name;
+            this.type = type;
+            this.arg = arg;
+            primitive = field != null && field.getType().isPrimitive() && type != ColumnType.TEXT;
+            getter = field == null ? null : getter(field, primitive, type);
+        }
+
+        @NotNull
+        private static MethodHandle getter(@NotNull final Field field, final boolean primitive, @NotNull final ColumnType type) {
+            final Class<?> returnType = !primitive ? Object.class
+                    : type == ColumnType.LONG ? long.class
+                    : type == ColumnType.DOUBLE ? double.class
+                    : boolean.class;
+            try {
+                return MethodHandles.lookup().unreflectGetter(field)
+                        .asType(MethodType.methodType(returnType, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        void write(@Nullable final Object[] args, @NotNull final Bytes<?> bytes) {
+            final Object value = args == null ? null : args[arg];
+            if (getter == null || value == null) {
+                type.write(value, bytes);
+                return;
+            }
+            try {
+                if (!primitive) {
+                    type.write((Object) getter.invokeExact(value), bytes);
+                } else if (type == ColumnType.LONG) {
+                    bytes.writeLong((long) getter.invokeExact(value));
+                } else if (type == ColumnType.DOUBLE) {
+                    bytes.writeDouble((double) getter.invokeExact(value));
+                } else {
+                    bytes.writeByte((byte) ((boolean) getter.invokeExact(value) ? 1 : 0));
+                }
+            } catch (Throwable t) {
+                throw Jvm.rethrow(t);
+            }
+        }
+    }
+
+    /**
+     * How a column is held, which is also how it is written by {@link ExportFormat#COLUMNAR}.
+     */
+    enum ColumnType {
+        /**
+         * little endian 64-bit integers, used for all integer types
+         */
+        LONG(1, 8) {
+            @Override
+            void write(final Object value, final Bytes<?> bytes) {
+                bytes.writeLong(value == null ? 0 : ((Number) value).longValue());
+            }
+        },
+        /**
+         * little endian 64-bit floating point, used for float and double
+         */
+        DOUBLE(2, 8) {
+            @Override
+            void write(final Object value, final Bytes<?> bytes) {
+                bytes.writeDouble(value == null ? 0 : ((Number) value).doubleValue());
+            }
+        },
+        /**
+         * one byte, 1 for true
+         */
+        BOOLEAN(3, 1) {
+            @Override
+            void write(final Object value, final Bytes<?> bytes) {
+                bytes.writeByte((byte) (Boolean.TRUE.equals(value) ? 1 : 0));
+            }
+        },
+        /**
+         * a stop bit encoded length, -1 for null, followed by UTF-8, used for anything else
+         */
+        TEXT(4, 16) {
+            @Override
+            void write(final Object value, final Bytes<?> bytes) {
+                bytes.writeUtf8(value == null ? null : value instanceof CharSequence ? (CharSequence) value : value.toString());
+            }
+        };
+
+        final int code;
+        final int width;
+
+        ColumnType(final int code, final int width) {
+            this.code = code;
+            this.width = width;
+        }
+
+        /**
+         * @return the column type of a value, or null if it is a DTO with a column for each field
+         */
+        @Nullable
+        static ColumnType of(@NotNull final Class<?> type) {
+            if (type == long.class || type == int.class || type == short.class || type == byte.class
+                    || type == Long.class || type == Integer.class || type == Short.class || type == Byte.class)
+                return LONG;
+            if (type == double.class || type == float.class || type == Double.class || type == Float.class)
+                return DOUBLE;
+            if (type == boolean.class || type == Boolean.class)
+                return BOOLEAN;
+            if (type.isPrimitive() || CharSequence.class.isAssignableFrom(type) || type.isEnum() || type == Character.class
+                    || type.isArray() || type.isInterface() || type.getName().startsWith("java."))
+                return TEXT;
+            return null;
+        }
+
+        abstract void write(Object value, Bytes<?> bytes);
+    }
+}
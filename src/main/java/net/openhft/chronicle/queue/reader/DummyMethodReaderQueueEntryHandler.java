@@ -2,6 +2,7 @@ package net.openhft.chronicle.queue.reader;
 
 import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.wire.BinaryWire;
+import net.openhft.chronicle.wire.Wire;
 import net.openhft.chronicle.wire.WireIn;
 import net.openhft.chronicle.wire.WireType;
 
@@ -9,22 +10,26 @@ import java.util.function.Consumer;
 
 public final class DummyMethodReaderQueueEntryHandler implements QueueEntryHandler {
     private final Bytes textConversionTarget = Bytes.elasticByteBuffer();
-    private final WireType wireType;
+    private final Wire textWire;
+    // reused while reading the same store
+    private BinaryWire binaryWire;
 
     public DummyMethodReaderQueueEntryHandler(WireType wireType) {
-        this.wireType = wireType;
+        this.textWire = wireType.apply(textConversionTarget);
     }
 
     @Override
     public void accept(final WireIn wireIn, final Consumer<String> messageHandler) {
         long elementCount = 0;
         while (wireIn.hasMore()) {
-            new BinaryWire(wireIn.bytes()).copyOne(wireType.apply(textConversionTarget));
+            if (binaryWire == null || binaryWire.bytes() != wireIn.bytes())
+                binaryWire = new BinaryWire(wireIn.bytes());
+            binaryWire.copyOne(textWire);
 
             elementCount++;
             if ((elementCount & 1) == 0) {
                 messageHandler.accept(textConversionTarget.toString());
-                textConversionTarget.clear();
+                textWire.clear();
             }
         }
     }
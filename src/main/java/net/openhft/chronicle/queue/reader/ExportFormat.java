@@ -0,0 +1,160 @@
+package net.openhft.chronicle.queue.reader;
+
+import net.openhft.chronicle.bytes.Bytes;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The files written by {@link ChronicleExporter}, one per method and cycle.
+ */
+public enum ExportFormat {
+    /**
+     * Comma separated values with a header row, text is quoted when needed and null text is empty.
+     */
+    CSV(".csv") {
+        @Override
+        void writeHeader(@NotNull final ColumnChunk chunk, @NotNull final OutputStream out) throws IOException {
+            final StringBuilder header = new StringBuilder("index");
+            for (ColumnChunk.Column column : chunk.columns())
+                header.append(',').append(column.name);
+            header.append('\n');
+            out.write(header.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        void writeChunk(@NotNull final ColumnChunk chunk, @NotNull final OutputStream out, @NotNull final Bytes<?> buffer) throws IOException {
+            final ColumnChunk.Column[] columns = chunk.columns();
+            final StringBuilder text = new StringBuilder();
+            buffer.clear();
+            for (int row = 0; row < chunk.rows(); row++) {
+                buffer.append(chunk.indices().readLong());
+                for (int i = 0; i < columns.length; i++) {
+                    buffer.append(',');
+                    final Bytes<?> data = chunk.data(i);
+                    switch (columns[i].type) {
+                        case LONG:
+                            buffer.append(data.readLong());
+                            break;
+                        case DOUBLE:
+                            buffer.append(data.readDouble());
+                            break;
+                        case BOOLEAN:
+                            buffer.append(data.readByte() != 0 ? "true" : "false");
+                            break;
+                        default:
+                            if (data.readUtf8(text))
+                                appendQuoted(buffer, text);
+                            break;
+                    }
+                }
+                buffer.append('\n');
+            }
+            copy(buffer, out);
+        }
+    },
+    /**
+     * A self describing binary format, holding each column of a chunk of rows contiguously, all little endian:
+     * <pre>
+     * header: "CQCOLS01", int number of columns, then for each column a UTF-8 name and a byte type,
+     *         1 long, 2 double, 3 boolean, 4 text, the first column being the queue "index" as a long
+     * chunk:  int number of rows, then for each column a long length in bytes and the values,
+     *         text values being a stop bit length, -1 for null, followed by UTF-8
+     * </pre>
+     * Chunks follow until the end of the file.
+     */
+    COLUMNAR(".cqcol") {
+        @Override
+        void writeHeader(@NotNull final ColumnChunk chunk, @NotNull final OutputStream out) throws IOException {
+            final Bytes<?> header = Bytes.allocateElasticOnHeap(256);
+            header.write(MAGIC);
+            header.writeInt(chunk.columns().length + 1);
+            header.writeUtf8("index");
+            header.writeByte((byte) ColumnChunk.ColumnType.LONG.code);
+            for (ColumnChunk.Column column : chunk.columns()) {
+                header.writeUtf8(column.name);
+                header.writeByte((byte) column.type.code);
+            }
+            copy(header, out);
+        }
+
+        @Override
+        void writeChunk(@NotNull final ColumnChunk chunk, @NotNull final OutputStream out, @NotNull final Bytes<?> buffer) throws IOException {
+            buffer.clear();
+            buffer.writeInt(chunk.rows());
+            buffer.writeLong(chunk.indices().readRemaining());
+            copy(buffer, out);
+            copy(chunk.indices(), out);
+            for (int i = 0; i < chunk.columns().length; i++) {
+                final Bytes<?> data = chunk.data(i);
+                buffer.clear();
+                buffer.writeLong(data.readRemaining());
+                copy(buffer, out);
+                copy(data, out);
+            }
+        }
+    };
+
+    static final byte[] MAGIC = "CQCOLS01".getBytes(StandardCharsets.US_ASCII);
+    private static final ThreadLocal<byte[]> COPY_BUFFER = ThreadLocal.withInitial(() -> new byte[64 << 10]);
+
+    @NotNull
+    private final String suffix;
+
+    ExportFormat(@NotNull final String suffix) {
+        this.suffix = suffix;
+    }
+
+    private static void appendQuoted(@NotNull final Bytes<?> buffer, @NotNull final CharSequence text) {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            final char ch = text.charAt(i);
+            quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!quote) {
+            buffer.appendUtf8(text);
+            return;
+        }
+        buffer.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            final char ch = text.charAt(i);
+            if (ch == '"')
+                buffer.append('"');
+            buffer.appendUtf8(ch);
+        }
+        buffer.append('"');
+    }
+
+    /**
+     * Writes the remaining bytes, leaving none remaining.
+     */
+    private static void copy(@NotNull final Bytes<?> bytes, @NotNull final OutputStream out) throws IOException {
+        final byte[] buffer = COPY_BUFFER.get();
+        while (bytes.readRemaining() > 0) {
+            final int length = bytes.read(buffer);
+            out.write(buffer, 0, length);
+        }
+    }
+
+    /**
+     * @return the suffix of the files written
+     */
+    @NotNull
+    public String suffix() {
+        return suffix;
+    }
+
+    /**
+     * Writes what comes before the first chunk of a file.
+     */
+    abstract void writeHeader(@NotNull ColumnChunk chunk, @NotNull OutputStream out) throws IOException;
+
+    /**
+     * Writes the rows of a chunk, which are consumed.
+     *
+     * @param buffer to use while writing
+     */
+    abstract void writeChunk(@NotNull ColumnChunk chunk, @NotNull OutputStream out, @NotNull Bytes<?> buffer) throws IOException;
+}
@@ -2,6 +2,7 @@ package net.openhft.chronicle.queue.reader;
 
 import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.wire.BinaryWire;
+import net.openhft.chronicle.wire.Wire;
 import net.openhft.chronicle.wire.WireIn;
 import net.openhft.chronicle.wire.WireType;
 
@@ -9,10 +10,12 @@ import java.util.function.Consumer;
 
 public final class MessageToTextQueueEntryHandler implements QueueEntryHandler {
     private final Bytes textConversionTarget = Bytes.elasticByteBuffer();
-    private final WireType wireType;
+    private final Wire textWire;
+    // reused while reading the same store
+    private BinaryWire binaryWire;
 
     public MessageToTextQueueEntryHandler(WireType wireType) {
-        this.wireType = wireType;
+        this.textWire = wireType.apply(textConversionTarget);
     }
 
     private static boolean isBinaryFormat(final byte dataFormatIndicator) {
@@ -26,9 +29,10 @@ public final class MessageToTextQueueEntryHandler implements QueueEntryHandler {
         String text;
 
         if (isBinaryFormat(dataFormatIndicator)) {
-            textConversionTarget.clear();
-            final BinaryWire binaryWire = new BinaryWire(serialisedMessage);
-            binaryWire.copyTo(wireType.apply(textConversionTarget));
+            textWire.clear();
+            if (binaryWire == null || binaryWire.bytes() != serialisedMessage)
+                binaryWire = new BinaryWire(serialisedMessage);
+            binaryWire.copyTo(textWire);
             text = textConversionTarget.toString();
         } else {
             text = serialisedMessage.toString();
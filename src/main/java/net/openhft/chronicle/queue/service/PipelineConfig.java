@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.service;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.wire.SelfDescribingMarshallable;
+import net.openhft.chronicle.wire.WireType;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The stages of a pipeline, run by a {@link PipelineRunner}, which are read from YAML e.g.
+ * <pre>
+ * stages: [
+ *   { name: eurusd, inputs: [ quotes ], inputSourceId: 1, output: eurusd, methods: [ quote ], fields: { symbol: EURUSD } },
+ *   { name: pricer, inputs: [ eurusd ], inputSourceId: 2, output: prices, transform: my.Pricer, outClass: my.Prices }
+ * ]
+ * </pre>
+ */
+public class PipelineConfig extends SelfDescribingMarshallable {
+    private List<PipelineStage> stages = new ArrayList<>();
+
+    @NotNull
+    public static PipelineConfig fromFile(@NotNull String filename) throws IOException {
+        return fromString(new String(Files.readAllBytes(Paths.get(filename)), StandardCharsets.UTF_8));
+    }
+
+    @NotNull
+    public static PipelineConfig fromString(@NotNull CharSequence yaml) {
+        PipelineConfig config = new PipelineConfig();
+        config.readMarshallable(WireType.TEXT.apply(Bytes.from(yaml.toString())));
+        return config;
+    }
+
+    @NotNull
+    public List<PipelineStage> stages() {
+        return stages;
+    }
+
+    @NotNull
+    public PipelineConfig addStage(@NotNull PipelineStage stage) {
+        this.stages.add(stage);
+        return this;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.service;
+
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.threads.EventLoop;
+import net.openhft.chronicle.threads.EventGroup;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the stages of a {@link PipelineConfig}, each as a {@link PipelineServiceWrapper}, on a shared event loop, so many
+ * small queue to queue processes share a few threads rather than each having a thread and pause loop of its own.
+ * <p>
+ * Usage: PipelineRunner pipeline.yaml
+ */
+public class PipelineRunner implements Closeable {
+    private static final long REPORT_INTERVAL_MS = Long.getLong("pipeline.reportInterval", 10_000);
+
+    @NotNull
+    private final List<PipelineServiceWrapper> stages = new ArrayList<>();
+    private final EventLoop eventLoop;
+    private final boolean createdEventLoop;
+    private volatile boolean closed = false;
+
+    public PipelineRunner(@NotNull PipelineConfig config) {
+        this(config, new EventGroup(false), true);
+    }
+
+    /**
+     * @param eventLoop to run the stages on, which is started by the caller
+     */
+    public PipelineRunner(@NotNull PipelineConfig config, @NotNull EventLoop eventLoop) {
+        this(config, eventLoop, false);
+    }
+
+    private PipelineRunner(@NotNull PipelineConfig config, @NotNull EventLoop eventLoop, boolean createdEventLoop) {
+        this.eventLoop = eventLoop;
+        this.createdEventLoop = createdEventLoop;
+        try {
+            for (PipelineStage stage : config.stages())
+                stages.add(new PipelineServiceWrapper(stage.serviceBuilder(eventLoop), stage));
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        if (createdEventLoop)
+            eventLoop.start();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: PipelineRunner pipeline.yaml");
+            System.exit(1);
+        }
+        PipelineRunner runner = new PipelineRunner(PipelineConfig.fromFile(args[0]));
+        Runtime.getRuntime().addShutdownHook(new Thread(runner::close));
+        while (!runner.isClosed()) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(REPORT_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            System.out.print(runner.report());
+        }
+    }
+
+    @NotNull
+    public List<PipelineServiceWrapper> stages() {
+        return Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * @return for each stage the messages read and passed, and the share of its actions which were busy
+     */
+    @NotNull
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (PipelineServiceWrapper wrapper : stages) {
+            long busy = wrapper.busyActions();
+            long actions = busy + wrapper.idleActions();
+            sb.append(wrapper.stage().name())
+                    .append(": read=").append(wrapper.read())
+                    .append(", accepted=").append(wrapper.accepted())
+                    .append(", busy=").append(actions == 0 ? 0 : busy * 100 / actions).append('%')
+                    .append(", busyMs=").append(wrapper.busyNanos() / 1_000_000)
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Closeable.closeQuietly(stages);
+        if (createdEventLoop)
+            eventLoop.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.service;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.MethodReader;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.EventLoop;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.impl.single.SCQTools;
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.VanillaMessageHistory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Runs a {@link PipelineStage} on an event loop, like an {@link EventLoopServiceWrapper}, reading a message from each
+ * input per action. Messages which don't pass the filter of the stage are skipped.
+ * <p>
+ * Without a transform a message is appended as raw bytes after its message history, with the input it was read from
+ * added, so only the message history is written again. Either way each input resumes after the last message written
+ * from it, see {@link ExcerptTailer#afterLastWritten(ChronicleQueue)}.
+ */
+public class PipelineServiceWrapper implements ServiceWrapper, EventHandler {
+    @NotNull
+    private final PipelineStage stage;
+    private final HandlerPriority priority;
+    @NotNull
+    private final ChronicleQueue[] inputQueues;
+    @NotNull
+    private final ExcerptTailer[] tailers;
+    @NotNull
+    private final ChronicleQueue outputQueue;
+    @NotNull
+    private final ExcerptAppender appender;
+    @Nullable
+    private final MethodReader[] serviceIn;
+    private final Object[] serviceImpl;
+    private final int inputSourceId;
+    private final VanillaMessageHistory history = new VanillaMessageHistory();
+    private volatile boolean closed = false;
+    @Nullable
+    private EventLoop eventLoop;
+    private volatile long read;
+    private volatile long accepted;
+    private volatile long busyActions;
+    private volatile long idleActions;
+    private volatile long busyNanos;
+
+    public PipelineServiceWrapper(@NotNull ServiceWrapperBuilder<Object> builder, @NotNull PipelineStage stage) {
+        this.stage = stage;
+        this.priority = builder.priority();
+        this.inputSourceId = builder.inputSourceId();
+        outputQueue = ChronicleQueue.singleBuilder(builder.outputPath())
+                .sourceId(builder.outputSourceId())
+                .checkInterrupts(false)
+                .build();
+        appender = outputQueue.acquireAppender();
+        if (builder.outClass() == null) {
+            serviceImpl = new Object[0];
+        } else {
+            Object serviceOut = appender
+                    .methodWriterBuilder(builder.outClass())
+                    .recordHistory(true)
+                    .get();
+            serviceImpl = builder.getServiceFunctions().stream()
+                    .map(f -> f.apply(serviceOut))
+                    .toArray();
+        }
+
+        List<String> paths = builder.inputPath();
+        inputQueues = new ChronicleQueue[paths.size()];
+        tailers = new ExcerptTailer[paths.size()];
+        serviceIn = serviceImpl.length == 0 ? null : new MethodReader[paths.size()];
+        for (int i = 0; i < paths.size(); i++) {
+            inputQueues[i] = ChronicleQueue.singleBuilder(paths.get(i))
+                    .sourceId(inputSourceId + i)
+                    .build();
+            tailers[i] = inputQueues[i].createTailer()
+                    .afterLastWritten(outputQueue);
+            if (serviceIn != null)
+                serviceIn[i] = tailers[i].methodReader(serviceImpl);
+        }
+        eventLoop = builder.eventLoop();
+        eventLoop.addHandler(this);
+    }
+
+    @NotNull
+    public PipelineStage stage() {
+        return stage;
+    }
+
+    @NotNull
+    @Override
+    public ChronicleQueue[] inputQueues() {
+        return inputQueues;
+    }
+
+    @NotNull
+    @Override
+    public ChronicleQueue outputQueue() {
+        return outputQueue;
+    }
+
+    @Override
+    public boolean action() throws InvalidEventHandlerException {
+        if (isClosed()) {
+            closeQueues();
+            throw new InvalidEventHandlerException();
+        }
+
+        long start = System.nanoTime();
+        boolean busy = false;
+        for (int i = 0; i < tailers.length; i++) {
+            busy |= readOne(i);
+        }
+        if (busy) {
+            busyActions++;
+            busyNanos += System.nanoTime() - start;
+        } else {
+            idleActions++;
+        }
+        return busy;
+    }
+
+    private boolean readOne(int i) {
+        ExcerptTailer tailer = tailers[i];
+        try (DocumentContext dc = tailer.readingDocument()) {
+            if (!dc.isPresent())
+                return false;
+            read++;
+            Bytes<?> bytes = dc.wire().bytes();
+            long start = bytes.readPosition();
+            if (SCQTools.readHistory(dc, history) == null)
+                bytes.readPosition(start);
+            long body = bytes.readPosition();
+            if (!stage.accepts(dc.wire()))
+                return true;
+            accepted++;
+            if (serviceIn != null) {
+                // read again by the transform
+                dc.rollbackOnClose();
+            } else {
+                history.addSource(inputSourceId + i, dc.index());
+                try (DocumentContext out = appender.writingDocument()) {
+                    out.wire().write(MethodReader.HISTORY).marshallable(history);
+                    out.wire().bytes().write(bytes, body, bytes.readLimit() - body);
+                }
+                return true;
+            }
+        }
+        serviceIn[i].readOne();
+        return true;
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return priority;
+    }
+
+    /**
+     * @return the number of messages read from the inputs
+     */
+    public long read() {
+        return read;
+    }
+
+    /**
+     * @return the number of messages which passed the filter
+     */
+    public long accepted() {
+        return accepted;
+    }
+
+    /**
+     * @return the number of actions which read a message
+     */
+    public long busyActions() {
+        return busyActions;
+    }
+
+    /**
+     * @return the number of actions which found nothing to read
+     */
+    public long idleActions() {
+        return idleActions;
+    }
+
+    /**
+     * @return the time spent in actions which read a message
+     */
+    public long busyNanos() {
+        return busyNanos;
+    }
+
+    @Override
+    public void loopFinished() {
+        closeQueues();
+    }
+
+    private void closeQueues() {
+        Closeable.closeQuietly(serviceImpl);
+        Closeable.closeQuietly(serviceIn);
+        Closeable.closeQuietly(tailers);
+        Closeable.closeQuietly(outputQueue);
+        Closeable.closeQuietly(inputQueues);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        EventLoop eventLoop = this.eventLoop;
+        if (eventLoop != null) {
+            eventLoop.unpause();
+        }
+        this.eventLoop = null;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+}
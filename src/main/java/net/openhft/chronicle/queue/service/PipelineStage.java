@@ -0,0 +1,264 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.service;
+
+import net.openhft.chronicle.core.threads.EventLoop;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.util.StringUtils;
+import net.openhft.chronicle.wire.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.util.*;
+
+/**
+ * A stage of a pipeline which tails one or more queues, and appends the messages which pass its filter to another
+ * queue, either as they are or via a transform.
+ * <pre>
+ * {
+ *   name: quotes,
+ *   inputs: [ in ],
+ *   inputSourceId: 1,
+ *   output: out,
+ *   outputSourceId: 2,
+ *   methods: [ quote ],
+ *   fields: { symbol: EURUSD },
+ *   transform: my.QuoteTransform,
+ *   outClass: my.QuoteListener
+ * }
+ * </pre>
+ * The filter passes messages calling one of the {@code methods}, all if there are none, with an argument whose
+ * {@code fields} have the text given. Without a {@code transform} the messages are appended as raw bytes. With one, the
+ * messages are read by a {@code transform}, created with a method writer of the {@code outClass} to the output, like
+ * the service functions of a {@link ServiceWrapperBuilder}.
+ * <p>
+ * Each input is read with the {@code inputSourceId} plus its position in the inputs, so which was read last can be
+ * found from the message history of the output on restart.
+ */
+public class PipelineStage extends SelfDescribingMarshallable {
+    private String name;
+    private List<String> inputs = new ArrayList<>();
+    private int inputSourceId;
+    private String output;
+    private int outputSourceId;
+    private Set<String> methods = new LinkedHashSet<>();
+    private Map<String, String> fields = new LinkedHashMap<>();
+    private String transform;
+    private String outClass;
+    private HandlerPriority priority = HandlerPriority.MEDIUM;
+    private transient StringBuilder field = new StringBuilder();
+    private transient StringBuilder value = new StringBuilder();
+    private transient ReadMarshallable fieldMatcher = this::matchFields;
+    private transient int matched;
+
+    public String name() {
+        return name;
+    }
+
+    @NotNull
+    public PipelineStage name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    @NotNull
+    public List<String> inputs() {
+        return inputs;
+    }
+
+    @NotNull
+    public PipelineStage addInput(String input) {
+        this.inputs.add(input);
+        return this;
+    }
+
+    public int inputSourceId() {
+        return inputSourceId;
+    }
+
+    @NotNull
+    public PipelineStage inputSourceId(int inputSourceId) {
+        this.inputSourceId = inputSourceId;
+        return this;
+    }
+
+    public String output() {
+        return output;
+    }
+
+    @NotNull
+    public PipelineStage output(String output) {
+        this.output = output;
+        return this;
+    }
+
+    public int outputSourceId() {
+        return outputSourceId;
+    }
+
+    @NotNull
+    public PipelineStage outputSourceId(int outputSourceId) {
+        this.outputSourceId = outputSourceId;
+        return this;
+    }
+
+    @NotNull
+    public Set<String> methods() {
+        return methods;
+    }
+
+    @NotNull
+    public PipelineStage addMethod(String method) {
+        this.methods.add(method);
+        return this;
+    }
+
+    @NotNull
+    public Map<String, String> fields() {
+        return fields;
+    }
+
+    @NotNull
+    public PipelineStage field(String field, String text) {
+        this.fields.put(field, text);
+        return this;
+    }
+
+    @Nullable
+    public String transform() {
+        return transform;
+    }
+
+    /**
+     * @param transform the class name of the transform, which has a public constructor taking the method writer
+     * @param outClass  the class name of the interface written to the output
+     */
+    @NotNull
+    public PipelineStage transform(String transform, String outClass) {
+        this.transform = transform;
+        this.outClass = outClass;
+        return this;
+    }
+
+    public String outClass() {
+        return outClass;
+    }
+
+    public HandlerPriority priority() {
+        return priority;
+    }
+
+    @NotNull
+    public PipelineStage priority(HandlerPriority priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * @return a builder for the queues of this stage, and the transform if it has one
+     */
+    @NotNull
+    ServiceWrapperBuilder<Object> serviceBuilder(@NotNull EventLoop eventLoop) {
+        if (inputs.isEmpty() || output == null)
+            throw new IllegalArgumentException("The stage " + name + " needs inputs and an output");
+        ServiceWrapperBuilder<Object> swb = new ServiceWrapperBuilder<>();
+        inputs.forEach(swb::addInputPath);
+        swb.outputPath(output)
+                .inputSourceId(inputSourceId)
+                .outputSourceId(outputSourceId)
+                .priority(priority);
+        swb.eventLoop(eventLoop);
+        if (transform != null) {
+            if (outClass == null)
+                throw new IllegalArgumentException("The stage " + name + " needs the outClass of its transform");
+            @SuppressWarnings("unchecked")
+            Class<Object> out = (Class<Object>) classFor(outClass);
+            Constructor<?> constructor = constructorFor(classFor(transform), out);
+            swb.outClass(out)
+                    .addServiceFunction(writer -> {
+                        try {
+                            return constructor.newInstance(writer);
+                        } catch (ReflectiveOperationException e) {
+                            throw new IllegalStateException("Unable to create the transform " + transform, e);
+                        }
+                    });
+        }
+        return swb;
+    }
+
+    @NotNull
+    private static Class<?> classFor(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Class not found " + className, e);
+        }
+    }
+
+    @NotNull
+    private static Constructor<?> constructorFor(@NotNull Class<?> transform, @NotNull Class<?> outClass) {
+        for (Constructor<?> constructor : transform.getConstructors()) {
+            Class<?>[] parameters = constructor.getParameterTypes();
+            if (parameters.length == 1 && parameters[0].isAssignableFrom(outClass))
+                return constructor;
+        }
+        throw new IllegalArgumentException(transform.getName() + " has no public constructor taking a " + outClass.getName());
+    }
+
+    /**
+     * @param wire positioned after the message history of a message
+     * @return whether the message passes the filter of this stage
+     */
+    boolean accepts(@NotNull Wire wire) {
+        if (methods.isEmpty() && fields.isEmpty())
+            return true;
+        StringBuilder method = Wires.acquireStringBuilder();
+        ValueIn in = wire.readEventName(method);
+        if (!methods.isEmpty() && find(methods, method) == null)
+            return false;
+        if (fields.isEmpty())
+            return true;
+        matched = 0;
+        in.marshallable(fieldMatcher);
+        return matched == fields.size();
+    }
+
+    // compared with the names and text read, rather than looked up, so they aren't copied to Strings
+    private void matchFields(@NotNull WireIn wire) {
+        while (wire.isNotEmptyAfterPadding()) {
+            ValueIn in = wire.readEventName(field);
+            String name = find(fields.keySet(), field);
+            if (name == null) {
+                in.skipValue();
+                continue;
+            }
+            value.setLength(0);
+            if (in.textTo(value) != null && StringUtils.isEqual(value, fields.get(name)))
+                matched++;
+        }
+    }
+
+    @Nullable
+    private static String find(@NotNull Collection<String> strings, @NotNull CharSequence cs) {
+        for (String s : strings)
+            if (StringUtils.isEqual(cs, s))
+                return s;
+        return null;
+    }
+}
@@ -0,0 +1,54 @@
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+
+import java.io.File;
+import java.util.function.UnaryOperator;
+
+/**
+ * Runs {@link ChronicleQueueLatencyDistribution} with each way of mapping the cycle files, to compare the effect of huge
+ * pages and populating the first chunk on the outliers.
+ * <p>
+ * To also compare a queue on a hugetlbfs mount, e.g. {@code mount -t hugetlbfs none /mnt/huge}
+ * <p>
+ * mvn -DenableAffinity=true -Dhugetlbfs=/mnt/huge exec:java -Dexec.classpathScope="test" -Dexec.mainClass=net.openhft.chronicle.queue.ChronicleQueueMappingLatencyDistribution
+ */
+public class ChronicleQueueMappingLatencyDistribution extends ChronicleQueueLatencyDistribution {
+    private static final int BLOCK_SIZE = Integer.getInteger("block_size", 128 << 20);
+    private static final String HUGETLBFS = System.getProperty("hugetlbfs");
+    private static final long HUGE_PAGE_SIZE = Long.getLong("huge_page_size", 2 << 20);
+
+    public static void main(String[] args) throws Exception {
+        assert false : "test runs slower with assertions on";
+        new ChronicleQueueMappingLatencyDistribution().run(args);
+    }
+
+    @Override
+    public void run(String[] args) throws Exception {
+        final int throughput = args.length > 0 ? Integer.parseInt(args[0]) : 1_200_000;
+        // use CQ dir in current directory, not tmp as that is often tmpfs
+        final String dir = getClass().getSimpleName() + "_" + System.currentTimeMillis();
+
+        run("4 KiB pages", new File(dir, "default"), throughput, b -> b);
+        run("populate first chunk", new File(dir, "populate"), throughput, b -> b.populateFirstChunk(true));
+        run("transparent huge pages", new File(dir, "thp"), throughput, b -> b.transparentHugePages(true));
+        run("transparent huge pages, populate first chunk", new File(dir, "thp-populate"), throughput,
+                b -> b.transparentHugePages(true).populateFirstChunk(true));
+        if (HUGETLBFS != null)
+            run("hugetlbfs", new File(HUGETLBFS, dir), throughput, b -> b.hugePageSize(HUGE_PAGE_SIZE));
+    }
+
+    private void run(String mode, File path, int throughput, UnaryOperator<SingleChronicleQueueBuilder> options)
+            throws InterruptedException {
+        System.out.println("--- " + mode + " ---");
+        try (ChronicleQueue queue = options.apply(SingleChronicleQueueBuilder
+                .fieldlessBinary(path)
+                .blockSize(BLOCK_SIZE))
+                .build()) {
+            runTest(queue, throughput);
+        } finally {
+            IOTools.deleteDirWithFiles(path, 2);
+        }
+    }
+}
@@ -19,6 +19,8 @@ package net.openhft.chronicle.queue;
 
 import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
 import org.jetbrains.annotations.NotNull;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -39,6 +41,8 @@ public class ChronicleQueueTestBase extends QueueTestCommon {
     protected static final Logger LOGGER = LoggerFactory.getLogger(ChronicleQueueTestBase.class);
     private static final boolean TRACE_TEST_EXECUTION = Jvm.getBoolean("queue.traceTestExecution");
     private List<File> tmpDirs = new ArrayList<>();
+    // the time of the queues from secondlyBuilder, moved on a cycle at a time by appendToCycles
+    protected final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis());
 
     static {
         System.setProperty("queue.check.index", "true");
@@ -87,6 +91,36 @@ public class ChronicleQueueTestBase extends QueueTestCommon {
         return tmpDir;
     }
 
+    /**
+     * @return a builder of a queue in {@code dir} which rolls every second of {@link #time}
+     */
+    @NotNull
+    protected SingleChronicleQueueBuilder secondlyBuilder(@NotNull File dir) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(time);
+    }
+
+    /**
+     * Appends the texts {@code "message 0"}, {@code "message 1"}... {@code perCycle} to a cycle, to {@code cycles}
+     * cycles starting with the current one. {@link #time} is left in the last cycle written to.
+     *
+     * @return the index of each text
+     */
+    @NotNull
+    protected long[] appendToCycles(@NotNull ChronicleQueue queue, int cycles, int perCycle) {
+        final long[] indices = new long[cycles * perCycle];
+        final ExcerptAppender appender = queue.acquireAppender();
+        for (int i = 0; i < indices.length; i++) {
+            if (i > 0 && i % perCycle == 0)
+                time.advanceMillis(RollCycles.TEST_SECONDLY.lengthInMillis());
+            appender.writeText("message " + i);
+            indices[i] = appender.lastIndexAppended();
+        }
+        return indices;
+    }
+
     @Override
     public void afterChecks() {
         super.afterChecks();
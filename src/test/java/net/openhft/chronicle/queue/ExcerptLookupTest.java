@@ -0,0 +1,102 @@
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesOut;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class ExcerptLookupTest extends ChronicleQueueTestBase {
+    private static final int EXCERPTS = 90;
+
+    private final List<Long> indices = new ArrayList<>();
+
+    private ChronicleQueue write() {
+        final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis());
+        final ChronicleQueue queue = SingleChronicleQueueBuilder.binary(getTmpDir())
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(time)
+                .build();
+        final ExcerptAppender appender = queue.acquireAppender();
+        for (int i = 0; i < EXCERPTS; i++) {
+            appender.writeBytes(Bytes.from("msg-" + i));
+            indices.add(appender.lastIndexAppended());
+            if (i % 30 == 29)
+                time.advanceMillis(1_000);
+        }
+        return queue;
+    }
+
+    @Test
+    public void getByIndex() {
+        try (ChronicleQueue queue = write();
+             ExcerptLookup lookup = queue.excerptLookup(2)) {
+            final Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+            // backwards, across cycles
+            for (int i = EXCERPTS - 1; i >= 0; i--) {
+                bytes.clear();
+                assertTrue(lookup.get(indices.get(i), bytes));
+                assertEquals("msg-" + i, bytes.toString());
+            }
+            assertFalse(lookup.get(indices.get(EXCERPTS - 1) + 1, bytes.clear()));
+            assertEquals(0, bytes.readRemaining());
+        }
+    }
+
+    @Test
+    public void getBatchInTheOrderRequested() {
+        try (ChronicleQueue queue = write();
+             ExcerptLookup lookup = queue.excerptLookup(1)) {
+            final int[] requested = {61, 3, 4, 89, 0, 30, 5};
+            final long[] batch = new long[requested.length + 1];
+            final BytesOut<?>[] out = new BytesOut[batch.length];
+            for (int i = 0; i < requested.length; i++)
+                batch[i] = indices.get(requested[i]);
+            // not in the queue
+            batch[requested.length] = indices.get(EXCERPTS - 1) + 1;
+            for (int i = 0; i < out.length; i++)
+                out[i] = Bytes.allocateElasticOnHeap();
+
+            assertEquals(requested.length, lookup.getBatch(batch, out));
+            for (int i = 0; i < requested.length; i++)
+                assertEquals("msg-" + requested[i], out[i].toString());
+            assertEquals("", out[requested.length].toString());
+        }
+    }
+
+    @Test
+    public void concurrentLookups() throws Exception {
+        final ExecutorService service = Executors.newFixedThreadPool(4);
+        try (ChronicleQueue queue = write();
+             ExcerptLookup lookup = queue.excerptLookup(2)) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int seed = t;
+                futures.add(service.submit(() -> {
+                    final Random random = new Random(seed);
+                    final Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+                    for (int n = 0; n < 1_000; n++) {
+                        final int i = random.nextInt(EXCERPTS);
+                        bytes.clear();
+                        assertTrue(lookup.get(indices.get(i), bytes));
+                        assertEquals("msg-" + i, bytes.toString());
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            service.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to open a queue with many cycle files, and to first read and append to it.
+ * <p>
+ * mvn exec:java -Dexec.classpathScope="test" -Dexec.mainClass=net.openhft.chronicle.queue.QueueOpenLatencyMain -Dcycles=50000
+ */
+public enum QueueOpenLatencyMain {
+    ;
+
+    private static final int CYCLES = Integer.getInteger("cycles", 50_000);
+    private static final int RUNS = Integer.getInteger("runs", 10);
+
+    public static void main(String[] args) {
+        // use CQ dir in current directory, not tmp as that is often tmpfs
+        final File dir = new File(args.length > 0 ? args[0] : QueueOpenLatencyMain.class.getSimpleName() + "_" + System.currentTimeMillis());
+        final SetTimeProvider time = new SetTimeProvider(TimeUnit.DAYS.toMillis(365));
+        try {
+            final long start = System.nanoTime();
+            try (SingleChronicleQueue queue = builder(dir, time).build()) {
+                final ExcerptAppender appender = queue.acquireAppender();
+                for (int i = 0; i < CYCLES; i++) {
+                    appender.writeText("cycle-" + i);
+                    time.advanceMillis(TimeUnit.MINUTES.toMillis(1));
+                }
+            }
+            System.out.printf("Wrote %,d cycles in %.1f seconds%n", CYCLES, (System.nanoTime() - start) / 1e9);
+
+            for (int run = 1; run <= RUNS; run++) {
+                final long t0 = System.nanoTime();
+                try (SingleChronicleQueue queue = builder(dir, time).build()) {
+                    final long t1 = System.nanoTime();
+                    final int cycles = queue.lastCycle() - queue.firstCycle() + 1;
+                    final long t2 = System.nanoTime();
+                    final String last;
+                    try (ExcerptTailer tailer = queue.createTailer().direction(TailerDirection.BACKWARD).toEnd()) {
+                        last = tailer.readText();
+                    }
+                    final long t3 = System.nanoTime();
+                    queue.acquireAppender().writeText("run-" + run);
+                    final long t4 = System.nanoTime();
+                    time.advanceMillis(TimeUnit.MINUTES.toMillis(1));
+
+                    System.out.printf("run %d: build %.1f ms, first/last cycle %.1f ms, read %s %.1f ms, first append %.1f ms, %,d cycles%n",
+                            run, (t1 - t0) / 1e6, (t2 - t1) / 1e6, last, (t3 - t2) / 1e6, (t4 - t3) / 1e6, cycles);
+                }
+            }
+        } finally {
+            IOTools.deleteDirWithFiles(dir, 2);
+        }
+    }
+
+    private static SingleChronicleQueueBuilder builder(File dir, SetTimeProvider time) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.MINUTELY)
+                .blockSize(64 << 10)
+                .timeProvider(time);
+    }
+}
@@ -0,0 +1,107 @@
+package net.openhft.chronicle.queue.bench;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.core.util.Time;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptLookup;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.wire.DocumentContext;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Random lookups by index with an {@link ExcerptLookup} from several threads at once, compared with opening the queue
+ * and creating a tailer for each lookup.
+ */
+public class ExcerptLookupBenchmark {
+    static final int threads = Integer.getInteger("threads", 4);
+    static final int tailers = Integer.getInteger("tailers", threads);
+    static final int excerpts = Integer.getInteger("excerpts", 1_000_000);
+    static final int lookups = Integer.getInteger("lookups", 1_000_000);
+    static final int size = Integer.getInteger("size", 64);
+    static final String path = System.getProperty("path", OS.TMP);
+
+    public static void main(String[] args) throws InterruptedException {
+        String base = path + "/lookup-" + Time.uniqueId();
+        long[] indices = new long[excerpts];
+        try (ChronicleQueue queue = ChronicleQueue.singleBuilder(base).build()) {
+            ExcerptAppender appender = queue.acquireAppender();
+            Bytes<?> message = Bytes.allocateDirect(size);
+            message.writeSkip(size);
+            for (int i = 0; i < excerpts; i++) {
+                appender.writeBytes(message);
+                indices[i] = appender.lastIndexAppended();
+            }
+            message.releaseLast();
+
+            opening(base, indices);
+
+            try (ExcerptLookup lookup = queue.excerptLookup(tailers)) {
+                for (int run = 0; run < 3; run++)
+                    pooled(lookup, indices);
+            }
+        } finally {
+            IOTools.deleteDirWithFiles(base, 2);
+        }
+    }
+
+    private static void opening(String base, long[] indices) {
+        int count = 1_000;
+        long[] times = new long[count];
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            try (ChronicleQueue queue = ChronicleQueue.singleBuilder(base).readOnly(true).build();
+                 ExcerptTailer tailer = queue.createTailer()) {
+                tailer.moveToIndex(indices[ThreadLocalRandom.current().nextInt(indices.length)]);
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    dc.wire().bytes().readSkip(size);
+                }
+            }
+            times[i] = System.nanoTime() - start;
+        }
+        report("open, create tailer and read", 1, times);
+    }
+
+    private static void pooled(ExcerptLookup lookup, long[] indices) throws InterruptedException {
+        int perThread = lookups / threads;
+        long[] times = new long[perThread * threads];
+        Thread[] running = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * perThread;
+            running[t] = new Thread(() -> {
+                Bytes<?> bytes = Bytes.allocateElasticDirect(size);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < perThread; i++) {
+                    long index = indices[random.nextInt(indices.length)];
+                    long t0 = System.nanoTime();
+                    bytes.clear();
+                    if (!lookup.get(index, bytes))
+                        throw new AssertionError("Not found " + Long.toHexString(index));
+                    times[offset + i] = System.nanoTime() - t0;
+                }
+                bytes.releaseLast();
+            }, "lookup-" + t);
+            running[t].start();
+        }
+        for (Thread thread : running)
+            thread.join();
+        long elapsed = System.nanoTime() - start;
+        report(threads + " threads with " + lookup.getClass().getSimpleName(), (double) times.length * 1e9 / elapsed, times);
+    }
+
+    private static void report(String name, double perSecond, long[] times) {
+        Arrays.sort(times);
+        System.out.printf("%s: 50%% %,d ns, 99%% %,d ns, 99.9%% %,d ns, worst %,d ns%s%n",
+                name,
+                times[times.length / 2],
+                times[(int) (times.length * 0.99)],
+                times[(int) (times.length * 0.999)],
+                times[times.length - 1],
+                perSecond > 1 ? String.format(", %,.0f lookups/s", perSecond) : "");
+    }
+}
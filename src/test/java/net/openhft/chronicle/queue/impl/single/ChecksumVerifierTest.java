@@ -0,0 +1,135 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.queue.ChecksumMode;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ChecksumVerifierTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void corruptedExcerptIsFound() throws Exception {
+        expectException("don't match their checksum");
+        expectException("Checksum mismatch");
+
+        final File dir = getTmpDir();
+        final long corruptIndex;
+        final File cycleFile;
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_DAILY)
+                .checksums(true)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            long index = 0;
+            for (int i = 0; i < 100; i++) {
+                appender.writeText("excerpt-" + i);
+                if (i == 42)
+                    index = appender.lastIndexAppended();
+            }
+            corruptIndex = index;
+            assertEquals(Collections.emptyList(), ChecksumVerifier.verify(queue));
+            final File[] cycleFiles = dir.listFiles((d, name) -> name.endsWith(SingleChronicleQueue.SUFFIX));
+            assertNotNull(cycleFiles);
+            assertEquals(1, cycleFiles.length);
+            cycleFile = cycleFiles[0];
+        }
+
+        // flip the last byte of "excerpt-42"
+        try (RandomAccessFile raf = new RandomAccessFile(cycleFile, "rw")) {
+            final byte[] bytes = new byte[(int) Math.min(raf.length(), 1 << 20)];
+            raf.readFully(bytes);
+            final byte[] text = "excerpt-42".getBytes();
+            final int offset = indexOf(bytes, text);
+            assertTrue(offset > 0);
+            raf.seek(offset + text.length - 1);
+            raf.write('X');
+        }
+
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_DAILY)
+                .checksumMode(ChecksumMode.ALWAYS)
+                .build()) {
+            final List<Long> mismatches = ChecksumVerifier.verify(queue);
+            assertEquals(Collections.singletonList(corruptIndex), mismatches);
+
+            try (StoreTailer tailer = (StoreTailer) queue.createTailer()) {
+                for (int i = 0; i < 100; i++)
+                    try (DocumentContext dc = tailer.readingDocument()) {
+                        assertTrue(dc.isPresent());
+                    }
+                assertEquals(1, tailer.checksumFailures());
+            }
+        }
+    }
+
+    @Test
+    public void excerptsWithoutChecksumsAreNotChecked() {
+        expectException("No checksum for index");
+
+        final File dir = getTmpDir();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .checksumMode(ChecksumMode.ALWAYS)
+                .build()) {
+            queue.acquireAppender().writeText("hello");
+            try (StoreTailer tailer = (StoreTailer) queue.createTailer()) {
+                assertEquals("hello", tailer.readText());
+                assertEquals(0, tailer.checksumFailures());
+                assertEquals(1, tailer.checksumsMissing());
+            }
+            assertEquals(Collections.emptyList(), ChecksumVerifier.verify(queue));
+        }
+    }
+
+    @Test
+    public void tableChecksumMatchesKnownValue() {
+        // the check value of CRC32C
+        final Crc32c.TableCrc32c crc = new Crc32c.TableCrc32c();
+        final byte[] bytes = "123456789".getBytes();
+        crc.update(bytes, 0, bytes.length);
+        assertEquals(0xE3069283L, crc.getValue());
+    }
+
+    @Test
+    public void directMemoryIsCheckedInPlace() {
+        final byte[] data = new byte[10_000];
+        for (int i = 0; i < data.length; i++)
+            data[i] = (byte) (i * 31);
+        final Bytes<?> direct = Bytes.allocateDirect(data.length);
+        final Bytes<byte[]> heap = Bytes.wrapForRead(data);
+        try {
+            direct.write(data);
+            // across more than one page
+            assertEquals(Crc32c.checksum(heap, 3, data.length - 3), Crc32c.checksum(direct, 3, data.length - 3));
+
+            final Crc32c.TableCrc32c crc = new Crc32c.TableCrc32c();
+            crc.update(direct.addressForRead(0), data.length);
+            assertEquals(Crc32c.checksum(heap, 0, data.length), (int) crc.getValue());
+        } finally {
+            direct.releaseLast();
+        }
+    }
+
+    private static int indexOf(final byte[] bytes, final byte[] text) {
+        outer:
+        for (int i = 0; i <= bytes.length - text.length; i++) {
+            for (int j = 0; j < text.length; j++)
+                if (bytes[i + j] != text[j])
+                    continue outer;
+            return i;
+        }
+        return -1;
+    }
+}
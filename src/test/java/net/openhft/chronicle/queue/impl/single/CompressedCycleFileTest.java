@@ -0,0 +1,60 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CompressedCycleFileTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void compressedCyclesAreReadTransparently() throws IOException {
+        final File dir = getTmpDir();
+        final long[] indices;
+        try (SingleChronicleQueue queue = secondlyBuilder(dir).build()) {
+            indices = appendToCycles(queue, 3, 10);
+        }
+
+        final File[] cycleFiles = dir.listFiles((d, name) -> name.endsWith(SingleChronicleQueue.SUFFIX));
+        assertNotNull(cycleFiles);
+        assertEquals(3, cycleFiles.length);
+        Arrays.sort(cycleFiles);
+
+        // compress the completed cycles
+        for (int i = 0; i < 2; i++) {
+            final byte[] original = Files.readAllBytes(cycleFiles[i].toPath());
+            assertTrue(CompressedCycleFile.compress(cycleFiles[i]) > 0);
+            assertFalse(cycleFiles[i].exists());
+
+            final File compressed = CompressedCycleFile.compressedFile(cycleFiles[i]);
+            assertTrue(compressed.exists());
+            final byte[] part = new byte[100];
+            final int offset = original.length / 2;
+            assertEquals(part.length, CompressedCycleFile.read(compressed, offset, part, 0, part.length));
+            assertArrayEquals(Arrays.copyOfRange(original, offset, offset + part.length), part);
+        }
+
+        try (SingleChronicleQueue queue = secondlyBuilder(dir).build()) {
+            final ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < indices.length; i++)
+                assertEquals("message " + i, tailer.readText());
+            assertNull(tailer.readText());
+
+            assertTrue(tailer.moveToIndex(indices[5]));
+            assertEquals("message 5", tailer.readText());
+            assertEquals(3, queue.listCyclesBetween(queue.firstCycle(), queue.lastCycle()).size());
+        }
+        // the cycles read are compressed again, rather than left restored
+        for (int i = 0; i < 2; i++) {
+            assertFalse(cycleFiles[i].exists());
+            assertTrue(CompressedCycleFile.compressedFile(cycleFiles[i]).exists());
+        }
+        assertTrue(cycleFiles[2].exists());
+    }
+}
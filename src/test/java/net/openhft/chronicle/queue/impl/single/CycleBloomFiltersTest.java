@@ -0,0 +1,88 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class CycleBloomFiltersTest extends ChronicleQueueTestBase {
+    private static final int CYCLES = 3;
+    private static final int PER_CYCLE = 1000;
+
+    @Test
+    public void cyclesWithoutTheKeyAreSkipped() {
+        final File dir = getTmpDir();
+        final SetTimeProvider timeProvider = new SetTimeProvider(0);
+        final RollCycle rollCycle = RollCycles.TEST_SECONDLY;
+        final int firstCycle;
+        final int lastCycle;
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(rollCycle)
+                .timeProvider(timeProvider)
+                .bloomFilter(BinarySearch.KeyExtractor.atOffset(0), PER_CYCLE)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int c = 0; c < CYCLES; c++) {
+                final int cycle = c;
+                for (int i = 0; i < PER_CYCLE; i++) {
+                    final long key = c * PER_CYCLE + i;
+                    appender.writeBytes(b -> b.writeLong(key).writeInt(cycle));
+                }
+                timeProvider.advanceMillis(1000);
+            }
+            firstCycle = queue.firstCycle();
+            lastCycle = queue.lastCycle();
+            assertEquals(CYCLES, dir.listFiles((d, name) -> name.endsWith(CycleBloomFilters.SUFFIX)).length);
+
+            assertCandidates(queue, firstCycle, lastCycle);
+        }
+
+        // a read only queue uses the filters written by the appender
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(rollCycle)
+                .readOnly(true)
+                .build()) {
+            assertCandidates(queue, firstCycle, lastCycle);
+        }
+    }
+
+    private static void assertCandidates(SingleChronicleQueue queue, int firstCycle, int lastCycle) {
+        for (int c = 0; c < CYCLES; c++) {
+            for (int i = 0; i < PER_CYCLE; i++) {
+                final int[] cycles = queue.cyclesWhichMightContain(c * PER_CYCLE + i, firstCycle, lastCycle);
+                assertTrue(contains(cycles, firstCycle + c));
+            }
+        }
+
+        assertTrue(queue.mightContain(0, firstCycle, lastCycle));
+
+        final int missingKeys = CYCLES * PER_CYCLE;
+        int falsePositives = 0;
+        for (long key = CYCLES * PER_CYCLE; key < CYCLES * PER_CYCLE + missingKeys; key++)
+            falsePositives += queue.cyclesWhichMightContain(key, firstCycle, lastCycle).length;
+        // about 1% of the checks, one per key per cycle
+        assertTrue("falsePositives=" + falsePositives, falsePositives < missingKeys * CYCLES / 50);
+    }
+
+    private static boolean contains(int[] cycles, int cycle) {
+        for (int c : cycles)
+            if (c == cycle)
+                return true;
+        return false;
+    }
+
+    @Test
+    public void sizedFromExpectedExcerpts() {
+        final long bits = CycleBloomFilters.bitsFor(1000, 0.01);
+        assertEquals(9600, bits);
+        assertEquals(7, CycleBloomFilters.hashesFor(bits, 1000));
+    }
+}
@@ -0,0 +1,72 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CycleExcerptCountsTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void countsAreRecordedWhenCycleIsCompleted() {
+        final File dir = getTmpDir();
+        final SetTimeProvider timeProvider = new SetTimeProvider(0);
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            appender.writeText("0");
+            final long first = appender.lastIndexAppended();
+            for (int cycle = 1; cycle < 5; cycle++) {
+                timeProvider.advanceMillis(1000);
+                for (int i = 0; i <= cycle; i++)
+                    appender.writeText("cycle " + cycle + " message " + i);
+            }
+            final long last = appender.lastIndexAppended();
+
+            assertTrue(new File(dir, CycleExcerptCounts.FILE_NAME).exists());
+            assertEquals(1, queue.exceptsPerCycle(0));
+            assertEquals(14, queue.countExcerpts(first, last));
+            assertEquals(15, queue.entryCount());
+        }
+
+        // a new instance reads the counts recorded by the previous one
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build()) {
+            assertEquals(15, queue.entryCount());
+        }
+    }
+
+    @Test
+    public void prefixSumsRequireEveryCycleToBeRecorded() {
+        final File file = new File(getTmpDir(), CycleExcerptCounts.FILE_NAME);
+        file.getParentFile().mkdirs();
+        try (CycleExcerptCounts counts = new CycleExcerptCounts(file, false)) {
+            counts.cycleCompleted(10, 3);
+            counts.cycleCompleted(11, 0);
+            counts.cycleCompleted(13, 5);
+
+            assertEquals(3, counts.count(10));
+            assertEquals(-1, counts.count(12));
+            assertEquals(8, counts.sumOfCounts(new long[]{10, 11, 13}, 0, 3));
+            assertEquals(5, counts.sumOfCounts(new long[]{10, 11, 13}, 1, 3));
+            assertEquals(-1, counts.sumOfCounts(new long[]{10, 12, 13}, 0, 3));
+        }
+
+        try (CycleExcerptCounts counts = new CycleExcerptCounts(file, true)) {
+            assertEquals(8, counts.sumOfCounts(new long[]{10, 11, 13}, 0, 3));
+            assertEquals(5, counts.count(13));
+        }
+    }
+}
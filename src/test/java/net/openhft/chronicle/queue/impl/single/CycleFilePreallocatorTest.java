@@ -0,0 +1,61 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class CycleFilePreallocatorTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void chunksAheadOfTheAppenderArePreallocated() {
+        assumeTrue(OS.isLinux());
+        threadDump.ignore(QueueFileShrinkManager.THREAD_NAME);
+
+        final File dir = getTmpDir();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .preallocateChunks(3)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            appender.writeText("hello");
+            final File[] cycleFiles = dir.listFiles((d, name) -> name.endsWith(SingleChronicleQueue.SUFFIX));
+            assertNotNull(cycleFiles);
+            assertEquals(1, cycleFiles.length);
+            final File cycleFile = cycleFiles[0];
+            final long expected = 4 * OS.pageAlign(queue.blockSize());
+
+            // preallocated in the background
+            final long end = System.currentTimeMillis() + 5_000;
+            while (cycleFile.length() < expected && System.currentTimeMillis() < end)
+                Jvm.pause(10);
+            assertTrue(cycleFile.length() >= expected);
+
+            final ExcerptTailer tailer = queue.createTailer();
+            assertEquals("hello", tailer.readText());
+            assertNull(tailer.readText());
+        }
+    }
+
+    @Test
+    public void preallocatingDoesNotChangeTheContents() throws Exception {
+        assumeTrue(OS.isLinux());
+
+        final File file = new File(getTmpDir(), "file");
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), "hello".getBytes());
+        assertTrue(CycleFilePreallocator.preallocate(file, 0, 1 << 20));
+        assertEquals(1 << 20, file.length());
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        assertEquals("hello", new String(bytes, 0, 5));
+        assertEquals(0, bytes[5]);
+    }
+}
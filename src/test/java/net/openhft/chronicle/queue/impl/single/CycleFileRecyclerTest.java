@@ -0,0 +1,109 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class CycleFileRecyclerTest extends ChronicleQueueTestBase {
+    private static final int RING_CYCLES = 3;
+
+    private final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis());
+
+    @Before
+    public void ignoreRecyclingThread() {
+        threadDump.ignore(QueueFileShrinkManager.THREAD_NAME);
+    }
+
+    private SingleChronicleQueue open(File dir) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(time)
+                .ringCycles(RING_CYCLES)
+                .build();
+    }
+
+    private static int countFiles(File dir, String suffix) {
+        final File[] files = dir.listFiles((d, name) -> name.endsWith(suffix));
+        return files == null ? 0 : files.length;
+    }
+
+    private static void awaitRecycled(CycleFileRecycler recycler, long expected) {
+        final long end = System.currentTimeMillis() + 5_000;
+        while (recycler.recycled() < expected && System.currentTimeMillis() < end)
+            Jvm.pause(5);
+        assertEquals(expected, recycler.recycled());
+    }
+
+    @Test
+    public void oldestCycleIsRecycledForTheNextOne() {
+        final File dir = getTmpDir();
+        try (SingleChronicleQueue queue = open(dir)) {
+            final CycleFileRecycler recycler = queue.cycleFileRecycler();
+            assertNotNull(recycler);
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 10; i++) {
+                appender.writeText("cycle-" + i);
+                if (i >= RING_CYCLES)
+                    awaitRecycled(recycler, i - RING_CYCLES + 1);
+                time.advanceMillis(1_000);
+            }
+
+            assertEquals(RING_CYCLES, countFiles(dir, SingleChronicleQueue.SUFFIX));
+            // the file for the next cycle
+            assertEquals(1, countFiles(dir, ".precreated"));
+
+            final ExcerptTailer tailer = queue.createTailer();
+            for (int i = 10 - RING_CYCLES; i < 10; i++)
+                assertEquals("cycle-" + i, tailer.readText());
+            assertNull(tailer.readText());
+        }
+    }
+
+    @Test
+    public void onlyPrecreatedCycleFilesAreReused() throws IOException {
+        final File dir = getTmpDir();
+        try (SingleChronicleQueue queue = open(dir)) {
+            queue.acquireAppender().writeText("cycle-0");
+            final File metadata = new File(dir, "metadata.cq4t.precreated");
+            Files.write(metadata.toPath(), new byte[64]);
+
+            final int cycle = queue.cycle();
+            queue.cycleFileRecycler().recycle(cycle);
+            assertTrue(metadata.exists());
+            assertFalse(PrecreatedFiles.preCreatedFile(queue.cycleFile(cycle + 1)).exists());
+        }
+    }
+
+    @Test
+    public void cyclesANamedTailerHasToReadAreNotRecycled() {
+        expectException("Not recycling cycle");
+
+        final File dir = getTmpDir();
+        try (SingleChronicleQueue queue = open(dir)) {
+            final ExcerptTailer slow = queue.createTailer("slow");
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 6; i++) {
+                appender.writeText("cycle-" + i);
+                time.advanceMillis(1_000);
+            }
+            Jvm.pause(100);
+            assertEquals(0, queue.cycleFileRecycler().recycled());
+            assertEquals(6, countFiles(dir, SingleChronicleQueue.SUFFIX));
+
+            for (int i = 0; i < 6; i++)
+                assertEquals("cycle-" + i, slow.readText());
+        }
+    }
+}
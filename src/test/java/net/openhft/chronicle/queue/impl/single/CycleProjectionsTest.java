@@ -0,0 +1,77 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.LongBuffer;
+
+import static org.junit.Assert.*;
+
+public class CycleProjectionsTest extends ChronicleQueueTestBase {
+    private static final int MESSAGES = 100;
+
+    @Test
+    public void columnsAreWrittenWhileAppending() throws IOException {
+        final File dir = getTmpDir();
+        try (SingleChronicleQueue queue = secondlyBuilder(dir)
+                .projection("price", BinarySearch.KeyExtractor.atOffset(0))
+                .projection("time", BinarySearch.KeyExtractor.atOffset(8))
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < MESSAGES; i++) {
+                final long price = 100 + i;
+                final long time = 1000 * i;
+                appender.writeBytes(b -> b.writeLong(price).writeLong(time).write8bit("padding to be skipped"));
+            }
+            final int cycle = queue.lastCycle();
+
+            final LongBuffer prices = queue.projection("price", cycle);
+            final LongBuffer times = queue.projection("time", cycle);
+            assertNotNull(prices);
+            assertNotNull(times);
+            assertEquals(MESSAGES, prices.remaining());
+            long sum = 0;
+            for (int i = 0; i < MESSAGES; i++) {
+                sum += prices.get(i);
+                assertEquals(1000 * i, times.get(i));
+            }
+            assertEquals(MESSAGES * 100 + MESSAGES * (MESSAGES - 1) / 2, sum);
+
+            assertNull(queue.projection("size", cycle));
+        }
+    }
+
+    @Test
+    public void columnsCanBeWrittenForAnExistingCycle() throws IOException {
+        final File dir = getTmpDir();
+        final int cycle;
+        try (SingleChronicleQueue queue = secondlyBuilder(dir).build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < MESSAGES; i++) {
+                final long price = 100 + i;
+                appender.writeBytes(b -> b.writeLong(price));
+            }
+            cycle = queue.lastCycle();
+            assertNull(queue.projection("price", cycle));
+        }
+
+        try (SingleChronicleQueue queue = secondlyBuilder(dir)
+                .projection("price", BinarySearch.KeyExtractor.atOffset(0))
+                .build()) {
+            queue.writeProjections(cycle);
+            final LongBuffer prices = queue.projection("price", cycle);
+            assertNotNull(prices);
+            assertEquals(MESSAGES, prices.remaining());
+            for (int i = 0; i < MESSAGES; i++)
+                assertEquals(100 + i, prices.get(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void columnNamesMustBeUsableInAFileName() {
+        SingleChronicleQueueBuilder.binary(getTmpDir()).projection("../price", BinarySearch.KeyExtractor.atOffset(0));
+    }
+}
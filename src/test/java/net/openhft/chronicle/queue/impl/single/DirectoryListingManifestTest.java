@@ -0,0 +1,88 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class DirectoryListingManifestTest extends ChronicleQueueTestBase {
+
+    private SingleChronicleQueue open(File dir) {
+        return secondlyBuilder(dir).build();
+    }
+
+    private int writeCycles(File dir, int cycles) {
+        try (SingleChronicleQueue queue = open(dir)) {
+            return RollCycles.TEST_SECONDLY.toCycle(appendToCycles(queue, cycles, 1)[0]);
+        }
+    }
+
+    @Test
+    public void reopenedQueueUsesTheListing() {
+        final File dir = getTmpDir();
+        final int firstCycle = writeCycles(dir, 3);
+
+        try (SingleChronicleQueue queue = open(dir)) {
+            assertEquals(firstCycle, queue.firstCycle());
+            assertEquals(firstCycle + 2, queue.lastCycle());
+
+            // leave a gap of cycles without files before appending
+            time.advanceMillis(10_000);
+            queue.acquireAppender().writeText("after-gap");
+
+            final ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < 3; i++)
+                assertEquals("message " + i, tailer.readText());
+            assertEquals("after-gap", tailer.readText());
+            assertNull(tailer.readText());
+        }
+    }
+
+    @Test
+    public void listingIsRefreshedWhenTheFirstCycleIsDeleted() {
+        final File dir = getTmpDir();
+        final int firstCycle = writeCycles(dir, 3);
+
+        final File[] cycleFiles = dir.listFiles((d, name) -> name.endsWith(SingleChronicleQueue.SUFFIX));
+        assertNotNull(cycleFiles);
+        Arrays.sort(cycleFiles);
+        assertTrue(cycleFiles[0].delete());
+
+        try (SingleChronicleQueue queue = open(dir)) {
+            assertEquals(firstCycle + 1, queue.firstCycle());
+            assertEquals(firstCycle + 2, queue.lastCycle());
+            assertEquals("message 1", queue.createTailer().readText());
+        }
+    }
+
+    @Test
+    public void openingAndAppendingDoNotScanTheDirectory() throws IOException {
+        final File dir = getTmpDir();
+        final int firstCycle = writeCycles(dir, 3);
+
+        // a cycle file the listing doesn't hold is only seen by a scan
+        final File unlisted;
+        try (SingleChronicleQueue queue = open(dir)) {
+            unlisted = queue.cycleFile(firstCycle - 5);
+        }
+        final File[] cycleFiles = dir.listFiles((d, name) -> name.endsWith(SingleChronicleQueue.SUFFIX));
+        assertNotNull(cycleFiles);
+        Arrays.sort(cycleFiles);
+        Files.copy(cycleFiles[0].toPath(), unlisted.toPath());
+
+        try (SingleChronicleQueue queue = open(dir)) {
+            queue.acquireAppender().writeText("appended");
+            assertEquals(firstCycle, queue.firstCycle());
+
+            queue.refreshDirectoryListing();
+            assertEquals(firstCycle - 5, queue.firstCycle());
+        }
+    }
+}
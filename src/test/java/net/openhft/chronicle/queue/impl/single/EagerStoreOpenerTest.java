@@ -0,0 +1,58 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EagerStoreOpenerTest extends ChronicleQueueTestBase {
+
+    private static void awaitOpenCycles(EagerStoreOpener opener, int cycles) {
+        final long end = System.currentTimeMillis() + 5_000;
+        while (opener.openCycles() != cycles && System.currentTimeMillis() < end)
+            Jvm.pause(10);
+        assertEquals(cycles, opener.openCycles());
+    }
+
+    @Test
+    public void cyclesAheadOfTheTailerAreOpened() {
+        try (SingleChronicleQueue queue = secondlyBuilder(getTmpDir()).eagerOpenCycles(3).build()) {
+            appendToCycles(queue, 10, 1);
+
+            final EagerStoreOpener opener = queue.eagerStoreOpener();
+            assertNotNull(opener);
+            final ExcerptTailer tailer = queue.createTailer();
+            assertEquals("message 0", tailer.readText());
+            awaitOpenCycles(opener, 3);
+
+            for (int i = 1; i < 10; i++)
+                assertEquals("message " + i, tailer.readText());
+            assertNull(tailer.readText());
+        }
+    }
+
+    @Test
+    public void eachTailerKeepsTheCyclesAheadOfIt() {
+        try (SingleChronicleQueue queue = secondlyBuilder(getTmpDir()).eagerOpenCycles(3).build()) {
+            final long[] indices = appendToCycles(queue, 10, 1);
+
+            final EagerStoreOpener opener = queue.eagerStoreOpener();
+            assertNotNull(opener);
+            final ExcerptTailer first = queue.createTailer();
+            assertEquals("message 0", first.readText());
+            awaitOpenCycles(opener, 3);
+
+            // the cycles ahead of the first tailer are kept while another reads near the end
+            final ExcerptTailer second = queue.createTailer();
+            assertTrue(second.moveToIndex(indices[8]));
+            assertEquals("message 8", second.readText());
+            awaitOpenCycles(opener, 4);
+
+            second.close();
+            awaitOpenCycles(opener, 3);
+            assertEquals("message 1", first.readText());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedFile;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import static org.junit.Assert.*;
+
+public class MappedMemoryBudgetTest extends ChronicleQueueTestBase {
+    private static final long CHUNK = 64 << 10;
+
+    @Test
+    public void leastRecentlyUsedFilesAreReleasedOverBudget() throws FileNotFoundException {
+        final File dir = getTmpDir();
+        dir.mkdirs();
+        final MappedFile a = MappedFile.of(new File(dir, "a"), CHUNK, 0, false);
+        final MappedFile b = MappedFile.of(new File(dir, "b"), CHUNK, 0, false);
+        final MappedFile c = MappedFile.of(new File(dir, "c"), CHUNK, 0, false);
+        try {
+            final MappedMemoryBudget budget = new MappedMemoryBudget(3 * CHUNK);
+            budget.onMapped(a, CHUNK);
+            budget.onMapped(b, CHUNK);
+            budget.onMapped(c, CHUNK);
+            assertFalse(budget.shouldRelease(a));
+            assertEquals(3 * CHUNK, budget.mappedBytes());
+
+            // a is used again so b is the least recently used
+            budget.onUsed(a);
+            budget.onMapped(c, CHUNK);
+            assertFalse(budget.shouldRelease(a));
+            assertFalse(budget.shouldRelease(c));
+            assertTrue(budget.shouldRelease(b));
+            // only released once
+            assertFalse(budget.shouldRelease(b));
+
+            budget.onUnmapped(b);
+            assertEquals(3 * CHUNK, budget.mappedBytes());
+            assertEquals(4, budget.maps());
+            assertEquals(1, budget.unmaps());
+            assertEquals(1, budget.releases());
+        } finally {
+            a.releaseLast();
+            b.releaseLast();
+            c.releaseLast();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MemoryAdviceTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void advisedQueueReadsBackWhatWasWritten() {
+        // where JNA or madvise isn't available the advice is ignored
+        expectException("madvise is not available");
+
+        final File dir = getTmpDir();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .hugePageSize(2 << 20)
+                .transparentHugePages(true)
+                .populateFirstChunk(true)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            // spans several chunks
+            final String padding = new String(new char[1000]).replace('\0', '-');
+            for (int i = 0; i < 10_000; i++)
+                appender.writeText(i + padding);
+
+            final ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < 10_000; i++)
+                assertEquals(i + padding, tailer.readText());
+            assertNull(tailer.readText());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void hugePageSizeMustBeAPowerOfTwo() {
+        SingleChronicleQueueBuilder.binary(getTmpDir()).hugePageSize(3 << 20);
+    }
+}
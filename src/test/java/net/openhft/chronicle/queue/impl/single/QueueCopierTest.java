@@ -0,0 +1,118 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class QueueCopierTest extends ChronicleQueueTestBase {
+
+    private final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis());
+
+    private void write(File dir, int from, int to) {
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(time)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = from; i < to; i++) {
+                appender.writeText("msg-" + i);
+                if (i % 5 == 4)
+                    time.advanceMillis(1_000);
+            }
+        }
+    }
+
+    private static void assertCopied(File dir, int count) {
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir).readOnly(true).build()) {
+            assertEquals(RollCycles.MINUTELY, queue.rollCycle());
+            final ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < count; i++)
+                assertEquals("msg-" + i, tailer.readText());
+            assertNull(tailer.readText());
+        }
+    }
+
+    @Test
+    public void copiesToAnotherRollCycleAndResumes() throws IOException {
+        final File source = getTmpDir();
+        final File target = getTmpDir();
+        final Path indexMap = new File(getTmpDir(), "index.map").toPath();
+        indexMap.getParent().toFile().mkdirs();
+        write(source, 0, 15);
+
+        final QueueCopier copier = new QueueCopier(source.toPath(), target.toPath())
+                .rollCycle(RollCycles.MINUTELY)
+                .blockSize(64 << 10)
+                .indexMap(indexMap);
+        assertEquals(15, copier.copy());
+        assertCopied(target, 15);
+
+        // excerpts already copied are skipped
+        write(source, 15, 22);
+        assertEquals(7, copier.copy());
+        assertCopied(target, 22);
+        assertEquals(0, copier.copy());
+
+        try (RandomAccessFile raf = new RandomAccessFile(indexMap.toFile(), "r");
+             SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(source).readOnly(true).build()) {
+            assertEquals(22 * 16, raf.length());
+            assertEquals(queue.firstIndex(), Long.reverseBytes(raf.readLong()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAShorterRollCycle() throws IOException {
+        final File source = getTmpDir();
+        final File target = getTmpDir();
+        write(source, 0, 5);
+
+        // the excerpts of a minute have no timestamp to spread them over its seconds
+        new QueueCopier(source.toPath(), target.toPath())
+                .rollCycle(RollCycles.MINUTELY)
+                .copy();
+        new QueueCopier(target.toPath(), getTmpDir().toPath())
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .copy();
+    }
+
+    @Test
+    public void dropsMessageHistory() throws IOException {
+        final File source = getTmpDir();
+        final File target = getTmpDir();
+        final long length;
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(source).testBlockSize().sourceId(1).build()) {
+            final Say say = queue.acquireAppender().methodWriterBuilder(Say.class).recordHistory(true).build();
+            say.say("hello");
+            try (DocumentContext dc = queue.createTailer().readingDocument()) {
+                length = dc.wire().bytes().readRemaining();
+            }
+        }
+
+        assertEquals(1, new QueueCopier(source.toPath(), target.toPath()).messageHistory(false).copy());
+
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(target).readOnly(true).build()) {
+            final StringBuilder said = new StringBuilder();
+            try (DocumentContext dc = queue.createTailer().readingDocument()) {
+                assertTrue(dc.wire().bytes().readRemaining() < length);
+            }
+            queue.createTailer().methodReader((Say) said::append).readOne();
+            assertEquals("hello", said.toString());
+        }
+    }
+
+    interface Say {
+        void say(String msg);
+    }
+}
@@ -0,0 +1,95 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class QueueDumperTest extends ChronicleQueueTestBase {
+
+    private final List<Long> indices = new ArrayList<>();
+
+    private File write() {
+        final File dir = getTmpDir();
+        final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis());
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(time)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 15; i++) {
+                appender.writeText("msg-" + i);
+                indices.add(appender.lastIndexAppended());
+                if (i % 5 == 4)
+                    time.advanceMillis(1_000);
+            }
+        }
+        return dir;
+    }
+
+    private static String dump(QueueDumper dumper) throws IOException {
+        final StringWriter out = new StringWriter();
+        dumper.dump(out);
+        return out.toString();
+    }
+
+    private static int count(String text, String of) {
+        int count = 0;
+        for (int i = text.indexOf(of); i >= 0; i = text.indexOf(of, i + 1))
+            count++;
+        return count;
+    }
+
+    @Test
+    public void headersOnlyInIndexRange() throws IOException {
+        final File dir = write();
+        final String dump = dump(new QueueDumper(dir)
+                .headersOnly(true)
+                .fromIndex(indices.get(3))
+                .toIndex(indices.get(11)));
+
+        assertEquals(9, count(dump, "--- !!data"));
+        assertTrue(dump.contains(", index: 0x" + Long.toHexString(indices.get(3)) + "\n"));
+        assertTrue(dump.contains(", index: 0x" + Long.toHexString(indices.get(11)) + "\n"));
+        assertFalse(dump.contains(Long.toHexString(indices.get(12))));
+        assertFalse(dump.contains("msg-"));
+        // the table store isn't dumped for an index range
+        assertFalse(dump.contains("listing.highestCycle"));
+    }
+
+    @Test
+    public void excerptsInIndexRange() throws IOException {
+        final File dir = write();
+        final String dump = dump(new QueueDumper(dir)
+                .fromIndex(indices.get(6))
+                .toIndex(indices.get(8)));
+
+        assertFalse(dump.contains("msg-5"));
+        assertTrue(dump.contains("msg-6"));
+        assertTrue(dump.contains("# index: 0x" + Long.toHexString(indices.get(7)) + "\n"));
+        assertTrue(dump.contains("msg-8"));
+        assertFalse(dump.contains("msg-9"));
+    }
+
+    @Test
+    public void parallelDumpMatchesSequential() throws IOException {
+        final File dir = write();
+        final String sequential = dump(new QueueDumper(dir));
+        assertTrue(sequential.contains("listing.highestCycle"));
+        for (int i = 0; i < 15; i++)
+            assertTrue(sequential.contains("msg-" + i));
+
+        assertEquals(sequential, dump(new QueueDumper(dir).threads(3)));
+        assertEquals(dump(new QueueDumper(dir).headersOnly(true)), dump(new QueueDumper(dir).headersOnly(true).threads(3)));
+    }
+}
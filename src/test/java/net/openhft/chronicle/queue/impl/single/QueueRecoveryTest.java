@@ -0,0 +1,126 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.Wires;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class QueueRecoveryTest extends ChronicleQueueTestBase {
+
+    private int writeCycles(File dir, int cycles) {
+        try (SingleChronicleQueue queue = secondlyBuilder(dir).build()) {
+            return RollCycles.TEST_SECONDLY.toCycle(appendToCycles(queue, cycles, 1)[0]);
+        }
+    }
+
+    @Test
+    public void incompleteFirstHeaderIsRecovered() throws Exception {
+        final File dir = getTmpDir();
+        final int firstCycle = writeCycles(dir, 3);
+
+        // a crash while the second cycle was being created
+        final File[] cycleFiles = dir.listFiles((d, name) -> name.endsWith(SingleChronicleQueue.SUFFIX));
+        assertNotNull(cycleFiles);
+        Arrays.sort(cycleFiles);
+        try (RandomAccessFile raf = new RandomAccessFile(cycleFiles[1], "rw")) {
+            raf.setLength(0);
+            raf.writeInt(Integer.reverseBytes(Wires.NOT_COMPLETE));
+        }
+
+        try (SingleChronicleQueue queue = secondlyBuilder(dir).build()) {
+            final QueueRecovery.Result result = QueueRecovery.recover(queue);
+            assertEquals(3, result.cyclesChecked());
+            assertEquals(Collections.singletonList(firstCycle + 1), result.recoveredHeaders());
+            assertTrue(result.failedCycles().isEmpty());
+
+            // the header is complete, so the cycle is opened without waiting for the timeout
+            try (SingleChronicleQueueStore store = queue.storeForCycle(firstCycle + 1, queue.epoch(), false, null)) {
+                assertNotNull(store);
+            }
+
+            // the appender ends the recovered cycle
+            queue.acquireAppender().writeText("message 3");
+            final ExcerptTailer tailer = queue.createTailer();
+            assertEquals("message 0", tailer.readText());
+            assertEquals("message 2", tailer.readText());
+            assertEquals("message 3", tailer.readText());
+            assertNull(tailer.readText());
+        }
+    }
+
+    @Test
+    public void unfinishedLastExcerptEndsItsCycle() {
+        final File dir = getTmpDir();
+        final int firstCycle = writeCycles(dir, 2);
+
+        try (SingleChronicleQueue queue = secondlyBuilder(dir).build()) {
+            // an appender died writing an excerpt to each cycle, replacing the end of the first cycle
+            final long eofPosition = setNotComplete(queue, firstCycle);
+            setNotComplete(queue, firstCycle + 1);
+
+            final QueueRecovery.Result result = QueueRecovery.recover(queue);
+            assertEquals(Collections.singletonList(firstCycle), result.endedCycles());
+            // the current cycle may still be written to
+            assertEquals(Collections.singletonList(firstCycle + 1), result.unfinishedCycles());
+
+            try (SingleChronicleQueueStore store = queue.storeForCycle(firstCycle, queue.epoch(), false, null)) {
+                final MappedBytes bytes = store.bytes();
+                assertEquals(Wires.END_OF_DATA, bytes.readVolatileInt(eofPosition));
+                bytes.releaseLast();
+            }
+
+            final ExcerptTailer tailer = queue.createTailer();
+            assertEquals("message 0", tailer.readText());
+            assertEquals("message 1", tailer.readText());
+        }
+    }
+
+    @Test
+    public void queueIsRecoveredOnOpen() {
+        final File dir = getTmpDir();
+        final int firstCycle = writeCycles(dir, 2);
+        time.advanceMillis(1_000);
+
+        try (SingleChronicleQueue queue = secondlyBuilder(dir).build()) {
+            setNotComplete(queue, firstCycle + 1);
+        }
+        try (SingleChronicleQueue queue = secondlyBuilder(dir).recoverOnOpen(true).build()) {
+            final QueueRecovery.Result result = QueueRecovery.recover(queue);
+            // already recovered
+            assertFalse(result.isRecovered());
+            assertTrue(result.unfinishedCycles().isEmpty());
+
+            queue.acquireAppender().writeText("message 2");
+            final ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < 3; i++)
+                assertEquals("message " + i, tailer.readText());
+            assertNull(tailer.readText());
+        }
+    }
+
+    /**
+     * @return the position after the last excerpt of a cycle, now marked as an incomplete excerpt
+     */
+    private static long setNotComplete(SingleChronicleQueue queue, int cycle) {
+        try (SingleChronicleQueueStore store = queue.storeForCycle(cycle, queue.epoch(), false, null)) {
+            final MappedBytes bytes = store.bytes();
+            try {
+                final long lastExcerpt = store.writePosition();
+                final long position = lastExcerpt + Wires.lengthOf(bytes.readVolatileInt(lastExcerpt)) + Wires.SPB_HEADER_SIZE;
+                bytes.writeVolatileInt(position, Wires.NOT_COMPLETE);
+                return position;
+            } finally {
+                bytes.releaseLast();
+            }
+        }
+    }
+}
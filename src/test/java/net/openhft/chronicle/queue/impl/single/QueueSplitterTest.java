@@ -0,0 +1,133 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MethodReader;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.SelfDescribingMarshallable;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class QueueSplitterTest extends ChronicleQueueTestBase {
+    private static final String[] ACCOUNTS = {"alice", "bob", "carol", "dave", "erin"};
+
+    private static List<String> read(File dir) {
+        final List<String> orders = new ArrayList<>();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir).readOnly(true).build();
+             ExcerptTailer tailer = queue.createTailer()) {
+            final MethodReader reader = tailer.methodReader((Orders) order -> orders.add(order.account + "@" + order.time));
+            while (reader.readOne()) {
+                // read them all
+            }
+        }
+        return orders;
+    }
+
+    @Test
+    public void splitsByKeyThenMergesByTimestamp() {
+        final File source = getTmpDir();
+        final List<String> written = new ArrayList<>();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(source).testBlockSize().build()) {
+            final Orders orders = queue.acquireAppender().methodWriter(Orders.class);
+            for (int i = 0; i < 30; i++) {
+                final Order order = new Order(ACCOUNTS[i * 7 % ACCOUNTS.length], 1000 + i);
+                orders.order(order);
+                written.add(order.account + "@" + order.time);
+            }
+        }
+
+        final List<Path> shards = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            shards.add(getTmpDir().toPath());
+        final long[] counts = new QueueSplitter(source.toPath(), shards)
+                .key(ExcerptKeys.key("field:account"))
+                .split();
+        assertEquals(30, Arrays.stream(counts).sum());
+
+        // all the orders of an account are split to the same queue
+        final Map<String, Set<Integer>> shardsOf = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            final List<String> shard = read(shards.get(i).toFile());
+            assertEquals(counts[i], shard.size());
+            for (String order : shard)
+                shardsOf.computeIfAbsent(order.substring(0, order.indexOf('@')), a -> new HashSet<>()).add(i);
+        }
+        assertEquals(ACCOUNTS.length, shardsOf.size());
+        shardsOf.values().forEach(s -> assertEquals(1, s.size()));
+
+        final File merged = getTmpDir();
+        assertEquals(30, new QueueMerger(shards, merged.toPath())
+                .timestamp(ExcerptKeys.timestamp("field:time"))
+                .merge());
+        assertEquals(written, read(merged));
+    }
+
+    /**
+     * @return the cycle each order was written to, by account and time
+     */
+    private static Map<String, Integer> cycles(File dir) {
+        final Map<String, Integer> cycles = new HashMap<>();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir).readOnly(true).build();
+             ExcerptTailer tailer = queue.createTailer()) {
+            final MethodReader reader = tailer.methodReader((Orders) order ->
+                    cycles.put(order.account + "@" + order.time, queue.rollCycle().toCycle(tailer.index())));
+            while (reader.readOne()) {
+                // read them all
+            }
+        }
+        return cycles;
+    }
+
+    @Test
+    public void dailyCyclesAreKeptAfterTheFirstMonthOfTheEpoch() {
+        final File source = getTmpDir();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(source)
+                .testBlockSize()
+                .rollCycle(RollCycles.DAILY)
+                .timeProvider(time)
+                .build()) {
+            final Orders orders = queue.acquireAppender().methodWriter(Orders.class);
+            for (int i = 0; i < 12; i++) {
+                if (i > 0 && i % 4 == 0)
+                    time.advanceMillis(RollCycles.DAILY.lengthInMillis());
+                orders.order(new Order(ACCOUNTS[i % ACCOUNTS.length], 1000 + i));
+            }
+        }
+        final Map<String, Integer> sourceCycles = cycles(source);
+        assertEquals(3, new HashSet<>(sourceCycles.values()).size());
+
+        final List<Path> shards = Arrays.asList(getTmpDir().toPath(), getTmpDir().toPath());
+        new QueueSplitter(source.toPath(), shards)
+                .key(ExcerptKeys.key("field:account"))
+                .split();
+        final Map<String, Integer> splitCycles = new HashMap<>();
+        for (Path shard : shards)
+            splitCycles.putAll(cycles(shard.toFile()));
+        assertEquals(sourceCycles, splitCycles);
+
+        final File merged = getTmpDir();
+        new QueueMerger(shards, merged.toPath())
+                .timestamp(ExcerptKeys.timestamp("field:time"))
+                .merge();
+        assertEquals(sourceCycles, cycles(merged));
+    }
+
+    interface Orders {
+        void order(Order order);
+    }
+
+    static class Order extends SelfDescribingMarshallable {
+        String account;
+        long time;
+
+        Order(String account, long time) {
+            this.account = account;
+            this.time = time;
+        }
+    }
+}
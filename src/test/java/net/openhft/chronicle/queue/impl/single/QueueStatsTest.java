@@ -0,0 +1,82 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class QueueStatsTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void statsOfEachCycle() {
+        final File dir = getTmpDir();
+        final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis());
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .indexSpacing(4)
+                .timeProvider(time)
+                .build()) {
+            final Events events = queue.acquireAppender()
+                    .methodWriterBuilder(Events.class)
+                    .recordHistory(true)
+                    .build();
+            for (int c = 0; c < 2; c++) {
+                for (int i = 0; i < 10; i++) {
+                    if (i % 5 == 0)
+                        events.trade("trade-" + i);
+                    else
+                        events.quote(i);
+                }
+                time.advanceMillis(1_000);
+            }
+            events.trade("last");
+
+            final List<CycleStats> cycles = QueueStats.stats(queue);
+            assertEquals(3, cycles.size());
+            final CycleStats first = cycles.get(0);
+            assertEquals(10, first.dataMessages());
+            assertEquals(2L, (long) first.methods().get("trade"));
+            assertEquals(8L, (long) first.methods().get("quote"));
+            assertEquals(3, first.indexEntries());
+            assertEquals(10L, first.messageSizes().values().stream().mapToLong(Long::longValue).sum());
+            assertTrue(first.metadataBytes() > 0);
+            // the cycle has been ended
+            assertEquals(first.dataBytes() + first.metadataBytes() + first.paddingBytes() + 4, first.usedBytes());
+            assertTrue(first.peakMessagesPerSecond() > 0);
+            assertEquals(1, cycles.get(2).dataMessages());
+            assertFalse(first.current);
+            assertEquals(first.fileSize - first.usedBytes(), first.reclaimableBytes());
+            assertTrue(cycles.get(2).current);
+            assertEquals(0, cycles.get(2).reclaimableBytes());
+
+            final CycleStats total = QueueStats.total(queue, cycles);
+            assertEquals(-1, total.cycle());
+            assertEquals(first.reclaimableBytes() + cycles.get(1).reclaimableBytes(), total.reclaimableBytes());
+            assertEquals(21, total.dataMessages());
+            assertEquals(5L, (long) total.methods().get("trade"));
+            assertEquals(first.dataBytes() + cycles.get(1).dataBytes() + cycles.get(2).dataBytes(), total.dataBytes());
+        }
+    }
+
+    @Test
+    public void sizeBuckets() {
+        assertEquals(1, QueueStats.sizeBucket(0));
+        assertEquals(1, QueueStats.sizeBucket(1));
+        assertEquals(2, QueueStats.sizeBucket(2));
+        assertEquals(4, QueueStats.sizeBucket(3));
+        assertEquals(64, QueueStats.sizeBucket(64));
+        assertEquals(128, QueueStats.sizeBucket(65));
+    }
+
+    interface Events {
+        void trade(String id);
+
+        void quote(int price);
+    }
+}
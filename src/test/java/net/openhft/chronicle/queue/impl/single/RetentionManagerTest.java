@@ -0,0 +1,79 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.junit.Test;
+
+import java.io.File;
+import java.text.ParseException;
+
+import static org.junit.Assert.*;
+
+public class RetentionManagerTest extends ChronicleQueueTestBase {
+    private static final int CYCLES = 5;
+    private static final int PER_CYCLE = 10;
+
+    private SingleChronicleQueueBuilder builder(File dir) {
+        threadDump.ignore(RetentionManager.THREAD_NAME);
+        return secondlyBuilder(dir);
+    }
+
+    @Test
+    public void oldestCyclesAreDeletedBeyondMaxCycles() throws ParseException {
+        final File dir = getTmpDir();
+        try (SingleChronicleQueue queue = builder(dir)
+                .retentionPolicy(Long.MAX_VALUE, Long.MAX_VALUE, 2)
+                .build()) {
+            appendToCycles(queue, CYCLES, PER_CYCLE);
+            final int lastCycle = queue.lastCycle();
+
+            final RetentionManager manager = queue.retentionManager();
+            assertNotNull(manager);
+            manager.apply();
+
+            assertEquals(CYCLES - 2, manager.cyclesDeleted());
+            assertTrue(manager.bytesReclaimed() > 0);
+            assertEquals(2, queue.listCyclesBetween(queue.firstCycle(), queue.lastCycle()).size());
+            assertEquals(lastCycle - 1, queue.firstCycle());
+
+            try (ExcerptTailer tailer = queue.createTailer()) {
+                assertEquals("message " + (CYCLES - 2) * PER_CYCLE, tailer.readText());
+            }
+        }
+    }
+
+    @Test
+    public void cyclesANamedTailerHasYetToReadAreKept() throws ParseException {
+        final File dir = getTmpDir();
+        try (SingleChronicleQueue queue = builder(dir)
+                .retentionPolicy(0, 0, 1)
+                .build()) {
+            final int firstCycle;
+            try (ExcerptTailer consumer = queue.createTailer("consumer")) {
+                appendToCycles(queue, CYCLES, PER_CYCLE);
+                firstCycle = queue.firstCycle();
+
+                final RetentionManager manager = queue.retentionManager();
+                assertNotNull(manager);
+                // the consumer hasn't read anything yet
+                manager.apply();
+                assertEquals(0, manager.cyclesDeleted());
+                assertEquals(firstCycle, queue.firstCycle());
+
+                // read into the second cycle
+                for (int i = 0; i < PER_CYCLE + PER_CYCLE / 2; i++)
+                    assertEquals("message " + i, consumer.readText());
+                manager.apply();
+                assertEquals(1, manager.cyclesDeleted());
+                assertEquals(firstCycle + 1, queue.firstCycle());
+
+                // read to the end, the last cycle is kept
+                while (consumer.readText() != null) ;
+                manager.apply();
+                assertEquals(CYCLES - 1, manager.cyclesDeleted());
+                assertEquals(queue.lastCycle(), queue.firstCycle());
+                assertEquals(1, queue.listCyclesBetween(queue.firstCycle(), queue.lastCycle()).size());
+            }
+        }
+    }
+}
@@ -71,6 +71,42 @@ public class SingleChronicleQueueStoreTest extends QueueTestCommon {
         });
     }
 
+    @Test
+    public void shouldFindSequenceForEveryPosition() throws IOException {
+        runTest(queue -> {
+            try (ExcerptAppender appender = queue.acquireAppender();
+                 StoreTailer tailer = (StoreTailer) queue.createTailer()) {
+                final long[] indices = writeMessagesStoreIndices(appender, queue.createTailer());
+                final long[] positions = new long[RECORD_COUNT];
+                for (int i = 0; i < RECORD_COUNT; i++) {
+                    try (final DocumentContext ctx = tailer.readingDocument()) {
+                        assertTrue(ctx.isPresent());
+                        // the header precedes the payload
+                        positions[i] = ctx.wire().bytes().readPosition() - 4;
+                    }
+                }
+
+                try (final SingleChronicleQueueStore wireStore = queue.storeForCycle(queue.cycle(), 0L, true, null)) {
+                    for (int i = 0; i < RECORD_COUNT; i++) {
+                        final long sequence = ROLL_CYCLE.toSequenceNumber(indices[i]);
+                        assertEquals(sequence, wireStore.sequenceForPosition(tailer, positions[i], true));
+                        // scanning from a known excerpt gives the same answer as scanning from the index
+                        final SCQIndexing.KnownPosition known = new SCQIndexing.KnownPosition();
+                        known.set(positions[0], 0);
+                        assertEquals(sequence, wireStore.sequenceForPosition(tailer, positions[i], true, known));
+                        // and is moved on to the excerpt resolved, to scan from next time
+                        assertEquals(positions[i], known.position);
+                        assertEquals(sequence, known.sequence);
+                    }
+                    final SCQIndexing.KnownPosition known = new SCQIndexing.KnownPosition();
+                    assertEquals(RECORD_COUNT - 1, wireStore.lastSequenceNumber(tailer, known));
+                    assertEquals(positions[RECORD_COUNT - 1], known.position);
+                    assertEquals(RECORD_COUNT - 1, wireStore.sequenceForPosition(tailer, Long.MAX_VALUE, false));
+                }
+            }
+        });
+    }
+
     private <T extends Exception> void runTest(final ThrowingConsumer<RollingChronicleQueue, T> testMethod) throws T, IOException {
         try (final RollingChronicleQueue queue = ChronicleQueue.singleBuilder(tmpDir.newFolder()).
                 testBlockSize().timeProvider(clock::get).
@@ -0,0 +1,61 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.junit.Test;
+
+import java.io.File;
+import java.text.ParseException;
+
+import static org.junit.Assert.*;
+
+public class StorageTiersTest extends ChronicleQueueTestBase {
+    private static final int MESSAGES = 30;
+
+    @Test
+    public void completedCyclesAreMovedAndStillRead() throws ParseException {
+        threadDump.ignore(StorageTiers.THREAD_NAME);
+
+        final File dir = getTmpDir();
+        final File archive = new File(getTmpDir(), "archive");
+        final long[] indices;
+        try (SingleChronicleQueue queue = builder(dir, archive).build()) {
+            indices = appendToCycles(queue, 3, MESSAGES / 3);
+            assertEquals(3, cycleFiles(dir));
+
+            // the first two cycles are complete and more than 5 seconds old
+            time.advanceMillis(10_000);
+            queue.moveCyclesToStorageTiers();
+            assertEquals(1, cycleFiles(dir));
+            assertEquals(2, cycleFiles(archive));
+
+            assertReadsAll(queue, indices);
+            assertEquals(3, queue.listCyclesBetween(queue.firstCycle(), queue.lastCycle()).size());
+        }
+
+        try (SingleChronicleQueue queue = builder(dir, archive).build()) {
+            assertReadsAll(queue, indices);
+            assertEquals(MESSAGES, queue.entryCount());
+        }
+    }
+
+    private static void assertReadsAll(SingleChronicleQueue queue, long[] indices) {
+        final ExcerptTailer tailer = queue.createTailer();
+        for (int i = 0; i < MESSAGES; i++)
+            assertEquals("message " + i, tailer.readText());
+        assertNull(tailer.readText());
+        assertTrue(tailer.moveToIndex(indices[5]));
+        assertEquals("message 5", tailer.readText());
+    }
+
+    private static int cycleFiles(File dir) {
+        final File[] files = dir.listFiles((d, name) -> name.endsWith(SingleChronicleQueue.SUFFIX));
+        return files == null ? 0 : files.length;
+    }
+
+    private SingleChronicleQueueBuilder builder(File dir, File archive) {
+        return secondlyBuilder(dir)
+                .storageTiers(archive)
+                .storageTierPolicy(5_000, Long.MAX_VALUE);
+    }
+}
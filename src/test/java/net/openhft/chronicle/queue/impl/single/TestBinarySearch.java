@@ -14,7 +14,7 @@ import org.junit.Test;
 
 import java.io.File;
 import java.text.ParseException;
-import java.util.Comparator;
+import java.util.*;
 
 public class TestBinarySearch extends ChronicleQueueTestBase {
 
@@ -99,6 +99,110 @@ public class TestBinarySearch extends ChronicleQueueTestBase {
         }
     }
 
+    @Test
+    public void testBinarySearchOnPrimitiveKey() throws ParseException {
+        final SetTimeProvider stp = new SetTimeProvider();
+        stp.currentTimeMillis(0);
+
+        try (SingleChronicleQueue queue = ChronicleQueue.singleBuilder(getTmpDir())
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(stp)
+                .build()) {
+
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < MAX_NUMBER_OF_TESTED_MESSAGES; i++) {
+                final long key = i * 2L;
+                appender.writeBytes(b -> b.writeLong(key).writeInt(-1));
+                stp.advanceMillis(300);
+            }
+
+            final BinarySearch.KeyExtractor extractor = BinarySearch.KeyExtractor.atOffset(0);
+            try (final ExcerptTailer tailer = queue.createTailer()) {
+                for (int j = 0; j < MAX_NUMBER_OF_TESTED_MESSAGES; j++) {
+                    final long index = BinarySearch.search(queue, j * 2L, extractor);
+                    Assert.assertTrue(tailer.moveToIndex(index));
+                    try (final DocumentContext dc = tailer.readingDocument()) {
+                        Assert.assertEquals(j * 2L, dc.wire().bytes().readLong());
+                    }
+                }
+            }
+
+            // odd keys are missing, so an approximate index is returned
+            Assert.assertTrue(BinarySearch.search(queue, 21, extractor) < 0);
+        }
+    }
+
+    @Test
+    public void summarySkipsCyclesWithNoMatchingKey() throws ParseException {
+        try (SingleChronicleQueue queue = secondlyBuilder(getTmpDir()).build()) {
+            final KeyRanges summary = appendKeys(queue, 4, 5);
+            final int[] reads = {0};
+            final BinarySearch.KeyExtractor extractor = bytes -> {
+                reads[0]++;
+                return bytes.readLong(bytes.readPosition());
+            };
+
+            // between the last key of the second cycle and the first key of the third
+            final int second = summary.cycles().get(1);
+            final long key = summary.maxKey(second) + 5;
+            final long expected = -queue.rollCycle().toIndex(second, 4);
+
+            Assert.assertEquals(expected, BinarySearch.search(queue, key, extractor, summary));
+            Assert.assertEquals(0, reads[0]);
+
+            // without a summary the same answer is found by reading
+            Assert.assertEquals(expected, BinarySearch.search(queue, key, extractor));
+            Assert.assertTrue(reads[0] > 0);
+        }
+    }
+
+    @Test
+    public void summariesOfDeletedCyclesAreNotUsed() throws ParseException {
+        final File dir = getTmpDir();
+        final KeyRanges summary;
+        try (SingleChronicleQueue queue = secondlyBuilder(dir).build()) {
+            summary = appendKeys(queue, 4, 5);
+        }
+        final int deleted = summary.cycles().get(0);
+
+        final File[] cycleFiles = dir.listFiles((d, name) -> name.endsWith(SingleChronicleQueue.SUFFIX));
+        Assert.assertNotNull(cycleFiles);
+        Arrays.sort(cycleFiles);
+        Assert.assertTrue(cycleFiles[0].delete());
+
+        try (SingleChronicleQueue queue = secondlyBuilder(dir).build()) {
+            queue.refreshDirectoryListing();
+            final BinarySearch.KeyExtractor extractor = BinarySearch.KeyExtractor.atOffset(0);
+
+            // the keys of the deleted cycle are no longer found
+            Assert.assertTrue(BinarySearch.search(queue, summary.minKey(deleted), extractor, summary) < -1);
+
+            final int third = summary.cycles().get(2);
+            final long index = BinarySearch.search(queue, summary.minKey(third) + 20, extractor, summary);
+            Assert.assertEquals(queue.rollCycle().toIndex(third, 2), index);
+            Assert.assertFalse(summary.asked.contains(deleted));
+        }
+    }
+
+    /**
+     * Appends the keys 0, 10, 20... {@code perCycle} to a cycle, to {@code cycles} cycles.
+     *
+     * @return the range of keys appended to each cycle
+     */
+    @NotNull
+    private KeyRanges appendKeys(@NotNull SingleChronicleQueue queue, int cycles, int perCycle) {
+        final KeyRanges ranges = new KeyRanges();
+        final ExcerptAppender appender = queue.acquireAppender();
+        for (int i = 0; i < cycles * perCycle; i++) {
+            if (i > 0 && i % perCycle == 0)
+                time.advanceMillis(RollCycles.TEST_SECONDLY.lengthInMillis());
+            final long key = i * 10L;
+            appender.writeBytes(b -> b.writeLong(key));
+            ranges.record(queue.rollCycle().toCycle(appender.lastIndexAppended()), key);
+        }
+        return ranges;
+    }
+
     @NotNull
     private Wire toWire(int key) {
         final MyData myData = new MyData();
@@ -113,6 +217,38 @@ public class TestBinarySearch extends ChronicleQueueTestBase {
         return result;
     }
 
+    static final class KeyRanges implements BinarySearch.CycleKeySummary {
+        private final TreeMap<Integer, long[]> ranges = new TreeMap<>();
+        // the cycles the search has asked about
+        final Set<Integer> asked = new HashSet<>();
+
+        void record(int cycle, long key) {
+            final long[] range = ranges.computeIfAbsent(cycle, c -> new long[]{key, key});
+            range[0] = Math.min(range[0], key);
+            range[1] = Math.max(range[1], key);
+        }
+
+        List<Integer> cycles() {
+            return new ArrayList<>(ranges.keySet());
+        }
+
+        @Override
+        public boolean hasRange(int cycle) {
+            asked.add(cycle);
+            return ranges.containsKey(cycle);
+        }
+
+        @Override
+        public long minKey(int cycle) {
+            return ranges.get(cycle)[0];
+        }
+
+        @Override
+        public long maxKey(int cycle) {
+            return ranges.get(cycle)[1];
+        }
+    }
+
     public static class MyData extends SelfDescribingMarshallable {
         private int key;
         private String value;
@@ -0,0 +1,163 @@
+package net.openhft.chronicle.queue.reader;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.wire.SelfDescribingMarshallable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ChronicleExporterTest extends ChronicleQueueTestBase {
+    private static final int CYCLES = 3;
+    private static final int TRADES_PER_CYCLE = 10;
+
+    private final SetTimeProvider timeProvider = new SetTimeProvider(System.currentTimeMillis());
+    private Path dataDir;
+    private final List<Long> tradeIndices = new ArrayList<>();
+
+    @Before
+    public void before() {
+        dataDir = getTmpDir().toPath();
+        try (final ChronicleQueue queue = SingleChronicleQueueBuilder.binary(dataDir)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .testBlockSize().build()) {
+            final Trades trades = queue.acquireAppender().methodWriter(Trades.class);
+            final Trade trade = new Trade();
+            for (int c = 0; c < CYCLES; c++) {
+                for (int i = 0; i < TRADES_PER_CYCLE; i++) {
+                    trade.symbol = i == 0 ? "A,\"B\"" : "EURUSD";
+                    trade.quantity = c * 100 + i;
+                    trade.price = 1.5;
+                    trade.buy = i % 2 == 0;
+                    trades.trade(trade);
+                    tradeIndices.add(queue.acquireAppender().lastIndexAppended());
+                }
+                trades.quote("EURUSD", 1.25);
+                timeProvider.advanceMillis(1_000);
+            }
+        }
+    }
+
+    private static List<File> exported(Path dir, String prefix) {
+        final File[] files = dir.toFile().listFiles((d, name) -> name.startsWith(prefix));
+        assertNotNull(files);
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    @Test
+    public void shouldExportEachMethodAndCycleToCsv() throws IOException {
+        final Path out = getTmpDir().toPath();
+        final long rows = new ChronicleExporter()
+                .withBasePath(dataDir)
+                .withOutputPath(out)
+                .asMethodReader(Trades.class)
+                .withThreads(2)
+                .withChunkRows(4)
+                .execute();
+        assertEquals(CYCLES * (TRADES_PER_CYCLE + 1), rows);
+
+        final List<File> tradeFiles = exported(out, "trade.");
+        assertEquals(CYCLES, tradeFiles.size());
+        assertEquals(CYCLES, exported(out, "quote.").size());
+
+        final List<String> lines = Files.readAllLines(tradeFiles.get(1).toPath());
+        assertEquals("index,symbol,quantity,price,buy", lines.get(0));
+        assertEquals(TRADES_PER_CYCLE + 1, lines.size());
+        assertEquals(tradeIndices.get(TRADES_PER_CYCLE) + ",\"A,\"\"B\"\"\",100,1.5,true", lines.get(1));
+        assertEquals(tradeIndices.get(TRADES_PER_CYCLE + 1) + ",EURUSD,101,1.5,false", lines.get(2));
+
+        final List<String> quotes = Files.readAllLines(exported(out, "quote.").get(0).toPath());
+        assertEquals(2, quotes.size());
+        assertTrue(quotes.get(1), quotes.get(1).endsWith(",EURUSD,1.25"));
+    }
+
+    @Test
+    public void shouldExportAnIndexRange() throws IOException {
+        final Path out = getTmpDir().toPath();
+        final long rows = new ChronicleExporter()
+                .withBasePath(dataDir)
+                .withOutputPath(out)
+                .asMethodReader(Trades.class)
+                .withFromIndex(tradeIndices.get(5))
+                .withToIndex(tradeIndices.get(TRADES_PER_CYCLE + 2))
+                .execute();
+        // 5 trades and a quote in the first cycle, 3 trades in the second
+        assertEquals(9, rows);
+        final List<File> tradeFiles = exported(out, "trade.");
+        assertEquals(2, tradeFiles.size());
+        assertEquals(1 + 3, Files.readAllLines(tradeFiles.get(1).toPath()).size());
+    }
+
+    @Test
+    public void shouldExportColumnar() throws IOException {
+        final Path out = getTmpDir().toPath();
+        new ChronicleExporter()
+                .withBasePath(dataDir)
+                .withOutputPath(out)
+                .asMethodReader(Trades.class)
+                .withFormat(ExportFormat.COLUMNAR)
+                .execute();
+
+        final File file = exported(out, "trade.").get(0);
+        assertTrue(file.getName().endsWith(ExportFormat.COLUMNAR.suffix()));
+        final Bytes<byte[]> bytes = Bytes.wrapForRead(Files.readAllBytes(file.toPath()));
+        final byte[] magic = new byte[ExportFormat.MAGIC.length];
+        bytes.read(magic);
+        assertArrayEquals(ExportFormat.MAGIC, magic);
+        assertEquals(5, bytes.readInt());
+        final StringBuilder names = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            names.append(bytes.readUtf8()).append(':').append(bytes.readByte()).append(' ');
+        }
+        assertEquals("index:1 symbol:4 quantity:1 price:2 buy:3 ", names.toString());
+
+        // one chunk
+        assertEquals(TRADES_PER_CYCLE, bytes.readInt());
+        assertEquals(TRADES_PER_CYCLE * 8, bytes.readLong());
+        assertEquals((long) tradeIndices.get(0), bytes.readLong());
+        bytes.readSkip((TRADES_PER_CYCLE - 1) * 8);
+        bytes.readLong();
+        assertEquals("A,\"B\"", bytes.readUtf8());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOverloadedMethods() {
+        new ChronicleExporter()
+                .withBasePath(dataDir)
+                .withOutputPath(getTmpDir().toPath())
+                .asMethodReader(OverloadedTrades.class)
+                .execute();
+    }
+
+    public interface OverloadedTrades extends Trades {
+        void quote(String symbol, double bid, double ask);
+    }
+
+    public interface Trades {
+        void trade(Trade trade);
+
+        void quote(String symbol, double price);
+    }
+
+    public static class Trade extends SelfDescribingMarshallable {
+        String symbol;
+        long quantity;
+        double price;
+        boolean buy;
+    }
+}
@@ -19,9 +19,11 @@ package net.openhft.chronicle.queue.reader;
 
 import net.openhft.chronicle.bytes.MethodReader;
 import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.core.time.SetTimeProvider;
 import net.openhft.chronicle.core.util.Histogram;
 import net.openhft.chronicle.queue.ChronicleQueue;
 import net.openhft.chronicle.queue.QueueTestCommon;
+import net.openhft.chronicle.queue.RollCycles;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
 import net.openhft.chronicle.wire.MessageHistory;
 import org.jetbrains.annotations.NotNull;
@@ -29,13 +31,17 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class ChronicleHistoryReaderTest extends QueueTestCommon {
+    // output percentiles rather than a summary
+    private static final int PERCENTILES = Integer.MIN_VALUE;
 
     @Test
     public void testWithQueueHistoryRecordHistoryInitial() {
@@ -102,6 +108,88 @@ public class ChronicleHistoryReaderTest extends QueueTestCommon {
         }
     }
 
+    @Test
+    public void parallelReadMatchesSequential() {
+        final File queuePath1 = IOTools.createTempFile("parallelHistory1-");
+        final File queuePath2 = IOTools.createTempFile("parallelHistory2-");
+        final SetTimeProvider timeProvider = new SetTimeProvider(System.currentTimeMillis());
+        try {
+            try (ChronicleQueue out = queue(queuePath1, 1)) {
+                final DummyListener writer = out.acquireAppender()
+                        .methodWriterBuilder(DummyListener.class)
+                        .get();
+                for (int i = 0; i < 40; i++)
+                    writer.say("hello" + i);
+            }
+            final long secondCycle;
+            try (ChronicleQueue in = queue(queuePath1, 1);
+                 ChronicleQueue out = ChronicleQueue.singleBuilder(queuePath2).testBlockSize().sourceId(2)
+                         .rollCycle(RollCycles.TEST_SECONDLY).timeProvider(timeProvider).build()) {
+                final DummyListener writer = out.acquireAppender()
+                        .methodWriterBuilder(DummyListener.class)
+                        .get();
+                final AtomicInteger count = new AtomicInteger();
+                final MethodReader reader = in.createTailer().methodReader((DummyListener) msg -> {
+                    // four cycles
+                    if (count.getAndIncrement() % 10 == 0)
+                        timeProvider.advanceMillis(1_000);
+                    writer.say(msg);
+                });
+                while (reader.readOne()) {
+                    // copy all
+                }
+                secondCycle = out.rollCycle().toIndex(out.createTailer().toStart().cycle() + 1, 0);
+            }
+
+            final Map<String, Histogram> sequential = new ChronicleHistoryReader()
+                    .withBasePath(queuePath2.toPath())
+                    .withIgnore(3)
+                    .readChronicle();
+            final Map<String, Histogram> parallel = new ChronicleHistoryReader()
+                    .withBasePath(queuePath2.toPath())
+                    .withIgnore(3)
+                    .withThreads(3)
+                    .readChronicle();
+            assertEquals(sequential.keySet(), parallel.keySet());
+            sequential.forEach((key, histogram) -> {
+                assertEquals(key, 37, parallel.get(key).totalCount());
+                assertArrayEquals(key, histogram.getPercentiles(), parallel.get(key).getPercentiles(), 0.0);
+            });
+
+            // windows of a microsecond, so the messages of each cycle span many of them
+            for (int offset : new int[]{PERCENTILES, -1}) {
+                final List<String> sequentialOutput = readWindows(queuePath2, offset, 1);
+                assertTrue(sequentialOutput.size() > 2);
+                assertEquals(sequentialOutput, readWindows(queuePath2, offset, 3));
+            }
+
+            final Map<String, Histogram> fromSecondCycle = new ChronicleHistoryReader()
+                    .withBasePath(queuePath2.toPath())
+                    .withStartIndex(secondCycle)
+                    .withThreads(2)
+                    .readChronicle();
+            fromSecondCycle.values().forEach(histogram -> assertEquals(30, histogram.totalCount()));
+        } finally {
+            IOTools.deleteDirWithFiles(queuePath1.toString(), queuePath2.toString());
+        }
+    }
+
+    private static List<String> readWindows(File queuePath, int summaryOffset, int threads) {
+        final List<String> output = new ArrayList<>();
+        final ChronicleHistoryReader reader = new ChronicleHistoryReader()
+                .withBasePath(queuePath.toPath())
+                .withMessageSink(output::add)
+                .withTimeUnit(TimeUnit.MICROSECONDS)
+                .withMeasurementWindow(1)
+                .withIgnore(3)
+                .withThreads(threads);
+        if (summaryOffset != PERCENTILES)
+            reader.withSummaryOutput(summaryOffset);
+        reader.readChronicle();
+        reader.outputData();
+        return output;
+    }
+
     @NotNull
     private SingleChronicleQueue queue(File queuePath1, int sourceId) {
         return ChronicleQueue.singleBuilder(queuePath1).testBlockSize().sourceId(sourceId).build();
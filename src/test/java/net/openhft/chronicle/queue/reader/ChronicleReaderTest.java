@@ -4,6 +4,7 @@ import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.OS;
 import net.openhft.chronicle.core.io.AbstractCloseable;
 import net.openhft.chronicle.core.io.AbstractReferenceCounted;
+import net.openhft.chronicle.core.time.SetTimeProvider;
 import net.openhft.chronicle.queue.*;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
@@ -20,6 +21,7 @@ import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
@@ -281,6 +283,69 @@ try (final ChronicleQueue queue = SingleChronicleQueueBuilder.binary(path).rollC
                 forEach(msg -> assertThat(msg, containsString("goodbye")));
     }
 
+    @Test
+    public void shouldFilterByBinaryMatch() {
+        basicReader().withBinaryMatch("text:goodbye").execute();
+
+        assertEquals(24, capturedOutput.size());
+        capturedOutput.stream().filter(msg -> !msg.startsWith("0x")).
+                forEach(msg -> assertThat(msg, containsString("goodbye")));
+    }
+
+    @Test
+    public void shouldFilterByBinaryFieldName() {
+        basicReader().withBinaryMatch("field:say").execute();
+        assertEquals(48, capturedOutput.size());
+
+        capturedOutput.clear();
+        basicReader().withBinaryMatch("field:shout").execute();
+        assertTrue(capturedOutput.isEmpty());
+    }
+
+    @Test
+    public void shouldFilterByBinaryMatchWithDummyMethodReader() {
+        basicReader().asMethodReader(Say.class.getName()).withBinaryMatch("text:goodbye").execute();
+
+        assertFalse(capturedOutput.stream().anyMatch(msg -> msg.contains("hello")));
+        assertEquals(12, capturedOutput.stream().filter(msg -> msg.contains("goodbye")).count());
+    }
+
+    @Test
+    public void shouldReadDummyMethodReaderInParallelInIndexOrder() {
+        basicReader().asMethodReader(Say.class.getName()).withBinaryMatch("text:goodbye").execute();
+        final List<String> sequential = new ArrayList<>(capturedOutput);
+        assertFalse(sequential.isEmpty());
+
+        capturedOutput.clear();
+        basicReader().asMethodReader(Say.class.getName()).withBinaryMatch("text:goodbye").withThreads(4).execute();
+        assertEquals(sequential, new ArrayList<>(capturedOutput));
+    }
+
+    @Test(timeout = 10_000L)
+    public void shouldSearchCyclesInParallelInIndexOrder() {
+        final Path path = getTmpDir().toPath();
+        final SetTimeProvider timeProvider = new SetTimeProvider(System.currentTimeMillis());
+        try (final ChronicleQueue queue = SingleChronicleQueueBuilder.binary(path)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .testBlockSize().build()) {
+            final Say events = queue.acquireAppender().methodWriterBuilder(Say.class).build();
+            for (int i = 0; i < 40; i++) {
+                events.say((i % 3 == 0 ? "hello-" : "goodbye-") + i);
+                if (i % 4 == 3)
+                    timeProvider.advanceMillis(1_000);
+            }
+        }
+
+        final List<String> sequential = new ArrayList<>();
+        new ChronicleReader().withBasePath(path).withBinaryMatch("hello").withMessageSink(sequential::add).execute();
+        assertEquals(28, sequential.size());
+
+        new ChronicleReader().withBasePath(path).withBinaryMatch("hello").withThreads(4)
+                .withMessageSink(capturedOutput::add).execute();
+        assertEquals(sequential, new ArrayList<>(capturedOutput));
+    }
+
     @Test
     public void shouldFilterByMultipleInclusionRegex() {
         basicReader().withInclusionRegex(".*bye$").withInclusionRegex(".*o.*").execute();
@@ -344,6 +409,29 @@ try (final ChronicleQueue queue = SingleChronicleQueueBuilder.binary(path).rollC
                 filter(msg -> !msg.startsWith("0x")).count(), is(24L));
     }
 
+    @Test
+    public void shouldCarryOnFromThePositionSavedWithTheSameTailerId() {
+        basicReader().withTailerId("reader").execute();
+        assertEquals(48, capturedOutput.size());
+        capturedOutput.clear();
+
+        try (final ChronicleQueue queue = SingleChronicleQueueBuilder.binary(dataDir).testBlockSize().build()) {
+            final Say events = queue.acquireAppender().methodWriterBuilder(Say.class).build();
+            events.say("again");
+            events.say("and again");
+        }
+
+        basicReader().withTailerId("reader").execute();
+        assertEquals(4, capturedOutput.size());
+        assertThat(capturedOutput.stream().filter(msg -> !msg.startsWith("0x")).collect(Collectors.toList()).toString(),
+                allOf(containsString("again"), not(containsString("hello"))));
+
+        // another id starts from the beginning
+        capturedOutput.clear();
+        basicReader().withTailerId("other").execute();
+        assertEquals(52, capturedOutput.size());
+    }
+
     @Test
     public void shouldContinueToPollQueueWhenTailModeIsEnabled() {
         final int expectedPollCountWhenDocumentIsEmpty = 3;
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.openhft.chronicle.queue.service;
+
+import net.openhft.chronicle.bytes.MethodReader;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.wire.SelfDescribingMarshallable;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PipelineRunnerTest extends ChronicleQueueTestBase {
+
+    private static void write(File dir, String... symbols) {
+        try (ChronicleQueue queue = ChronicleQueue.singleBuilder(dir).build()) {
+            Quotes quotes = queue.acquireAppender().methodWriter(Quotes.class);
+            for (String symbol : symbols) {
+                quotes.quote(new Quote(symbol, symbol.length()));
+                quotes.trade(symbol);
+            }
+        }
+    }
+
+    private static List<String> read(File dir, int expected) {
+        List<String> quotes = new ArrayList<>();
+        try (ChronicleQueue queue = ChronicleQueue.singleBuilder(dir).build()) {
+            MethodReader reader = queue.createTailer().methodReader(new Quotes() {
+                @Override
+                public void quote(Quote quote) {
+                    quotes.add(quote.symbol + "@" + quote.price);
+                }
+
+                @Override
+                public void trade(String id) {
+                    quotes.add("trade " + id);
+                }
+            });
+            long end = System.currentTimeMillis() + 5_000;
+            while (quotes.size() < expected && System.currentTimeMillis() < end) {
+                if (!reader.readOne())
+                    Thread.yield();
+            }
+            // nothing more
+            while (reader.readOne()) ;
+        }
+        return quotes;
+    }
+
+    @Test
+    public void filtersAndTransformsAndResumes() {
+        File in = getTmpDir();
+        File filtered = getTmpDir();
+        File doubled = getTmpDir();
+        PipelineConfig config = PipelineConfig.fromString("" +
+                "stages: [\n" +
+                "  { name: eurusd, inputs: [ \"" + in + "\" ], inputSourceId: 1, output: \"" + filtered + "\",\n" +
+                "    methods: [ quote ], fields: { symbol: EURUSD } },\n" +
+                "  { name: doubler, inputs: [ \"" + in + "\" ], inputSourceId: 2, output: \"" + doubled + "\",\n" +
+                "    transform: " + Doubler.class.getName() + ", outClass: " + Quotes.class.getName() + " }\n" +
+                "]\n");
+        assertEquals(2, config.stages().size());
+
+        write(in, "EURUSD", "GBPUSD", "EURUSD");
+        try (PipelineRunner runner = new PipelineRunner(config)) {
+            assertEquals(Arrays.asList("EURUSD@6.0", "EURUSD@6.0"), read(filtered, 2));
+            assertEquals(Arrays.asList("EURUSD@12.0", "GBPUSD@12.0", "EURUSD@12.0"), read(doubled, 3));
+            assertEquals(2, runner.stages().get(0).accepted());
+            assertTrue(runner.report().startsWith("eurusd: read="));
+        }
+
+        // only what was written since is read on restart
+        write(in, "EURUSD", "USDJPY");
+        try (PipelineRunner runner = new PipelineRunner(config)) {
+            assertEquals(Arrays.asList("EURUSD@6.0", "EURUSD@6.0", "EURUSD@6.0"), read(filtered, 3));
+            assertEquals(Arrays.asList("EURUSD@12.0", "GBPUSD@12.0", "EURUSD@12.0", "EURUSD@12.0", "USDJPY@12.0"), read(doubled, 5));
+        }
+    }
+
+    public interface Quotes {
+        void quote(Quote quote);
+
+        void trade(String id);
+    }
+
+    public static class Quote extends SelfDescribingMarshallable {
+        String symbol;
+        double price;
+
+        public Quote(String symbol, double price) {
+            this.symbol = symbol;
+            this.price = price;
+        }
+    }
+
+    public static class Doubler implements Quotes {
+        private final Quotes out;
+
+        public Doubler(Quotes out) {
+            this.out = out;
+        }
+
+        @Override
+        public void quote(Quote quote) {
+            out.quote(new Quote(quote.symbol, quote.price * 2));
+        }
+
+        @Override
+        public void trade(String id) {
+        }
+    }
+}